@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -13,6 +14,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  * Esta aplicación proporciona un sistema completo de gestión de citas con arquitectura en capas.
  */
 @SpringBootApplication
+@EnableScheduling
 public class SistemaCitasAndreyApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(SistemaCitasAndreyApplication.class);
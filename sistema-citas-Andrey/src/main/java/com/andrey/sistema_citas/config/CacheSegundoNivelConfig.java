@@ -0,0 +1,100 @@
+package com.andrey.sistema_citas.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuración de la caché de segundo nivel de Hibernate (JCache sobre Caffeine).
+ * Crea cada región con su tamaño máximo (citas.cache.l2.*.maximo) y caducidad desde la carga
+ * (citas.cache.l2.ttl), y entrega el gestor de cachés a Hibernate, que no crea regiones por su cuenta:
+ * una entidad o consulta cacheable sin región declarada aquí impide el arranque.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSegundoNivelConfig.class);
+
+    // Regiones de entidades: coinciden con la región de @Cache en Usuario, Servicio y Profesional
+    public static final String REGION_USUARIO = "usuario";
+    public static final String REGION_SERVICIO = "servicio";
+    public static final String REGION_PROFESIONAL = "profesional";
+
+    public static final String REGION_CONSULTAS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String REGION_MARCAS_TIEMPO = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    public static final List<String> REGIONES = List.of(REGION_USUARIO, REGION_SERVICIO, REGION_PROFESIONAL,
+            REGION_CONSULTAS, REGION_MARCAS_TIEMPO);
+
+    /**
+     * Número máximo de tablas cuya última modificación se registra para la caché de consultas.
+     */
+    private static final long MAXIMO_MARCAS_TIEMPO = 1_000;
+
+    /**
+     * Gestor de cachés con las regiones de segundo nivel. Usa un URI propio para no compartir
+     * el gestor con otros contextos de la misma JVM (pruebas o reinicios de DevTools).
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel(@Value("${citas.cache.l2.usuario.maximo:10000}") long usuarios,
+                                                 @Value("${citas.cache.l2.servicio.maximo:500}") long servicios,
+                                                 @Value("${citas.cache.l2.profesional.maximo:2000}") long profesionales,
+                                                 @Value("${citas.cache.l2.consultas.maximo:1000}") long consultas,
+                                                 @Value("${citas.cache.l2.ttl:PT1H}") Duration ttl) {
+        CachingProvider proveedor = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = proveedor.getCacheManager(
+                URI.create("sistema-citas:segundo-nivel:" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(REGION_USUARIO, region(usuarios, ttl));
+        cacheManager.createCache(REGION_SERVICIO, region(servicios, ttl));
+        cacheManager.createCache(REGION_PROFESIONAL, region(profesionales, ttl));
+        cacheManager.createCache(REGION_CONSULTAS, region(consultas, ttl));
+        // Las marcas de tiempo invalidan la caché de consultas: no deben caducar antes que los resultados
+        cacheManager.createCache(REGION_MARCAS_TIEMPO, region(MAXIMO_MARCAS_TIEMPO, null));
+        logger.info("Caché de segundo nivel: usuarios={}, servicios={}, profesionales={}, consultas={}, ttl={}",
+                usuarios, servicios, profesionales, consultas, ttl);
+        return cacheManager;
+    }
+
+    /**
+     * Entrega a Hibernate el gestor de cachés y le impide crear regiones no declaradas.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerSegundoNivel) {
+        return propiedades -> {
+            propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+            propiedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    /**
+     * Configuración de una región: tamaño máximo, caducidad opcional y estadísticas de Caffeine.
+     * Las entradas se guardan por referencia; Hibernate ya guarda copias desensambladas de las entidades.
+     */
+    private static CaffeineConfiguration<Object, Object> region(long maximo, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setStoreByValue(false);
+        configuracion.setMaximumSize(OptionalLong.of(maximo));
+        if (ttl != null) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuracion.setNativeStatisticsEnabled(true);
+        return configuracion;
+    }
+}
@@ -0,0 +1,74 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.service.AgendaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controlador REST para consultar ventanas de la agenda de un profesional.
+ * Las respuestas llevan un ETag con la versión de la agenda y los límites de la ventana resuelta;
+ * una consulta con If-None-Match sobre la misma ventana cuya versión no cambió recibe
+ * 304 Not Modified sin acceder a la base de datos.
+ * Como alternativa a consultar periódicamente, /stream envía los cambios por Server-Sent Events.
+ */
+@RestController
+@RequestMapping("/api/agenda")
+public class AgendaRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaRestController.class);
+
+    private final AgendaService agendaService;
+
+    public AgendaRestController(AgendaService agendaService) {
+        this.agendaService = agendaService;
+    }
+
+    /**
+     * Obtiene las citas del profesional que comienzan entre desde (incluido) y hasta (excluido).
+     */
+    @GetMapping("/{profesionalId}")
+    public ResponseEntity<List<CitaDTO>> obtenerVentana(
+            @PathVariable Integer profesionalId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            WebRequest request) {
+        // La ventana por defecto depende del día actual: el sello lleva sus límites ya resueltos.
+        // Se obtiene antes de leer las citas para que nunca sea más reciente que los datos
+        AgendaService.Ventana ventana = agendaService.resolver(desde, hasta);
+        String etag = "\"" + agendaService.sello(profesionalId, ventana) + "\"";
+        if (request.checkNotModified(etag)) {
+            logger.debug("GET /api/agenda/{} - Agenda sin cambios", profesionalId);
+            return null;
+        }
+
+        logger.debug("GET /api/agenda/{} - Obteniendo agenda entre {} y {}", profesionalId,
+                ventana.inicio(), ventana.fin());
+        List<CitaDTO> citas = agendaService.ventana(profesionalId, ventana);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(citas);
+    }
+
+    /**
+     * Abre un flujo Server-Sent Events con los cambios confirmados de la agenda del profesional.
+     * Tras el evento conectado, el cliente debe leer la ventana que le interese y aplicar
+     * sobre ella los eventos cita, eliminada y recargar.
+     */
+    @GetMapping(value = "/{profesionalId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir(@PathVariable Integer profesionalId) {
+        logger.debug("GET /api/agenda/{}/stream - Suscripción a los cambios de la agenda", profesionalId);
+        return agendaService.suscribir(profesionalId);
+    }
+}
@@ -0,0 +1,36 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.EstadisticasCacheDTO;
+import com.andrey.sistema_citas.service.MetricasCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST con las métricas de las cachés en memoria.
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheRestController.class);
+
+    private final MetricasCacheService metricasCacheService;
+
+    public CacheRestController(MetricasCacheService metricasCacheService) {
+        this.metricasCacheService = metricasCacheService;
+    }
+
+    /**
+     * Obtiene entradas, aciertos, fallos y desalojos de la caché de servicios y de cada región
+     * de la caché de segundo nivel.
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<EstadisticasCacheDTO>> obtenerEstadisticas() {
+        logger.debug("GET /api/cache/estadisticas - Obteniendo métricas de las cachés");
+        return ResponseEntity.ok(metricasCacheService.obtenerTodas());
+    }
+}
@@ -1,14 +1,27 @@
 package com.andrey.sistema_citas.controller;
 
 import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.PaginaDTO;
+import com.andrey.sistema_citas.dto.ResultadoLoteDTO;
+import com.andrey.sistema_citas.dto.ResultadoTransicionDTO;
+import com.andrey.sistema_citas.dto.TransicionLoteDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.service.CitaExportacionService;
 import com.andrey.sistema_citas.service.CitaService;
+import com.andrey.sistema_citas.util.ControlVersiones;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -22,9 +35,11 @@ public class CitaRestController {
     private static final Logger logger = LoggerFactory.getLogger(CitaRestController.class);
 
     private final CitaService citaService;
+    private final CitaExportacionService citaExportacionService;
 
-    public CitaRestController(CitaService citaService) {
+    public CitaRestController(CitaService citaService, CitaExportacionService citaExportacionService) {
         this.citaService = citaService;
+        this.citaExportacionService = citaExportacionService;
     }
 
     /**
@@ -37,6 +52,18 @@ public class CitaRestController {
         return ResponseEntity.ok(citas);
     }
 
+    /**
+     * Obtiene una página de citas usando paginación por cursor.
+     * Se activa cuando la petición incluye el parámetro limite.
+     */
+    @GetMapping(params = "limite")
+    public ResponseEntity<PaginaDTO<CitaDTO>> obtenerPagina(@RequestParam int limite,
+                                                            @RequestParam(required = false) String cursor) {
+        logger.debug("GET /api/citas?limite={} - Obteniendo página de citas", limite);
+        PaginaDTO<CitaDTO> pagina = citaService.obtenerPagina(cursor, limite);
+        return ResponseEntity.ok(pagina);
+    }
+
     /**
      * Obtiene una cita específica por su ID.
      */
@@ -44,7 +71,7 @@ public class CitaRestController {
     public ResponseEntity<CitaDTO> obtenerPorId(@PathVariable Integer id) {
         logger.debug("GET /api/citas/{} - Obteniendo cita por ID", id);
         CitaDTO cita = citaService.obtenerPorId(id);
-        return ResponseEntity.ok(cita);
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(cita.getVersion())).body(cita);
     }
 
     /**
@@ -57,6 +84,18 @@ public class CitaRestController {
         return ResponseEntity.ok(citas);
     }
 
+    /**
+     * Obtiene una página de citas de un usuario usando paginación por cursor.
+     */
+    @GetMapping(value = "/usuario/{usuarioId}", params = "limite")
+    public ResponseEntity<PaginaDTO<CitaDTO>> obtenerPaginaPorUsuario(@PathVariable Integer usuarioId,
+                                                                      @RequestParam int limite,
+                                                                      @RequestParam(required = false) String cursor) {
+        logger.debug("GET /api/citas/usuario/{}?limite={} - Obteniendo página de citas por usuario", usuarioId, limite);
+        PaginaDTO<CitaDTO> pagina = citaService.obtenerPaginaPorUsuario(usuarioId, cursor, limite);
+        return ResponseEntity.ok(pagina);
+    }
+
     /**
      * Obtiene citas por profesional.
      */
@@ -67,6 +106,19 @@ public class CitaRestController {
         return ResponseEntity.ok(citas);
     }
 
+    /**
+     * Obtiene una página de citas de un profesional usando paginación por cursor.
+     */
+    @GetMapping(value = "/profesional/{profesionalId}", params = "limite")
+    public ResponseEntity<PaginaDTO<CitaDTO>> obtenerPaginaPorProfesional(@PathVariable Integer profesionalId,
+                                                                          @RequestParam int limite,
+                                                                          @RequestParam(required = false) String cursor) {
+        logger.debug("GET /api/citas/profesional/{}?limite={} - Obteniendo página de citas por profesional",
+                profesionalId, limite);
+        PaginaDTO<CitaDTO> pagina = citaService.obtenerPaginaPorProfesional(profesionalId, cursor, limite);
+        return ResponseEntity.ok(pagina);
+    }
+
     /**
      * Obtiene citas por estado.
      */
@@ -77,6 +129,46 @@ public class CitaRestController {
         return ResponseEntity.ok(citas);
     }
 
+    /**
+     * Obtiene una página de citas por estado usando paginación por cursor.
+     */
+    @GetMapping(value = "/estado/{estado}", params = "limite")
+    public ResponseEntity<PaginaDTO<CitaDTO>> obtenerPaginaPorEstado(@PathVariable String estado,
+                                                                     @RequestParam int limite,
+                                                                     @RequestParam(required = false) String cursor) {
+        logger.debug("GET /api/citas/estado/{}?limite={} - Obteniendo página de citas por estado", estado, limite);
+        PaginaDTO<CitaDTO> pagina = citaService.obtenerPaginaPorEstado(estado, cursor, limite);
+        return ResponseEntity.ok(pagina);
+    }
+
+    /**
+     * Exporta las citas en formato NDJSON o CSV escribiendo las filas a medida que se leen.
+     * Admite los mismos filtros que los listados: usuario, profesional, estado y rango de fechas.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = CitaExportacionService.FORMATO_NDJSON) String formato,
+            @RequestParam(required = false) Integer usuarioId,
+            @RequestParam(required = false) Integer profesionalId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        logger.debug("GET /api/citas/exportar?formato={} - Exportando citas", formato);
+        String formatoValido = citaExportacionService.normalizarFormato(formato);
+        boolean csv = CitaExportacionService.FORMATO_CSV.equals(formatoValido);
+        EstadoCita estadoFiltro = EstadoCita.desdeNombre(estado);
+
+        StreamingResponseBody cuerpo = salida -> citaExportacionService.exportar(
+                formatoValido, usuarioId, profesionalId, estadoFiltro, desde, hasta, salida);
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"citas." + formatoValido + "\"")
+                .body(cuerpo);
+    }
+
     /**
      * Crea una nueva cita en el sistema.
      */
@@ -87,15 +179,51 @@ public class CitaRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(citaCreada);
     }
 
+    /**
+     * Crea un conjunto de citas en una sola petición.
+     * La respuesta informa por posición qué filas se crearon y cuáles fueron rechazadas.
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteDTO> crearLote(@RequestBody List<CitaDTO> citas) {
+        logger.debug("POST /api/citas/lote - Creando lote de {} citas", citas.size());
+        ResultadoLoteDTO resultado = citaService.crearLote(citas);
+        return ResponseEntity.ok(resultado);
+    }
+
+    /**
+     * Cambia el estado de todas las citas que cumplen los criterios indicados.
+     * Útil para cancelar la agenda de un profesional en un rango o confirmar citas en bloque.
+     */
+    @PostMapping("/transiciones")
+    public ResponseEntity<ResultadoTransicionDTO> transicionarEnLote(@Valid @RequestBody TransicionLoteDTO transicion) {
+        logger.debug("POST /api/citas/transiciones - Aplicando transición por lotes");
+        ResultadoTransicionDTO resultado = citaService.transicionarEnLote(transicion);
+        return ResponseEntity.ok(resultado);
+    }
+
     /**
      * Actualiza la información de una cita existente.
      */
     @PutMapping("/{id}")
     public ResponseEntity<CitaDTO> actualizar(@PathVariable Integer id, 
-                                               @Valid @RequestBody CitaDTO citaDTO) {
+                                               @Valid @RequestBody CitaDTO citaDTO,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("PUT /api/citas/{} - Actualizando cita", id);
-        CitaDTO citaActualizada = citaService.actualizar(id, citaDTO);
-        return ResponseEntity.ok(citaActualizada);
+        CitaDTO citaActualizada = citaService.actualizar(id, citaDTO, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(citaActualizada.getVersion())).body(citaActualizada);
+    }
+
+    /**
+     * Actualiza parcialmente una cita: solo se modifican los campos presentes en el cuerpo.
+     * Admite If-Match con el ETag obtenido al consultarlo.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<CitaDTO> actualizarParcial(@PathVariable Integer id,
+                                                     @RequestBody CitaDTO cambios,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("PATCH /api/citas/{} - Actualizando parcialmente cita", id);
+        CitaDTO citaActualizada = citaService.actualizarParcial(id, cambios, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(citaActualizada.getVersion())).body(citaActualizada);
     }
 
     /**
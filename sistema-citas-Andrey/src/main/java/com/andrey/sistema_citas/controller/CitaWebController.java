@@ -3,8 +3,6 @@ package com.andrey.sistema_citas.controller;
 import com.andrey.sistema_citas.dto.CitaDTO;
 import com.andrey.sistema_citas.service.CitaService;
 import com.andrey.sistema_citas.service.ProfesionalService;
-import com.andrey.sistema_citas.service.ServicioService;
-import com.andrey.sistema_citas.service.UsuarioService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Controller;
@@ -15,6 +13,8 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 /**
  * Controlador web para gestionar las vistas de citas.
  * Maneja las operaciones CRUD desde la interfaz web.
+ * El formulario no incluye las listas de usuarios, servicios y profesionales: sus campos se
+ * autocompletan con las búsquedas por prefijo de /api/usuarios, /api/servicios y /api/profesionales.
  */
 @Controller
 @RequestMapping("/citas")
@@ -23,25 +23,25 @@ public class CitaWebController {
     private static final Logger logger = LoggerFactory.getLogger(CitaWebController.class);
 
     private final CitaService citaService;
-    private final UsuarioService usuarioService;
-    private final ServicioService servicioService;
     private final ProfesionalService profesionalService;
 
-    public CitaWebController(CitaService citaService, UsuarioService usuarioService,
-                            ServicioService servicioService, ProfesionalService profesionalService) {
+    public CitaWebController(CitaService citaService, ProfesionalService profesionalService) {
         this.citaService = citaService;
-        this.usuarioService = usuarioService;
-        this.servicioService = servicioService;
         this.profesionalService = profesionalService;
     }
 
     /**
-     * Muestra la lista de todas las citas.
+     * Muestra la lista de citas, opcionalmente solo las de un profesional.
+     * Filtrada por profesional, la vista se mantiene al día con el flujo de cambios de su agenda.
      */
     @GetMapping
-    public String listar(Model model) {
-        logger.debug("Mostrando lista de citas");
-        model.addAttribute("citas", citaService.obtenerTodas());
+    public String listar(@RequestParam(required = false) Integer profesionalId, Model model) {
+        logger.debug("Mostrando lista de citas (profesional: {})", profesionalId);
+        model.addAttribute("citas", profesionalId != null
+                ? citaService.obtenerPorProfesional(profesionalId)
+                : citaService.obtenerTodas());
+        model.addAttribute("profesionales", profesionalService.obtenerTodos());
+        model.addAttribute("profesionalId", profesionalId);
         return "citas/lista";
     }
 
@@ -52,9 +52,6 @@ public class CitaWebController {
     public String mostrarFormularioNuevo(Model model) {
         logger.debug("Mostrando formulario de nueva cita");
         model.addAttribute("cita", new CitaDTO());
-        model.addAttribute("usuarios", usuarioService.obtenerTodos());
-        model.addAttribute("servicios", servicioService.obtenerTodos());
-        model.addAttribute("profesionales", profesionalService.obtenerTodos());
         return "citas/formulario";
     }
 
@@ -82,9 +79,6 @@ public class CitaWebController {
     public String mostrarFormularioEditar(@PathVariable Integer id, Model model) {
         logger.debug("Mostrando formulario de edición para cita ID: {}", id);
         model.addAttribute("cita", citaService.obtenerPorId(id));
-        model.addAttribute("usuarios", usuarioService.obtenerTodos());
-        model.addAttribute("servicios", servicioService.obtenerTodos());
-        model.addAttribute("profesionales", profesionalService.obtenerTodos());
         return "citas/formulario";
     }
 
@@ -1,10 +1,14 @@
 package com.andrey.sistema_citas.controller;
 
+import com.andrey.sistema_citas.service.EstadisticasService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import java.time.LocalDate;
+
 /**
  * Controlador para gestionar el dashboard principal del sistema.
  */
@@ -13,12 +17,20 @@ public class DashboardController {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
 
+    private final EstadisticasService estadisticasService;
+
+    public DashboardController(EstadisticasService estadisticasService) {
+        this.estadisticasService = estadisticasService;
+    }
+
     /**
-     * Muestra el dashboard principal.
+     * Muestra el dashboard principal con las estadísticas del día.
+     * La página las actualiza periódicamente desde /api/estadisticas.
      */
     @GetMapping("/dashboard")
-    public String dashboard() {
+    public String dashboard(Model model) {
         logger.debug("Mostrando dashboard principal");
+        model.addAttribute("estadisticas", estadisticasService.obtener(LocalDate.now()));
         return "dashboard";
     }
 }
@@ -0,0 +1,44 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.FranjaDisponibleDTO;
+import com.andrey.sistema_citas.service.DisponibilidadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controlador REST para consultar la disponibilidad de los profesionales.
+ * Devuelve las próximas franjas libres para un servicio determinado.
+ */
+@RestController
+@RequestMapping("/api/disponibilidad")
+public class DisponibilidadRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisponibilidadRestController.class);
+
+    private final DisponibilidadService disponibilidadService;
+
+    public DisponibilidadRestController(DisponibilidadService disponibilidadService) {
+        this.disponibilidadService = disponibilidadService;
+    }
+
+    /**
+     * Obtiene las primeras franjas libres para un servicio, opcionalmente filtradas por especialidad.
+     */
+    @GetMapping
+    public ResponseEntity<List<FranjaDisponibleDTO>> buscar(
+            @RequestParam Integer servicioId,
+            @RequestParam(required = false) String especialidad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(defaultValue = "10") int limite) {
+        logger.debug("GET /api/disponibilidad?servicioId={} - Buscando franjas libres", servicioId);
+        List<FranjaDisponibleDTO> franjas = disponibilidadService.buscar(servicioId, especialidad, desde, hasta, limite);
+        return ResponseEntity.ok(franjas);
+    }
+}
@@ -0,0 +1,39 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.EstadisticasDTO;
+import com.andrey.sistema_citas.service.EstadisticasService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * Controlador REST para consultar las estadísticas de citas del dashboard.
+ * Las cifras se leen de contadores en memoria, sin consultar la base de datos.
+ */
+@RestController
+@RequestMapping("/api/estadisticas")
+public class EstadisticasRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticasRestController.class);
+
+    private final EstadisticasService estadisticasService;
+
+    public EstadisticasRestController(EstadisticasService estadisticasService) {
+        this.estadisticasService = estadisticasService;
+    }
+
+    /**
+     * Obtiene las estadísticas del día indicado (por defecto, el día actual).
+     */
+    @GetMapping
+    public ResponseEntity<EstadisticasDTO> obtener(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        logger.debug("GET /api/estadisticas - Obteniendo estadísticas del día {}", fecha);
+        LocalDate dia = fecha != null ? fecha : LocalDate.now();
+        return ResponseEntity.ok(estadisticasService.obtener(dia));
+    }
+}
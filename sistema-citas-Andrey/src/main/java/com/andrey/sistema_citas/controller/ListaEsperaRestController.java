@@ -0,0 +1,67 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.SolicitudEsperaDTO;
+import com.andrey.sistema_citas.service.ListaEsperaService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para gestionar la lista de espera.
+ * Una solicitud atendida indica en citaId la cita creada para el usuario.
+ */
+@RestController
+@RequestMapping("/api/lista-espera")
+public class ListaEsperaRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListaEsperaRestController.class);
+
+    private final ListaEsperaService listaEsperaService;
+
+    public ListaEsperaRestController(ListaEsperaService listaEsperaService) {
+        this.listaEsperaService = listaEsperaService;
+    }
+
+    /**
+     * Obtiene una solicitud por su ID.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<SolicitudEsperaDTO> obtenerPorId(@PathVariable Integer id) {
+        logger.debug("GET /api/lista-espera/{} - Obteniendo solicitud", id);
+        return ResponseEntity.ok(listaEsperaService.obtenerPorId(id));
+    }
+
+    /**
+     * Obtiene las solicitudes de un usuario.
+     */
+    @GetMapping("/usuario/{usuarioId}")
+    public ResponseEntity<List<SolicitudEsperaDTO>> obtenerPorUsuario(@PathVariable Integer usuarioId) {
+        logger.debug("GET /api/lista-espera/usuario/{} - Obteniendo solicitudes del usuario", usuarioId);
+        return ResponseEntity.ok(listaEsperaService.obtenerPorUsuario(usuarioId));
+    }
+
+    /**
+     * Registra una solicitud en la lista de espera.
+     */
+    @PostMapping
+    public ResponseEntity<SolicitudEsperaDTO> registrar(@Valid @RequestBody SolicitudEsperaDTO solicitudDTO) {
+        logger.debug("POST /api/lista-espera - Registrando solicitud");
+        SolicitudEsperaDTO solicitudCreada = listaEsperaService.registrar(solicitudDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(solicitudCreada);
+    }
+
+    /**
+     * Cancela una solicitud activa.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelar(@PathVariable Integer id) {
+        logger.debug("DELETE /api/lista-espera/{} - Cancelando solicitud", id);
+        listaEsperaService.cancelar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,10 +1,13 @@
 package com.andrey.sistema_citas.controller;
 
 import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
 import com.andrey.sistema_citas.service.ProfesionalService;
+import com.andrey.sistema_citas.util.ControlVersiones;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -44,7 +47,7 @@ public class ProfesionalRestController {
     public ResponseEntity<ProfesionalDTO> obtenerPorId(@PathVariable Integer id) {
         logger.debug("GET /api/profesionales/{} - Obteniendo profesional por ID", id);
         ProfesionalDTO profesional = profesionalService.obtenerPorId(id);
-        return ResponseEntity.ok(profesional);
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(profesional.getVersion())).body(profesional);
     }
 
     /**
@@ -57,6 +60,18 @@ public class ProfesionalRestController {
         return ResponseEntity.ok(profesionales);
     }
 
+    /**
+     * Busca profesionales por el comienzo de cualquier palabra del nombre de su usuario o de su
+     * especialidad, para los campos de autocompletado. Devuelve como mucho el límite indicado
+     * (por defecto 10, máximo 50).
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<SugerenciaDTO>> buscar(@RequestParam(defaultValue = "") String q,
+                                                      @RequestParam(defaultValue = "10") int limite) {
+        logger.debug("GET /api/profesionales/buscar?q={} - Buscando profesionales por prefijo", q);
+        return ResponseEntity.ok(profesionalService.buscar(q, limite));
+    }
+
     /**
      * Crea un nuevo profesional en el sistema.
      */
@@ -72,10 +87,24 @@ public class ProfesionalRestController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<ProfesionalDTO> actualizar(@PathVariable Integer id, 
-                                                      @Valid @RequestBody ProfesionalDTO profesionalDTO) {
+                                                      @Valid @RequestBody ProfesionalDTO profesionalDTO,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("PUT /api/profesionales/{} - Actualizando profesional", id);
-        ProfesionalDTO profesionalActualizado = profesionalService.actualizar(id, profesionalDTO);
-        return ResponseEntity.ok(profesionalActualizado);
+        ProfesionalDTO profesionalActualizado = profesionalService.actualizar(id, profesionalDTO, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(profesionalActualizado.getVersion())).body(profesionalActualizado);
+    }
+
+    /**
+     * Actualiza parcialmente un profesional: solo se modifican los campos presentes en el cuerpo.
+     * Admite If-Match con el ETag obtenido al consultarlo.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProfesionalDTO> actualizarParcial(@PathVariable Integer id,
+                                                            @RequestBody ProfesionalDTO cambios,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("PATCH /api/profesionales/{} - Actualizando parcialmente profesional", id);
+        ProfesionalDTO profesionalActualizado = profesionalService.actualizarParcial(id, cambios, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(profesionalActualizado.getVersion())).body(profesionalActualizado);
     }
 
     /**
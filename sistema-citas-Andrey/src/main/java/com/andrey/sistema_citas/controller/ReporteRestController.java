@@ -0,0 +1,72 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.OcupacionDiariaDTO;
+import com.andrey.sistema_citas.dto.ReconstruccionRollupDTO;
+import com.andrey.sistema_citas.dto.ResumenPeriodoDTO;
+import com.andrey.sistema_citas.service.ReporteService;
+import com.andrey.sistema_citas.service.RollupDiarioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controlador REST para los reportes de ocupación e ingresos.
+ * Los reportes se leen del resumen diario de citas, que también puede reconstruirse desde aquí.
+ */
+@RestController
+@RequestMapping("/api/reportes")
+public class ReporteRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReporteRestController.class);
+
+    private final ReporteService reporteService;
+    private final RollupDiarioService rollupDiarioService;
+
+    public ReporteRestController(ReporteService reporteService, RollupDiarioService rollupDiarioService) {
+        this.reporteService = reporteService;
+        this.rollupDiarioService = rollupDiarioService;
+    }
+
+    /**
+     * Obtiene el resumen diario por profesional, servicio y estado entre dos días (ambos incluidos).
+     */
+    @GetMapping("/ocupacion")
+    public ResponseEntity<List<OcupacionDiariaDTO>> ocupacion(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer profesionalId,
+            @RequestParam(required = false) Integer servicioId) {
+        logger.debug("GET /api/reportes/ocupacion - desde: {}, hasta: {}", desde, hasta);
+        return ResponseEntity.ok(reporteService.ocupacion(desde, hasta, profesionalId, servicioId));
+    }
+
+    /**
+     * Obtiene el total de citas e ingresos por periodo (DIA, SEMANA o MES) y estado.
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<List<ResumenPeriodoDTO>> resumen(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String periodo,
+            @RequestParam(required = false) Integer profesionalId,
+            @RequestParam(required = false) Integer servicioId) {
+        logger.debug("GET /api/reportes/resumen - desde: {}, hasta: {}, periodo: {}", desde, hasta, periodo);
+        return ResponseEntity.ok(reporteService.resumen(desde, hasta, periodo, profesionalId, servicioId));
+    }
+
+    /**
+     * Reconstruye el resumen diario a partir de la tabla de citas, completo o entre dos días.
+     */
+    @PostMapping("/rollup/reconstruir")
+    public ResponseEntity<ReconstruccionRollupDTO> reconstruir(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        logger.info("POST /api/reportes/rollup/reconstruir - desde: {}, hasta: {}", desde, hasta);
+        return ResponseEntity.ok(rollupDiarioService.reconstruir(desde, hasta));
+    }
+}
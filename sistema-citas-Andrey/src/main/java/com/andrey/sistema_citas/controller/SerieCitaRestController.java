@@ -0,0 +1,92 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.SerieCitaDTO;
+import com.andrey.sistema_citas.service.SerieCitaService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controlador REST para gestionar series de citas recurrentes y sus ocurrencias.
+ * Las ocurrencias se identifican por su número dentro de la serie, empezando en 1.
+ */
+@RestController
+@RequestMapping("/api/series")
+public class SerieCitaRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerieCitaRestController.class);
+
+    private final SerieCitaService serieCitaService;
+
+    public SerieCitaRestController(SerieCitaService serieCitaService) {
+        this.serieCitaService = serieCitaService;
+    }
+
+    /**
+     * Obtiene una serie por su ID.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<SerieCitaDTO> obtenerPorId(@PathVariable Integer id) {
+        logger.debug("GET /api/series/{} - Obteniendo serie", id);
+        return ResponseEntity.ok(serieCitaService.obtenerPorId(id));
+    }
+
+    /**
+     * Obtiene las ocurrencias de una serie: citas materializadas y ocurrencias pendientes.
+     */
+    @GetMapping("/{id}/ocurrencias")
+    public ResponseEntity<List<CitaDTO>> obtenerOcurrencias(@PathVariable Integer id) {
+        logger.debug("GET /api/series/{}/ocurrencias - Obteniendo ocurrencias", id);
+        return ResponseEntity.ok(serieCitaService.obtenerOcurrencias(id));
+    }
+
+    /**
+     * Crea una nueva serie de citas.
+     */
+    @PostMapping
+    public ResponseEntity<SerieCitaDTO> crear(@Valid @RequestBody SerieCitaDTO serieDTO) {
+        logger.debug("POST /api/series - Creando nueva serie de citas");
+        SerieCitaDTO serieCreada = serieCitaService.crear(serieDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(serieCreada);
+    }
+
+    /**
+     * Mueve una ocurrencia de la serie a otra fecha y hora.
+     */
+    @PutMapping("/{id}/ocurrencias/{numero}")
+    public ResponseEntity<CitaDTO> moverOcurrencia(
+            @PathVariable Integer id,
+            @PathVariable int numero,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaHora) {
+        logger.debug("PUT /api/series/{}/ocurrencias/{} - Moviendo ocurrencia a {}", id, numero, fechaHora);
+        return ResponseEntity.ok(serieCitaService.moverOcurrencia(id, numero, fechaHora));
+    }
+
+    /**
+     * Cancela una ocurrencia de la serie.
+     */
+    @DeleteMapping("/{id}/ocurrencias/{numero}")
+    public ResponseEntity<Void> cancelarOcurrencia(@PathVariable Integer id, @PathVariable int numero) {
+        logger.debug("DELETE /api/series/{}/ocurrencias/{} - Cancelando ocurrencia", id, numero);
+        serieCitaService.cancelarOcurrencia(id, numero);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Finaliza una serie: elimina sus citas futuras y sus ocurrencias pendientes.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> finalizar(@PathVariable Integer id) {
+        logger.debug("DELETE /api/series/{} - Finalizando serie", id);
+        serieCitaService.finalizar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,10 +1,14 @@
 package com.andrey.sistema_citas.controller;
 
+import com.andrey.sistema_citas.dto.EstadisticasCacheDTO;
 import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
 import com.andrey.sistema_citas.service.ServicioService;
+import com.andrey.sistema_citas.util.ControlVersiones;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -44,7 +48,7 @@ public class ServicioRestController {
     public ResponseEntity<ServicioDTO> obtenerPorId(@PathVariable Integer id) {
         logger.debug("GET /api/servicios/{} - Obteniendo servicio por ID", id);
         ServicioDTO servicio = servicioService.obtenerPorId(id);
-        return ResponseEntity.ok(servicio);
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(servicio.getVersion())).body(servicio);
     }
 
     /**
@@ -57,6 +61,26 @@ public class ServicioRestController {
         return ResponseEntity.ok(servicios);
     }
 
+    /**
+     * Busca servicios por el comienzo de cualquier palabra de su nombre, para los campos de
+     * autocompletado. Devuelve como mucho el límite indicado (por defecto 10, máximo 50).
+     */
+    @GetMapping(value = "/buscar", params = "q")
+    public ResponseEntity<List<SugerenciaDTO>> buscarPorPrefijo(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "10") int limite) {
+        logger.debug("GET /api/servicios/buscar?q={} - Buscando servicios por prefijo", q);
+        return ResponseEntity.ok(servicioService.buscarPorPrefijo(q, limite));
+    }
+
+    /**
+     * Obtiene las métricas de la caché de servicios: entradas, aciertos, fallos y desalojos.
+     */
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<List<EstadisticasCacheDTO>> estadisticasCache() {
+        logger.debug("GET /api/servicios/cache/estadisticas - Obteniendo métricas de la caché");
+        return ResponseEntity.ok(servicioService.estadisticasCache());
+    }
+
     /**
      * Crea un nuevo servicio en el sistema.
      */
@@ -72,10 +96,24 @@ public class ServicioRestController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<ServicioDTO> actualizar(@PathVariable Integer id, 
-                                                   @Valid @RequestBody ServicioDTO servicioDTO) {
+                                                   @Valid @RequestBody ServicioDTO servicioDTO,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("PUT /api/servicios/{} - Actualizando servicio", id);
-        ServicioDTO servicioActualizado = servicioService.actualizar(id, servicioDTO);
-        return ResponseEntity.ok(servicioActualizado);
+        ServicioDTO servicioActualizado = servicioService.actualizar(id, servicioDTO, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(servicioActualizado.getVersion())).body(servicioActualizado);
+    }
+
+    /**
+     * Actualiza parcialmente un servicio: solo se modifican los campos presentes en el cuerpo.
+     * Admite If-Match con el ETag obtenido al consultarlo.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<ServicioDTO> actualizarParcial(@PathVariable Integer id,
+                                                         @RequestBody ServicioDTO cambios,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("PATCH /api/servicios/{} - Actualizando parcialmente servicio", id);
+        ServicioDTO servicioActualizado = servicioService.actualizarParcial(id, cambios, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(servicioActualizado.getVersion())).body(servicioActualizado);
     }
 
     /**
@@ -1,11 +1,14 @@
 package com.andrey.sistema_citas.controller;
 
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
 import com.andrey.sistema_citas.dto.UsuarioDTO;
 import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
 import com.andrey.sistema_citas.service.UsuarioService;
+import com.andrey.sistema_citas.util.ControlVersiones;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -38,6 +41,17 @@ public class UsuarioRestController {
         return ResponseEntity.ok(usuarios);
     }
 
+    /**
+     * Busca usuarios por el comienzo de cualquier palabra de su nombre o de su email, para los campos
+     * de autocompletado. Devuelve como mucho el límite indicado (por defecto 10, máximo 50).
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<SugerenciaDTO>> buscar(@RequestParam(defaultValue = "") String q,
+                                                      @RequestParam(defaultValue = "10") int limite) {
+        logger.debug("GET /api/usuarios/buscar?q={} - Buscando usuarios por prefijo", q);
+        return ResponseEntity.ok(usuarioService.buscar(q, limite));
+    }
+
     /**
      * Obtiene un usuario específico por su ID.
      */
@@ -45,7 +59,7 @@ public class UsuarioRestController {
     public ResponseEntity<UsuarioDTO> obtenerPorId(@PathVariable Integer id) {
         logger.debug("GET /api/usuarios/{} - Obteniendo usuario por ID", id);
         UsuarioDTO usuario = usuarioService.obtenerPorId(id);
-        return ResponseEntity.ok(usuario);
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(usuario.getVersion())).body(usuario);
     }
 
     /**
@@ -63,10 +77,24 @@ public class UsuarioRestController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<UsuarioDTO> actualizar(@PathVariable Integer id, 
-                                                  @Valid @RequestBody UsuarioDTO usuarioDTO) {
+                                                  @Valid @RequestBody UsuarioDTO usuarioDTO,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("PUT /api/usuarios/{} - Actualizando usuario", id);
-        UsuarioDTO usuarioActualizado = usuarioService.actualizar(id, usuarioDTO);
-        return ResponseEntity.ok(usuarioActualizado);
+        UsuarioDTO usuarioActualizado = usuarioService.actualizar(id, usuarioDTO, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(usuarioActualizado.getVersion())).body(usuarioActualizado);
+    }
+
+    /**
+     * Actualiza parcialmente un usuario: solo se modifican los campos presentes en el cuerpo.
+     * Admite If-Match con el ETag obtenido al consultarlo.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<UsuarioDTO> actualizarParcial(@PathVariable Integer id,
+                                                        @RequestBody UsuarioDTO cambios,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("PATCH /api/usuarios/{} - Actualizando parcialmente usuario", id);
+        UsuarioDTO usuarioActualizado = usuarioService.actualizarParcial(id, cambios, ControlVersiones.desdeIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ControlVersiones.etag(usuarioActualizado.getVersion())).body(usuarioActualizado);
     }
 
     /**
@@ -0,0 +1,49 @@
+package com.andrey.sistema_citas.dto;
+
+/**
+ * DTO con la carga de trabajo de un profesional: número de citas activas
+ * (pendientes o confirmadas) asignadas.
+ */
+public class CargaProfesionalDTO {
+
+    private Integer profesionalId;
+
+    private String profesionalNombre;
+
+    private long citasActivas;
+
+    public CargaProfesionalDTO() {
+    }
+
+    public CargaProfesionalDTO(Integer profesionalId, String profesionalNombre, long citasActivas) {
+        this.profesionalId = profesionalId;
+        this.profesionalNombre = profesionalNombre;
+        this.citasActivas = citasActivas;
+    }
+
+    // Getters y Setters
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public String getProfesionalNombre() {
+        return profesionalNombre;
+    }
+
+    public void setProfesionalNombre(String profesionalNombre) {
+        this.profesionalNombre = profesionalNombre;
+    }
+
+    public long getCitasActivas() {
+        return citasActivas;
+    }
+
+    public void setCitasActivas(long citasActivas) {
+        this.citasActivas = citasActivas;
+    }
+}
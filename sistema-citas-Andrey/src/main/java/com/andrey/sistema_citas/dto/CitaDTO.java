@@ -1,5 +1,6 @@
 package com.andrey.sistema_citas.dto;
 
+import com.andrey.sistema_citas.entity.EstadoCita;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -13,6 +14,11 @@ public class CitaDTO {
 
     private Integer id;
 
+    /**
+     * Versión de la cita; si se envía en una actualización debe coincidir con la almacenada.
+     */
+    private Long version;
+
     @NotNull(message = "La fecha y hora de la cita son obligatorias")
     private LocalDateTime fechaHora;
 
@@ -35,11 +41,20 @@ public class CitaDTO {
 
     private String profesionalNombre;
 
+    /**
+     * Serie de la que forma parte la cita y número de la ocurrencia; solo de lectura.
+     * Las ocurrencias de una serie aún no materializadas se devuelven sin id ni versión.
+     */
+    private Integer serieId;
+
+    private Integer numeroSerie;
+
     public CitaDTO() {
     }
 
     public CitaDTO(Integer id, LocalDateTime fechaHora, String estado, Integer usuarioId, String usuarioNombre,
-                   Integer servicioId, String servicioNombre, Integer profesionalId, String profesionalNombre) {
+                   Integer servicioId, String servicioNombre, Integer profesionalId, String profesionalNombre,
+                   Long version) {
         this.id = id;
         this.fechaHora = fechaHora;
         this.estado = estado;
@@ -49,6 +64,19 @@ public class CitaDTO {
         this.servicioNombre = servicioNombre;
         this.profesionalId = profesionalId;
         this.profesionalNombre = profesionalNombre;
+        this.version = version;
+    }
+
+    /**
+     * Constructor usado por las proyecciones JPQL de CitaRepository, que entregan el estado como enum.
+     */
+    public CitaDTO(Integer id, LocalDateTime fechaHora, EstadoCita estado, Integer usuarioId, String usuarioNombre,
+                   Integer servicioId, String servicioNombre, Integer profesionalId, String profesionalNombre,
+                   Long version, Integer serieId, Integer numeroSerie) {
+        this(id, fechaHora, estado != null ? estado.name() : null, usuarioId, usuarioNombre,
+                servicioId, servicioNombre, profesionalId, profesionalNombre, version);
+        this.serieId = serieId;
+        this.numeroSerie = numeroSerie;
     }
 
     // Getters y Setters
@@ -61,6 +89,14 @@ public class CitaDTO {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getFechaHora() {
         return fechaHora;
     }
@@ -125,6 +161,22 @@ public class CitaDTO {
         this.profesionalNombre = profesionalNombre;
     }
 
+    public Integer getSerieId() {
+        return serieId;
+    }
+
+    public void setSerieId(Integer serieId) {
+        this.serieId = serieId;
+    }
+
+    public Integer getNumeroSerie() {
+        return numeroSerie;
+    }
+
+    public void setNumeroSerie(Integer numeroSerie) {
+        this.numeroSerie = numeroSerie;
+    }
+
     @Override
     public String toString() {
         return "CitaDTO{" +
@@ -0,0 +1,77 @@
+package com.andrey.sistema_citas.dto;
+
+/**
+ * DTO con las métricas de una caché en memoria desde el arranque de la aplicación.
+ */
+public class EstadisticasCacheDTO {
+
+    private String nombre;
+    private long entradas;
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private double tasaAciertos;
+
+    public EstadisticasCacheDTO() {
+    }
+
+    public EstadisticasCacheDTO(String nombre, long entradas, long aciertos, long fallos,
+                                long desalojos, double tasaAciertos) {
+        this.nombre = nombre;
+        this.entradas = entradas;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.desalojos = desalojos;
+        this.tasaAciertos = tasaAciertos;
+    }
+
+    // Getters y Setters
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public long getEntradas() {
+        return entradas;
+    }
+
+    public void setEntradas(long entradas) {
+        this.entradas = entradas;
+    }
+
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    public void setAciertos(long aciertos) {
+        this.aciertos = aciertos;
+    }
+
+    public long getFallos() {
+        return fallos;
+    }
+
+    public void setFallos(long fallos) {
+        this.fallos = fallos;
+    }
+
+    public long getDesalojos() {
+        return desalojos;
+    }
+
+    public void setDesalojos(long desalojos) {
+        this.desalojos = desalojos;
+    }
+
+    public double getTasaAciertos() {
+        return tasaAciertos;
+    }
+
+    public void setTasaAciertos(double tasaAciertos) {
+        this.tasaAciertos = tasaAciertos;
+    }
+}
@@ -0,0 +1,89 @@
+package com.andrey.sistema_citas.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con las estadísticas del dashboard: citas de un día por estado,
+ * confirmaciones pendientes y carga por profesional.
+ */
+public class EstadisticasDTO {
+
+    private LocalDate fecha;
+
+    private Map<String, Long> citasPorEstado;
+
+    private long totalCitas;
+
+    private long pendientesConfirmacion;
+
+    private List<CargaProfesionalDTO> cargaPorProfesional;
+
+    private LocalDateTime ultimaReconciliacion;
+
+    public EstadisticasDTO() {
+    }
+
+    public EstadisticasDTO(LocalDate fecha, Map<String, Long> citasPorEstado, long totalCitas,
+                           long pendientesConfirmacion, List<CargaProfesionalDTO> cargaPorProfesional,
+                           LocalDateTime ultimaReconciliacion) {
+        this.fecha = fecha;
+        this.citasPorEstado = citasPorEstado;
+        this.totalCitas = totalCitas;
+        this.pendientesConfirmacion = pendientesConfirmacion;
+        this.cargaPorProfesional = cargaPorProfesional;
+        this.ultimaReconciliacion = ultimaReconciliacion;
+    }
+
+    // Getters y Setters
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDate fecha) {
+        this.fecha = fecha;
+    }
+
+    public Map<String, Long> getCitasPorEstado() {
+        return citasPorEstado;
+    }
+
+    public void setCitasPorEstado(Map<String, Long> citasPorEstado) {
+        this.citasPorEstado = citasPorEstado;
+    }
+
+    public long getTotalCitas() {
+        return totalCitas;
+    }
+
+    public void setTotalCitas(long totalCitas) {
+        this.totalCitas = totalCitas;
+    }
+
+    public long getPendientesConfirmacion() {
+        return pendientesConfirmacion;
+    }
+
+    public void setPendientesConfirmacion(long pendientesConfirmacion) {
+        this.pendientesConfirmacion = pendientesConfirmacion;
+    }
+
+    public List<CargaProfesionalDTO> getCargaPorProfesional() {
+        return cargaPorProfesional;
+    }
+
+    public void setCargaPorProfesional(List<CargaProfesionalDTO> cargaPorProfesional) {
+        this.cargaPorProfesional = cargaPorProfesional;
+    }
+
+    public LocalDateTime getUltimaReconciliacion() {
+        return ultimaReconciliacion;
+    }
+
+    public void setUltimaReconciliacion(LocalDateTime ultimaReconciliacion) {
+        this.ultimaReconciliacion = ultimaReconciliacion;
+    }
+}
@@ -0,0 +1,95 @@
+package com.andrey.sistema_citas.dto;
+
+import com.andrey.sistema_citas.entity.EventoCitaOutbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con un evento de cita tal como se entrega a los destinos del outbox.
+ * El ID es único y creciente, por lo que los consumidores pueden usarlo para descartar
+ * entregas repetidas.
+ */
+public class EventoCitaDTO {
+
+    private Long id;
+
+    private Integer citaId;
+
+    private String tipo;
+
+    private String datos;
+
+    private LocalDateTime creadoEn;
+
+    private int intentos;
+
+    public EventoCitaDTO() {
+    }
+
+    public EventoCitaDTO(Long id, Integer citaId, String tipo, String datos, LocalDateTime creadoEn, int intentos) {
+        this.id = id;
+        this.citaId = citaId;
+        this.tipo = tipo;
+        this.datos = datos;
+        this.creadoEn = creadoEn;
+        this.intentos = intentos;
+    }
+
+    /**
+     * Construye el DTO a partir de una fila del outbox.
+     */
+    public static EventoCitaDTO de(EventoCitaOutbox evento) {
+        return new EventoCitaDTO(evento.getId(), evento.getCitaId(), evento.getTipo().name(), evento.getDatos(),
+                evento.getCreadoEn(), evento.getIntentos());
+    }
+
+    // Getters y Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Integer citaId) {
+        this.citaId = citaId;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public String getDatos() {
+        return datos;
+    }
+
+    public void setDatos(String datos) {
+        this.datos = datos;
+    }
+
+    public LocalDateTime getCreadoEn() {
+        return creadoEn;
+    }
+
+    public void setCreadoEn(LocalDateTime creadoEn) {
+        this.creadoEn = creadoEn;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+}
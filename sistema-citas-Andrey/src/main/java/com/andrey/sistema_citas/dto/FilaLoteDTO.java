@@ -0,0 +1,67 @@
+package com.andrey.sistema_citas.dto;
+
+/**
+ * DTO que describe el resultado de una fila dentro de una operación por lotes.
+ * Contiene el ID generado cuando la fila se procesó correctamente,
+ * o el mensaje de error cuando fue rechazada.
+ */
+public class FilaLoteDTO {
+
+    private int indice;
+
+    private Integer citaId;
+
+    private String error;
+
+    public FilaLoteDTO() {
+    }
+
+    public FilaLoteDTO(int indice, Integer citaId, String error) {
+        this.indice = indice;
+        this.citaId = citaId;
+        this.error = error;
+    }
+
+    public static FilaLoteDTO creada(int indice, Integer citaId) {
+        return new FilaLoteDTO(indice, citaId, null);
+    }
+
+    public static FilaLoteDTO rechazada(int indice, String error) {
+        return new FilaLoteDTO(indice, null, error);
+    }
+
+    // Getters y Setters
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public Integer getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Integer citaId) {
+        this.citaId = citaId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "FilaLoteDTO{" +
+                "indice=" + indice +
+                ", citaId=" + citaId +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
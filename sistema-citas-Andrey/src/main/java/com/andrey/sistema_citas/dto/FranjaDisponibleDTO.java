@@ -0,0 +1,97 @@
+package com.andrey.sistema_citas.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO que representa una franja libre en la agenda de un profesional
+ * con la duración del servicio solicitado.
+ */
+public class FranjaDisponibleDTO {
+
+    private Integer profesionalId;
+
+    private String profesionalNombre;
+
+    private String especialidad;
+
+    private Integer servicioId;
+
+    private LocalDateTime inicio;
+
+    private LocalDateTime fin;
+
+    public FranjaDisponibleDTO() {
+    }
+
+    public FranjaDisponibleDTO(Integer profesionalId, String profesionalNombre, String especialidad,
+                               Integer servicioId, LocalDateTime inicio, LocalDateTime fin) {
+        this.profesionalId = profesionalId;
+        this.profesionalNombre = profesionalNombre;
+        this.especialidad = especialidad;
+        this.servicioId = servicioId;
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    // Getters y Setters
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public String getProfesionalNombre() {
+        return profesionalNombre;
+    }
+
+    public void setProfesionalNombre(String profesionalNombre) {
+        this.profesionalNombre = profesionalNombre;
+    }
+
+    public String getEspecialidad() {
+        return especialidad;
+    }
+
+    public void setEspecialidad(String especialidad) {
+        this.especialidad = especialidad;
+    }
+
+    public Integer getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Integer servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(LocalDateTime inicio) {
+        this.inicio = inicio;
+    }
+
+    public LocalDateTime getFin() {
+        return fin;
+    }
+
+    public void setFin(LocalDateTime fin) {
+        this.fin = fin;
+    }
+
+    @Override
+    public String toString() {
+        return "FranjaDisponibleDTO{" +
+                "profesionalId=" + profesionalId +
+                ", profesionalNombre='" + profesionalNombre + '\'' +
+                ", especialidad='" + especialidad + '\'' +
+                ", servicioId=" + servicioId +
+                ", inicio=" + inicio +
+                ", fin=" + fin +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+package com.andrey.sistema_citas.dto;
+
+import com.andrey.sistema_citas.entity.EstadoCita;
+
+import java.time.LocalDate;
+
+/**
+ * DTO con una fila del resumen diario de citas: citas e ingresos de un profesional
+ * y un servicio en un día y estado.
+ */
+public class OcupacionDiariaDTO {
+
+    private LocalDate fecha;
+
+    private Integer profesionalId;
+
+    private Integer servicioId;
+
+    private String estado;
+
+    private long totalCitas;
+
+    private double ingresos;
+
+    public OcupacionDiariaDTO() {
+    }
+
+    /**
+     * Constructor usado por la proyección JPQL sobre CitaRollupDiaria;
+     * el estado llega con su código de almacenamiento.
+     */
+    public OcupacionDiariaDTO(LocalDate fecha, Integer profesionalId, Integer servicioId, Byte estado,
+                              Long totalCitas, Double ingresos) {
+        this.fecha = fecha;
+        this.profesionalId = profesionalId;
+        this.servicioId = servicioId;
+        this.estado = EstadoCita.desdeCodigo(estado).name();
+        this.totalCitas = totalCitas;
+        this.ingresos = ingresos;
+    }
+
+    // Getters y Setters
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDate fecha) {
+        this.fecha = fecha;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public Integer getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Integer servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public long getTotalCitas() {
+        return totalCitas;
+    }
+
+    public void setTotalCitas(long totalCitas) {
+        this.totalCitas = totalCitas;
+    }
+
+    public double getIngresos() {
+        return ingresos;
+    }
+
+    public void setIngresos(double ingresos) {
+        this.ingresos = ingresos;
+    }
+}
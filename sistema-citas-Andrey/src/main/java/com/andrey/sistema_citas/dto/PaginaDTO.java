@@ -0,0 +1,61 @@
+package com.andrey.sistema_citas.dto;
+
+import java.util.List;
+
+/**
+ * DTO que representa una página de resultados obtenida mediante paginación por cursor.
+ * El campo siguiente contiene un token opaco para solicitar la página posterior,
+ * o null cuando no existen más resultados.
+ */
+public class PaginaDTO<T> {
+
+    private List<T> contenido;
+
+    private String siguiente;
+
+    private int limite;
+
+    public PaginaDTO() {
+    }
+
+    public PaginaDTO(List<T> contenido, String siguiente, int limite) {
+        this.contenido = contenido;
+        this.siguiente = siguiente;
+        this.limite = limite;
+    }
+
+    // Getters y Setters
+
+    public List<T> getContenido() {
+        return contenido;
+    }
+
+    public void setContenido(List<T> contenido) {
+        this.contenido = contenido;
+    }
+
+    public String getSiguiente() {
+        return siguiente;
+    }
+
+    public void setSiguiente(String siguiente) {
+        this.siguiente = siguiente;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+
+    @Override
+    public String toString() {
+        return "PaginaDTO{" +
+                "elementos=" + (contenido != null ? contenido.size() : 0) +
+                ", siguiente='" + siguiente + '\'' +
+                ", limite=" + limite +
+                '}';
+    }
+}
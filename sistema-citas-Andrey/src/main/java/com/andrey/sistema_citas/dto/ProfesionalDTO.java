@@ -13,6 +13,8 @@ public class ProfesionalDTO {
 
     private Integer id;
 
+    private Long version;
+
     @NotBlank(message = "La especialidad es obligatoria")
     @Size(max = 255, message = "La especialidad no puede exceder 255 caracteres")
     private String especialidad;
@@ -27,12 +29,14 @@ public class ProfesionalDTO {
     public ProfesionalDTO() {
     }
 
-    public ProfesionalDTO(Integer id, String especialidad, LocalDateTime horarioDisponible, Integer usuarioId, String usuarioNombre) {
+    public ProfesionalDTO(Integer id, String especialidad, LocalDateTime horarioDisponible, Integer usuarioId, String usuarioNombre,
+                          Long version) {
         this.id = id;
         this.especialidad = especialidad;
         this.horarioDisponible = horarioDisponible;
         this.usuarioId = usuarioId;
         this.usuarioNombre = usuarioNombre;
+        this.version = version;
     }
 
     // Getters y Setters
@@ -45,6 +49,14 @@ public class ProfesionalDTO {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getEspecialidad() {
         return especialidad;
     }
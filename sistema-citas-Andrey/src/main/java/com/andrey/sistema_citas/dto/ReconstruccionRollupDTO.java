@@ -0,0 +1,51 @@
+package com.andrey.sistema_citas.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO con el resultado de reconstruir el resumen diario de citas.
+ * Las fechas son null cuando se reconstruyó el resumen completo.
+ */
+public class ReconstruccionRollupDTO {
+
+    private LocalDate desde;
+
+    private LocalDate hasta;
+
+    private int filas;
+
+    public ReconstruccionRollupDTO() {
+    }
+
+    public ReconstruccionRollupDTO(LocalDate desde, LocalDate hasta, int filas) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.filas = filas;
+    }
+
+    // Getters y Setters
+
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDate desde) {
+        this.desde = desde;
+    }
+
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDate hasta) {
+        this.hasta = hasta;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public void setFilas(int filas) {
+        this.filas = filas;
+    }
+}
@@ -0,0 +1,134 @@
+package com.andrey.sistema_citas.dto;
+
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.TipoRecordatorio;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con los datos que recibe un Notificador para avisar al usuario de una cita próxima.
+ */
+public class RecordatorioDTO {
+
+    private Integer citaId;
+
+    private TipoRecordatorio tipo;
+
+    private LocalDateTime fechaHora;
+
+    private EstadoCita estado;
+
+    private Integer usuarioId;
+
+    private String usuarioNombre;
+
+    private String usuarioEmail;
+
+    private String usuarioTelefono;
+
+    private String servicioNombre;
+
+    private String profesionalNombre;
+
+    public RecordatorioDTO() {
+    }
+
+    /**
+     * Constructor usado por la proyección JPQL sobre Cita; el tipo se asigna al entregarlo.
+     */
+    public RecordatorioDTO(Integer citaId, LocalDateTime fechaHora, EstadoCita estado, Integer usuarioId,
+                           String usuarioNombre, String usuarioEmail, String usuarioTelefono,
+                           String servicioNombre, String profesionalNombre) {
+        this.citaId = citaId;
+        this.fechaHora = fechaHora;
+        this.estado = estado;
+        this.usuarioId = usuarioId;
+        this.usuarioNombre = usuarioNombre;
+        this.usuarioEmail = usuarioEmail;
+        this.usuarioTelefono = usuarioTelefono;
+        this.servicioNombre = servicioNombre;
+        this.profesionalNombre = profesionalNombre;
+    }
+
+    // Getters y Setters
+
+    public Integer getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Integer citaId) {
+        this.citaId = citaId;
+    }
+
+    public TipoRecordatorio getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TipoRecordatorio tipo) {
+        this.tipo = tipo;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public void setFechaHora(LocalDateTime fechaHora) {
+        this.fechaHora = fechaHora;
+    }
+
+    public EstadoCita getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoCita estado) {
+        this.estado = estado;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Integer usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public String getUsuarioNombre() {
+        return usuarioNombre;
+    }
+
+    public void setUsuarioNombre(String usuarioNombre) {
+        this.usuarioNombre = usuarioNombre;
+    }
+
+    public String getUsuarioEmail() {
+        return usuarioEmail;
+    }
+
+    public void setUsuarioEmail(String usuarioEmail) {
+        this.usuarioEmail = usuarioEmail;
+    }
+
+    public String getUsuarioTelefono() {
+        return usuarioTelefono;
+    }
+
+    public void setUsuarioTelefono(String usuarioTelefono) {
+        this.usuarioTelefono = usuarioTelefono;
+    }
+
+    public String getServicioNombre() {
+        return servicioNombre;
+    }
+
+    public void setServicioNombre(String servicioNombre) {
+        this.servicioNombre = servicioNombre;
+    }
+
+    public String getProfesionalNombre() {
+        return profesionalNombre;
+    }
+
+    public void setProfesionalNombre(String profesionalNombre) {
+        this.profesionalNombre = profesionalNombre;
+    }
+}
@@ -0,0 +1,59 @@
+package com.andrey.sistema_citas.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una creación de citas por lotes.
+ * Las filas se identifican por su posición en la petición original.
+ */
+public class ResultadoLoteDTO {
+
+    private int recibidas;
+
+    private List<FilaLoteDTO> creadas = new ArrayList<>();
+
+    private List<FilaLoteDTO> rechazadas = new ArrayList<>();
+
+    public ResultadoLoteDTO() {
+    }
+
+    public ResultadoLoteDTO(int recibidas) {
+        this.recibidas = recibidas;
+    }
+
+    // Getters y Setters
+
+    public int getRecibidas() {
+        return recibidas;
+    }
+
+    public void setRecibidas(int recibidas) {
+        this.recibidas = recibidas;
+    }
+
+    public List<FilaLoteDTO> getCreadas() {
+        return creadas;
+    }
+
+    public void setCreadas(List<FilaLoteDTO> creadas) {
+        this.creadas = creadas;
+    }
+
+    public List<FilaLoteDTO> getRechazadas() {
+        return rechazadas;
+    }
+
+    public void setRechazadas(List<FilaLoteDTO> rechazadas) {
+        this.rechazadas = rechazadas;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoLoteDTO{" +
+                "recibidas=" + recibidas +
+                ", creadas=" + creadas.size() +
+                ", rechazadas=" + rechazadas.size() +
+                '}';
+    }
+}
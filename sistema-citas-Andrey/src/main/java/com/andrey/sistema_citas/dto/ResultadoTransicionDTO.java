@@ -0,0 +1,45 @@
+package com.andrey.sistema_citas.dto;
+
+/**
+ * DTO con el resultado de una transición de estado por lotes.
+ */
+public class ResultadoTransicionDTO {
+
+    private String estadoDestino;
+
+    private int afectadas;
+
+    public ResultadoTransicionDTO() {
+    }
+
+    public ResultadoTransicionDTO(String estadoDestino, int afectadas) {
+        this.estadoDestino = estadoDestino;
+        this.afectadas = afectadas;
+    }
+
+    // Getters y Setters
+
+    public String getEstadoDestino() {
+        return estadoDestino;
+    }
+
+    public void setEstadoDestino(String estadoDestino) {
+        this.estadoDestino = estadoDestino;
+    }
+
+    public int getAfectadas() {
+        return afectadas;
+    }
+
+    public void setAfectadas(int afectadas) {
+        this.afectadas = afectadas;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoTransicionDTO{" +
+                "estadoDestino='" + estadoDestino + '\'' +
+                ", afectadas=" + afectadas +
+                '}';
+    }
+}
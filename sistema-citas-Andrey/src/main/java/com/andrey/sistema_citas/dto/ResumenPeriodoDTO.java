@@ -0,0 +1,61 @@
+package com.andrey.sistema_citas.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO con el total de citas e ingresos de un periodo (día, semana o mes) en un estado.
+ */
+public class ResumenPeriodoDTO {
+
+    private LocalDate inicioPeriodo;
+
+    private String estado;
+
+    private long totalCitas;
+
+    private double ingresos;
+
+    public ResumenPeriodoDTO() {
+    }
+
+    public ResumenPeriodoDTO(LocalDate inicioPeriodo, String estado, long totalCitas, double ingresos) {
+        this.inicioPeriodo = inicioPeriodo;
+        this.estado = estado;
+        this.totalCitas = totalCitas;
+        this.ingresos = ingresos;
+    }
+
+    // Getters y Setters
+
+    public LocalDate getInicioPeriodo() {
+        return inicioPeriodo;
+    }
+
+    public void setInicioPeriodo(LocalDate inicioPeriodo) {
+        this.inicioPeriodo = inicioPeriodo;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public long getTotalCitas() {
+        return totalCitas;
+    }
+
+    public void setTotalCitas(long totalCitas) {
+        this.totalCitas = totalCitas;
+    }
+
+    public double getIngresos() {
+        return ingresos;
+    }
+
+    public void setIngresos(double ingresos) {
+        this.ingresos = ingresos;
+    }
+}
@@ -0,0 +1,194 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para transferir series de citas recurrentes.
+ * La serie termina tras el número de repeticiones indicado, en la fecha hasta, o en lo primero
+ * que ocurra si se indican ambos; al menos uno es obligatorio.
+ */
+public class SerieCitaDTO {
+
+    private Integer id;
+
+    private Long version;
+
+    @NotNull(message = "La fecha y hora de la primera cita son obligatorias")
+    private LocalDateTime fechaInicio;
+
+    @NotBlank(message = "La frecuencia de la serie es obligatoria")
+    private String frecuencia;
+
+    @Positive(message = "El número de repeticiones debe ser positivo")
+    private Integer repeticiones;
+
+    private LocalDate hasta;
+
+    /**
+     * Estado con el que se crean las citas de la serie; por defecto PENDIENTE.
+     */
+    private String estado;
+
+    @NotNull(message = "El usuario es obligatorio")
+    private Integer usuarioId;
+
+    private String usuarioNombre;
+
+    @NotNull(message = "El servicio es obligatorio")
+    private Integer servicioId;
+
+    private String servicioNombre;
+
+    @NotNull(message = "El profesional es obligatorio")
+    private Integer profesionalId;
+
+    private String profesionalNombre;
+
+    /**
+     * Límite de materialización: las ocurrencias anteriores ya existen como citas. Solo de lectura.
+     */
+    private LocalDateTime materializadaHasta;
+
+    private boolean finalizada;
+
+    public SerieCitaDTO() {
+    }
+
+    // Getters y Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getFechaInicio() {
+        return fechaInicio;
+    }
+
+    public void setFechaInicio(LocalDateTime fechaInicio) {
+        this.fechaInicio = fechaInicio;
+    }
+
+    public String getFrecuencia() {
+        return frecuencia;
+    }
+
+    public void setFrecuencia(String frecuencia) {
+        this.frecuencia = frecuencia;
+    }
+
+    public Integer getRepeticiones() {
+        return repeticiones;
+    }
+
+    public void setRepeticiones(Integer repeticiones) {
+        this.repeticiones = repeticiones;
+    }
+
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDate hasta) {
+        this.hasta = hasta;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Integer usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public String getUsuarioNombre() {
+        return usuarioNombre;
+    }
+
+    public void setUsuarioNombre(String usuarioNombre) {
+        this.usuarioNombre = usuarioNombre;
+    }
+
+    public Integer getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Integer servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public String getServicioNombre() {
+        return servicioNombre;
+    }
+
+    public void setServicioNombre(String servicioNombre) {
+        this.servicioNombre = servicioNombre;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public String getProfesionalNombre() {
+        return profesionalNombre;
+    }
+
+    public void setProfesionalNombre(String profesionalNombre) {
+        this.profesionalNombre = profesionalNombre;
+    }
+
+    public LocalDateTime getMaterializadaHasta() {
+        return materializadaHasta;
+    }
+
+    public void setMaterializadaHasta(LocalDateTime materializadaHasta) {
+        this.materializadaHasta = materializadaHasta;
+    }
+
+    public boolean isFinalizada() {
+        return finalizada;
+    }
+
+    public void setFinalizada(boolean finalizada) {
+        this.finalizada = finalizada;
+    }
+
+    @Override
+    public String toString() {
+        return "SerieCitaDTO{" +
+                "id=" + id +
+                ", fechaInicio=" + fechaInicio +
+                ", frecuencia='" + frecuencia + '\'' +
+                ", repeticiones=" + repeticiones +
+                ", hasta=" + hasta +
+                ", profesionalId=" + profesionalId +
+                '}';
+    }
+}
@@ -13,6 +13,8 @@ public class ServicioDTO {
 
     private Integer id;
 
+    private Long version;
+
     @NotBlank(message = "El nombre del servicio es obligatorio")
     @Size(max = 255, message = "El nombre no puede exceder 255 caracteres")
     private String nombre;
@@ -30,12 +32,13 @@ public class ServicioDTO {
     public ServicioDTO() {
     }
 
-    public ServicioDTO(Integer id, String nombre, String descripcion, String duracion, Double precio) {
+    public ServicioDTO(Integer id, String nombre, String descripcion, String duracion, Double precio, Long version) {
         this.id = id;
         this.nombre = nombre;
         this.descripcion = descripcion;
         this.duracion = duracion;
         this.precio = precio;
+        this.version = version;
     }
 
     // Getters y Setters
@@ -48,6 +51,14 @@ public class ServicioDTO {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getNombre() {
         return nombre;
     }
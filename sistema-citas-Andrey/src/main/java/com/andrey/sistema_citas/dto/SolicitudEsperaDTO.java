@@ -0,0 +1,170 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para transferir solicitudes de la lista de espera.
+ * Se puede indicar un profesional o una especialidad; si no se indica ninguno,
+ * la solicitud acepta un hueco con cualquier profesional.
+ */
+public class SolicitudEsperaDTO {
+
+    private Integer id;
+
+    private Long version;
+
+    @NotNull(message = "El usuario es obligatorio")
+    private Integer usuarioId;
+
+    private String usuarioNombre;
+
+    @NotNull(message = "El servicio es obligatorio")
+    private Integer servicioId;
+
+    private String servicioNombre;
+
+    private Integer profesionalId;
+
+    private String especialidad;
+
+    @NotNull(message = "El inicio de la ventana es obligatorio")
+    private LocalDateTime desde;
+
+    @NotNull(message = "El fin de la ventana es obligatorio")
+    private LocalDateTime hasta;
+
+    /**
+     * Urgencia de la solicitud; por defecto NORMAL.
+     */
+    private String urgencia;
+
+    /**
+     * Estado de la solicitud. Solo de lectura.
+     */
+    private String estado;
+
+    private LocalDateTime creadaEn;
+
+    /**
+     * Cita ofrecida al atender la solicitud. Solo de lectura.
+     */
+    private Integer citaId;
+
+    public SolicitudEsperaDTO() {
+    }
+
+    // Getters y Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Integer usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public String getUsuarioNombre() {
+        return usuarioNombre;
+    }
+
+    public void setUsuarioNombre(String usuarioNombre) {
+        this.usuarioNombre = usuarioNombre;
+    }
+
+    public Integer getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Integer servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public String getServicioNombre() {
+        return servicioNombre;
+    }
+
+    public void setServicioNombre(String servicioNombre) {
+        this.servicioNombre = servicioNombre;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public String getEspecialidad() {
+        return especialidad;
+    }
+
+    public void setEspecialidad(String especialidad) {
+        this.especialidad = especialidad;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+
+    public String getUrgencia() {
+        return urgencia;
+    }
+
+    public void setUrgencia(String urgencia) {
+        this.urgencia = urgencia;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public LocalDateTime getCreadaEn() {
+        return creadaEn;
+    }
+
+    public void setCreadaEn(LocalDateTime creadaEn) {
+        this.creadaEn = creadaEn;
+    }
+
+    public Integer getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Integer citaId) {
+        this.citaId = citaId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.andrey.sistema_citas.dto;
+
+/**
+ * DTO con una opción de las búsquedas por prefijo que alimentan los campos de autocompletado:
+ * el ID del elemento, el texto que lo identifica y un detalle para distinguir elementos con el mismo texto.
+ */
+public class SugerenciaDTO {
+
+    private Integer id;
+    private String texto;
+    private String detalle;
+
+    public SugerenciaDTO() {
+    }
+
+    public SugerenciaDTO(Integer id, String texto, String detalle) {
+        this.id = id;
+        this.texto = texto;
+        this.detalle = detalle;
+    }
+
+    // Getters y Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    public void setTexto(String texto) {
+        this.texto = texto;
+    }
+
+    public String getDetalle() {
+        return detalle;
+    }
+
+    public void setDetalle(String detalle) {
+        this.detalle = detalle;
+    }
+}
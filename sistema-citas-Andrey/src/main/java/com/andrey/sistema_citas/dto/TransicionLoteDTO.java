@@ -0,0 +1,88 @@
+package com.andrey.sistema_citas.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import java.time.LocalDateTime;
+
+/**
+ * DTO con los criterios de una transición de estado aplicada a un conjunto de citas.
+ * Todos los criterios son opcionales salvo el estado de destino; los nulos no filtran.
+ * El rango de fechas es semiabierto: [desde, hasta).
+ */
+public class TransicionLoteDTO {
+
+    @NotBlank(message = "El estado de destino es obligatorio")
+    private String estadoDestino;
+
+    private String estadoOrigen;
+
+    private Integer profesionalId;
+
+    private LocalDateTime desde;
+
+    private LocalDateTime hasta;
+
+    public TransicionLoteDTO() {
+    }
+
+    public TransicionLoteDTO(String estadoDestino, String estadoOrigen, Integer profesionalId,
+                             LocalDateTime desde, LocalDateTime hasta) {
+        this.estadoDestino = estadoDestino;
+        this.estadoOrigen = estadoOrigen;
+        this.profesionalId = profesionalId;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    // Getters y Setters
+
+    public String getEstadoDestino() {
+        return estadoDestino;
+    }
+
+    public void setEstadoDestino(String estadoDestino) {
+        this.estadoDestino = estadoDestino;
+    }
+
+    public String getEstadoOrigen() {
+        return estadoOrigen;
+    }
+
+    public void setEstadoOrigen(String estadoOrigen) {
+        this.estadoOrigen = estadoOrigen;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+
+    @Override
+    public String toString() {
+        return "TransicionLoteDTO{" +
+                "estadoDestino='" + estadoDestino + '\'' +
+                ", estadoOrigen='" + estadoOrigen + '\'' +
+                ", profesionalId=" + profesionalId +
+                ", desde=" + desde +
+                ", hasta=" + hasta +
+                '}';
+    }
+}
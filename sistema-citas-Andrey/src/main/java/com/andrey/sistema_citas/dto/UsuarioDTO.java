@@ -13,6 +13,8 @@ public class UsuarioDTO {
 
     private Integer id;
 
+    private Long version;
+
     @NotBlank(message = "El nombre es obligatorio")
     @Size(max = 255, message = "El nombre no puede exceder 255 caracteres")
     private String nombre;
@@ -32,13 +34,15 @@ public class UsuarioDTO {
     public UsuarioDTO() {
     }
 
-    public UsuarioDTO(Integer id, String nombre, String email, String telefono, LocalDateTime fechaRegistro, String rol) {
+    public UsuarioDTO(Integer id, String nombre, String email, String telefono, LocalDateTime fechaRegistro, String rol,
+                      Long version) {
         this.id = id;
         this.nombre = nombre;
         this.email = email;
         this.telefono = telefono;
         this.fechaRegistro = fechaRegistro;
         this.rol = rol;
+        this.version = version;
     }
 
     // Getters y Setters
@@ -51,6 +55,14 @@ public class UsuarioDTO {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getNombre() {
         return nombre;
     }
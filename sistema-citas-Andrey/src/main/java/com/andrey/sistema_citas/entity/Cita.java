@@ -1,43 +1,116 @@
 package com.andrey.sistema_citas.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Entidad que representa una cita en el sistema.
  * Una cita vincula a un usuario (cliente), un profesional y un servicio específico.
+ * Los índices declarados aquí se crean mediante las migraciones de db/migration.
+ * Las relaciones se cargan de forma diferida; cada caso de uso indica lo que necesita
+ * mediante los grafos de entidad declarados aquí.
  */
 @Entity
-@Table(name = "cita")
+@Table(name = "cita", uniqueConstraints = {
+        @UniqueConstraint(name = Cita.RESTRICCION_FRANJA, columnNames = "slot_clave"),
+        @UniqueConstraint(name = "uk_cita_serie_numero", columnNames = {"serie_id", "numero_serie"})
+}, indexes = {
+        @Index(name = "idx_cita_usuario_estado", columnList = "usuario_id, estado"),
+        @Index(name = "idx_cita_usuario_fecha_id", columnList = "usuario_id, fecha_hora, id"),
+        @Index(name = "idx_cita_estado_fecha_id", columnList = "estado, fecha_hora, id"),
+        @Index(name = "idx_cita_profesional_fecha_id", columnList = "profesional_id, fecha_hora, id"),
+        @Index(name = "idx_cita_fecha_id", columnList = "fecha_hora, id")
+})
+@NamedEntityGraph(name = Cita.GRAFO_DETALLE, attributeNodes = {
+        @NamedAttributeNode("usuario"),
+        @NamedAttributeNode("servicio"),
+        @NamedAttributeNode(value = "profesional", subgraph = "profesional")
+}, subgraphs = @NamedSubgraph(name = "profesional", attributeNodes = @NamedAttributeNode("usuario")))
+@NamedEntityGraph(name = Cita.GRAFO_AGENDA, attributeNodes = @NamedAttributeNode("servicio"))
+@DynamicUpdate
 public class Cita {
 
+    /**
+     * Nombre de la restricción única que impide dos citas activas del mismo profesional
+     * con la misma hora de inicio, incluso entre distintas instancias de la aplicación.
+     */
+    public static final String RESTRICCION_FRANJA = "uk_cita_slot";
+
+    /**
+     * Grafo con todas las relaciones necesarias para construir un CitaDTO.
+     */
+    public static final String GRAFO_DETALLE = "Cita.detalle";
+
+    /**
+     * Grafo con el servicio, necesario para calcular el intervalo que ocupa la cita en la agenda.
+     */
+    public static final String GRAFO_AGENDA = "Cita.agenda";
+
+    /**
+     * El ID se obtiene de la secuencia cita_seq con asignación en bloques de 50,
+     * lo que permite a Hibernate agrupar las inserciones en lotes JDBC.
+     * En MySQL la secuencia se emula con una tabla.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cita_seq")
+    @SequenceGenerator(name = "cita_seq", sequenceName = "cita_seq", allocationSize = 50)
     private Integer id;
 
+    /**
+     * Versión para el bloqueo optimista: Hibernate la incrementa en cada UPDATE
+     * y rechaza la escritura si otra transacción la modificó antes.
+     * Las transiciones por lotes de CitaRepository la incrementan explícitamente.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "fecha_hora", nullable = false)
     private LocalDateTime fechaHora;
 
-    @Column(nullable = false, length = 255)
-    private String estado;
+    /**
+     * Estado almacenado como código TINYINT mediante EstadoCitaConverter.
+     */
+    @Column(nullable = false)
+    private EstadoCita estado;
+
+    /**
+     * Clave de franja "profesional:fecha_hora" mantenida por la propia entidad.
+     * Es null para las citas canceladas, de modo que no bloquean la franja.
+     */
+    @Column(name = "slot_clave", length = 40)
+    private String slotClave;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    /**
+     * Serie de la que proviene la cita y número de la ocurrencia dentro de ella,
+     * o null si la cita se creó de forma individual. La restricción única sobre ambos
+     * impide materializar dos veces la misma ocurrencia.
+     */
+    @Column(name = "serie_id")
+    private Integer serieId;
+
+    @Column(name = "numero_serie")
+    private Integer numeroSerie;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "servicio_id", nullable = false)
     private Servicio servicio;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "profesional_id", nullable = false)
     private Profesional profesional;
 
     public Cita() {
-        this.estado = "PENDIENTE";
+        this.estado = EstadoCita.PENDIENTE;
     }
 
-    public Cita(LocalDateTime fechaHora, String estado, Usuario usuario, Servicio servicio, Profesional profesional) {
+    public Cita(LocalDateTime fechaHora, EstadoCita estado, Usuario usuario, Servicio servicio, Profesional profesional) {
         this.fechaHora = fechaHora;
         this.estado = estado;
         this.usuario = usuario;
@@ -45,6 +118,19 @@ public class Cita {
         this.profesional = profesional;
     }
 
+    /**
+     * Recalcula la clave de franja antes de insertar o actualizar la cita.
+     */
+    @PrePersist
+    @PreUpdate
+    void actualizarSlotClave() {
+        if (profesional == null || fechaHora == null || estado == null || !estado.ocupaHorario()) {
+            this.slotClave = null;
+        } else {
+            this.slotClave = profesional.getId() + ":" + fechaHora.truncatedTo(ChronoUnit.MINUTES);
+        }
+    }
+
     // Getters y Setters
 
     public Integer getId() {
@@ -55,6 +141,14 @@ public class Cita {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getFechaHora() {
         return fechaHora;
     }
@@ -63,14 +157,34 @@ public class Cita {
         this.fechaHora = fechaHora;
     }
 
-    public String getEstado() {
+    public EstadoCita getEstado() {
         return estado;
     }
 
-    public void setEstado(String estado) {
+    public void setEstado(EstadoCita estado) {
         this.estado = estado;
     }
 
+    public String getSlotClave() {
+        return slotClave;
+    }
+
+    public Integer getSerieId() {
+        return serieId;
+    }
+
+    public void setSerieId(Integer serieId) {
+        this.serieId = serieId;
+    }
+
+    public Integer getNumeroSerie() {
+        return numeroSerie;
+    }
+
+    public void setNumeroSerie(Integer numeroSerie) {
+        this.numeroSerie = numeroSerie;
+    }
+
     public Usuario getUsuario() {
         return usuario;
     }
@@ -100,7 +214,7 @@ public class Cita {
         return "Cita{" +
                 "id=" + id +
                 ", fechaHora=" + fechaHora +
-                ", estado='" + estado + '\'' +
+                ", estado=" + estado +
                 '}';
     }
 }
@@ -0,0 +1,102 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Clave del resumen diario de citas: día, profesional, servicio y estado.
+ * El estado se guarda con su código de EstadoCita, ya que los convertidores
+ * no se aplican a los atributos de una clave.
+ */
+@Embeddable
+public class CitaRollupDiariaId implements Serializable {
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "profesional_id", nullable = false)
+    private Integer profesionalId;
+
+    @Column(name = "servicio_id", nullable = false)
+    private Integer servicioId;
+
+    @Column(nullable = false)
+    private Byte estado;
+
+    public CitaRollupDiariaId() {
+    }
+
+    public CitaRollupDiariaId(LocalDate fecha, Integer profesionalId, Integer servicioId, EstadoCita estado) {
+        this.fecha = fecha;
+        this.profesionalId = profesionalId;
+        this.servicioId = servicioId;
+        this.estado = estado.getCodigo();
+    }
+
+    // Getters y Setters
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDate fecha) {
+        this.fecha = fecha;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public void setProfesionalId(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public Integer getServicioId() {
+        return servicioId;
+    }
+
+    public void setServicioId(Integer servicioId) {
+        this.servicioId = servicioId;
+    }
+
+    public EstadoCita getEstado() {
+        return estado == null ? null : EstadoCita.desdeCodigo(estado);
+    }
+
+    public void setEstado(EstadoCita estado) {
+        this.estado = estado == null ? null : estado.getCodigo();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CitaRollupDiariaId otra)) {
+            return false;
+        }
+        return Objects.equals(fecha, otra.fecha)
+                && Objects.equals(profesionalId, otra.profesionalId)
+                && Objects.equals(servicioId, otra.servicioId)
+                && Objects.equals(estado, otra.estado);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fecha, profesionalId, servicioId, estado);
+    }
+
+    @Override
+    public String toString() {
+        return "CitaRollupDiariaId{" +
+                "fecha=" + fecha +
+                ", profesionalId=" + profesionalId +
+                ", servicioId=" + servicioId +
+                ", estado=" + getEstado() +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.andrey.sistema_citas.entity;
+
+import java.util.Locale;
+
+/**
+ * Estados posibles de una cita.
+ * Cada estado tiene un código fijo que es el valor almacenado en la columna cita.estado (TINYINT),
+ * de modo que el orden de declaración puede cambiar sin alterar los datos guardados.
+ */
+public enum EstadoCita {
+
+    PENDIENTE((byte) 0),
+    CONFIRMADA((byte) 1),
+    COMPLETADA((byte) 2),
+    CANCELADA((byte) 3),
+    EXPIRADA((byte) 4);
+
+    private static final EstadoCita[] POR_CODIGO = new EstadoCita[values().length];
+
+    static {
+        for (EstadoCita estado : values()) {
+            POR_CODIGO[estado.codigo] = estado;
+        }
+    }
+
+    private final byte codigo;
+
+    EstadoCita(byte codigo) {
+        this.codigo = codigo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Indica si una cita en este estado ocupa el horario del profesional.
+     * Las citas canceladas liberan su franja.
+     */
+    public boolean ocupaHorario() {
+        return this != CANCELADA;
+    }
+
+    /**
+     * Obtiene el estado a partir de su código almacenado.
+     */
+    public static EstadoCita desdeCodigo(byte codigo) {
+        if (codigo < 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Código de estado de cita no válido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+
+    /**
+     * Obtiene el estado a partir de su nombre legible, sin distinguir mayúsculas.
+     * Devuelve null si el nombre está vacío.
+     */
+    public static EstadoCita desdeNombre(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Estado de cita no válido: " + nombre);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Convierte EstadoCita a su código de un byte para almacenarlo como TINYINT.
+ * Se aplica automáticamente a todos los atributos de tipo EstadoCita.
+ */
+@Converter(autoApply = true)
+public class EstadoCitaConverter implements AttributeConverter<EstadoCita, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(EstadoCita estado) {
+        return estado == null ? null : estado.getCodigo();
+    }
+
+    @Override
+    public EstadoCita convertToEntityAttribute(Byte codigo) {
+        return codigo == null ? null : EstadoCita.desdeCodigo(codigo);
+    }
+}
@@ -0,0 +1,42 @@
+package com.andrey.sistema_citas.entity;
+
+/**
+ * Estados de una solicitud de la lista de espera.
+ * Solo las solicitudes activas esperan un hueco; el resto se conserva como historial.
+ * El código es el valor almacenado en la columna solicitud_espera.estado (TINYINT).
+ */
+public enum EstadoSolicitudEspera {
+
+    ACTIVA((byte) 0),
+    ATENDIDA((byte) 1),
+    CANCELADA((byte) 2),
+    VENCIDA((byte) 3);
+
+    private static final EstadoSolicitudEspera[] POR_CODIGO = new EstadoSolicitudEspera[values().length];
+
+    static {
+        for (EstadoSolicitudEspera estado : values()) {
+            POR_CODIGO[estado.codigo] = estado;
+        }
+    }
+
+    private final byte codigo;
+
+    EstadoSolicitudEspera(byte codigo) {
+        this.codigo = codigo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtiene el estado a partir de su código almacenado.
+     */
+    public static EstadoSolicitudEspera desdeCodigo(byte codigo) {
+        if (codigo < 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Código de estado de solicitud no válido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+}
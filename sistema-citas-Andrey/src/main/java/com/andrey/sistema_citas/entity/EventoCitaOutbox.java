@@ -0,0 +1,133 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de cita pendiente de despachar (patrón outbox transaccional).
+ * Se escribe en la misma transacción que el cambio de la cita, de modo que el evento existe
+ * si y solo si el cambio se confirmó, y se elimina una vez entregado al destino configurado.
+ * Los eventos que agotan sus reintentos se marcan como fallidos y permanecen en la tabla.
+ */
+@Entity
+@Table(name = "cita_outbox", indexes = {
+        @Index(name = "idx_outbox_cita", columnList = "cita_id, id")
+})
+public class EventoCitaOutbox {
+
+    /**
+     * ID autoincremental asignado al insertar la fila antes del commit; su orden es el orden de despacho.
+     * OutboxService inserta las filas con JDBC, por lo que la entidad solo se usa para leerlas y posponerlas.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Cita afectada; null en las transiciones por lotes.
+     */
+    @Column(name = "cita_id")
+    private Integer citaId;
+
+    @Column(nullable = false)
+    private Byte tipo;
+
+    /**
+     * Datos del evento en JSON.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String datos;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime creadoEn;
+
+    @Column(nullable = false)
+    private int intentos;
+
+    /**
+     * Momento a partir del cual el evento puede despacharse; se pospone tras cada fallo.
+     */
+    @Column(name = "disponible_en", nullable = false)
+    private LocalDateTime disponibleEn;
+
+    @Column(nullable = false)
+    private boolean fallido;
+
+    public EventoCitaOutbox() {
+    }
+
+    public EventoCitaOutbox(Integer citaId, TipoEventoCita tipo, String datos, LocalDateTime creadoEn) {
+        this.citaId = citaId;
+        this.tipo = tipo.getCodigo();
+        this.datos = datos;
+        this.creadoEn = creadoEn;
+        this.disponibleEn = creadoEn;
+    }
+
+    // Getters y Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Integer citaId) {
+        this.citaId = citaId;
+    }
+
+    public TipoEventoCita getTipo() {
+        return tipo == null ? null : TipoEventoCita.desdeCodigo(tipo);
+    }
+
+    public void setTipo(TipoEventoCita tipo) {
+        this.tipo = tipo == null ? null : tipo.getCodigo();
+    }
+
+    public String getDatos() {
+        return datos;
+    }
+
+    public void setDatos(String datos) {
+        this.datos = datos;
+    }
+
+    public LocalDateTime getCreadoEn() {
+        return creadoEn;
+    }
+
+    public void setCreadoEn(LocalDateTime creadoEn) {
+        this.creadoEn = creadoEn;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public LocalDateTime getDisponibleEn() {
+        return disponibleEn;
+    }
+
+    public void setDisponibleEn(LocalDateTime disponibleEn) {
+        this.disponibleEn = disponibleEn;
+    }
+
+    public boolean isFallido() {
+        return fallido;
+    }
+
+    public void setFallido(boolean fallido) {
+        this.fallido = fallido;
+    }
+}
@@ -0,0 +1,75 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Cambio aplicado a una ocurrencia de una serie que aún no se ha materializado como cita:
+ * la ocurrencia se cancela o se mueve a otra fecha y hora.
+ * Al materializarse la ocurrencia la excepción se descarta, ya que la cita pasa a ser la referencia.
+ */
+@Embeddable
+public class ExcepcionSerie {
+
+    @Column(nullable = false)
+    private boolean cancelada;
+
+    /**
+     * Nueva fecha y hora de la ocurrencia; null si está cancelada.
+     */
+    @Column(name = "fecha_hora")
+    private LocalDateTime fechaHora;
+
+    public ExcepcionSerie() {
+    }
+
+    private ExcepcionSerie(boolean cancelada, LocalDateTime fechaHora) {
+        this.cancelada = cancelada;
+        this.fechaHora = fechaHora;
+    }
+
+    public static ExcepcionSerie cancelada() {
+        return new ExcepcionSerie(true, null);
+    }
+
+    public static ExcepcionSerie movida(LocalDateTime fechaHora) {
+        return new ExcepcionSerie(false, fechaHora);
+    }
+
+    // Getters y Setters
+
+    public boolean isCancelada() {
+        return cancelada;
+    }
+
+    public void setCancelada(boolean cancelada) {
+        this.cancelada = cancelada;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public void setFechaHora(LocalDateTime fechaHora) {
+        this.fechaHora = fechaHora;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExcepcionSerie otra)) {
+            return false;
+        }
+        return cancelada == otra.cancelada && Objects.equals(fechaHora, otra.fechaHora);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cancelada, fechaHora);
+    }
+}
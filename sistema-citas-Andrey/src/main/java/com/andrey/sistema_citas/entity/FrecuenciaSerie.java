@@ -0,0 +1,65 @@
+package com.andrey.sistema_citas.entity;
+
+import java.util.Locale;
+
+/**
+ * Frecuencia con la que se repiten las ocurrencias de una serie de citas.
+ * El código es el valor almacenado en la columna serie_cita.frecuencia (TINYINT).
+ */
+public enum FrecuenciaSerie {
+
+    SEMANAL((byte) 0, 1),
+    QUINCENAL((byte) 1, 2);
+
+    private static final FrecuenciaSerie[] POR_CODIGO = new FrecuenciaSerie[values().length];
+
+    static {
+        for (FrecuenciaSerie frecuencia : values()) {
+            POR_CODIGO[frecuencia.codigo] = frecuencia;
+        }
+    }
+
+    private final byte codigo;
+    private final int semanas;
+
+    FrecuenciaSerie(byte codigo, int semanas) {
+        this.codigo = codigo;
+        this.semanas = semanas;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Semanas entre dos ocurrencias consecutivas.
+     */
+    public int getSemanas() {
+        return semanas;
+    }
+
+    /**
+     * Obtiene la frecuencia a partir de su código almacenado.
+     */
+    public static FrecuenciaSerie desdeCodigo(byte codigo) {
+        if (codigo < 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Código de frecuencia no válido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+
+    /**
+     * Obtiene la frecuencia a partir de su nombre, sin distinguir mayúsculas.
+     * Devuelve null si el nombre es null o vacío.
+     */
+    public static FrecuenciaSerie desdeNombre(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Frecuencia de serie no válida: " + nombre);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.andrey.sistema_citas.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -8,26 +13,44 @@ import java.util.List;
 /**
  * Entidad que representa un profesional del centro de ayuda emocional y psicológica.
  * Cada profesional está vinculado a un usuario y puede atender múltiples citas.
+ * El usuario se carga de forma diferida; las consultas que lo necesitan usan el grafo GRAFO_USUARIO.
  */
 @Entity
-@Table(name = "profesional")
+@Table(name = "profesional", indexes = {
+        @Index(name = "idx_profesional_especialidad", columnList = "especialidad")
+})
+@NamedEntityGraph(name = Profesional.GRAFO_USUARIO, attributeNodes = @NamedAttributeNode("usuario"))
+@BatchSize(size = 50)
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "profesional")
 public class Profesional {
 
+    /**
+     * Grafo con el usuario asociado, necesario para construir un ProfesionalDTO.
+     */
+    public static final String GRAFO_USUARIO = "Profesional.usuario";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false, length = 255)
     private String especialidad;
 
     @Column(name = "horario_disponible")
     private LocalDateTime horarioDisponible;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
 
     @OneToMany(mappedBy = "profesional", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<Cita> citas = new ArrayList<>();
 
     public Profesional() {
@@ -49,6 +72,14 @@ public class Profesional {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getEspecialidad() {
         return especialidad;
     }
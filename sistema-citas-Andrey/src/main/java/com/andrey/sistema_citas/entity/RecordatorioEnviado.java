@@ -0,0 +1,61 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un recordatorio ya entregado, con la fecha de la cita a la que se refería.
+ * Permite que, tras un reinicio, los recordatorios vuelvan a programarse sin repetir los
+ * enviados; si la cita se reprograma, la nueva fecha no coincide y el recordatorio se envía de nuevo.
+ */
+@Entity
+@Table(name = "recordatorio_enviado", indexes = {
+        @Index(name = "idx_recordatorio_fecha_cita", columnList = "fecha_cita")
+})
+public class RecordatorioEnviado {
+
+    @EmbeddedId
+    private RecordatorioEnviadoId id;
+
+    @Column(name = "fecha_cita", nullable = false)
+    private LocalDateTime fechaCita;
+
+    @Column(name = "enviado_en", nullable = false)
+    private LocalDateTime enviadoEn;
+
+    public RecordatorioEnviado() {
+    }
+
+    public RecordatorioEnviado(RecordatorioEnviadoId id, LocalDateTime fechaCita, LocalDateTime enviadoEn) {
+        this.id = id;
+        this.fechaCita = fechaCita;
+        this.enviadoEn = enviadoEn;
+    }
+
+    // Getters y Setters
+
+    public RecordatorioEnviadoId getId() {
+        return id;
+    }
+
+    public void setId(RecordatorioEnviadoId id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getFechaCita() {
+        return fechaCita;
+    }
+
+    public void setFechaCita(LocalDateTime fechaCita) {
+        this.fechaCita = fechaCita;
+    }
+
+    public LocalDateTime getEnviadoEn() {
+        return enviadoEn;
+    }
+
+    public void setEnviadoEn(LocalDateTime enviadoEn) {
+        this.enviadoEn = enviadoEn;
+    }
+}
@@ -0,0 +1,71 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Clave de un recordatorio enviado: cita y tipo de recordatorio.
+ * El tipo se guarda con su código de TipoRecordatorio.
+ */
+@Embeddable
+public class RecordatorioEnviadoId implements Serializable {
+
+    @Column(name = "cita_id", nullable = false)
+    private Integer citaId;
+
+    @Column(nullable = false)
+    private Byte tipo;
+
+    public RecordatorioEnviadoId() {
+    }
+
+    public RecordatorioEnviadoId(Integer citaId, TipoRecordatorio tipo) {
+        this.citaId = citaId;
+        this.tipo = tipo.getCodigo();
+    }
+
+    // Getters y Setters
+
+    public Integer getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Integer citaId) {
+        this.citaId = citaId;
+    }
+
+    public TipoRecordatorio getTipo() {
+        return tipo == null ? null : TipoRecordatorio.desdeCodigo(tipo);
+    }
+
+    public void setTipo(TipoRecordatorio tipo) {
+        this.tipo = tipo == null ? null : tipo.getCodigo();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RecordatorioEnviadoId otra)) {
+            return false;
+        }
+        return Objects.equals(citaId, otra.citaId) && Objects.equals(tipo, otra.tipo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(citaId, tipo);
+    }
+
+    @Override
+    public String toString() {
+        return "RecordatorioEnviadoId{" +
+                "citaId=" + citaId +
+                ", tipo=" + getTipo() +
+                '}';
+    }
+}
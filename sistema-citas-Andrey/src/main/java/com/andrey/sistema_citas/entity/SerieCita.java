@@ -0,0 +1,237 @@
+package com.andrey.sistema_citas.entity;
+
+import com.andrey.sistema_citas.util.ExpansionSerie;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serie de citas recurrentes de un usuario con un profesional y un servicio.
+ * La serie guarda la regla de repetición (frecuencia y fin por número de repeticiones o por fecha)
+ * en lugar de una fila por ocurrencia. Las ocurrencias anteriores a materializadaHasta existen
+ * como citas enlazadas a la serie; las posteriores se calculan bajo demanda con ExpansionSerie.
+ * Los cambios puntuales de ocurrencias aún no materializadas se guardan como excepciones.
+ */
+@Entity
+@Table(name = "serie_cita", indexes = {
+        @Index(name = "idx_serie_profesional_finalizada", columnList = "profesional_id, finalizada"),
+        @Index(name = "idx_serie_finalizada_materializada", columnList = "finalizada, materializada_hasta")
+})
+@NamedEntityGraph(name = SerieCita.GRAFO_DETALLE, attributeNodes = {
+        @NamedAttributeNode("usuario"),
+        @NamedAttributeNode("servicio"),
+        @NamedAttributeNode(value = "profesional", subgraph = "profesional"),
+        @NamedAttributeNode("excepciones")
+}, subgraphs = @NamedSubgraph(name = "profesional", attributeNodes = @NamedAttributeNode("usuario")))
+@NamedEntityGraph(name = SerieCita.GRAFO_AGENDA, attributeNodes = {
+        @NamedAttributeNode("servicio"),
+        @NamedAttributeNode("excepciones")
+})
+public class SerieCita {
+
+    /**
+     * Grafo con las relaciones necesarias para construir las citas de la serie y sus DTO.
+     */
+    public static final String GRAFO_DETALLE = "SerieCita.detalle";
+
+    /**
+     * Grafo con lo necesario para calcular los intervalos que ocupan las ocurrencias.
+     */
+    public static final String GRAFO_AGENDA = "SerieCita.agenda";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Fecha y hora de la primera ocurrencia; las siguientes conservan el día de la semana y la hora.
+     */
+    @Column(name = "fecha_inicio", nullable = false)
+    private LocalDateTime fechaInicio;
+
+    @Column(nullable = false)
+    private Byte frecuencia;
+
+    /**
+     * Número total de ocurrencias; null si la serie termina por fecha.
+     */
+    private Integer repeticiones;
+
+    /**
+     * Último día en que puede haber una ocurrencia; null si la serie termina por número de repeticiones.
+     */
+    private LocalDate hasta;
+
+    /**
+     * Estado con el que se materializan las ocurrencias.
+     */
+    @Column(nullable = false)
+    private EstadoCita estado;
+
+    /**
+     * Límite de materialización: toda ocurrencia con inicio anterior ya existe como cita.
+     */
+    @Column(name = "materializada_hasta", nullable = false)
+    private LocalDateTime materializadaHasta;
+
+    /**
+     * Indica que la serie no tiene ocurrencias pendientes de materializar.
+     */
+    @Column(nullable = false)
+    private boolean finalizada;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "servicio_id", nullable = false)
+    private Servicio servicio;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profesional_id", nullable = false)
+    private Profesional profesional;
+
+    /**
+     * Excepciones de las ocurrencias pendientes, por número de ocurrencia.
+     */
+    @ElementCollection
+    @CollectionTable(name = "serie_cita_excepcion", joinColumns = @JoinColumn(name = "serie_id"))
+    @MapKeyColumn(name = "numero")
+    private Map<Integer, ExcepcionSerie> excepciones = new HashMap<>();
+
+    public SerieCita() {
+        this.estado = EstadoCita.PENDIENTE;
+    }
+
+    /**
+     * Construye la expansión de la serie con su estado actual.
+     */
+    public ExpansionSerie expansion() {
+        return new ExpansionSerie(fechaInicio, getFrecuencia(), repeticiones, hasta, materializadaHasta, excepciones);
+    }
+
+    // Getters y Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getFechaInicio() {
+        return fechaInicio;
+    }
+
+    public void setFechaInicio(LocalDateTime fechaInicio) {
+        this.fechaInicio = fechaInicio;
+    }
+
+    public FrecuenciaSerie getFrecuencia() {
+        return frecuencia == null ? null : FrecuenciaSerie.desdeCodigo(frecuencia);
+    }
+
+    public void setFrecuencia(FrecuenciaSerie frecuencia) {
+        this.frecuencia = frecuencia == null ? null : frecuencia.getCodigo();
+    }
+
+    public Integer getRepeticiones() {
+        return repeticiones;
+    }
+
+    public void setRepeticiones(Integer repeticiones) {
+        this.repeticiones = repeticiones;
+    }
+
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDate hasta) {
+        this.hasta = hasta;
+    }
+
+    public EstadoCita getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoCita estado) {
+        this.estado = estado;
+    }
+
+    public LocalDateTime getMaterializadaHasta() {
+        return materializadaHasta;
+    }
+
+    public void setMaterializadaHasta(LocalDateTime materializadaHasta) {
+        this.materializadaHasta = materializadaHasta;
+    }
+
+    public boolean isFinalizada() {
+        return finalizada;
+    }
+
+    public void setFinalizada(boolean finalizada) {
+        this.finalizada = finalizada;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+
+    public Servicio getServicio() {
+        return servicio;
+    }
+
+    public void setServicio(Servicio servicio) {
+        this.servicio = servicio;
+    }
+
+    public Profesional getProfesional() {
+        return profesional;
+    }
+
+    public void setProfesional(Profesional profesional) {
+        this.profesional = profesional;
+    }
+
+    public Map<Integer, ExcepcionSerie> getExcepciones() {
+        return excepciones;
+    }
+
+    public void setExcepciones(Map<Integer, ExcepcionSerie> excepciones) {
+        this.excepciones = excepciones;
+    }
+
+    @Override
+    public String toString() {
+        return "SerieCita{" +
+                "id=" + id +
+                ", fechaInicio=" + fechaInicio +
+                ", frecuencia=" + getFrecuencia() +
+                ", repeticiones=" + repeticiones +
+                ", hasta=" + hasta +
+                '}';
+    }
+}
@@ -1,6 +1,11 @@
 package com.andrey.sistema_citas.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,13 +14,23 @@ import java.util.List;
  * Los servicios pueden incluir terapia individual, grupal, orientación, entre otros.
  */
 @Entity
-@Table(name = "servicio")
+@Table(name = "servicio", indexes = {
+        @Index(name = "idx_servicio_precio", columnList = "precio")
+})
+@BatchSize(size = 50)
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "servicio")
 public class Servicio {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false, length = 255)
     private String nombre;
 
@@ -29,6 +44,7 @@ public class Servicio {
     private Double precio;
 
     @OneToMany(mappedBy = "servicio", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<Cita> citas = new ArrayList<>();
 
     public Servicio() {
@@ -51,6 +67,14 @@ public class Servicio {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getNombre() {
         return nombre;
     }
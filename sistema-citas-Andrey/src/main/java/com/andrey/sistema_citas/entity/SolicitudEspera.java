@@ -0,0 +1,197 @@
+package com.andrey.sistema_citas.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Solicitud de un usuario en la lista de espera: quiere una cita para un servicio que comience
+ * dentro de la ventana [desde, hasta). La solicitud puede fijar un profesional, una especialidad
+ * o ninguno de los dos, en cuyo caso sirve cualquier profesional.
+ * Al liberarse un hueco compatible, la solicitud se atiende creando una cita y guardando su id.
+ */
+@Entity
+@Table(name = "solicitud_espera", indexes = {
+        @Index(name = "idx_espera_estado_hasta", columnList = "estado, hasta"),
+        @Index(name = "idx_espera_usuario", columnList = "usuario_id, estado")
+})
+@NamedEntityGraph(name = SolicitudEspera.GRAFO_DETALLE, attributeNodes = {
+        @NamedAttributeNode("usuario"),
+        @NamedAttributeNode("servicio")
+})
+@NamedEntityGraph(name = SolicitudEspera.GRAFO_SERVICIO, attributeNodes = @NamedAttributeNode("servicio"))
+public class SolicitudEspera {
+
+    /**
+     * Grafo con las relaciones necesarias para construir el DTO de la solicitud.
+     */
+    public static final String GRAFO_DETALLE = "SolicitudEspera.detalle";
+
+    /**
+     * Grafo con el servicio, necesario para conocer la duración del hueco que busca la solicitud.
+     */
+    public static final String GRAFO_SERVICIO = "SolicitudEspera.servicio";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "servicio_id", nullable = false)
+    private Servicio servicio;
+
+    /**
+     * Profesional solicitado; null si sirve cualquiera de la especialidad o cualquier profesional.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "profesional_id")
+    private Profesional profesional;
+
+    /**
+     * Especialidad solicitada; solo se usa cuando no se fija un profesional.
+     */
+    private String especialidad;
+
+    @Column(nullable = false)
+    private LocalDateTime desde;
+
+    @Column(nullable = false)
+    private LocalDateTime hasta;
+
+    @Column(nullable = false)
+    private Byte urgencia;
+
+    @Column(nullable = false)
+    private Byte estado;
+
+    @Column(name = "creada_en", nullable = false)
+    private LocalDateTime creadaEn;
+
+    /**
+     * Cita ofrecida al atender la solicitud.
+     */
+    @Column(name = "cita_id")
+    private Integer citaId;
+
+    public SolicitudEspera() {
+        this.urgencia = UrgenciaEspera.NORMAL.getCodigo();
+        this.estado = EstadoSolicitudEspera.ACTIVA.getCodigo();
+    }
+
+    // Getters y Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
+
+    public Servicio getServicio() {
+        return servicio;
+    }
+
+    public void setServicio(Servicio servicio) {
+        this.servicio = servicio;
+    }
+
+    public Profesional getProfesional() {
+        return profesional;
+    }
+
+    public void setProfesional(Profesional profesional) {
+        this.profesional = profesional;
+    }
+
+    public String getEspecialidad() {
+        return especialidad;
+    }
+
+    public void setEspecialidad(String especialidad) {
+        this.especialidad = especialidad;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+
+    public UrgenciaEspera getUrgencia() {
+        return urgencia == null ? null : UrgenciaEspera.desdeCodigo(urgencia);
+    }
+
+    public void setUrgencia(UrgenciaEspera urgencia) {
+        this.urgencia = urgencia == null ? null : urgencia.getCodigo();
+    }
+
+    public EstadoSolicitudEspera getEstado() {
+        return estado == null ? null : EstadoSolicitudEspera.desdeCodigo(estado);
+    }
+
+    public void setEstado(EstadoSolicitudEspera estado) {
+        this.estado = estado == null ? null : estado.getCodigo();
+    }
+
+    public LocalDateTime getCreadaEn() {
+        return creadaEn;
+    }
+
+    public void setCreadaEn(LocalDateTime creadaEn) {
+        this.creadaEn = creadaEn;
+    }
+
+    public Integer getCitaId() {
+        return citaId;
+    }
+
+    public void setCitaId(Integer citaId) {
+        this.citaId = citaId;
+    }
+
+    @Override
+    public String toString() {
+        return "SolicitudEspera{" +
+                "id=" + id +
+                ", desde=" + desde +
+                ", hasta=" + hasta +
+                ", urgencia=" + getUrgencia() +
+                ", estado=" + getEstado() +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.andrey.sistema_citas.entity;
+
+/**
+ * Tipos de evento de cita registrados en la tabla cita_outbox.
+ * El código es el valor almacenado en la columna tipo (TINYINT).
+ */
+public enum TipoEventoCita {
+
+    CREADA((byte) 0),
+    ACTUALIZADA((byte) 1),
+    CAMBIO_ESTADO((byte) 2),
+    ELIMINADA((byte) 3),
+    TRANSICION_LOTE((byte) 4);
+
+    private static final TipoEventoCita[] POR_CODIGO = new TipoEventoCita[values().length];
+
+    static {
+        for (TipoEventoCita tipo : values()) {
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    private final byte codigo;
+
+    TipoEventoCita(byte codigo) {
+        this.codigo = codigo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtiene el tipo a partir de su código almacenado.
+     */
+    public static TipoEventoCita desdeCodigo(byte codigo) {
+        if (codigo < 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Código de evento de cita no válido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+}
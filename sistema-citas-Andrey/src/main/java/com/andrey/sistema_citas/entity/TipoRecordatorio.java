@@ -0,0 +1,51 @@
+package com.andrey.sistema_citas.entity;
+
+import java.time.Duration;
+
+/**
+ * Recordatorios que se envían antes de cada cita confirmada.
+ * Se declaran de mayor a menor antelación; el código es el valor almacenado en
+ * la columna recordatorio_enviado.tipo (TINYINT).
+ */
+public enum TipoRecordatorio {
+
+    VEINTICUATRO_HORAS((byte) 0, Duration.ofHours(24)),
+    UNA_HORA((byte) 1, Duration.ofHours(1));
+
+    private static final TipoRecordatorio[] POR_CODIGO = new TipoRecordatorio[values().length];
+
+    static {
+        for (TipoRecordatorio tipo : values()) {
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    private final byte codigo;
+    private final Duration antelacion;
+
+    TipoRecordatorio(byte codigo, Duration antelacion) {
+        this.codigo = codigo;
+        this.antelacion = antelacion;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Tiempo antes del inicio de la cita en que se envía el recordatorio.
+     */
+    public Duration getAntelacion() {
+        return antelacion;
+    }
+
+    /**
+     * Obtiene el tipo a partir de su código almacenado.
+     */
+    public static TipoRecordatorio desdeCodigo(byte codigo) {
+        if (codigo < 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Código de recordatorio no válido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+}
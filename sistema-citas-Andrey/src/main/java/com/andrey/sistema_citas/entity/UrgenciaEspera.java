@@ -0,0 +1,59 @@
+package com.andrey.sistema_citas.entity;
+
+import java.util.Locale;
+
+/**
+ * Urgencia de una solicitud de la lista de espera. Las solicitudes más urgentes reciben
+ * primero los huecos liberados; a igual urgencia se respeta el orden de llegada.
+ * El código es el valor almacenado en la columna solicitud_espera.urgencia (TINYINT)
+ * y crece con la urgencia.
+ */
+public enum UrgenciaEspera {
+
+    NORMAL((byte) 0),
+    ALTA((byte) 1),
+    URGENTE((byte) 2);
+
+    private static final UrgenciaEspera[] POR_CODIGO = new UrgenciaEspera[values().length];
+
+    static {
+        for (UrgenciaEspera urgencia : values()) {
+            POR_CODIGO[urgencia.codigo] = urgencia;
+        }
+    }
+
+    private final byte codigo;
+
+    UrgenciaEspera(byte codigo) {
+        this.codigo = codigo;
+    }
+
+    public byte getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtiene la urgencia a partir de su código almacenado.
+     */
+    public static UrgenciaEspera desdeCodigo(byte codigo) {
+        if (codigo < 0 || codigo >= POR_CODIGO.length || POR_CODIGO[codigo] == null) {
+            throw new IllegalArgumentException("Código de urgencia no válido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+
+    /**
+     * Obtiene la urgencia a partir de su nombre, sin distinguir mayúsculas.
+     * Devuelve null si el nombre es null o vacío.
+     */
+    public static UrgenciaEspera desdeNombre(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Urgencia no válida: " + nombre);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.andrey.sistema_citas.event;
+
+/**
+ * Evento publicado por CitaService cada vez que una cita se crea, actualiza o elimina.
+ * Contiene el resumen anterior y el actual de la cita; el anterior es null en la creación
+ * y el actual es null en la eliminación.
+ * Los consumidores que mantienen estado en memoria deben escucharlo después del commit.
+ */
+public final class CitaCambioEvent {
+
+    /**
+     * Tipo de cambio aplicado a la cita.
+     */
+    public enum Tipo {
+        CREADA,
+        ACTUALIZADA,
+        ELIMINADA
+    }
+
+    private final Tipo tipo;
+    private final CitaResumen anterior;
+    private final CitaResumen actual;
+
+    public CitaCambioEvent(Tipo tipo, CitaResumen anterior, CitaResumen actual) {
+        this.tipo = tipo;
+        this.anterior = anterior;
+        this.actual = actual;
+    }
+
+    public static CitaCambioEvent creada(CitaResumen actual) {
+        return new CitaCambioEvent(Tipo.CREADA, null, actual);
+    }
+
+    public static CitaCambioEvent actualizada(CitaResumen anterior, CitaResumen actual) {
+        return new CitaCambioEvent(Tipo.ACTUALIZADA, anterior, actual);
+    }
+
+    public static CitaCambioEvent eliminada(CitaResumen anterior) {
+        return new CitaCambioEvent(Tipo.ELIMINADA, anterior, null);
+    }
+
+    /**
+     * Devuelve el ID de la cita afectada.
+     */
+    public Integer getCitaId() {
+        return actual != null ? actual.getId() : anterior.getId();
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public CitaResumen getAnterior() {
+        return anterior;
+    }
+
+    public CitaResumen getActual() {
+        return actual;
+    }
+
+    @Override
+    public String toString() {
+        return "CitaCambioEvent{" +
+                "tipo=" + tipo +
+                ", anterior=" + anterior +
+                ", actual=" + actual +
+                '}';
+    }
+}
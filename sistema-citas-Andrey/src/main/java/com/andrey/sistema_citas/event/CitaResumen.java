@@ -0,0 +1,117 @@
+package com.andrey.sistema_citas.event;
+
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.util.DuracionServicio;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen inmutable del estado de una cita en un instante dado.
+ * Se adjunta a los eventos de cambio para que los consumidores no necesiten
+ * volver a consultar la base de datos ni acceder a entidades gestionadas.
+ */
+public final class CitaResumen {
+
+    private final Integer id;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fin;
+    private final EstadoCita estado;
+    private final Integer usuarioId;
+    private final Integer servicioId;
+    private final Integer profesionalId;
+    private final Double precio;
+
+    public CitaResumen(Integer id, LocalDateTime inicio, LocalDateTime fin, EstadoCita estado,
+                       Integer usuarioId, Integer servicioId, Integer profesionalId, Double precio) {
+        this.id = id;
+        this.inicio = inicio;
+        this.fin = fin;
+        this.estado = estado;
+        this.usuarioId = usuarioId;
+        this.servicioId = servicioId;
+        this.profesionalId = profesionalId;
+        this.precio = precio;
+    }
+
+    /**
+     * Construye el resumen a partir de una entidad Cita con sus relaciones cargadas.
+     */
+    public static CitaResumen de(Cita cita) {
+        return de(cita.getId(), cita.getFechaHora(), cita.getEstado(),
+                cita.getUsuario(), cita.getServicio(), cita.getProfesional());
+    }
+
+    /**
+     * Construye el resumen de una cita con los datos indicados, lo que permite validar
+     * un cambio antes de aplicarlo a la entidad.
+     */
+    public static CitaResumen de(Integer id, LocalDateTime fechaHora, EstadoCita estado,
+                                 Usuario usuario, Servicio servicio, Profesional profesional) {
+        int minutos = DuracionServicio.enMinutos(servicio.getDuracion());
+        return new CitaResumen(
+                id,
+                fechaHora,
+                fechaHora.plusMinutes(minutos),
+                estado,
+                usuario.getId(),
+                servicio.getId(),
+                profesional.getId(),
+                servicio.getPrecio()
+        );
+    }
+
+    /**
+     * Indica si la cita ocupa el horario del profesional.
+     * Las citas canceladas liberan su franja.
+     */
+    public boolean ocupaHorario() {
+        return estado.ocupaHorario();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFin() {
+        return fin;
+    }
+
+    public EstadoCita getEstado() {
+        return estado;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Integer getServicioId() {
+        return servicioId;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public Double getPrecio() {
+        return precio;
+    }
+
+    @Override
+    public String toString() {
+        return "CitaResumen{" +
+                "id=" + id +
+                ", inicio=" + inicio +
+                ", fin=" + fin +
+                ", estado=" + estado +
+                ", profesionalId=" + profesionalId +
+                '}';
+    }
+}
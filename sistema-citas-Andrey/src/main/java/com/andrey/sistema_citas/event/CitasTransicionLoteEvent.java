@@ -0,0 +1,95 @@
+package com.andrey.sistema_citas.event;
+
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evento publicado cuando un conjunto de citas cambia de estado mediante una única
+ * sentencia UPDATE. Como las filas afectadas no se cargan, el evento describe los criterios
+ * aplicados; los consumidores con estado en memoria deben recalcular la parte afectada.
+ * Un profesionalId null indica que la transición pudo afectar a cualquier profesional.
+ * Los grupos, contados antes del UPDATE, indican cuántas citas salieron de cada estado por día
+ * y profesional; su suma puede diferir de las afectadas si otra transacción cambió citas entre ambas sentencias.
+ */
+public final class CitasTransicionLoteEvent {
+
+    private final EstadoCita estadoOrigen;
+    private final EstadoCita estadoDestino;
+    private final Integer profesionalId;
+    private final LocalDateTime desde;
+    private final LocalDateTime hasta;
+    private final int afectadas;
+    private final List<Grupo> grupos;
+
+    public CitasTransicionLoteEvent(EstadoCita estadoOrigen, EstadoCita estadoDestino, Integer profesionalId,
+                                    LocalDateTime desde, LocalDateTime hasta, int afectadas, List<Grupo> grupos) {
+        this.estadoOrigen = estadoOrigen;
+        this.estadoDestino = estadoDestino;
+        this.profesionalId = profesionalId;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.afectadas = afectadas;
+        this.grupos = List.copyOf(grupos);
+    }
+
+    public EstadoCita getEstadoOrigen() {
+        return estadoOrigen;
+    }
+
+    public EstadoCita getEstadoDestino() {
+        return estadoDestino;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public int getAfectadas() {
+        return afectadas;
+    }
+
+    /**
+     * Los grupos no se incluyen al serializar el evento: los criterios bastan para describir la transición.
+     */
+    @JsonIgnore
+    public List<Grupo> getGrupos() {
+        return grupos;
+    }
+
+    /**
+     * Indica si los grupos cubren exactamente las citas afectadas por la transición.
+     */
+    public boolean gruposCompletos() {
+        return grupos.stream().mapToLong(Grupo::citas).sum() == afectadas;
+    }
+
+    @Override
+    public String toString() {
+        return "CitasTransicionLoteEvent{" +
+                "estadoOrigen=" + estadoOrigen +
+                ", estadoDestino=" + estadoDestino +
+                ", profesionalId=" + profesionalId +
+                ", desde=" + desde +
+                ", hasta=" + hasta +
+                ", afectadas=" + afectadas +
+                '}';
+    }
+
+    /**
+     * Número de citas de un profesional que, en un día, pasaron del estado indicado al de destino.
+     */
+    public record Grupo(LocalDate dia, EstadoCita estado, Integer profesionalId, long citas) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.andrey.sistema_citas.event;
+
+/**
+ * Evento publicado cuando cambian los datos de un profesional (al crearlo, modificarlo o eliminarlo)
+ * o un dato que se muestra con varios profesionales, como el nombre de su usuario.
+ * Lo consumen los componentes que mantienen copias en memoria de los profesionales.
+ */
+public final class ProfesionalCambioEvent {
+
+    private final Integer profesionalId;
+
+    private ProfesionalCambioEvent(Integer profesionalId) {
+        this.profesionalId = profesionalId;
+    }
+
+    public static ProfesionalCambioEvent de(Integer profesionalId) {
+        return new ProfesionalCambioEvent(profesionalId);
+    }
+
+    public static ProfesionalCambioEvent todos() {
+        return new ProfesionalCambioEvent(null);
+    }
+
+    /**
+     * ID del profesional afectado; null si el cambio puede afectar a cualquiera.
+     */
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    @Override
+    public String toString() {
+        return "ProfesionalCambioEvent{" +
+                "profesionalId=" + profesionalId +
+                '}';
+    }
+}
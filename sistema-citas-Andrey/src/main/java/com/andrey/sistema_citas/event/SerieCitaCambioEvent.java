@@ -0,0 +1,34 @@
+package com.andrey.sistema_citas.event;
+
+/**
+ * Evento publicado cuando cambian las ocurrencias pendientes de una serie de citas:
+ * al crearla, al materializar parte de ella, al mover o cancelar una ocurrencia y al finalizarla.
+ * Las citas materializadas publican además sus propios CitaCambioEvent; este evento indica
+ * a los consumidores con estado en memoria que recalculen la agenda del profesional.
+ */
+public final class SerieCitaCambioEvent {
+
+    private final Integer serieId;
+    private final Integer profesionalId;
+
+    public SerieCitaCambioEvent(Integer serieId, Integer profesionalId) {
+        this.serieId = serieId;
+        this.profesionalId = profesionalId;
+    }
+
+    public Integer getSerieId() {
+        return serieId;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    @Override
+    public String toString() {
+        return "SerieCitaCambioEvent{" +
+                "serieId=" + serieId +
+                ", profesionalId=" + profesionalId +
+                '}';
+    }
+}
@@ -0,0 +1,44 @@
+package com.andrey.sistema_citas.event;
+
+/**
+ * Evento publicado cuando una solicitud de la lista de espera entra o sale de la lista:
+ * al registrarla, o al atenderla, cancelarla o marcarla como vencida.
+ * Si la solicitud sigue activa, el evento incluye su resumen; si no, solo su ID.
+ */
+public final class SolicitudEsperaCambioEvent {
+
+    private final Integer solicitudId;
+    private final SolicitudEsperaResumen activa;
+
+    private SolicitudEsperaCambioEvent(Integer solicitudId, SolicitudEsperaResumen activa) {
+        this.solicitudId = solicitudId;
+        this.activa = activa;
+    }
+
+    public static SolicitudEsperaCambioEvent registrada(SolicitudEsperaResumen activa) {
+        return new SolicitudEsperaCambioEvent(activa.getId(), activa);
+    }
+
+    public static SolicitudEsperaCambioEvent retirada(Integer solicitudId) {
+        return new SolicitudEsperaCambioEvent(solicitudId, null);
+    }
+
+    public Integer getSolicitudId() {
+        return solicitudId;
+    }
+
+    /**
+     * Resumen de la solicitud si sigue activa; null si salió de la lista.
+     */
+    public SolicitudEsperaResumen getActiva() {
+        return activa;
+    }
+
+    @Override
+    public String toString() {
+        return "SolicitudEsperaCambioEvent{" +
+                "solicitudId=" + solicitudId +
+                ", activa=" + (activa != null) +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package com.andrey.sistema_citas.event;
+
+import com.andrey.sistema_citas.entity.SolicitudEspera;
+import com.andrey.sistema_citas.entity.UrgenciaEspera;
+import com.andrey.sistema_citas.util.DuracionServicio;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen inmutable de una solicitud activa de la lista de espera, con lo necesario para
+ * decidir en memoria si encaja en un hueco: destino (profesional, especialidad o cualquiera),
+ * ventana, prioridad y duración del servicio.
+ */
+public final class SolicitudEsperaResumen {
+
+    private final Integer id;
+    private final Integer usuarioId;
+    private final Integer servicioId;
+    private final Integer profesionalId;
+    private final String especialidad;
+    private final LocalDateTime desde;
+    private final LocalDateTime hasta;
+    private final UrgenciaEspera urgencia;
+    private final LocalDateTime creadaEn;
+    private final int minutos;
+
+    public SolicitudEsperaResumen(Integer id, Integer usuarioId, Integer servicioId, Integer profesionalId,
+                                  String especialidad, LocalDateTime desde, LocalDateTime hasta,
+                                  UrgenciaEspera urgencia, LocalDateTime creadaEn, int minutos) {
+        this.id = id;
+        this.usuarioId = usuarioId;
+        this.servicioId = servicioId;
+        this.profesionalId = profesionalId;
+        this.especialidad = especialidad;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.urgencia = urgencia;
+        this.creadaEn = creadaEn;
+        this.minutos = minutos;
+    }
+
+    /**
+     * Construye el resumen a partir de una solicitud con su servicio cargado.
+     */
+    public static SolicitudEsperaResumen de(SolicitudEspera solicitud) {
+        return new SolicitudEsperaResumen(
+                solicitud.getId(),
+                solicitud.getUsuario().getId(),
+                solicitud.getServicio().getId(),
+                solicitud.getProfesional() == null ? null : solicitud.getProfesional().getId(),
+                solicitud.getEspecialidad(),
+                solicitud.getDesde(),
+                solicitud.getHasta(),
+                solicitud.getUrgencia(),
+                solicitud.getCreadaEn(),
+                DuracionServicio.enMinutos(solicitud.getServicio().getDuracion())
+        );
+    }
+
+    /**
+     * Indica si una cita del servicio solicitado que empiece en el instante indicado
+     * queda dentro de la ventana de la solicitud.
+     */
+    public boolean admite(LocalDateTime inicio) {
+        return !inicio.isBefore(desde) && !inicio.plusMinutes(minutos).isAfter(hasta);
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public Integer getServicioId() {
+        return servicioId;
+    }
+
+    public Integer getProfesionalId() {
+        return profesionalId;
+    }
+
+    public String getEspecialidad() {
+        return especialidad;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public UrgenciaEspera getUrgencia() {
+        return urgencia;
+    }
+
+    public LocalDateTime getCreadaEn() {
+        return creadaEn;
+    }
+
+    public int getMinutos() {
+        return minutos;
+    }
+
+    @Override
+    public String toString() {
+        return "SolicitudEsperaResumen{" +
+                "id=" + id +
+                ", profesionalId=" + profesionalId +
+                ", especialidad='" + especialidad + '\'' +
+                ", desde=" + desde +
+                ", hasta=" + hasta +
+                ", urgencia=" + urgencia +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.andrey.sistema_citas.event;
+
+/**
+ * Evento publicado cuando se registra, modifica o elimina un usuario.
+ * Incluye el nombre y el email con que queda el usuario, o ninguno si se eliminó,
+ * de modo que quien mantiene copias en memoria no necesita volver a leerlo.
+ * Toda escritura sobre un usuario (incluidos su contraseña y su rol) debe publicarlo: la caché de
+ * credenciales de autenticación lo usa para descartar las del usuario.
+ */
+public final class UsuarioCambioEvent {
+
+    private final Integer usuarioId;
+    private final String nombre;
+    private final String email;
+
+    private UsuarioCambioEvent(Integer usuarioId, String nombre, String email) {
+        this.usuarioId = usuarioId;
+        this.nombre = nombre;
+        this.email = email;
+    }
+
+    public static UsuarioCambioEvent guardado(Integer usuarioId, String nombre, String email) {
+        return new UsuarioCambioEvent(usuarioId, nombre, email);
+    }
+
+    public static UsuarioCambioEvent eliminado(Integer usuarioId) {
+        return new UsuarioCambioEvent(usuarioId, null, null);
+    }
+
+    public Integer getUsuarioId() {
+        return usuarioId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Indica si el usuario se eliminó.
+     */
+    public boolean isEliminado() {
+        return email == null;
+    }
+
+    @Override
+    public String toString() {
+        return "UsuarioCambioEvent{" +
+                "usuarioId=" + usuarioId +
+                ", eliminado=" + isEliminado() +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.andrey.sistema_citas.exception;
+
+/**
+ * Excepción lanzada cuando una cita se solapa con otra del mismo profesional.
+ * Se utiliza para impedir la doble reserva de una franja horaria.
+ */
+public class ConflictoHorarioException extends RuntimeException {
+
+    public ConflictoHorarioException(String mensaje) {
+        super(mensaje);
+    }
+
+    public ConflictoHorarioException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -0,0 +1,16 @@
+package com.andrey.sistema_citas.exception;
+
+/**
+ * Excepción lanzada cuando se intenta actualizar un recurso a partir de una versión
+ * que ya fue modificada por otra operación.
+ */
+public class ConflictoVersionException extends RuntimeException {
+
+    public ConflictoVersionException(String mensaje) {
+        super(mensaje);
+    }
+
+    public ConflictoVersionException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
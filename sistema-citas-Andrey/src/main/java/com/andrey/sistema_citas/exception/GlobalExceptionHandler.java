@@ -1,14 +1,18 @@
 package com.andrey.sistema_citas.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.util.DisconnectedClientHelper;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -38,7 +42,11 @@ public class GlobalExceptionHandler {
                 request.getRequestURI()
         );
         
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        // El tipo se fija explícitamente para que el error también llegue a los clientes que solo
+        // aceptan text/event-stream, como los suscritos al flujo de una agenda
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
     }
 
     /**
@@ -60,6 +68,67 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Maneja excepciones cuando una cita se solapa con otra del mismo profesional.
+     */
+    @ExceptionHandler(ConflictoHorarioException.class)
+    public ResponseEntity<ErrorResponse> handleConflictoHorarioException(
+            ConflictoHorarioException ex, HttpServletRequest request) {
+        
+        logger.error("Conflicto de horario: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja excepciones cuando el recurso cambió desde la versión que el cliente leyó,
+     * ya sea detectado al comparar versiones o por el bloqueo optimista al escribir.
+     */
+    @ExceptionHandler({ConflictoVersionException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleConflictoVersionException(
+            RuntimeException ex, HttpServletRequest request) {
+        
+        logger.error("Conflicto de versión: {}", ex.getMessage());
+        
+        String mensaje = ex instanceof ConflictoVersionException
+                ? ex.getMessage()
+                : "El recurso fue modificado por otra operación; vuelva a consultarlo antes de actualizarlo";
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                mensaje,
+                request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja excepciones cuando la versión indicada en If-Match no es la actual.
+     */
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionFallidaException(
+            PrecondicionFallidaException ex, HttpServletRequest request) {
+        
+        logger.error("Precondición fallida: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "Precondition Failed",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
     /**
      * Maneja excepciones de validación de datos.
      */
@@ -87,6 +156,50 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja las validaciones que los servicios aplican fuera del binding, como en las
+     * actualizaciones parciales, donde se valida el resultado de combinar los cambios.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolationException(
+            ConstraintViolationException ex, HttpServletRequest request) {
+        
+        logger.error("Error de validación: {}", ex.getMessage());
+        
+        Map<String, String> validationErrors = new HashMap<>();
+        ex.getConstraintViolations().forEach(violacion ->
+                validationErrors.put(violacion.getPropertyPath().toString(), violacion.getMessage()));
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                "Error de validación en los datos enviados",
+                request.getRequestURI()
+        );
+        errorResponse.setValidationErrors(validationErrors);
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Maneja excepciones por parámetros inválidos en la petición.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
+            IllegalArgumentException ex, HttpServletRequest request) {
+        
+        logger.error("Parámetro inválido: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Maneja excepciones genéricas no contempladas específicamente.
      */
@@ -94,6 +207,11 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, HttpServletRequest request) {
         
+        if (DisconnectedClientHelper.isClientDisconnectedException(ex)) {
+            // El cliente cerró la conexión (por ejemplo, un flujo de eventos): no hay a quién responder
+            logger.debug("Cliente desconectado: {}", ex.getMessage());
+            return null;
+        }
         logger.error("Error interno del servidor: {}", ex.getMessage(), ex);
         
         ErrorResponse errorResponse = new ErrorResponse(
@@ -0,0 +1,12 @@
+package com.andrey.sistema_citas.exception;
+
+/**
+ * Excepción lanzada cuando la versión indicada en la cabecera If-Match
+ * no coincide con la versión actual del recurso.
+ */
+public class PrecondicionFallidaException extends RuntimeException {
+
+    public PrecondicionFallidaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,23 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Consulta de la exportación de citas, que se construye según los filtros presentes.
+ * CitaRepository la incorpora; la implementación está en CitaExportacionRepositoryImpl.
+ */
+public interface CitaExportacionRepository {
+
+    /**
+     * Recorre las citas que cumplen los filtros indicados sin materializar el resultado completo.
+     * Los filtros nulos se omiten de la consulta. Las filas se proyectan a CitaDTO en la misma consulta,
+     * por lo que no se acumulan entidades en el contexto de persistencia.
+     * El Stream debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    Stream<CitaDTO> streamParaExportacion(Integer usuarioId, Integer profesionalId, EstadoCita estado,
+                                          LocalDateTime inicio, LocalDateTime fin);
+}
@@ -0,0 +1,74 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de la consulta de exportación. Solo incluye las condiciones de los filtros presentes:
+ * con predicados del tipo (:filtro IS NULL OR ...), el optimizador no puede usar los índices por
+ * usuario, profesional o estado y fecha, y una exportación filtrada recorre la tabla completa.
+ * El tamaño de lectura (citas.exportacion.tamano-lectura) se aplica solo a esta consulta; con MySQL,
+ * Integer.MIN_VALUE hace que el driver entregue las filas una a una en lugar de cargar el resultado.
+ */
+public class CitaExportacionRepositoryImpl implements CitaExportacionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int tamanoLectura;
+
+    public CitaExportacionRepositoryImpl(@Value("${citas.exportacion.tamano-lectura:500}") int tamanoLectura) {
+        this.tamanoLectura = tamanoLectura;
+    }
+
+    @Override
+    public Stream<CitaDTO> streamParaExportacion(Integer usuarioId, Integer profesionalId, EstadoCita estado,
+                                                 LocalDateTime inicio, LocalDateTime fin) {
+        List<String> condiciones = new ArrayList<>();
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (usuarioId != null) {
+            condiciones.add("c.usuario.id = :usuarioId");
+            parametros.put("usuarioId", usuarioId);
+        }
+        if (profesionalId != null) {
+            condiciones.add("c.profesional.id = :profesionalId");
+            parametros.put("profesionalId", profesionalId);
+        }
+        if (estado != null) {
+            condiciones.add("c.estado = :estado");
+            parametros.put("estado", estado);
+        }
+        if (inicio != null) {
+            condiciones.add("c.fechaHora >= :inicio");
+            parametros.put("inicio", inicio);
+        }
+        if (fin != null) {
+            condiciones.add("c.fechaHora <= :fin");
+            parametros.put("fin", fin);
+        }
+
+        StringBuilder jpql = new StringBuilder(CitaRepository.PROYECCION_DTO);
+        if (!condiciones.isEmpty()) {
+            jpql.append("WHERE ").append(String.join(" AND ", condiciones)).append(' ');
+        }
+        jpql.append("ORDER BY c.fechaHora ASC, c.id ASC");
+
+        TypedQuery<CitaDTO> consulta = entityManager.createQuery(jpql.toString(), CitaDTO.class);
+        parametros.forEach(consulta::setParameter);
+        consulta.setHint(HibernateHints.HINT_FETCH_SIZE, tamanoLectura);
+        consulta.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return consulta.getResultStream();
+    }
+}
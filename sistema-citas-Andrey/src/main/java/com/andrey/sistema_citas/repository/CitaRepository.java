@@ -1,18 +1,28 @@
 package com.andrey.sistema_citas.repository;
 
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.RecordatorioDTO;
 import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para gestionar operaciones de base de datos relacionadas con citas.
  * Extiende JpaRepository para proporcionar operaciones CRUD estándar.
  */
 @Repository
-public interface CitaRepository extends JpaRepository<Cita, Integer> {
+public interface CitaRepository extends JpaRepository<Cita, Integer>, CitaExportacionRepository {
 
     /**
      * Busca citas por usuario.
@@ -23,9 +33,44 @@ public interface CitaRepository extends JpaRepository<Cita, Integer> {
     /**
      * Busca citas por profesional.
      * Útil para mostrar la agenda de un profesional específico.
+     * Incluye el servicio, necesario para calcular el intervalo que ocupa cada cita.
      */
+    @EntityGraph(Cita.GRAFO_AGENDA)
     List<Cita> findByProfesionalId(Integer profesionalId);
 
+    /**
+     * Busca una cita por ID con todas las relaciones que requiere su CitaDTO.
+     */
+    @EntityGraph(Cita.GRAFO_DETALLE)
+    Optional<Cita> findDetalleById(Integer id);
+
+    /**
+     * Busca una cita por ID junto con su servicio.
+     */
+    @EntityGraph(Cita.GRAFO_AGENDA)
+    Optional<Cita> findConServicioById(Integer id);
+
+    /**
+     * Obtiene el ID de la cita en que se materializó una ocurrencia de una serie, si existe.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.serieId = :serieId AND c.numeroSerie = :numero")
+    Optional<Integer> findIdPorOcurrencia(@Param("serieId") Integer serieId, @Param("numero") Integer numero);
+
+    /**
+     * Obtiene los IDs de las citas materializadas de una serie que comienzan en desde o después.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.serieId = :serieId AND c.fechaHora >= :desde")
+    List<Integer> findIdsPorSerieDesde(@Param("serieId") Integer serieId, @Param("desde") LocalDateTime desde);
+
+    /**
+     * Desvincula de sus series las citas materializadas de las series indicadas, para poder eliminarlas.
+     * Devuelve el número de citas desvinculadas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Cita c SET c.serieId = NULL, c.numeroSerie = NULL, c.version = c.version + 1 " +
+           "WHERE c.serieId IN :serieIds")
+    int desvincularDeSeries(@Param("serieIds") Collection<Integer> serieIds);
+
     /**
      * Busca citas por servicio.
      * Útil para análisis de demanda de servicios específicos.
@@ -35,8 +80,9 @@ public interface CitaRepository extends JpaRepository<Cita, Integer> {
     /**
      * Busca citas por estado.
      * Útil para filtrar citas pendientes, confirmadas, canceladas, etc.
+     * Se apoya en el índice (estado, fecha_hora).
      */
-    List<Cita> findByEstado(String estado);
+    List<Cita> findByEstado(EstadoCita estado);
 
     /**
      * Busca citas en un rango de fechas.
@@ -47,6 +93,256 @@ public interface CitaRepository extends JpaRepository<Cita, Integer> {
     /**
      * Busca citas por usuario y estado.
      * Útil para mostrar citas activas o historial específico de un usuario.
+     * Se apoya en el índice (usuario_id, estado).
+     */
+    List<Cita> findByUsuarioIdAndEstado(Integer usuarioId, EstadoCita estado);
+
+    /**
+     * Obtiene los IDs de los profesionales con los que un usuario tiene citas, sin repetir.
+     * Se apoya en el índice de la clave foránea usuario_id.
+     */
+    @Query("SELECT DISTINCT c.profesional.id FROM Cita c WHERE c.usuario.id = :usuarioId")
+    List<Integer> findProfesionalIdsPorUsuario(@Param("usuarioId") Integer usuarioId);
+
+    // Consultas de lectura proyectadas directamente a CitaDTO.
+    // Cada consulta une cita con usuario, servicio y profesional (y su usuario) en una sola sentencia,
+    // sin cargar entidades ni disparar consultas secundarias por fila.
+
+    /**
+     * Selección común de las proyecciones a CitaDTO; cada consulta agrega su filtro y orden.
+     */
+    String PROYECCION_DTO = "SELECT new com.andrey.sistema_citas.dto.CitaDTO(" +
+            "c.id, c.fechaHora, c.estado, u.id, u.nombre, s.id, s.nombre, p.id, pu.nombre, c.version, " +
+            "c.serieId, c.numeroSerie) " +
+            "FROM Cita c JOIN c.usuario u JOIN c.servicio s JOIN c.profesional p JOIN p.usuario pu ";
+
+    /**
+     * Obtiene todas las citas ordenadas por fecha y hora.
+     */
+    @Query(PROYECCION_DTO + "ORDER BY c.fechaHora ASC, c.id ASC")
+    List<CitaDTO> findDTOTodas();
+
+    /**
+     * Obtiene una cita por su ID.
+     */
+    @Query(PROYECCION_DTO + "WHERE c.id = :id")
+    Optional<CitaDTO> findDTOPorId(@Param("id") Integer id);
+
+    /**
+     * Obtiene las citas con los IDs indicados, sin un orden particular.
+     */
+    @Query(PROYECCION_DTO + "WHERE c.id IN :ids")
+    List<CitaDTO> findDTOPorIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Obtiene las citas materializadas de una serie ordenadas por fecha y hora.
+     */
+    @Query(PROYECCION_DTO + "WHERE c.serieId = :serieId ORDER BY c.fechaHora ASC, c.id ASC")
+    List<CitaDTO> findDTOPorSerie(@Param("serieId") Integer serieId);
+
+    /**
+     * Obtiene las citas de un usuario ordenadas por fecha y hora.
+     */
+    @Query(PROYECCION_DTO + "WHERE c.usuario.id = :usuarioId ORDER BY c.fechaHora ASC, c.id ASC")
+    List<CitaDTO> findDTOPorUsuario(@Param("usuarioId") Integer usuarioId);
+
+    /**
+     * Obtiene las citas de un profesional ordenadas por fecha y hora.
+     */
+    @Query(PROYECCION_DTO + "WHERE c.profesional.id = :profesionalId ORDER BY c.fechaHora ASC, c.id ASC")
+    List<CitaDTO> findDTOPorProfesional(@Param("profesionalId") Integer profesionalId);
+
+    /**
+     * Obtiene las citas de un profesional que comienzan en [desde, hasta), ordenadas por fecha y hora.
+     * Usa el índice (profesional_id, fecha_hora) para leer solo la ventana solicitada.
+     */
+    @Query(PROYECCION_DTO + "WHERE c.profesional.id = :profesionalId " +
+           "AND c.fechaHora >= :desde AND c.fechaHora < :hasta ORDER BY c.fechaHora ASC, c.id ASC")
+    List<CitaDTO> findDTOPorProfesionalEntre(@Param("profesionalId") Integer profesionalId,
+                                             @Param("desde") LocalDateTime desde,
+                                             @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtiene, sin repetir, las fechas y horas de inicio de las citas de un profesional en el estado
+     * indicado que comienzan en [desde, hasta), en orden. Usa el índice (profesional_id, fecha_hora).
+     */
+    @Query("SELECT DISTINCT c.fechaHora FROM Cita c WHERE c.profesional.id = :profesionalId " +
+           "AND c.estado = :estado AND c.fechaHora >= :desde AND c.fechaHora < :hasta ORDER BY c.fechaHora ASC")
+    List<LocalDateTime> findIniciosPorProfesionalYEstadoEntre(@Param("profesionalId") Integer profesionalId,
+                                                              @Param("estado") EstadoCita estado,
+                                                              @Param("desde") LocalDateTime desde,
+                                                              @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtiene las citas con un estado determinado ordenadas por fecha y hora.
+     */
+    @Query(PROYECCION_DTO + "WHERE c.estado = :estado ORDER BY c.fechaHora ASC, c.id ASC")
+    List<CitaDTO> findDTOPorEstado(@Param("estado") EstadoCita estado);
+
+    // Paginación por cursor (keyset) ordenada por (fecha_hora, id).
+    // Las consultas "despues de" usan un predicado de búsqueda en lugar de OFFSET,
+    // por lo que el costo de cada página no depende de su posición. La condición redundante
+    // c.fechaHora >= :fechaHora acota el rango del índice: sin ella, algunos optimizadores no
+    // usan el índice para la disyunción y recorren la tabla completa.
+    // Solo leen los IDs de la página, de la tabla cita y en el orden de los índices terminados en
+    // (fecha_hora, id) (V11), y las citas se proyectan después con findDTOPorIds. Con los JOIN en la
+    // misma consulta, el optimizador puede empezar por las tablas pequeñas y ordenar todas las citas
+    // posteriores al cursor antes de aplicar el límite.
+
+    /**
+     * Obtiene los IDs de la primera página de citas ordenadas por fecha y hora.
+     */
+    @Query("SELECT c.id FROM Cita c ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPrimeraPagina(Limit limite);
+
+    /**
+     * Obtiene los IDs de la página de citas posterior al cursor indicado.
+     */
+    @Query("SELECT c.id FROM Cita c " +
+           "WHERE c.fechaHora >= :fechaHora AND (c.fechaHora > :fechaHora OR (c.fechaHora = :fechaHora AND c.id > :id)) " +
+           "ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPaginaDespuesDe(@Param("fechaHora") LocalDateTime fechaHora,
+                                         @Param("id") Integer id, Limit limite);
+
+    /**
+     * Obtiene los IDs de la primera página de citas de un usuario.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.usuario.id = :usuarioId ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPrimeraPaginaPorUsuario(@Param("usuarioId") Integer usuarioId, Limit limite);
+
+    /**
+     * Obtiene los IDs de la página de citas de un usuario posterior al cursor indicado.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.usuario.id = :usuarioId " +
+           "AND c.fechaHora >= :fechaHora AND (c.fechaHora > :fechaHora OR (c.fechaHora = :fechaHora AND c.id > :id)) " +
+           "ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPaginaPorUsuarioDespuesDe(@Param("usuarioId") Integer usuarioId,
+                                                   @Param("fechaHora") LocalDateTime fechaHora,
+                                                   @Param("id") Integer id, Limit limite);
+
+    /**
+     * Obtiene los IDs de la primera página de citas de un profesional.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.profesional.id = :profesionalId ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPrimeraPaginaPorProfesional(@Param("profesionalId") Integer profesionalId, Limit limite);
+
+    /**
+     * Obtiene los IDs de la página de citas de un profesional posterior al cursor indicado.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.profesional.id = :profesionalId " +
+           "AND c.fechaHora >= :fechaHora AND (c.fechaHora > :fechaHora OR (c.fechaHora = :fechaHora AND c.id > :id)) " +
+           "ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPaginaPorProfesionalDespuesDe(@Param("profesionalId") Integer profesionalId,
+                                                       @Param("fechaHora") LocalDateTime fechaHora,
+                                                       @Param("id") Integer id, Limit limite);
+
+    /**
+     * Obtiene los IDs de la primera página de citas con un estado determinado.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.estado = :estado ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPrimeraPaginaPorEstado(@Param("estado") EstadoCita estado, Limit limite);
+
+    /**
+     * Obtiene los IDs de la página de citas con un estado determinado posterior al cursor indicado.
+     */
+    @Query("SELECT c.id FROM Cita c WHERE c.estado = :estado " +
+           "AND c.fechaHora >= :fechaHora AND (c.fechaHora > :fechaHora OR (c.fechaHora = :fechaHora AND c.id > :id)) " +
+           "ORDER BY c.fechaHora ASC, c.id ASC")
+    List<Integer> findIdsPaginaPorEstadoDespuesDe(@Param("estado") EstadoCita estado,
+                                                  @Param("fechaHora") LocalDateTime fechaHora,
+                                                  @Param("id") Integer id, Limit limite);
+
+    // Conteos agregados usados para inicializar, reconciliar y actualizar las estadísticas en memoria.
+
+    /**
+     * Cuenta las citas agrupadas por día y estado.
+     * Cada fila contiene [LocalDate dia, EstadoCita estado, Long total].
+     */
+    @Query("SELECT CAST(c.fechaHora AS LocalDate), c.estado, COUNT(c) FROM Cita c " +
+           "GROUP BY CAST(c.fechaHora AS LocalDate), c.estado")
+    List<Object[]> contarPorDiaYEstado();
+
+    /**
+     * Cuenta las citas de cada profesional cuyos estados estén entre los indicados.
+     * Cada fila contiene [Integer profesionalId, String profesionalNombre, Long total].
+     */
+    @Query("SELECT p.id, u.nombre, COUNT(c) FROM Cita c JOIN c.profesional p JOIN p.usuario u " +
+           "WHERE c.estado IN :estados GROUP BY p.id, u.nombre")
+    List<Object[]> contarPorProfesional(@Param("estados") Collection<EstadoCita> estados);
+
+    /**
+     * Cuenta, agrupadas por día, estado y profesional, las citas que una transición por lotes hacia
+     * el estado de destino va a modificar. Usa los mismos criterios que las sentencias UPDATE y debe
+     * ejecutarse antes que ellas. Cada fila contiene [LocalDate dia, EstadoCita estado, Integer profesionalId, Long total].
+     */
+    @Query("SELECT CAST(c.fechaHora AS LocalDate), c.estado, c.profesional.id, COUNT(c) FROM Cita c " +
+           "WHERE c.estado <> com.andrey.sistema_citas.entity.EstadoCita.CANCELADA AND c.estado <> :destino " +
+           "AND (:origen IS NULL OR c.estado = :origen) " +
+           "AND (:profesionalId IS NULL OR c.profesional.id = :profesionalId) " +
+           "AND (:desde IS NULL OR c.fechaHora >= :desde) " +
+           "AND (:hasta IS NULL OR c.fechaHora < :hasta) " +
+           "GROUP BY CAST(c.fechaHora AS LocalDate), c.estado, c.profesional.id")
+    List<Object[]> contarParaTransicionEnLote(@Param("destino") EstadoCita destino,
+                                              @Param("origen") EstadoCita origen,
+                                              @Param("profesionalId") Integer profesionalId,
+                                              @Param("desde") LocalDateTime desde,
+                                              @Param("hasta") LocalDateTime hasta);
+
+    // Recordatorios
+
+    /**
+     * Obtiene el identificador y la fecha de las citas en el estado indicado que comienzan
+     * en el rango (desde, hasta]. Cada fila contiene [Integer id, LocalDateTime fechaHora].
+     */
+    @Query("SELECT c.id, c.fechaHora FROM Cita c " +
+           "WHERE c.estado = :estado AND c.fechaHora > :desde AND c.fechaHora <= :hasta")
+    List<Object[]> findProgramacionEntre(@Param("estado") EstadoCita estado,
+                                         @Param("desde") LocalDateTime desde,
+                                         @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Obtiene los datos de contacto de una cita para enviarle un recordatorio.
+     */
+    @Query("SELECT new com.andrey.sistema_citas.dto.RecordatorioDTO(c.id, c.fechaHora, c.estado, u.id, " +
+           "u.nombre, u.email, u.telefono, s.nombre, pu.nombre) " +
+           "FROM Cita c JOIN c.usuario u JOIN c.servicio s JOIN c.profesional p JOIN p.usuario pu " +
+           "WHERE c.id = :id")
+    Optional<RecordatorioDTO> findRecordatorioPorId(@Param("id") Integer id);
+
+    // Transiciones de estado por lotes: una sola sentencia UPDATE por criterio, sin cargar entidades.
+    // Los criterios nulos no filtran. Las citas canceladas no participan en transiciones por lotes.
+
+    /**
+     * Cambia el estado de las citas que cumplen los criterios, salvo las canceladas.
+     * Devuelve el número de filas afectadas.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cita c SET c.estado = :destino, c.version = c.version + 1 " +
+           "WHERE c.estado <> com.andrey.sistema_citas.entity.EstadoCita.CANCELADA AND c.estado <> :destino " +
+           "AND (:origen IS NULL OR c.estado = :origen) " +
+           "AND (:profesionalId IS NULL OR c.profesional.id = :profesionalId) " +
+           "AND (:desde IS NULL OR c.fechaHora >= :desde) " +
+           "AND (:hasta IS NULL OR c.fechaHora < :hasta)")
+    int cambiarEstadoEnLote(@Param("destino") EstadoCita destino,
+                            @Param("origen") EstadoCita origen,
+                            @Param("profesionalId") Integer profesionalId,
+                            @Param("desde") LocalDateTime desde,
+                            @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Cancela las citas que cumplen los criterios y libera su clave de franja.
+     * Devuelve el número de filas afectadas.
      */
-    List<Cita> findByUsuarioIdAndEstado(Integer usuarioId, String estado);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cita c SET c.estado = com.andrey.sistema_citas.entity.EstadoCita.CANCELADA, c.slotClave = NULL, " +
+           "c.version = c.version + 1 " +
+           "WHERE c.estado <> com.andrey.sistema_citas.entity.EstadoCita.CANCELADA " +
+           "AND (:origen IS NULL OR c.estado = :origen) " +
+           "AND (:profesionalId IS NULL OR c.profesional.id = :profesionalId) " +
+           "AND (:desde IS NULL OR c.fechaHora >= :desde) " +
+           "AND (:hasta IS NULL OR c.fechaHora < :hasta)")
+    int cancelarEnLote(@Param("origen") EstadoCita origen,
+                       @Param("profesionalId") Integer profesionalId,
+                       @Param("desde") LocalDateTime desde,
+                       @Param("hasta") LocalDateTime hasta);
 }
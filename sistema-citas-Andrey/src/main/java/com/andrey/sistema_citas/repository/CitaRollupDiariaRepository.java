@@ -0,0 +1,134 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.dto.OcupacionDiariaDTO;
+import com.andrey.sistema_citas.entity.CitaRollupDiaria;
+import com.andrey.sistema_citas.entity.CitaRollupDiariaId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio del resumen diario de citas.
+ * Las escrituras son sentencias nativas de MySQL (INSERT ... ON DUPLICATE KEY UPDATE) que suman
+ * deltas sobre las filas existentes, de modo que escrituras concurrentes sobre la misma fila
+ * no se pisan entre sí. Cada una declara la tabla que modifica: sin esa indicación, Hibernate
+ * vaciaría toda la caché de segundo nivel tras cada sentencia nativa.
+ */
+@Repository
+public interface CitaRollupDiariaRepository extends JpaRepository<CitaRollupDiaria, CitaRollupDiariaId> {
+
+    /**
+     * Obtiene las filas del resumen entre dos días (ambos incluidos), con filtros opcionales
+     * por profesional y servicio. Las filas que quedaron en cero no se devuelven.
+     */
+    @Query("SELECT new com.andrey.sistema_citas.dto.OcupacionDiariaDTO(r.id.fecha, r.id.profesionalId, " +
+           "r.id.servicioId, r.id.estado, r.totalCitas, r.ingresos) FROM CitaRollupDiaria r " +
+           "WHERE r.id.fecha >= :desde AND r.id.fecha <= :hasta AND r.totalCitas <> 0 " +
+           "AND (:profesionalId IS NULL OR r.id.profesionalId = :profesionalId) " +
+           "AND (:servicioId IS NULL OR r.id.servicioId = :servicioId) " +
+           "ORDER BY r.id.fecha, r.id.profesionalId, r.id.servicioId, r.id.estado")
+    List<OcupacionDiariaDTO> findOcupacion(@Param("desde") LocalDate desde,
+                                           @Param("hasta") LocalDate hasta,
+                                           @Param("profesionalId") Integer profesionalId,
+                                           @Param("servicioId") Integer servicioId);
+
+    /**
+     * Suma un delta de citas e ingresos a una fila del resumen, creándola si no existe.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cita_rollup_diaria"))
+    @Query(value = "INSERT INTO cita_rollup_diaria (fecha, profesional_id, servicio_id, estado, total_citas, ingresos) " +
+                   "VALUES (:fecha, :profesionalId, :servicioId, :estado, :totalCitas, :ingresos) " +
+                   "ON DUPLICATE KEY UPDATE total_citas = total_citas + VALUES(total_citas), " +
+                   "ingresos = ingresos + VALUES(ingresos)", nativeQuery = true)
+    int sumar(@Param("fecha") LocalDate fecha,
+              @Param("profesionalId") Integer profesionalId,
+              @Param("servicioId") Integer servicioId,
+              @Param("estado") byte estado,
+              @Param("totalCitas") long totalCitas,
+              @Param("ingresos") double ingresos);
+
+    // Transiciones por lotes: se ejecutan antes del UPDATE de CitaRepository con los mismos criterios,
+    // restando las citas afectadas de su estado actual y sumándolas al de destino.
+
+    /**
+     * Resta del resumen las citas que una transición por lotes va a sacar de su estado actual.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cita_rollup_diaria"))
+    @Query(value = "INSERT INTO cita_rollup_diaria (fecha, profesional_id, servicio_id, estado, total_citas, ingresos) " +
+                   "SELECT CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id, c.estado, " +
+                   "0 - COUNT(*), 0 - SUM(s.precio) FROM cita c JOIN servicio s ON s.id = c.servicio_id " +
+                   "WHERE c.estado <> :cancelada AND c.estado <> :destino " +
+                   "AND (:origen IS NULL OR c.estado = :origen) " +
+                   "AND (:profesionalId IS NULL OR c.profesional_id = :profesionalId) " +
+                   "AND (:desde IS NULL OR c.fecha_hora >= :desde) " +
+                   "AND (:hasta IS NULL OR c.fecha_hora < :hasta) " +
+                   "GROUP BY CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id, c.estado " +
+                   "ON DUPLICATE KEY UPDATE total_citas = total_citas + VALUES(total_citas), " +
+                   "ingresos = ingresos + VALUES(ingresos)", nativeQuery = true)
+    int restarSalidaDeLote(@Param("cancelada") byte cancelada,
+                           @Param("destino") byte destino,
+                           @Param("origen") Byte origen,
+                           @Param("profesionalId") Integer profesionalId,
+                           @Param("desde") LocalDateTime desde,
+                           @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Suma al estado de destino las citas que una transición por lotes va a modificar.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cita_rollup_diaria"))
+    @Query(value = "INSERT INTO cita_rollup_diaria (fecha, profesional_id, servicio_id, estado, total_citas, ingresos) " +
+                   "SELECT CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id, :destino, " +
+                   "COUNT(*), SUM(s.precio) FROM cita c JOIN servicio s ON s.id = c.servicio_id " +
+                   "WHERE c.estado <> :cancelada AND c.estado <> :destino " +
+                   "AND (:origen IS NULL OR c.estado = :origen) " +
+                   "AND (:profesionalId IS NULL OR c.profesional_id = :profesionalId) " +
+                   "AND (:desde IS NULL OR c.fecha_hora >= :desde) " +
+                   "AND (:hasta IS NULL OR c.fecha_hora < :hasta) " +
+                   "GROUP BY CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id " +
+                   "ON DUPLICATE KEY UPDATE total_citas = total_citas + VALUES(total_citas), " +
+                   "ingresos = ingresos + VALUES(ingresos)", nativeQuery = true)
+    int sumarEntradaDeLote(@Param("cancelada") byte cancelada,
+                           @Param("destino") byte destino,
+                           @Param("origen") Byte origen,
+                           @Param("profesionalId") Integer profesionalId,
+                           @Param("desde") LocalDateTime desde,
+                           @Param("hasta") LocalDateTime hasta);
+
+    // Reconstrucción: borra el rango de días y lo vuelve a calcular desde la tabla de citas.
+    // Los límites nulos no acotan el rango.
+
+    /**
+     * Elimina las filas del resumen entre dos días (ambos incluidos).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cita_rollup_diaria"))
+    @Query(value = "DELETE FROM cita_rollup_diaria " +
+                   "WHERE (:desde IS NULL OR fecha >= :desde) AND (:hasta IS NULL OR fecha <= :hasta)",
+           nativeQuery = true)
+    int eliminarRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Calcula el resumen de las citas con fecha y hora en [desde, hasta) a partir de la tabla de citas.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cita_rollup_diaria"))
+    @Query(value = "INSERT INTO cita_rollup_diaria (fecha, profesional_id, servicio_id, estado, total_citas, ingresos) " +
+                   "SELECT CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id, c.estado, " +
+                   "COUNT(*), SUM(s.precio) FROM cita c JOIN servicio s ON s.id = c.servicio_id " +
+                   "WHERE (:desde IS NULL OR c.fecha_hora >= :desde) AND (:hasta IS NULL OR c.fecha_hora < :hasta) " +
+                   "GROUP BY CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id, c.estado",
+           nativeQuery = true)
+    int calcularRango(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+}
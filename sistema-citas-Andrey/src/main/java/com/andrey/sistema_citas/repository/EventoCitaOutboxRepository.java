@@ -0,0 +1,34 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.EventoCitaOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de los eventos de cita pendientes de despachar.
+ */
+@Repository
+public interface EventoCitaOutboxRepository extends JpaRepository<EventoCitaOutbox, Long> {
+
+    /**
+     * Obtiene, en orden de ID, los eventos disponibles para despachar.
+     * Se omiten los eventos de una cita que tenga otro anterior pospuesto por un fallo,
+     * para conservar el orden de los eventos de cada cita.
+     */
+    @Query("SELECT o FROM EventoCitaOutbox o WHERE o.fallido = false AND o.disponibleEn <= :ahora " +
+           "AND NOT EXISTS (SELECT 1 FROM EventoCitaOutbox b WHERE b.citaId = o.citaId AND b.id < o.id " +
+           "AND b.fallido = false AND b.disponibleEn > :ahora) " +
+           "ORDER BY o.id")
+    List<EventoCitaOutbox> findDisponibles(@Param("ahora") LocalDateTime ahora, Limit limite);
+
+    /**
+     * Cuenta los eventos pendientes o fallidos.
+     */
+    long countByFallido(boolean fallido);
+}
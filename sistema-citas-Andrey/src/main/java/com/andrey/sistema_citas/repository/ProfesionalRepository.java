@@ -1,7 +1,10 @@
 package com.andrey.sistema_citas.repository;
 
 import com.andrey.sistema_citas.entity.Profesional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,9 +17,23 @@ import java.util.Optional;
 @Repository
 public interface ProfesionalRepository extends JpaRepository<Profesional, Integer> {
 
+    /**
+     * Obtiene todos los profesionales junto con su usuario en una sola consulta.
+     */
+    @EntityGraph(Profesional.GRAFO_USUARIO)
+    @Query("SELECT p FROM Profesional p")
+    List<Profesional> findAllConUsuario();
+
+    /**
+     * Busca un profesional por ID junto con su usuario.
+     */
+    @EntityGraph(Profesional.GRAFO_USUARIO)
+    Optional<Profesional> findConUsuarioById(Integer id);
+
     /**
      * Busca profesionales por especialidad.
-     * Útil para filtrar profesionales según el tipo de servicio requerido.
+     * Las búsquedas por especialidad de la aplicación se resuelven en DirectorioProfesionales,
+     * sin consultar la base de datos; esta consulta queda como referencia de sus mediciones.
      */
     List<Profesional> findByEspecialidad(String especialidad);
 
@@ -26,6 +43,12 @@ public interface ProfesionalRepository extends JpaRepository<Profesional, Intege
      */
     Optional<Profesional> findByUsuarioId(Integer usuarioId);
 
+    /**
+     * Obtiene los IDs de los perfiles profesionales de un usuario.
+     */
+    @Query("SELECT p.id FROM Profesional p WHERE p.usuario.id = :usuarioId")
+    List<Integer> findIdsPorUsuario(@Param("usuarioId") Integer usuarioId);
+
     /**
      * Verifica si existe un profesional asociado a un usuario específico.
      * Útil para validaciones antes de crear nuevos perfiles profesionales.
@@ -0,0 +1,25 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.RecordatorioEnviado;
+import com.andrey.sistema_citas.entity.RecordatorioEnviadoId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio de los recordatorios de citas ya entregados.
+ */
+@Repository
+public interface RecordatorioEnviadoRepository extends JpaRepository<RecordatorioEnviado, RecordatorioEnviadoId> {
+
+    /**
+     * Elimina los registros de citas anteriores a la fecha indicada.
+     */
+    @Modifying
+    @Query("DELETE FROM RecordatorioEnviado r WHERE r.fechaCita < :limite")
+    int eliminarAnterioresA(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,71 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.SerieCita;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para gestionar las series de citas recurrentes.
+ */
+@Repository
+public interface SerieCitaRepository extends JpaRepository<SerieCita, Integer> {
+
+    /**
+     * Busca una serie por ID con sus relaciones y excepciones.
+     */
+    @EntityGraph(SerieCita.GRAFO_DETALLE)
+    Optional<SerieCita> findDetalleById(Integer id);
+
+    /**
+     * Obtiene las series del profesional con ocurrencias pendientes, junto con su servicio
+     * y sus excepciones, para calcular los intervalos que ocupan.
+     */
+    @EntityGraph(SerieCita.GRAFO_AGENDA)
+    List<SerieCita> findByProfesionalIdAndFinalizadaFalse(Integer profesionalId);
+
+    /**
+     * Obtiene las series del profesional con ocurrencias pendientes y todas las relaciones
+     * necesarias para mostrar esas ocurrencias como CitaDTO.
+     */
+    @EntityGraph(SerieCita.GRAFO_DETALLE)
+    @Query("SELECT s FROM SerieCita s WHERE s.profesional.id = :profesionalId AND s.finalizada = false")
+    List<SerieCita> findDetallePendientesPorProfesional(@Param("profesionalId") Integer profesionalId);
+
+    /**
+     * Obtiene los IDs de las series sin finalizar cuya materialización no alcanza el límite indicado.
+     * Se apoya en el índice (finalizada, materializada_hasta).
+     */
+    @Query("SELECT s.id FROM SerieCita s WHERE s.finalizada = false AND s.materializadaHasta < :limite ORDER BY s.id")
+    List<Integer> findIdsPorMaterializar(@Param("limite") LocalDateTime limite);
+
+    /**
+     * Obtiene los IDs de los profesionales de las series sin finalizar de un usuario, sin repetir.
+     */
+    @Query("SELECT DISTINCT s.profesional.id FROM SerieCita s WHERE s.usuario.id = :usuarioId AND s.finalizada = false")
+    List<Integer> findProfesionalIdsPendientesPorUsuario(@Param("usuarioId") Integer usuarioId);
+
+    // Series de un usuario, servicio o profesional, para eliminarlas junto con él.
+
+    /**
+     * Obtiene las series de un usuario, incluidas las que atienden sus perfiles profesionales.
+     */
+    @Query("SELECT s FROM SerieCita s WHERE s.usuario.id = :usuarioId OR s.profesional.usuario.id = :usuarioId")
+    List<SerieCita> findDeUsuario(@Param("usuarioId") Integer usuarioId);
+
+    /**
+     * Obtiene las series de un servicio.
+     */
+    List<SerieCita> findByServicioId(Integer servicioId);
+
+    /**
+     * Obtiene las series de un profesional.
+     */
+    List<SerieCita> findByProfesionalId(Integer profesionalId);
+}
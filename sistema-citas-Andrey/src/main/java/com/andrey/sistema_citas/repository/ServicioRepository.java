@@ -1,7 +1,10 @@
 package com.andrey.sistema_citas.repository;
 
 import com.andrey.sistema_citas.entity.Servicio;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,7 +19,9 @@ public interface ServicioRepository extends JpaRepository<Servicio, Integer> {
     /**
      * Busca servicios por nombre (búsqueda parcial, sin distinción de mayúsculas).
      * Útil para funcionalidades de búsqueda y filtrado.
+     * El resultado se guarda en la caché de consultas hasta la siguiente escritura sobre servicios.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Servicio> findByNombreContainingIgnoreCase(String nombre);
 
     /**
@@ -0,0 +1,68 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.entity.SolicitudEspera;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para gestionar las solicitudes de la lista de espera.
+ * Los estados y urgencias se pasan por su código almacenado.
+ */
+@Repository
+public interface SolicitudEsperaRepository extends JpaRepository<SolicitudEspera, Integer> {
+
+    /**
+     * Busca una solicitud por ID junto con su usuario y su servicio.
+     */
+    @EntityGraph(SolicitudEspera.GRAFO_DETALLE)
+    Optional<SolicitudEspera> findDetalleById(Integer id);
+
+    /**
+     * Obtiene las solicitudes de un usuario, las más recientes primero.
+     */
+    @EntityGraph(SolicitudEspera.GRAFO_DETALLE)
+    List<SolicitudEspera> findByUsuarioIdOrderByCreadaEnDesc(Integer usuarioId);
+
+    /**
+     * Obtiene las solicitudes de un usuario, tanto las que registró como las dirigidas a sus perfiles profesionales.
+     */
+    @Query("SELECT s FROM SolicitudEspera s LEFT JOIN s.profesional p " +
+            "WHERE s.usuario.id = :usuarioId OR p.usuario.id = :usuarioId")
+    List<SolicitudEspera> findDeUsuario(@Param("usuarioId") Integer usuarioId);
+
+    /**
+     * Obtiene las solicitudes de un servicio.
+     */
+    List<SolicitudEspera> findByServicioId(Integer servicioId);
+
+    /**
+     * Obtiene las solicitudes dirigidas a un profesional.
+     */
+    List<SolicitudEspera> findByProfesionalId(Integer profesionalId);
+
+    /**
+     * Obtiene las solicitudes en el estado indicado cuya ventana aún no ha terminado,
+     * junto con su servicio. Se apoya en el índice (estado, hasta).
+     */
+    @EntityGraph(SolicitudEspera.GRAFO_SERVICIO)
+    @Query("SELECT s FROM SolicitudEspera s WHERE s.estado = :estado AND s.hasta > :ahora")
+    List<SolicitudEspera> findVigentes(@Param("estado") Byte estado, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cambia de estado, en bloque, las solicitudes cuya ventana ya terminó.
+     * Incrementa la versión para que una asignación concurrente falle por bloqueo optimista.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SolicitudEspera s SET s.estado = :destino, s.version = s.version + 1 " +
+            "WHERE s.estado = :origen AND s.hasta <= :ahora")
+    int actualizarVencidas(@Param("origen") Byte origen, @Param("destino") Byte destino,
+                           @Param("ahora") LocalDateTime ahora);
+}
@@ -1,9 +1,12 @@
 package com.andrey.sistema_citas.repository;
 
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
 import com.andrey.sistema_citas.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -24,4 +27,11 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
      * Útil para validaciones antes de crear nuevos usuarios.
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Obtiene el ID, el nombre y el email de todos los usuarios, sin cargar las entidades,
+     * para construir el índice de búsqueda por prefijo.
+     */
+    @Query("SELECT new com.andrey.sistema_citas.dto.SugerenciaDTO(u.id, u.nombre, u.email) FROM Usuario u")
+    List<SugerenciaDTO> findSugerencias();
 }
@@ -1,23 +1,36 @@
 package com.andrey.sistema_citas.security;
 
+import com.andrey.sistema_citas.dto.EstadisticasCacheDTO;
 import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.event.UsuarioCambioEvent;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Servicio personalizado para cargar detalles de usuario para autenticación.
  * Implementa la interfaz UserDetailsService de Spring Security.
+ * Guarda en una caché acotada (citas.seguridad.cache.maximo) las credenciales de los usuarios
+ * autenticados, por email normalizado, para que cada autenticación no consulte la base de datos.
+ * Las credenciales de un usuario se descartan al confirmarse cualquier cambio suyo (UsuarioCambioEvent)
+ * y, como red de seguridad, caducan a los citas.seguridad.cache.ttl de cargarse.
+ * Cada llamada devuelve un UserDetails nuevo: Spring Security borra la contraseña del usuario
+ * autenticado, y ese borrado no debe alcanzar a la copia guardada.
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -25,9 +38,17 @@ public class CustomUserDetailsService implements UserDetailsService {
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UsuarioRepository usuarioRepository;
+    private final Cache<String, Credenciales> credenciales;
 
-    public CustomUserDetailsService(UsuarioRepository usuarioRepository) {
+    public CustomUserDetailsService(UsuarioRepository usuarioRepository,
+                                    @Value("${citas.seguridad.cache.maximo:10000}") long maximo,
+                                    @Value("${citas.seguridad.cache.ttl:PT5M}") Duration ttl) {
         this.usuarioRepository = usuarioRepository;
+        this.credenciales = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
     }
 
     /**
@@ -35,24 +56,53 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        logger.debug("Intentando cargar usuario con email: {}", email);
+        String clave = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        // Los emails inexistentes no se guardan
+        Credenciales encontradas = credenciales.get(clave, this::cargar);
+        if (encontradas == null) {
+            throw new UsernameNotFoundException("Usuario no encontrado con email: " + email);
+        }
+        return encontradas.aUserDetails();
+    }
 
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    logger.error("Usuario no encontrado con email: {}", email);
-                    return new UsernameNotFoundException("Usuario no encontrado con email: " + email);
-                });
+    /**
+     * Descarta las credenciales del usuario modificado o eliminado una vez confirmada la transacción,
+     * tanto por su ID (su email pudo cambiar) como por su email actual.
+     */
+    @TransactionalEventListener
+    public void alCambiarUsuario(UsuarioCambioEvent evento) {
+        credenciales.asMap().values().removeIf(guardadas -> guardadas.usuarioId().equals(evento.getUsuarioId()));
+        if (evento.getEmail() != null) {
+            credenciales.invalidate(evento.getEmail().trim().toLowerCase(Locale.ROOT));
+        }
+    }
 
-        List<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_" + usuario.getRol())
-        );
+    /**
+     * Métricas de la caché de credenciales.
+     */
+    public EstadisticasCacheDTO estadisticas() {
+        CacheStats stats = credenciales.stats();
+        return new EstadisticasCacheDTO("seguridad.usuarios", credenciales.estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+
+    private Credenciales cargar(String email) {
+        logger.debug("Cargando credenciales del usuario con email: {}", email);
+        Usuario usuario = usuarioRepository.findByEmail(email).orElse(null);
+        if (usuario == null) {
+            logger.error("Usuario no encontrado con email: {}", email);
+            return null;
+        }
+        return new Credenciales(usuario.getId(), usuario.getEmail(), usuario.getPassword(), usuario.getRol());
+    }
 
-        logger.debug("Usuario cargado exitosamente: {} con rol: {}", email, usuario.getRol());
+    /**
+     * Copia inmutable de los datos de autenticación de un usuario.
+     */
+    private record Credenciales(Integer usuarioId, String email, String password, String rol) {
 
-        return new User(
-                usuario.getEmail(),
-                usuario.getPassword(),
-                authorities
-        );
+        UserDetails aUserDetails() {
+            return new User(email, password, List.of(new SimpleGrantedAuthority("ROLE_" + rol)));
+        }
     }
 }
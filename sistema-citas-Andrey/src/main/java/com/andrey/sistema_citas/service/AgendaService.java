@@ -0,0 +1,132 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Servicio que entrega ventanas de la agenda de un profesional.
+ * Junto a cada ventana se expone un sello con la versión de la agenda y los límites de la ventana,
+ * que permite a los clientes que consultan periódicamente saber si algo cambió sin volver a leer
+ * la base de datos.
+ * Los clientes que prefieren recibir los cambios al momento pueden suscribirse a la agenda
+ * por Server-Sent Events.
+ * Las ventanas incluyen las ocurrencias pendientes de las series del profesional, sin id.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AgendaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaService.class);
+
+    /**
+     * Amplitud máxima de una ventana de agenda.
+     */
+    public static final int DIAS_MAXIMOS = 90;
+
+    private static final int DIAS_POR_DEFECTO = 7;
+
+    private final CitaRepository citaRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final VersionesAgenda versionesAgenda;
+    private final DifusionAgenda difusionAgenda;
+    private final SerieCitaService serieCitaService;
+
+    public AgendaService(CitaRepository citaRepository, ProfesionalRepository profesionalRepository,
+                         VersionesAgenda versionesAgenda, DifusionAgenda difusionAgenda,
+                         SerieCitaService serieCitaService) {
+        this.citaRepository = citaRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.versionesAgenda = versionesAgenda;
+        this.difusionAgenda = difusionAgenda;
+        this.serieCitaService = serieCitaService;
+    }
+
+    /**
+     * Devuelve el sello de versión actual de la agenda del profesional, sin acceder a la base de datos.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String version(Integer profesionalId) {
+        return versionesAgenda.sello(profesionalId);
+    }
+
+    /**
+     * Devuelve el sello de una ventana de la agenda: la versión de la agenda junto con los límites
+     * de la ventana, de modo que dos ventanas distintas nunca comparten sello.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String sello(Integer profesionalId, Ventana ventana) {
+        return version(profesionalId) + "@" + ventana.inicio() + "/" + ventana.fin();
+    }
+
+    /**
+     * Resuelve y valida los límites de una ventana [desde, hasta).
+     * Sin desde, la ventana empieza hoy; sin hasta, abarca una semana.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Ventana resolver(LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime inicio = desde != null ? desde : LocalDate.now().atStartOfDay();
+        LocalDateTime fin = hasta != null ? hasta : inicio.plusDays(DIAS_POR_DEFECTO);
+        if (!fin.isAfter(inicio)) {
+            throw new IllegalArgumentException("La ventana de agenda debe terminar después de su inicio");
+        }
+        if (Duration.between(inicio, fin).toDays() > DIAS_MAXIMOS) {
+            throw new IllegalArgumentException("La ventana de agenda no puede superar " + DIAS_MAXIMOS + " días");
+        }
+        return new Ventana(inicio, fin);
+    }
+
+    /**
+     * Obtiene las citas del profesional que comienzan en una ventana ya resuelta, junto con las
+     * ocurrencias pendientes de sus series en el mismo rango.
+     */
+    public List<CitaDTO> ventana(Integer profesionalId, Ventana limites) {
+        LocalDateTime inicio = limites.inicio();
+        LocalDateTime fin = limites.fin();
+        logger.debug("Obteniendo agenda del profesional {} entre {} y {}", profesionalId, inicio, fin);
+
+        if (!profesionalRepository.existsById(profesionalId)) {
+            throw new ResourceNotFoundException("Profesional no encontrado con ID: " + profesionalId);
+        }
+        List<CitaDTO> citas = citaRepository.findDTOPorProfesionalEntre(profesionalId, inicio, fin);
+        List<CitaDTO> pendientes = serieCitaService.obtenerPendientesEntre(profesionalId, inicio, fin);
+        if (pendientes.isEmpty()) {
+            return citas;
+        }
+        List<CitaDTO> ventana = new ArrayList<>(citas.size() + pendientes.size());
+        ventana.addAll(citas);
+        ventana.addAll(pendientes);
+        ventana.sort(Comparator.comparing(CitaDTO::getFechaHora));
+        return ventana;
+    }
+
+    /**
+     * Suscribe al cliente a los cambios de la agenda del profesional.
+     */
+    public SseEmitter suscribir(Integer profesionalId) {
+        if (!profesionalRepository.existsById(profesionalId)) {
+            throw new ResourceNotFoundException("Profesional no encontrado con ID: " + profesionalId);
+        }
+        return difusionAgenda.suscribir(profesionalId);
+    }
+
+    /**
+     * Límites resueltos de una ventana de agenda: [inicio, fin).
+     */
+    public record Ventana(LocalDateTime inicio, LocalDateTime fin) {
+    }
+}
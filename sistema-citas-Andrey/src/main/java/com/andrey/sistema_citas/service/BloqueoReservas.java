@@ -0,0 +1,132 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.exception.ConflictoHorarioException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloqueos en memoria para serializar las reservas que compiten por la agenda
+ * de un mismo profesional en un mismo día.
+ * Una reserva bloquea todos los días que toca su intervalo, de modo que dos citas que se solapan
+ * comparten siempre al menos una clave, aunque una de ellas cruce la medianoche.
+ * Las claves (profesional, día) se reparten en un número fijo de franjas de bloqueo,
+ * de modo que las reservas sin conflicto avanzan en paralelo. Cada bloqueo se mantiene
+ * hasta que termina la transacción actual, para que la validación y la escritura
+ * queden protegidas hasta el commit. Se libera en afterCompletion, después de que
+ * IndiceAgendas aplique la cita confirmada en afterCommit.
+ */
+@Component
+public class BloqueoReservas {
+
+    private final ReentrantLock[] franjas;
+    private final long esperaMaximaMs;
+
+    public BloqueoReservas(@Value("${citas.reservas.franjas-bloqueo:1024}") int numeroFranjas,
+                           @Value("${citas.reservas.espera-bloqueo-ms:10000}") long esperaMaximaMs) {
+        this.franjas = new ReentrantLock[numeroFranjas];
+        for (int i = 0; i < numeroFranjas; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Adquiere los bloqueos de las claves indicadas, cada una formada por un profesional y un día,
+     * y los libera automáticamente al finalizar la transacción activa.
+     * Las franjas se adquieren en orden creciente para evitar interbloqueos.
+     */
+    public void bloquearHastaFinDeTransaccion(ClaveAgenda... claves) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El bloqueo de reservas requiere una transacción activa");
+        }
+        TreeSet<Integer> indices = new TreeSet<>();
+        for (ClaveAgenda clave : claves) {
+            indices.add(Math.floorMod(clave.hashCode(), franjas.length));
+        }
+        for (Integer indice : indices) {
+            ReentrantLock bloqueo = franjas[indice];
+            adquirir(bloqueo);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bloqueo.unlock();
+                }
+            });
+        }
+    }
+
+    private void adquirir(ReentrantLock bloqueo) {
+        try {
+            if (!bloqueo.tryLock(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new ConflictoHorarioException(
+                        "La agenda del profesional está siendo modificada por otra solicitud, intente de nuevo");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictoHorarioException("Reserva interrumpida mientras esperaba la agenda del profesional", e);
+        }
+    }
+
+    /**
+     * Clave de bloqueo: agenda de un profesional en un día concreto.
+     */
+    public static final class ClaveAgenda {
+
+        private final Integer profesionalId;
+        private final LocalDate dia;
+
+        public ClaveAgenda(Integer profesionalId, LocalDate dia) {
+            this.profesionalId = profesionalId;
+            this.dia = dia;
+        }
+
+        /**
+         * Claves de todos los días que toca el intervalo [inicio, fin) en la agenda del profesional.
+         * Un intervalo que termina justo a medianoche no toca el día siguiente.
+         */
+        public static List<ClaveAgenda> delIntervalo(Integer profesionalId, LocalDateTime inicio, LocalDateTime fin) {
+            LocalDate primero = inicio.toLocalDate();
+            LocalDate ultimo = fin.isAfter(inicio) ? fin.minusNanos(1).toLocalDate() : primero;
+            List<ClaveAgenda> claves = new ArrayList<>();
+            for (LocalDate dia = primero; !dia.isAfter(ultimo); dia = dia.plusDays(1)) {
+                claves.add(new ClaveAgenda(profesionalId, dia));
+            }
+            return claves;
+        }
+
+        public Integer getProfesionalId() {
+            return profesionalId;
+        }
+
+        public LocalDate getDia() {
+            return dia;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClaveAgenda otra)) {
+                return false;
+            }
+            return Objects.equals(profesionalId, otra.profesionalId) && Objects.equals(dia, otra.dia);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(profesionalId, dia);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.EstadisticasCacheDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.util.IndicePrefijos;
+import com.andrey.sistema_citas.util.NormalizadorTexto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Caché en memoria del catálogo de servicios, que cambia pocas veces y se lee en cada
+ * formulario de citas y en cada consulta de /api/servicios.
+ * Guarda copias inmutables de los servicios, por ID y como catálogo completo, con un tamaño
+ * máximo (citas.servicios.cache.maximo) y una caducidad desde la carga (citas.servicios.cache.ttl).
+ * Cada lectura devuelve DTO nuevos, de modo que quien los modifique no altera la caché.
+ * El catálogo incluye un índice por las palabras del nombre para las búsquedas por prefijo.
+ * ServicioService invalida las entradas afectadas al confirmar cada escritura; una carga que
+ * coincide con la invalidación termina antes de que esta la descarte, por lo que tras
+ * la confirmación no queda ninguna copia anterior.
+ * Con un tamaño máximo de 0 la caché queda desactivada y todas las lecturas van a la base de datos.
+ */
+@Component
+public class CacheServicios {
+
+    private static final String CLAVE_CATALOGO = "todos";
+
+    private final ServicioRepository servicioRepository;
+    private final boolean habilitada;
+    private final Cache<Integer, ServicioFoto> porId;
+    private final Cache<String, Catalogo> catalogo;
+
+    public CacheServicios(ServicioRepository servicioRepository,
+                          @Value("${citas.servicios.cache.maximo:500}") long maximo,
+                          @Value("${citas.servicios.cache.ttl:PT10M}") Duration ttl) {
+        if (maximo < 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché de servicios no puede ser negativo");
+        }
+        this.servicioRepository = servicioRepository;
+        this.habilitada = maximo > 0;
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.catalogo = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Obtiene todos los servicios, cargándolos de la base de datos si no están en la caché.
+     */
+    public List<ServicioDTO> obtenerTodos() {
+        return catalogo().porId().values().stream().map(ServicioFoto::aDTO).toList();
+    }
+
+    /**
+     * Busca los servicios con alguna palabra del nombre que empiece por el texto indicado,
+     * hasta el límite indicado.
+     */
+    public List<SugerenciaDTO> buscar(String texto, int limite) {
+        Catalogo actual = catalogo();
+        String prefijo = NormalizadorTexto.normalizar(texto == null ? "" : texto);
+        return actual.indice().buscar(prefijo, limite).stream()
+                .map(actual.porId()::get)
+                .map(foto -> new SugerenciaDTO(foto.id(), foto.nombre(), foto.duracion()))
+                .toList();
+    }
+
+    /**
+     * Obtiene un servicio por su ID, cargándolo de la base de datos si no está en la caché.
+     * Los servicios inexistentes no se guardan.
+     */
+    public Optional<ServicioDTO> obtenerPorId(Integer id) {
+        ServicioFoto foto = habilitada
+                ? porId.get(id, this::cargar)
+                : cargar(id);
+        return Optional.ofNullable(foto).map(ServicioFoto::aDTO);
+    }
+
+    /**
+     * Descarta el servicio indicado, si no es null, y el catálogo completo una vez confirmada
+     * la transacción actual, o de inmediato si no hay ninguna.
+     */
+    public void invalidarAlConfirmar(Integer id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidar(id);
+                }
+            });
+        } else {
+            invalidar(id);
+        }
+    }
+
+    /**
+     * Métricas de la caché por ID y de la caché del catálogo.
+     */
+    public List<EstadisticasCacheDTO> estadisticas() {
+        return List.of(
+                estadisticas("servicios.porId", porId),
+                estadisticas("servicios.catalogo", catalogo));
+    }
+
+    private void invalidar(Integer id) {
+        if (id != null) {
+            porId.invalidate(id);
+        }
+        catalogo.invalidate(CLAVE_CATALOGO);
+    }
+
+    private ServicioFoto cargar(Integer id) {
+        return servicioRepository.findById(id).map(ServicioFoto::de).orElse(null);
+    }
+
+    private Catalogo catalogo() {
+        return habilitada
+                ? catalogo.get(CLAVE_CATALOGO, clave -> cargarCatalogo())
+                : cargarCatalogo();
+    }
+
+    private Catalogo cargarCatalogo() {
+        Map<Integer, ServicioFoto> porId = new LinkedHashMap<>();
+        Map<Integer, List<String>> claves = new LinkedHashMap<>();
+        for (Servicio servicio : servicioRepository.findAll()) {
+            ServicioFoto foto = ServicioFoto.de(servicio);
+            porId.put(foto.id(), foto);
+            claves.put(foto.id(), IndicePrefijos.clavesDePalabras(foto.nombre()));
+        }
+        return new Catalogo(Collections.unmodifiableMap(porId), IndicePrefijos.construir(claves));
+    }
+
+    private static EstadisticasCacheDTO estadisticas(String nombre, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new EstadisticasCacheDTO(nombre, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    /**
+     * Catálogo completo con los servicios en el orden de la base de datos y su índice por nombre.
+     */
+    private record Catalogo(Map<Integer, ServicioFoto> porId, IndicePrefijos indice) {
+    }
+
+    /**
+     * Copia inmutable de un servicio tal como se leyó de la base de datos.
+     */
+    private record ServicioFoto(Integer id, Long version, String nombre, String descripcion,
+                                String duracion, Double precio) {
+
+        static ServicioFoto de(Servicio servicio) {
+            return new ServicioFoto(servicio.getId(), servicio.getVersion(), servicio.getNombre(),
+                    servicio.getDescripcion(), servicio.getDuracion(), servicio.getPrecio());
+        }
+
+        ServicioDTO aDTO() {
+            return new ServicioDTO(id, nombre, descripcion, duracion, precio, version);
+        }
+    }
+}
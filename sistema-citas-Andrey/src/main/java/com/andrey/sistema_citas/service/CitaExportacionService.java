@@ -0,0 +1,117 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Servicio que serializa la exportación de citas en formato NDJSON o CSV.
+ * Escribe cada fila directamente en el flujo de salida a medida que se lee de la base de datos.
+ */
+@Service
+public class CitaExportacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CitaExportacionService.class);
+
+    public static final String FORMATO_NDJSON = "ndjson";
+    public static final String FORMATO_CSV = "csv";
+
+    private static final String ENCABEZADO_CSV =
+            "id,fechaHora,estado,usuarioId,usuarioNombre,servicioId,servicioNombre,profesionalId,profesionalNombre";
+
+    private final CitaService citaService;
+    private final ObjectMapper objectMapper;
+
+    public CitaExportacionService(CitaService citaService, ObjectMapper objectMapper) {
+        this.citaService = citaService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Valida el formato solicitado y lo devuelve normalizado.
+     */
+    public String normalizarFormato(String formato) {
+        String normalizado = formato == null ? FORMATO_NDJSON : formato.trim().toLowerCase();
+        if (!FORMATO_NDJSON.equals(normalizado) && !FORMATO_CSV.equals(normalizado)) {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + formato);
+        }
+        return normalizado;
+    }
+
+    /**
+     * Escribe en la salida las citas que cumplen los filtros en el formato indicado.
+     */
+    public void exportar(String formato, Integer usuarioId, Integer profesionalId, EstadoCita estado,
+                         LocalDateTime inicio, LocalDateTime fin, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        boolean csv = FORMATO_CSV.equals(formato);
+        if (csv) {
+            writer.write(ENCABEZADO_CSV);
+            writer.write('\n');
+        }
+        try {
+            long total = citaService.exportar(usuarioId, profesionalId, estado, inicio, fin, cita -> {
+                try {
+                    writer.write(csv ? aCsv(cita) : aJson(cita));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.debug("Exportadas {} citas en formato {}", total, formato);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String aJson(CitaDTO cita) {
+        try {
+            return objectMapper.writeValueAsString(cita);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la cita con ID: " + cita.getId(), e);
+        }
+    }
+
+    private String aCsv(CitaDTO cita) {
+        return String.join(",",
+                valorCsv(cita.getId()),
+                valorCsv(cita.getFechaHora()),
+                valorCsv(cita.getEstado()),
+                valorCsv(cita.getUsuarioId()),
+                valorCsv(cita.getUsuarioNombre()),
+                valorCsv(cita.getServicioId()),
+                valorCsv(cita.getServicioNombre()),
+                valorCsv(cita.getProfesionalId()),
+                valorCsv(cita.getProfesionalNombre()));
+    }
+
+    /**
+     * Escapa un valor según RFC 4180: se encierra entre comillas si contiene
+     * separadores, comillas o saltos de línea.
+     */
+    private String valorCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0
+                || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
@@ -1,24 +1,56 @@
 package com.andrey.sistema_citas.service;
 
 import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.FilaLoteDTO;
+import com.andrey.sistema_citas.dto.PaginaDTO;
+import com.andrey.sistema_citas.dto.ResultadoLoteDTO;
+import com.andrey.sistema_citas.dto.ResultadoTransicionDTO;
+import com.andrey.sistema_citas.dto.TransicionLoteDTO;
 import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
 import com.andrey.sistema_citas.entity.Profesional;
 import com.andrey.sistema_citas.entity.Servicio;
 import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.exception.ConflictoHorarioException;
 import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.repository.CitaRepository;
 import com.andrey.sistema_citas.repository.ProfesionalRepository;
 import com.andrey.sistema_citas.repository.ServicioRepository;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
+import com.andrey.sistema_citas.util.ControlVersiones;
+import com.andrey.sistema_citas.util.CursorCita;
 import com.andrey.sistema_citas.util.EntityMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Servicio que gestiona la lógica de negocio relacionada con citas.
@@ -30,17 +62,49 @@ public class CitaService {
 
     private static final Logger logger = LoggerFactory.getLogger(CitaService.class);
 
+    /**
+     * Número máximo de citas que se devuelven en una página.
+     */
+    public static final int LIMITE_MAXIMO_PAGINA = 500;
+
+    /**
+     * Número máximo de citas aceptadas en una creación por lotes.
+     */
+    public static final int TAMANO_MAXIMO_LOTE = 10_000;
+
+    /**
+     * Número de citas que se escriben antes de vaciar el contexto de persistencia.
+     * Coincide con un múltiplo de hibernate.jdbc.batch_size.
+     */
+    private static final int CITAS_POR_ESCRITURA = 500;
+
     private final CitaRepository citaRepository;
     private final UsuarioRepository usuarioRepository;
     private final ServicioRepository servicioRepository;
     private final ProfesionalRepository profesionalRepository;
+    private final IndiceAgendas indiceAgendas;
+    private final BloqueoReservas bloqueoReservas;
+    private final RollupDiarioService rollupDiarioService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public CitaService(CitaRepository citaRepository, UsuarioRepository usuarioRepository,
-                       ServicioRepository servicioRepository, ProfesionalRepository profesionalRepository) {
+                       ServicioRepository servicioRepository, ProfesionalRepository profesionalRepository,
+                       IndiceAgendas indiceAgendas, BloqueoReservas bloqueoReservas,
+                       RollupDiarioService rollupDiarioService,
+                       ApplicationEventPublisher eventPublisher, Validator validator) {
         this.citaRepository = citaRepository;
         this.usuarioRepository = usuarioRepository;
         this.servicioRepository = servicioRepository;
         this.profesionalRepository = profesionalRepository;
+        this.indiceAgendas = indiceAgendas;
+        this.bloqueoReservas = bloqueoReservas;
+        this.rollupDiarioService = rollupDiarioService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
     }
 
     /**
@@ -49,9 +113,7 @@ public class CitaService {
     @Transactional(readOnly = true)
     public List<CitaDTO> obtenerTodas() {
         logger.debug("Obteniendo todas las citas");
-        return citaRepository.findAll().stream()
-                .map(EntityMapper::toCitaDTO)
-                .collect(Collectors.toList());
+        return citaRepository.findDTOTodas();
     }
 
     /**
@@ -60,9 +122,8 @@ public class CitaService {
     @Transactional(readOnly = true)
     public CitaDTO obtenerPorId(Integer id) {
         logger.debug("Obteniendo cita con ID: {}", id);
-        Cita cita = citaRepository.findById(id)
+        return citaRepository.findDTOPorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + id));
-        return EntityMapper.toCitaDTO(cita);
     }
 
     /**
@@ -71,9 +132,7 @@ public class CitaService {
     @Transactional(readOnly = true)
     public List<CitaDTO> obtenerPorUsuario(Integer usuarioId) {
         logger.debug("Obteniendo citas del usuario con ID: {}", usuarioId);
-        return citaRepository.findByUsuarioId(usuarioId).stream()
-                .map(EntityMapper::toCitaDTO)
-                .collect(Collectors.toList());
+        return citaRepository.findDTOPorUsuario(usuarioId);
     }
 
     /**
@@ -82,9 +141,7 @@ public class CitaService {
     @Transactional(readOnly = true)
     public List<CitaDTO> obtenerPorProfesional(Integer profesionalId) {
         logger.debug("Obteniendo citas del profesional con ID: {}", profesionalId);
-        return citaRepository.findByProfesionalId(profesionalId).stream()
-                .map(EntityMapper::toCitaDTO)
-                .collect(Collectors.toList());
+        return citaRepository.findDTOPorProfesional(profesionalId);
     }
 
     /**
@@ -93,9 +150,93 @@ public class CitaService {
     @Transactional(readOnly = true)
     public List<CitaDTO> obtenerPorEstado(String estado) {
         logger.debug("Obteniendo citas con estado: {}", estado);
-        return citaRepository.findByEstado(estado).stream()
-                .map(EntityMapper::toCitaDTO)
-                .collect(Collectors.toList());
+        return citaRepository.findDTOPorEstado(estadoObligatorio(estado));
+    }
+
+    /**
+     * Obtiene una página de citas ordenadas por fecha y hora a partir de un cursor.
+     * Si el cursor es null se devuelve la primera página.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CitaDTO> obtenerPagina(String cursor, int limite) {
+        logger.debug("Obteniendo página de citas con cursor: {} y límite: {}", cursor, limite);
+        int tamano = normalizarLimite(limite);
+        if (cursor == null || cursor.isBlank()) {
+            return construirPagina(citaRepository.findIdsPrimeraPagina(Limit.of(tamano + 1)), tamano);
+        }
+        CursorCita posicion = CursorCita.decodificar(cursor);
+        return construirPagina(citaRepository.findIdsPaginaDespuesDe(
+                posicion.getFechaHora(), posicion.getId(), Limit.of(tamano + 1)), tamano);
+    }
+
+    /**
+     * Obtiene una página de citas de un usuario a partir de un cursor.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CitaDTO> obtenerPaginaPorUsuario(Integer usuarioId, String cursor, int limite) {
+        logger.debug("Obteniendo página de citas del usuario con ID: {} y cursor: {}", usuarioId, cursor);
+        int tamano = normalizarLimite(limite);
+        if (cursor == null || cursor.isBlank()) {
+            return construirPagina(citaRepository.findIdsPrimeraPaginaPorUsuario(
+                    usuarioId, Limit.of(tamano + 1)), tamano);
+        }
+        CursorCita posicion = CursorCita.decodificar(cursor);
+        return construirPagina(citaRepository.findIdsPaginaPorUsuarioDespuesDe(
+                usuarioId, posicion.getFechaHora(), posicion.getId(), Limit.of(tamano + 1)), tamano);
+    }
+
+    /**
+     * Obtiene una página de citas de un profesional a partir de un cursor.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CitaDTO> obtenerPaginaPorProfesional(Integer profesionalId, String cursor, int limite) {
+        logger.debug("Obteniendo página de citas del profesional con ID: {} y cursor: {}", profesionalId, cursor);
+        int tamano = normalizarLimite(limite);
+        if (cursor == null || cursor.isBlank()) {
+            return construirPagina(citaRepository.findIdsPrimeraPaginaPorProfesional(
+                    profesionalId, Limit.of(tamano + 1)), tamano);
+        }
+        CursorCita posicion = CursorCita.decodificar(cursor);
+        return construirPagina(citaRepository.findIdsPaginaPorProfesionalDespuesDe(
+                profesionalId, posicion.getFechaHora(), posicion.getId(), Limit.of(tamano + 1)), tamano);
+    }
+
+    /**
+     * Obtiene una página de citas con un estado determinado a partir de un cursor.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CitaDTO> obtenerPaginaPorEstado(String estado, String cursor, int limite) {
+        logger.debug("Obteniendo página de citas con estado: {} y cursor: {}", estado, cursor);
+        int tamano = normalizarLimite(limite);
+        if (cursor == null || cursor.isBlank()) {
+            return construirPagina(citaRepository.findIdsPrimeraPaginaPorEstado(
+                    estadoObligatorio(estado), Limit.of(tamano + 1)), tamano);
+        }
+        CursorCita posicion = CursorCita.decodificar(cursor);
+        return construirPagina(citaRepository.findIdsPaginaPorEstadoDespuesDe(
+                estadoObligatorio(estado), posicion.getFechaHora(), posicion.getId(), Limit.of(tamano + 1)), tamano);
+    }
+
+    /**
+     * Recorre las citas que cumplen los filtros indicados y entrega cada una al consumidor
+     * a medida que se leen, sin construir la lista completa en memoria.
+     * Las filas se proyectan directamente a CitaDTO, por lo que el uso de memoria se mantiene constante.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Integer usuarioId, Integer profesionalId, EstadoCita estado,
+                         LocalDateTime inicio, LocalDateTime fin, Consumer<CitaDTO> consumidor) {
+        logger.debug("Exportando citas - usuario: {}, profesional: {}, estado: {}, desde: {}, hasta: {}",
+                usuarioId, profesionalId, estado, inicio, fin);
+        long total = 0;
+        try (Stream<CitaDTO> citas = citaRepository.streamParaExportacion(usuarioId, profesionalId, estado, inicio, fin)) {
+            Iterator<CitaDTO> iterador = citas.iterator();
+            while (iterador.hasNext()) {
+                consumidor.accept(iterador.next());
+                total++;
+            }
+        }
+        logger.info("Exportación de citas finalizada: {} filas", total);
+        return total;
     }
 
     /**
@@ -103,6 +244,7 @@ public class CitaService {
      */
     public CitaDTO crear(CitaDTO citaDTO) {
         logger.debug("Creando nueva cita para usuario ID: {}", citaDTO.getUsuarioId());
+        indiceAgendas.precargarSolicitado(citaDTO.getProfesionalId());
 
         Usuario usuario = usuarioRepository.findById(citaDTO.getUsuarioId())
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + citaDTO.getUsuarioId()));
@@ -118,63 +260,453 @@ public class CitaService {
         cita.setServicio(servicio);
         cita.setProfesional(profesional);
 
-        if (cita.getEstado() == null || cita.getEstado().isEmpty()) {
-            cita.setEstado("PENDIENTE");
+        if (cita.getEstado() == null) {
+            cita.setEstado(EstadoCita.PENDIENTE);
         }
 
-        Cita citaGuardada = citaRepository.save(cita);
+        CitaResumen nueva = CitaResumen.de(cita);
+        indiceAgendas.precargar(nueva.getProfesionalId());
+        bloqueoReservas.bloquearHastaFinDeTransaccion(clavesAgenda(nueva));
+        verificarDisponibilidad(nueva);
+
+        Cita citaGuardada = guardarReserva(cita);
         logger.info("Cita creada exitosamente con ID: {}", citaGuardada.getId());
 
+        eventPublisher.publishEvent(CitaCambioEvent.creada(CitaResumen.de(citaGuardada)));
+
         return EntityMapper.toCitaDTO(citaGuardada);
     }
 
+    /**
+     * Crea un conjunto de citas en una sola transacción.
+     * Las referencias a usuarios, servicios y profesionales se validan con una consulta IN por tipo,
+     * y las inserciones se envían en lotes JDBC. Las filas inválidas, con referencias inexistentes
+     * o que se solapan con otra cita (existente o del mismo lote) se rechazan individualmente
+     * sin impedir la creación del resto.
+     */
+    public ResultadoLoteDTO crearLote(List<CitaDTO> citasDTO) {
+        logger.debug("Creando lote de {} citas", citasDTO.size());
+        if (citasDTO.size() > TAMANO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("El lote no puede superar " + TAMANO_MAXIMO_LOTE + " citas");
+        }
+
+        citasDTO.stream().filter(Objects::nonNull).map(CitaDTO::getProfesionalId).distinct()
+                .forEach(indiceAgendas::precargarSolicitado);
+
+        ResultadoLoteDTO resultado = new ResultadoLoteDTO(citasDTO.size());
+        Map<Integer, String> rechazos = new HashMap<>();
+        for (int i = 0; i < citasDTO.size(); i++) {
+            CitaDTO dto = citasDTO.get(i);
+            if (dto == null) {
+                rechazos.put(i, "La cita es obligatoria");
+                continue;
+            }
+            Set<ConstraintViolation<CitaDTO>> violaciones = validator.validate(dto);
+            if (!violaciones.isEmpty()) {
+                rechazos.put(i, violaciones.iterator().next().getMessage());
+            }
+        }
+
+        Map<Integer, Usuario> usuarios = cargarPorId(citasDTO, rechazos, CitaDTO::getUsuarioId,
+                usuarioRepository::findAllById, Usuario::getId);
+        Map<Integer, Servicio> servicios = cargarPorId(citasDTO, rechazos, CitaDTO::getServicioId,
+                servicioRepository::findAllById, Servicio::getId);
+        Map<Integer, Profesional> profesionales = cargarPorId(citasDTO, rechazos, CitaDTO::getProfesionalId,
+                profesionalRepository::findAllById, Profesional::getId);
+
+        List<Cita> candidatas = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        Set<BloqueoReservas.ClaveAgenda> claves = new HashSet<>();
+        for (int i = 0; i < citasDTO.size(); i++) {
+            if (rechazos.containsKey(i)) {
+                continue;
+            }
+            CitaDTO dto = citasDTO.get(i);
+            String error = referenciaFaltante(dto, usuarios, servicios, profesionales);
+            if (error != null) {
+                rechazos.put(i, error);
+                continue;
+            }
+            Cita cita;
+            try {
+                cita = EntityMapper.toCita(dto);
+            } catch (IllegalArgumentException e) {
+                rechazos.put(i, e.getMessage());
+                continue;
+            }
+            cita.setId(null);
+            cita.setUsuario(usuarios.get(dto.getUsuarioId()));
+            cita.setServicio(servicios.get(dto.getServicioId()));
+            cita.setProfesional(profesionales.get(dto.getProfesionalId()));
+            if (cita.getEstado() == null) {
+                cita.setEstado(EstadoCita.PENDIENTE);
+            }
+            candidatas.add(cita);
+            indices.add(i);
+            claves.addAll(List.of(clavesAgenda(CitaResumen.de(cita))));
+        }
+
+        claves.forEach(clave -> indiceAgendas.precargar(clave.getProfesionalId()));
+        bloqueoReservas.bloquearHastaFinDeTransaccion(claves.toArray(new BloqueoReservas.ClaveAgenda[0]));
+
+        // Intervalos aceptados dentro del propio lote, por profesional (inicio -> fin, sin solapamientos)
+        Map<Integer, NavigableMap<LocalDateTime, LocalDateTime>> aceptadas = new HashMap<>();
+        List<Cita> aGuardar = new ArrayList<>();
+        List<Integer> indicesAGuardar = new ArrayList<>();
+        for (int j = 0; j < candidatas.size(); j++) {
+            Cita cita = candidatas.get(j);
+            CitaResumen resumen = CitaResumen.de(cita);
+            if (resumen.ocupaHorario()) {
+                try {
+                    verificarDisponibilidad(resumen);
+                } catch (ConflictoHorarioException e) {
+                    rechazos.put(indices.get(j), e.getMessage());
+                    continue;
+                }
+                NavigableMap<LocalDateTime, LocalDateTime> delProfesional =
+                        aceptadas.computeIfAbsent(resumen.getProfesionalId(), id -> new TreeMap<>());
+                Map.Entry<LocalDateTime, LocalDateTime> previa = delProfesional.lowerEntry(resumen.getFin());
+                if (previa != null && previa.getValue().isAfter(resumen.getInicio())) {
+                    rechazos.put(indices.get(j), "Se solapa con otra cita del mismo lote que inicia a las " + previa.getKey());
+                    continue;
+                }
+                delProfesional.put(resumen.getInicio(), resumen.getFin());
+            }
+            aGuardar.add(cita);
+            indicesAGuardar.add(indices.get(j));
+        }
+
+        List<CitaResumen> creadas = new ArrayList<>(aGuardar.size());
+        for (int desde = 0; desde < aGuardar.size(); desde += CITAS_POR_ESCRITURA) {
+            List<Cita> bloque = aGuardar.subList(desde, Math.min(desde + CITAS_POR_ESCRITURA, aGuardar.size()));
+            citaRepository.saveAll(bloque);
+            try {
+                citaRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                if (esViolacionDeFranja(e)) {
+                    throw new ConflictoHorarioException(
+                            "Una de las citas del lote fue reservada concurrentemente por otra solicitud", e);
+                }
+                throw e;
+            }
+            for (Cita cita : bloque) {
+                creadas.add(CitaResumen.de(cita));
+            }
+            entityManager.clear();
+        }
+
+        for (int j = 0; j < creadas.size(); j++) {
+            resultado.getCreadas().add(FilaLoteDTO.creada(indicesAGuardar.get(j), creadas.get(j).getId()));
+            eventPublisher.publishEvent(CitaCambioEvent.creada(creadas.get(j)));
+        }
+        rechazos.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(rechazo -> resultado.getRechazadas().add(
+                        FilaLoteDTO.rechazada(rechazo.getKey(), rechazo.getValue())));
+
+        logger.info("Lote de citas procesado: {} creadas, {} rechazadas",
+                resultado.getCreadas().size(), resultado.getRechazadas().size());
+        return resultado;
+    }
+
     /**
      * Actualiza la información de una cita existente.
      */
     public CitaDTO actualizar(Integer id, CitaDTO citaDTO) {
+        return actualizar(id, citaDTO, null);
+    }
+
+    /**
+     * Actualiza la información de una cita existente comprobando su versión.
+     * La versión esperada proviene de la cabecera If-Match; la del DTO, de los datos que leyó el cliente.
+     */
+    public CitaDTO actualizar(Integer id, CitaDTO citaDTO, Long versionEsperada) {
         logger.debug("Actualizando cita con ID: {}", id);
+        indiceAgendas.precargarSolicitado(citaDTO.getProfesionalId());
 
-        Cita cita = citaRepository.findById(id)
+        Cita cita = citaRepository.findDetalleById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + id));
+        ControlVersiones.verificar("la cita", id, cita.getVersion(), versionEsperada, citaDTO.getVersion());
+        CitaResumen anterior = CitaResumen.de(cita);
+        EstadoCita estado = estadoObligatorio(citaDTO.getEstado());
 
-        cita.setFechaHora(citaDTO.getFechaHora());
-        cita.setEstado(citaDTO.getEstado());
-
-        if (citaDTO.getUsuarioId() != null && !cita.getUsuario().getId().equals(citaDTO.getUsuarioId())) {
-            Usuario usuario = usuarioRepository.findById(citaDTO.getUsuarioId())
+        Usuario usuario = cita.getUsuario();
+        if (citaDTO.getUsuarioId() != null && !usuario.getId().equals(citaDTO.getUsuarioId())) {
+            usuario = usuarioRepository.findById(citaDTO.getUsuarioId())
                     .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + citaDTO.getUsuarioId()));
-            cita.setUsuario(usuario);
         }
 
-        if (citaDTO.getServicioId() != null && !cita.getServicio().getId().equals(citaDTO.getServicioId())) {
-            Servicio servicio = servicioRepository.findById(citaDTO.getServicioId())
+        Servicio servicio = cita.getServicio();
+        if (citaDTO.getServicioId() != null && !servicio.getId().equals(citaDTO.getServicioId())) {
+            servicio = servicioRepository.findById(citaDTO.getServicioId())
                     .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + citaDTO.getServicioId()));
-            cita.setServicio(servicio);
         }
 
-        if (citaDTO.getProfesionalId() != null && !cita.getProfesional().getId().equals(citaDTO.getProfesionalId())) {
-            Profesional profesional = profesionalRepository.findById(citaDTO.getProfesionalId())
+        Profesional profesional = cita.getProfesional();
+        if (citaDTO.getProfesionalId() != null && !profesional.getId().equals(citaDTO.getProfesionalId())) {
+            profesional = profesionalRepository.findById(citaDTO.getProfesionalId())
                     .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con ID: " + citaDTO.getProfesionalId()));
-            cita.setProfesional(profesional);
         }
 
-        Cita citaActualizada = citaRepository.save(cita);
+        // La cita se valida antes de modificar la entidad, que no debe llegar a la base de datos si se rechaza
+        CitaResumen nueva = CitaResumen.de(id, citaDTO.getFechaHora(), estado, usuario, servicio, profesional);
+        indiceAgendas.precargar(nueva.getProfesionalId());
+        Set<BloqueoReservas.ClaveAgenda> claves = new HashSet<>(List.of(clavesAgenda(anterior)));
+        claves.addAll(List.of(clavesAgenda(nueva)));
+        bloqueoReservas.bloquearHastaFinDeTransaccion(claves.toArray(new BloqueoReservas.ClaveAgenda[0]));
+        verificarDisponibilidad(nueva);
+
+        cita.setFechaHora(citaDTO.getFechaHora());
+        cita.setEstado(estado);
+        cita.setUsuario(usuario);
+        cita.setServicio(servicio);
+        cita.setProfesional(profesional);
+
+        Cita citaActualizada = guardarReserva(cita);
         logger.info("Cita actualizada exitosamente con ID: {}", citaActualizada.getId());
 
+        eventPublisher.publishEvent(CitaCambioEvent.actualizada(anterior, CitaResumen.de(citaActualizada)));
+
         return EntityMapper.toCitaDTO(citaActualizada);
     }
 
+    /**
+     * Actualiza solo los campos informados (no nulos) de una cita. Los campos omitidos conservan
+     * su valor actual y la cita resultante pasa por las mismas validaciones que una actualización
+     * completa; Hibernate escribe únicamente las columnas modificadas.
+     */
+    public CitaDTO actualizarParcial(Integer id, CitaDTO cambios, Long versionEsperada) {
+        logger.debug("Actualizando parcialmente cita con ID: {}", id);
+
+        CitaDTO datos = citaRepository.findDTOPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + id));
+        if (cambios.getFechaHora() != null) {
+            datos.setFechaHora(cambios.getFechaHora());
+        }
+        if (cambios.getEstado() != null) {
+            datos.setEstado(cambios.getEstado());
+        }
+        if (cambios.getUsuarioId() != null) {
+            datos.setUsuarioId(cambios.getUsuarioId());
+        }
+        if (cambios.getServicioId() != null) {
+            datos.setServicioId(cambios.getServicioId());
+        }
+        if (cambios.getProfesionalId() != null) {
+            datos.setProfesionalId(cambios.getProfesionalId());
+        }
+        datos.setVersion(cambios.getVersion());
+
+        Set<ConstraintViolation<CitaDTO>> violaciones = validator.validate(datos);
+        if (!violaciones.isEmpty()) {
+            throw new ConstraintViolationException(violaciones);
+        }
+        return actualizar(id, datos, versionEsperada);
+    }
+
+    /**
+     * Cambia el estado de todas las citas que cumplen los criterios con una sola sentencia UPDATE.
+     * Al menos un criterio (estado de origen, profesional o fecha) es obligatorio para evitar
+     * transiciones accidentales sobre todas las citas. Las citas canceladas no se modifican.
+     */
+    public ResultadoTransicionDTO transicionarEnLote(TransicionLoteDTO transicion) {
+        logger.debug("Aplicando transición por lotes: {}", transicion);
+
+        EstadoCita destino = EstadoCita.desdeNombre(transicion.getEstadoDestino());
+        EstadoCita origen = EstadoCita.desdeNombre(transicion.getEstadoOrigen());
+        if (destino == null) {
+            throw new IllegalArgumentException("El estado de destino es obligatorio");
+        }
+        if (origen == null && transicion.getProfesionalId() == null
+                && transicion.getDesde() == null && transicion.getHasta() == null) {
+            throw new IllegalArgumentException(
+                    "La transición por lotes requiere al menos un criterio: estado de origen, profesional o fechas");
+        }
+
+        // El resumen diario y los grupos del evento se calculan antes del UPDATE,
+        // mientras las citas conservan su estado anterior
+        rollupDiarioService.registrarTransicionEnLote(destino, origen, transicion.getProfesionalId(),
+                transicion.getDesde(), transicion.getHasta());
+        List<CitasTransicionLoteEvent.Grupo> grupos = new ArrayList<>();
+        for (Object[] fila : citaRepository.contarParaTransicionEnLote(destino, origen, transicion.getProfesionalId(),
+                transicion.getDesde(), transicion.getHasta())) {
+            grupos.add(new CitasTransicionLoteEvent.Grupo((LocalDate) fila[0], (EstadoCita) fila[1],
+                    (Integer) fila[2], ((Number) fila[3]).longValue()));
+        }
+        int afectadas = destino == EstadoCita.CANCELADA
+                ? citaRepository.cancelarEnLote(origen, transicion.getProfesionalId(),
+                        transicion.getDesde(), transicion.getHasta())
+                : citaRepository.cambiarEstadoEnLote(destino, origen, transicion.getProfesionalId(),
+                        transicion.getDesde(), transicion.getHasta());
+
+        logger.info("Transición por lotes a {} aplicada a {} citas", destino, afectadas);
+        if (afectadas > 0) {
+            eventPublisher.publishEvent(new CitasTransicionLoteEvent(origen, destino, transicion.getProfesionalId(),
+                    transicion.getDesde(), transicion.getHasta(), afectadas, grupos));
+        }
+        return new ResultadoTransicionDTO(destino.name(), afectadas);
+    }
+
+    /**
+     * Marca como expiradas las citas pendientes cuya fecha y hora ya pasaron.
+     */
+    public int expirarPendientes(LocalDateTime ahora) {
+        return transicionarEnLote(new TransicionLoteDTO(
+                EstadoCita.EXPIRADA.name(), EstadoCita.PENDIENTE.name(), null, null, ahora)).getAfectadas();
+    }
+
     /**
      * Elimina una cita del sistema.
      */
     public void eliminar(Integer id) {
         logger.debug("Eliminando cita con ID: {}", id);
 
-        if (!citaRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Cita no encontrada con ID: " + id);
-        }
+        Cita cita = citaRepository.findConServicioById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cita no encontrada con ID: " + id));
+        CitaResumen anterior = CitaResumen.de(cita);
 
-        citaRepository.deleteById(id);
+        citaRepository.delete(cita);
         logger.info("Cita eliminada exitosamente con ID: {}", id);
+
+        eventPublisher.publishEvent(CitaCambioEvent.eliminada(anterior));
+    }
+
+    /**
+     * Carga con una sola consulta IN las entidades referenciadas por las filas válidas del lote.
+     */
+    private <T> Map<Integer, T> cargarPorId(List<CitaDTO> citasDTO, Map<Integer, String> rechazos,
+                                            Function<CitaDTO, Integer> referencia,
+                                            Function<Set<Integer>, List<T>> buscarTodos,
+                                            Function<T, Integer> identificador) {
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < citasDTO.size(); i++) {
+            if (!rechazos.containsKey(i)) {
+                ids.add(referencia.apply(citasDTO.get(i)));
+            }
+        }
+        Map<Integer, T> entidades = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (T entidad : buscarTodos.apply(ids)) {
+                entidades.put(identificador.apply(entidad), entidad);
+            }
+        }
+        return entidades;
+    }
+
+    private String referenciaFaltante(CitaDTO dto, Map<Integer, Usuario> usuarios,
+                                      Map<Integer, Servicio> servicios, Map<Integer, Profesional> profesionales) {
+        if (!usuarios.containsKey(dto.getUsuarioId())) {
+            return "Usuario no encontrado con ID: " + dto.getUsuarioId();
+        }
+        if (!servicios.containsKey(dto.getServicioId())) {
+            return "Servicio no encontrado con ID: " + dto.getServicioId();
+        }
+        if (!profesionales.containsKey(dto.getProfesionalId())) {
+            return "Profesional no encontrado con ID: " + dto.getProfesionalId();
+        }
+        return null;
+    }
+
+    /**
+     * Convierte el nombre de un estado recibido en la API; el estado es obligatorio.
+     */
+    private EstadoCita estadoObligatorio(String nombre) {
+        EstadoCita estado = EstadoCita.desdeNombre(nombre);
+        if (estado == null) {
+            throw new IllegalArgumentException("El estado de la cita es obligatorio");
+        }
+        return estado;
+    }
+
+    /**
+     * Claves de bloqueo de la agenda afectada por la cita: su profesional en cada día que toca su intervalo.
+     */
+    private BloqueoReservas.ClaveAgenda[] clavesAgenda(CitaResumen cita) {
+        return BloqueoReservas.ClaveAgenda.delIntervalo(cita.getProfesionalId(), cita.getInicio(), cita.getFin())
+                .toArray(new BloqueoReservas.ClaveAgenda[0]);
+    }
+
+    /**
+     * Guarda la cita forzando la escritura inmediata para detectar aquí la violación de la
+     * restricción única de franja, que protege frente a reservas concurrentes en otros nodos.
+     */
+    private Cita guardarReserva(Cita cita) {
+        try {
+            return citaRepository.saveAndFlush(cita);
+        } catch (DataIntegrityViolationException e) {
+            if (esViolacionDeFranja(e)) {
+                throw new ConflictoHorarioException(
+                        "El profesional ya tiene una cita a las " + cita.getFechaHora(), e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Indica si el error se debe a la restricción única de franja de Cita.
+     */
+    static boolean esViolacionDeFranja(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            String mensaje = causa.getMessage();
+            if (mensaje != null && mensaje.toLowerCase().contains(Cita.RESTRICCION_FRANJA)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica que la cita no se solape con otra del mismo profesional ni con una ocurrencia
+     * pendiente de sus series. Las citas canceladas no ocupan horario y no se validan.
+     */
+    private void verificarDisponibilidad(CitaResumen cita) {
+        if (!cita.ocupaHorario()) {
+            return;
+        }
+        indiceAgendas.buscarSolapamiento(cita.getProfesionalId(), cita.getInicio(), cita.getFin(), cita.getId())
+                .ifPresent(existente -> {
+                    throw new ConflictoHorarioException(
+                            "El profesional ya tiene " + existente.describir()
+                                    + " entre " + existente.getInicio() + " y " + existente.getFin());
+                });
+    }
+
+    /**
+     * Valida el tamaño de página solicitado.
+     */
+    private int normalizarLimite(int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException(
+                    "El límite de la página debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+        return limite;
+    }
+
+    /**
+     * Construye la página a partir de los IDs leídos, que incluyen uno adicional para saber
+     * si existe una página posterior sin ejecutar un COUNT. Las citas de la página se proyectan
+     * en una sola consulta y se devuelven en el orden de los IDs.
+     */
+    private PaginaDTO<CitaDTO> construirPagina(List<Integer> ids, int limite) {
+        boolean hayMas = ids.size() > limite;
+        List<Integer> idsPagina = hayMas ? ids.subList(0, limite) : ids;
+        Map<Integer, CitaDTO> porId = new HashMap<>();
+        if (!idsPagina.isEmpty()) {
+            citaRepository.findDTOPorIds(idsPagina).forEach(cita -> porId.put(cita.getId(), cita));
+        }
+        List<CitaDTO> pagina = new ArrayList<>(idsPagina.size());
+        for (Integer id : idsPagina) {
+            CitaDTO cita = porId.get(id);
+            // Una cita eliminada entre ambas consultas no aparece en la página
+            if (cita != null) {
+                pagina.add(cita);
+            }
+        }
+        String siguiente = null;
+        if (hayMas && !pagina.isEmpty()) {
+            CitaDTO ultima = pagina.get(pagina.size() - 1);
+            siguiente = new CursorCita(ultima.getFechaHora(), ultima.getId()).codificar();
+        }
+        return new PaginaDTO<>(pagina, siguiente, limite);
     }
 }
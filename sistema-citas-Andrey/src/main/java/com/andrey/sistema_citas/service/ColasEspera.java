@@ -0,0 +1,348 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.event.SolicitudEsperaCambioEvent;
+import com.andrey.sistema_citas.event.SolicitudEsperaResumen;
+import com.andrey.sistema_citas.exception.ConflictoHorarioException;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.util.NormalizadorTexto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Colas de prioridad en memoria de la lista de espera, indexadas por día y por destino:
+ * un profesional concreto, una especialidad o cualquier profesional. Cada solicitud activa
+ * figura en la cola de su destino para cada día de su ventana, ordenada por urgencia y,
+ * a igual urgencia, por orden de llegada.
+ * Cuando una cita libera su franja (al eliminarla, cancelarla, moverla o cambiarla de profesional)
+ * se consultan solo las tres colas del día del hueco y se ofrece el hueco a los mejores candidatos
+ * cuya ventana lo admite, uno tras otro, hasta que uno obtiene la cita. Tras una cancelación por lotes,
+ * que no carga las citas, se consultan las citas canceladas de cada día y profesional afectados
+ * para los que hay solicitudes en cola, y se ofrece cada una de sus franjas. Las ofertas se procesan
+ * en un único hilo, de modo que una solicitud nunca se atiende dos veces en paralelo.
+ * Las colas se reconstruyen desde la base de datos al iniciar la aplicación.
+ */
+@Component
+public class ColasEspera {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColasEspera.class);
+
+    /**
+     * Número máximo de candidatos a los que se ofrece un mismo hueco. Si todos fallan,
+     * lo más probable es que el hueco ya no esté libre.
+     */
+    static final int MAXIMO_CANDIDATOS = 5;
+
+    private static final Comparator<SolicitudEsperaResumen> PRIORIDAD =
+            Comparator.comparing(SolicitudEsperaResumen::getUrgencia, Comparator.reverseOrder())
+                    .thenComparing(SolicitudEsperaResumen::getCreadaEn)
+                    .thenComparing(SolicitudEsperaResumen::getId);
+
+    private final ListaEsperaService listaEsperaService;
+    private final DirectorioProfesionales directorio;
+    private final ExecutorService ofertas;
+
+    // Protegidos por el monitor de esta instancia
+    private final Map<ClaveCola, NavigableSet<SolicitudEsperaResumen>> colas = new HashMap<>();
+    private final Map<Integer, SolicitudEsperaResumen> activas = new HashMap<>();
+
+    public ColasEspera(ListaEsperaService listaEsperaService, DirectorioProfesionales directorio) {
+        this.listaEsperaService = listaEsperaService;
+        this.directorio = directorio;
+        this.ofertas = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("lista-espera").factory());
+    }
+
+    /**
+     * Carga las solicitudes activas al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        List<SolicitudEsperaResumen> solicitudes = listaEsperaService.obtenerActivas(LocalDateTime.now());
+        synchronized (this) {
+            solicitudes.forEach(this::agregar);
+        }
+        logger.info("Lista de espera cargada: {} solicitudes activas", solicitudes.size());
+    }
+
+    /**
+     * Agrega o retira una solicitud de las colas una vez confirmada la transacción.
+     */
+    @TransactionalEventListener
+    public void alCambiarSolicitud(SolicitudEsperaCambioEvent evento) {
+        synchronized (this) {
+            quitar(evento.getSolicitudId());
+            if (evento.getActiva() != null) {
+                agregar(evento.getActiva());
+            }
+        }
+    }
+
+    /**
+     * Si el cambio confirmado libera la franja que ocupaba la cita, programa la oferta del hueco.
+     */
+    @TransactionalEventListener
+    public void alCambiarCita(CitaCambioEvent evento) {
+        CitaResumen anterior = evento.getAnterior();
+        if (anterior == null || !anterior.ocupaHorario() || !liberaFranja(anterior, evento.getActual())) {
+            return;
+        }
+        if (!anterior.getInicio().isAfter(LocalDateTime.now()) || vacia()) {
+            return;
+        }
+        ofertas.execute(() -> ofrecer(anterior.getProfesionalId(), anterior.getInicio()));
+    }
+
+    /**
+     * Si la transición por lotes confirmada cancela citas, programa la oferta de las franjas liberadas
+     * de cada día y profesional con citas afectadas, a partir de los grupos del evento. Solo se consultan
+     * los días con solicitudes en cola; las citas cambiadas en paralelo y no contadas en los grupos no
+     * se ofrecen, como tampoco se ofrecen los huecos que nadie esperaba al liberarse.
+     */
+    @TransactionalEventListener
+    public void alTransicionarLote(CitasTransicionLoteEvent evento) {
+        if (evento.getEstadoDestino().ocupaHorario()) {
+            return;
+        }
+        LocalDate hoy = LocalDate.now();
+        Map<Integer, SortedSet<LocalDate>> dias = new HashMap<>();
+        synchronized (this) {
+            for (CitasTransicionLoteEvent.Grupo grupo : evento.getGrupos()) {
+                if (grupo.estado().ocupaHorario() && !grupo.dia().isBefore(hoy) && tieneColas(grupo.dia())) {
+                    dias.computeIfAbsent(grupo.profesionalId(), p -> new TreeSet<>()).add(grupo.dia());
+                }
+            }
+        }
+        dias.forEach((profesionalId, diasProfesional) -> diasProfesional.forEach(dia ->
+                ofertas.execute(() -> ofrecerCanceladas(profesionalId, dia, evento))));
+    }
+
+    /**
+     * Marca como vencidas las solicitudes cuya ventana terminó y las retira de las colas,
+     * junto con las colas de días pasados.
+     */
+    @Scheduled(fixedDelayString = "${citas.espera.expiracion:PT15M}",
+               initialDelayString = "${citas.espera.expiracion:PT15M}")
+    public void purgar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        listaEsperaService.expirarVencidas(ahora);
+        int retiradas = 0;
+        synchronized (this) {
+            Iterator<SolicitudEsperaResumen> iterador = activas.values().iterator();
+            while (iterador.hasNext()) {
+                SolicitudEsperaResumen solicitud = iterador.next();
+                if (!solicitud.getHasta().isAfter(ahora)) {
+                    iterador.remove();
+                    retiradas++;
+                }
+            }
+            LocalDate hoy = ahora.toLocalDate();
+            colas.keySet().removeIf(clave -> clave.dia().isBefore(hoy));
+            colas.values().forEach(cola -> cola.removeIf(solicitud -> !activas.containsKey(solicitud.getId())));
+            colas.values().removeIf(NavigableSet::isEmpty);
+        }
+        if (retiradas > 0) {
+            logger.debug("Solicitudes vencidas retiradas de las colas: {}", retiradas);
+        }
+    }
+
+    /**
+     * Número de solicitudes activas en las colas.
+     */
+    public synchronized int activas() {
+        return activas.size();
+    }
+
+    @PreDestroy
+    public void detener() {
+        ofertas.shutdownNow();
+    }
+
+    /**
+     * Ofrece el hueco a los candidatos en orden de prioridad hasta que uno obtiene la cita.
+     */
+    private void ofrecer(Integer profesionalId, LocalDateTime inicio) {
+        try {
+            String especialidad = directorio.especialidadDe(profesionalId)
+                    .map(NormalizadorTexto::normalizar)
+                    .orElse(null);
+            for (SolicitudEsperaResumen candidato : candidatos(profesionalId, especialidad, inicio)) {
+                try {
+                    CitaDTO cita = listaEsperaService.asignar(candidato.getId(), profesionalId, inicio);
+                    synchronized (this) {
+                        quitar(candidato.getId());
+                    }
+                    if (cita != null) {
+                        logger.info("Hueco del profesional {} a las {} asignado a la solicitud de espera {}",
+                                profesionalId, inicio, candidato.getId());
+                        return;
+                    }
+                } catch (ConflictoHorarioException | IllegalArgumentException e) {
+                    // El hueco ya no admite este servicio; el siguiente candidato puede necesitar menos tiempo
+                    logger.debug("Hueco no asignable a la solicitud {}: {}", candidato.getId(), e.getMessage());
+                } catch (ResourceNotFoundException | OptimisticLockingFailureException e) {
+                    logger.debug("Solicitud de espera {} descartada: {}", candidato.getId(), e.getMessage());
+                    synchronized (this) {
+                        quitar(candidato.getId());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error al ofrecer el hueco del profesional {} a las {}: {}",
+                    profesionalId, inicio, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ofrece, una tras otra, las franjas canceladas del profesional en el día que caen dentro de los
+     * criterios de la transición y aún no han comenzado.
+     */
+    private void ofrecerCanceladas(Integer profesionalId, LocalDate dia, CitasTransicionLoteEvent evento) {
+        LocalDateTime desde = posterior(dia.atStartOfDay(), evento.getDesde(), LocalDateTime.now());
+        LocalDateTime hasta = dia.plusDays(1).atStartOfDay();
+        if (evento.getHasta() != null && evento.getHasta().isBefore(hasta)) {
+            hasta = evento.getHasta();
+        }
+        if (!hasta.isAfter(desde)) {
+            return;
+        }
+        try {
+            for (LocalDateTime inicio : listaEsperaService.obtenerFranjasCanceladas(profesionalId, desde, hasta)) {
+                ofrecer(profesionalId, inicio);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error al ofrecer las franjas canceladas del profesional {} el {}: {}",
+                    profesionalId, dia, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Obtiene los mejores candidatos para el hueco combinando las colas del profesional,
+     * de su especialidad y de cualquier profesional para el día del hueco.
+     */
+    private synchronized List<SolicitudEsperaResumen> candidatos(Integer profesionalId, String especialidad,
+                                                                 LocalDateTime inicio) {
+        LocalDate dia = inicio.toLocalDate();
+        List<SolicitudEsperaResumen> candidatos = new ArrayList<>();
+        recoger(new ClaveCola(profesionalId, null, dia), inicio, candidatos);
+        if (especialidad != null) {
+            recoger(new ClaveCola(null, especialidad, dia), inicio, candidatos);
+        }
+        recoger(new ClaveCola(null, null, dia), inicio, candidatos);
+        candidatos.sort(PRIORIDAD);
+        return candidatos.size() > MAXIMO_CANDIDATOS
+                ? new ArrayList<>(candidatos.subList(0, MAXIMO_CANDIDATOS))
+                : candidatos;
+    }
+
+    private void recoger(ClaveCola clave, LocalDateTime inicio, List<SolicitudEsperaResumen> destino) {
+        NavigableSet<SolicitudEsperaResumen> cola = colas.get(clave);
+        if (cola == null) {
+            return;
+        }
+        int recogidos = 0;
+        for (SolicitudEsperaResumen solicitud : cola) {
+            if (solicitud.admite(inicio)) {
+                destino.add(solicitud);
+                if (++recogidos == MAXIMO_CANDIDATOS) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void agregar(SolicitudEsperaResumen solicitud) {
+        activas.put(solicitud.getId(), solicitud);
+        for (ClaveCola clave : claves(solicitud)) {
+            colas.computeIfAbsent(clave, c -> new TreeSet<>(PRIORIDAD)).add(solicitud);
+        }
+    }
+
+    private void quitar(Integer solicitudId) {
+        SolicitudEsperaResumen solicitud = activas.remove(solicitudId);
+        if (solicitud == null) {
+            return;
+        }
+        for (ClaveCola clave : claves(solicitud)) {
+            NavigableSet<SolicitudEsperaResumen> cola = colas.get(clave);
+            if (cola != null && cola.remove(solicitud) && cola.isEmpty()) {
+                colas.remove(clave);
+            }
+        }
+    }
+
+    /**
+     * Indica si alguna cola tiene solicitudes para el día indicado.
+     */
+    private boolean tieneColas(LocalDate dia) {
+        for (ClaveCola clave : colas.keySet()) {
+            if (clave.dia().equals(dia)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized boolean vacia() {
+        return activas.isEmpty();
+    }
+
+    /**
+     * Claves de las colas en que figura la solicitud: una por cada día de su ventana.
+     */
+    private static List<ClaveCola> claves(SolicitudEsperaResumen solicitud) {
+        List<ClaveCola> claves = new ArrayList<>();
+        String especialidad = NormalizadorTexto.normalizar(solicitud.getEspecialidad());
+        LocalDate ultimo = solicitud.getHasta().minusNanos(1).toLocalDate();
+        for (LocalDate dia = solicitud.getDesde().toLocalDate(); !dia.isAfter(ultimo); dia = dia.plusDays(1)) {
+            claves.add(new ClaveCola(solicitud.getProfesionalId(), especialidad, dia));
+        }
+        return claves;
+    }
+
+    private static LocalDateTime posterior(LocalDateTime inicio, LocalDateTime desde, LocalDateTime ahora) {
+        LocalDateTime resultado = desde != null && desde.isAfter(inicio) ? desde : inicio;
+        return ahora.isAfter(resultado) ? ahora : resultado;
+    }
+
+    /**
+     * Indica si el cambio deja libre al menos parte de la franja que ocupaba la cita.
+     */
+    private static boolean liberaFranja(CitaResumen anterior, CitaResumen actual) {
+        return actual == null
+                || !actual.ocupaHorario()
+                || !Objects.equals(actual.getProfesionalId(), anterior.getProfesionalId())
+                || actual.getInicio().isAfter(anterior.getInicio())
+                || actual.getFin().isBefore(anterior.getFin());
+    }
+
+    /**
+     * Destino de una cola: un profesional, una especialidad (normalizada) o, con ambos null, cualquier profesional.
+     */
+    private record ClaveCola(Integer profesionalId, String especialidad, LocalDate dia) {
+    }
+}
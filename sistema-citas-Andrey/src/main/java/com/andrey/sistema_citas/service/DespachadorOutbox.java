@@ -0,0 +1,113 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.EventoCitaDTO;
+import com.andrey.sistema_citas.entity.EventoCitaOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tarea programada que entrega al destino configurado los eventos del outbox de citas.
+ * Lee los eventos en lotes por orden de ID, los entrega uno a uno y elimina los entregados con
+ * una sola sentencia por lote. Cuando un evento falla se pospone con espera exponencial, y los
+ * eventos posteriores de la misma cita esperan a que se entregue, de modo que cada cita
+ * conserva el orden de sus eventos. Tras agotar los reintentos el evento queda marcado como
+ * fallido en la tabla y deja de retener a los siguientes.
+ */
+@Component
+public class DespachadorOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(DespachadorOutbox.class);
+
+    /**
+     * Máximo de lotes por ejecución, para no ocupar indefinidamente el hilo de tareas programadas.
+     */
+    private static final int LOTES_POR_EJECUCION = 20;
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(10);
+
+    private final OutboxService outboxService;
+    private final DestinoEventosCita destino;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final Duration reintento;
+
+    public DespachadorOutbox(OutboxService outboxService, DestinoEventosCita destino,
+                             @Value("${citas.outbox.tamano-lote:500}") int tamanoLote,
+                             @Value("${citas.outbox.max-intentos:10}") int maxIntentos,
+                             @Value("${citas.outbox.reintento:PT5S}") Duration reintento) {
+        this.outboxService = outboxService;
+        this.destino = destino;
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.reintento = reintento;
+    }
+
+    /**
+     * Despacha los eventos disponibles hasta vaciar el outbox o alcanzar el máximo por ejecución.
+     */
+    @Scheduled(fixedDelayString = "${citas.outbox.intervalo:PT1S}")
+    public void despachar() {
+        for (int i = 0; i < LOTES_POR_EJECUCION; i++) {
+            List<EventoCitaOutbox> lote = outboxService.siguienteLote(LocalDateTime.now(), tamanoLote);
+            if (lote.isEmpty()) {
+                return;
+            }
+            int entregados = despacharLote(lote);
+            if (lote.size() < tamanoLote || entregados == 0) {
+                return;
+            }
+        }
+    }
+
+    private int despacharLote(List<EventoCitaOutbox> lote) {
+        List<Long> entregados = new ArrayList<>(lote.size());
+        Set<Integer> citasRetenidas = new HashSet<>();
+        for (EventoCitaOutbox evento : lote) {
+            Integer citaId = evento.getCitaId();
+            if (citaId != null && citasRetenidas.contains(citaId)) {
+                continue;
+            }
+            try {
+                destino.publicar(EventoCitaDTO.de(evento));
+                entregados.add(evento.getId());
+            } catch (RuntimeException e) {
+                if (citaId != null) {
+                    citasRetenidas.add(citaId);
+                }
+                registrarFallo(evento, e);
+            }
+        }
+        if (!entregados.isEmpty()) {
+            outboxService.confirmar(entregados);
+            logger.debug("Eventos de citas despachados: {}", entregados.size());
+        }
+        return entregados.size();
+    }
+
+    private void registrarFallo(EventoCitaOutbox evento, RuntimeException error) {
+        int intentos = evento.getIntentos() + 1;
+        boolean fallido = intentos >= maxIntentos;
+        Duration espera = reintento.multipliedBy(1L << Math.min(intentos - 1, 20));
+        if (espera.compareTo(ESPERA_MAXIMA) > 0) {
+            espera = ESPERA_MAXIMA;
+        }
+        if (fallido) {
+            logger.error("Evento de cita {} ({}) descartado tras {} intentos: {}",
+                    evento.getId(), evento.getTipo(), intentos, error.getMessage());
+        } else {
+            logger.warn("Error al despachar el evento de cita {} ({}), intento {}; se reintentará en {}: {}",
+                    evento.getId(), evento.getTipo(), intentos, espera, error.getMessage());
+        }
+        outboxService.posponer(evento.getId(), intentos, LocalDateTime.now().plus(espera), fallido);
+    }
+}
@@ -0,0 +1,15 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.EventoCitaDTO;
+
+/**
+ * Destino al que el despachador del outbox entrega los eventos de citas
+ * (cola de mensajes, sincronización de calendarios, consumidores locales...).
+ * Los eventos de una misma cita llegan en orden. La entrega es "al menos una vez": si el destino
+ * lanza una excepción el evento se reintenta, y un reinicio entre la entrega y su confirmación
+ * puede repetirla, por lo que los consumidores deben tolerar IDs repetidos.
+ */
+public interface DestinoEventosCita {
+
+    void publicar(EventoCitaDTO evento);
+}
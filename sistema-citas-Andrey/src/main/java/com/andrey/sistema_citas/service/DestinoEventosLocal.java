@@ -0,0 +1,32 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.EventoCitaDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Destino local del outbox: vuelve a publicar cada evento dentro de la aplicación como
+ * EventoCitaDTO, de modo que cualquier componente puede recibirlo con @EventListener.
+ * Es el destino por defecto; otro destino se activa cambiando citas.outbox.destino.
+ */
+@Component
+@ConditionalOnProperty(name = "citas.outbox.destino", havingValue = "local", matchIfMissing = true)
+public class DestinoEventosLocal implements DestinoEventosCita {
+
+    private static final Logger logger = LoggerFactory.getLogger(DestinoEventosLocal.class);
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DestinoEventosLocal(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publicar(EventoCitaDTO evento) {
+        logger.debug("Evento de cita {} ({}) de la cita {}", evento.getId(), evento.getTipo(), evento.getCitaId());
+        eventPublisher.publishEvent(evento);
+    }
+}
@@ -0,0 +1,451 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.event.SerieCitaCambioEvent;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Difunde por Server-Sent Events los cambios confirmados de las citas a los clientes suscritos
+ * a la agenda de un profesional.
+ * <p>
+ * Un único hilo de difusión toma los cambios en el orden en que se confirmaron, en grupos de
+ * hasta {@value #CAMBIOS_POR_GRUPO}: las citas de cada grupo se leen con una sola consulta y cada
+ * evento se construye una vez y se encola para todos los suscriptores del profesional sin
+ * esperar a ninguno. Si un grupo trae para un profesional más cambios de los que caben en la
+ * cola de un suscriptor (por ejemplo, una creación por lotes), se le envía un único recargar.
+ * <p>
+ * Cada suscriptor tiene su propia cola acotada y un hilo virtual que la escribe en su conexión.
+ * Mientras no hay eventos el hilo queda estacionado sin ocupar un hilo del sistema, por lo que
+ * miles de conexiones inactivas cuestan poco más que su memoria. Si la cola de un suscriptor se
+ * llena, sus eventos pendientes se reemplazan por un recargar; si además su escritura lleva
+ * detenida más de citas.agenda.stream.espera-escritura, el cliente se desconecta.
+ * <p>
+ * Eventos enviados:
+ * <ul>
+ *   <li>conectado: al suscribirse, con el sello de versión actual de la agenda.</li>
+ *   <li>cita: una cita creada o modificada del profesional (CitaDTO); ante eventos repetidos
+ *       de una misma cita prevalece el de mayor versión.</li>
+ *   <li>eliminada: una cita eliminada o reasignada a otro profesional ({"id": ...}).</li>
+ *   <li>recargar: cambiaron demasiadas citas para enviarlas una a una y debe volver a leerse la agenda.</li>
+ * </ul>
+ * Además se envía periódicamente un comentario de latido para mantener abierta la conexión a
+ * través de proxies y detectar clientes desconectados.
+ */
+@Component
+public class DifusionAgenda {
+
+    private static final Logger logger = LoggerFactory.getLogger(DifusionAgenda.class);
+
+    private static final int CAMBIOS_POR_GRUPO = 1000;
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> LATIDO =
+            SseEmitter.event().comment("latido").build();
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> RECARGAR =
+            SseEmitter.event().name("recargar").data("{}", MediaType.APPLICATION_JSON).build();
+
+    private final CitaRepository citaRepository;
+    private final VersionesAgenda versionesAgenda;
+    private final Duration duracion;
+    private final int capacidadCola;
+    private final long esperaEscrituraNanos;
+    private final Map<Integer, Set<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+    private final AtomicInteger conectados = new AtomicInteger();
+
+    /**
+     * Cambios de citas (Cambio) y tareas de difusión (Runnable) pendientes, en orden.
+     */
+    private final BlockingQueue<Object> pendientes = new LinkedBlockingQueue<>();
+    private final Thread difusion;
+    private final ExecutorService escritores;
+
+    public DifusionAgenda(CitaRepository citaRepository, VersionesAgenda versionesAgenda,
+                          @Value("${citas.agenda.stream.duracion:PT30M}") Duration duracion,
+                          @Value("${citas.agenda.stream.capacidad-cola:256}") int capacidadCola,
+                          @Value("${citas.agenda.stream.espera-escritura:PT30S}") Duration esperaEscritura) {
+        if (capacidadCola < 2) {
+            throw new IllegalArgumentException("La cola de cada suscriptor debe admitir al menos 2 eventos");
+        }
+        this.citaRepository = citaRepository;
+        this.versionesAgenda = versionesAgenda;
+        this.duracion = duracion;
+        this.capacidadCola = capacidadCola;
+        this.esperaEscrituraNanos = esperaEscritura.toNanos();
+        this.escritores = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("agenda-sse-", 0).factory());
+        this.difusion = Thread.ofVirtual().name("agenda-difusion").start(this::difundirPendientes);
+    }
+
+    /**
+     * Suscribe un cliente a los cambios de la agenda del profesional.
+     * La conexión se cierra al cumplirse citas.agenda.stream.duracion; el cliente
+     * (EventSource) se reconecta automáticamente.
+     */
+    public SseEmitter suscribir(Integer profesionalId) {
+        SseEmitter emisor = nuevoEmisor();
+        Suscriptor suscriptor = new Suscriptor(profesionalId, emisor);
+        emisor.onCompletion(suscriptor::retirar);
+        // Al vencer la conexión la cierra el servidor: el hilo del suscriptor completa el emisor al salir,
+        // sin que el hilo del contenedor espere a una escritura detenida
+        emisor.onTimeout(suscriptor::completar);
+        emisor.onError(error -> suscriptor.retirar());
+
+        // El evento inicial se encola antes de registrar al suscriptor para que sea el primero
+        suscriptor.encolar(SseEmitter.event().name("conectado")
+                .data(Map.of("profesionalId", profesionalId, "version", versionesAgenda.sello(profesionalId)),
+                        MediaType.APPLICATION_JSON).build());
+        suscriptores.computeIfAbsent(profesionalId, id -> ConcurrentHashMap.newKeySet()).add(suscriptor);
+        conectados.incrementAndGet();
+        try {
+            escritores.execute(suscriptor::escribir);
+        } catch (RejectedExecutionException e) {
+            suscriptor.retirar();
+            emisor.complete();
+        }
+        logger.debug("Suscripción a la agenda del profesional {} ({} conexiones abiertas)",
+                profesionalId, conectados.get());
+        return emisor;
+    }
+
+    /**
+     * Crea el emisor de una suscripción, que vence al cumplirse citas.agenda.stream.duracion.
+     */
+    SseEmitter nuevoEmisor() {
+        return new SseEmitter(duracion.toMillis());
+    }
+
+    /**
+     * Número de conexiones abiertas.
+     */
+    public int conectados() {
+        return conectados.get();
+    }
+
+    /**
+     * Encola el cambio de una cita una vez confirmada la transacción.
+     * Si ningún profesional afectado tiene suscriptores no se hace nada.
+     */
+    @TransactionalEventListener
+    public void alCambiarCita(CitaCambioEvent evento) {
+        CitaResumen anterior = evento.getAnterior();
+        CitaResumen actual = evento.getActual();
+        Integer profesionalAnterior = anterior != null ? anterior.getProfesionalId() : null;
+        Integer profesionalActual = actual != null ? actual.getProfesionalId() : null;
+        if (tieneSuscriptores(profesionalAnterior) || tieneSuscriptores(profesionalActual)) {
+            pendientes.add(new Cambio(evento.getCitaId(), profesionalAnterior, profesionalActual));
+        }
+    }
+
+    /**
+     * Pide recargar la agenda a los suscriptores del profesional de la transición,
+     * o a todos si la transición no se limitó a un profesional.
+     */
+    @TransactionalEventListener
+    public void alTransicionarLote(CitasTransicionLoteEvent evento) {
+        if (evento.getAfectadas() == 0 || suscriptores.isEmpty()) {
+            return;
+        }
+        Integer profesionalId = evento.getProfesionalId();
+        pendientes.add((Runnable) () -> {
+            if (profesionalId != null) {
+                enviar(profesionalId, RECARGAR);
+            } else {
+                suscriptores.keySet().forEach(id -> enviar(id, RECARGAR));
+            }
+        });
+    }
+
+    /**
+     * Pide recargar la agenda a los suscriptores del profesional cuando cambian las ocurrencias
+     * pendientes de una de sus series, que no tienen una cita propia que difundir.
+     */
+    @TransactionalEventListener
+    public void alCambiarSerie(SerieCitaCambioEvent evento) {
+        Integer profesionalId = evento.getProfesionalId();
+        if (tieneSuscriptores(profesionalId)) {
+            pendientes.add((Runnable) () -> enviar(profesionalId, RECARGAR));
+        }
+    }
+
+    /**
+     * Envía un latido a todas las conexiones abiertas.
+     */
+    @Scheduled(fixedRateString = "${citas.agenda.stream.latido:PT15S}",
+               initialDelayString = "${citas.agenda.stream.latido:PT15S}")
+    public void latir() {
+        if (!suscriptores.isEmpty()) {
+            pendientes.add((Runnable) () -> suscriptores.keySet().forEach(id -> enviar(id, LATIDO)));
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        difusion.interrupt();
+        suscriptores.values().forEach(conjunto -> conjunto.forEach(Suscriptor::completar));
+        escritores.shutdownNow();
+    }
+
+    private boolean tieneSuscriptores(Integer profesionalId) {
+        if (profesionalId == null) {
+            return false;
+        }
+        Set<Suscriptor> conjunto = suscriptores.get(profesionalId);
+        return conjunto != null && !conjunto.isEmpty();
+    }
+
+    /**
+     * Bucle del hilo de difusión: toma los pendientes por grupos y los procesa en orden.
+     */
+    private void difundirPendientes() {
+        List<Object> grupo = new ArrayList<>();
+        List<Cambio> cambios = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                grupo.add(pendientes.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pendientes.drainTo(grupo, CAMBIOS_POR_GRUPO - 1);
+            for (Object pendiente : grupo) {
+                if (pendiente instanceof Cambio cambio) {
+                    cambios.add(cambio);
+                } else {
+                    difundirCambios(cambios);
+                    cambios.clear();
+                    ((Runnable) pendiente).run();
+                }
+            }
+            difundirCambios(cambios);
+            cambios.clear();
+            grupo.clear();
+        }
+    }
+
+    /**
+     * Difunde un grupo de cambios consecutivos. Las citas se leen ya confirmadas, por lo que cada
+     * una se envía una sola vez con su estado más reciente, después de los eliminada del grupo.
+     */
+    private void difundirCambios(List<Cambio> cambios) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> cambiosPorProfesional = new HashMap<>();
+        for (Cambio cambio : cambios) {
+            cambio.profesionales().forEach(id -> cambiosPorProfesional.merge(id, 1, Integer::sum));
+        }
+        Set<Integer> recargados = new HashSet<>();
+        cambiosPorProfesional.forEach((profesionalId, total) -> {
+            if (total >= capacidadCola) {
+                recargados.add(profesionalId);
+                enviar(profesionalId, RECARGAR);
+            }
+        });
+
+        Set<Integer> porLeer = new LinkedHashSet<>();
+        for (Cambio cambio : cambios) {
+            if (cambio.profesionalAnterior() != null && !recargados.contains(cambio.profesionalAnterior())
+                    && !cambio.profesionalAnterior().equals(cambio.profesionalActual())) {
+                enviar(cambio.profesionalAnterior(), SseEmitter.event().name("eliminada")
+                        .data(Map.of("id", cambio.citaId()), MediaType.APPLICATION_JSON).build());
+            }
+            if (cambio.profesionalActual() != null && !recargados.contains(cambio.profesionalActual())
+                    && tieneSuscriptores(cambio.profesionalActual())) {
+                porLeer.add(cambio.citaId());
+            }
+        }
+        if (porLeer.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Integer, CitaDTO> citas = new HashMap<>();
+            citaRepository.findDTOPorIds(porLeer).forEach(dto -> citas.put(dto.getId(), dto));
+            for (Integer citaId : porLeer) {
+                CitaDTO dto = citas.get(citaId);
+                // Una cita eliminada después del cambio ya tiene su eliminada en camino
+                if (dto != null && !recargados.contains(dto.getProfesionalId())) {
+                    enviar(dto.getProfesionalId(),
+                            SseEmitter.event().name("cita").data(dto, MediaType.APPLICATION_JSON).build());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron leer {} citas para difundirlas, se pide recargar: {}",
+                    porLeer.size(), e.getMessage());
+            cambiosPorProfesional.keySet().stream()
+                    .filter(id -> !recargados.contains(id))
+                    .forEach(id -> enviar(id, RECARGAR));
+        }
+    }
+
+    /**
+     * Encola un evento ya construido para los suscriptores del profesional. El evento se construye
+     * una sola vez: el mismo conjunto de fragmentos se escribe en todas las conexiones.
+     */
+    private void enviar(Integer profesionalId, Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+        Set<Suscriptor> conjunto = suscriptores.get(profesionalId);
+        if (conjunto != null) {
+            conjunto.forEach(suscriptor -> suscriptor.encolar(evento));
+        }
+    }
+
+    /**
+     * Cambio confirmado de una cita, con sus profesionales antes y después del cambio.
+     */
+    private record Cambio(Integer citaId, Integer profesionalAnterior, Integer profesionalActual) {
+
+        Set<Integer> profesionales() {
+            Set<Integer> profesionales = new HashSet<>(2);
+            if (profesionalAnterior != null) {
+                profesionales.add(profesionalAnterior);
+            }
+            if (profesionalActual != null) {
+                profesionales.add(profesionalActual);
+            }
+            return profesionales;
+        }
+    }
+
+    /**
+     * Conexión de un cliente con su cola de eventos pendientes de escribir.
+     * Solo el hilo de difusión encola eventos después de la suscripción.
+     */
+    private final class Suscriptor {
+
+        private final Integer profesionalId;
+        private final SseEmitter emisor;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> cola;
+        private final AtomicBoolean activo = new AtomicBoolean(true);
+        private volatile Thread hilo;
+
+        /**
+         * Indica que el hilo del suscriptor debe completar el emisor al terminar, porque la
+         * conexión la cierra el servidor y no el cliente ni el contenedor.
+         */
+        private volatile boolean cerrarAlSalir;
+
+        /**
+         * Instante (System.nanoTime) en que empezó la escritura en curso, o 0 si no hay ninguna.
+         */
+        private volatile long escribiendoDesde;
+
+        private Suscriptor(Integer profesionalId, SseEmitter emisor) {
+            this.profesionalId = profesionalId;
+            this.emisor = emisor;
+            this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        }
+
+        /**
+         * Encola un evento sin bloquear. Si la cola está llena, los pendientes se reemplazan por
+         * un recargar, salvo que la escritura esté detenida: entonces el cliente se desconecta.
+         */
+        void encolar(Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+            if (!activo.get()) {
+                return;
+            }
+            long desde = escribiendoDesde;
+            if (desde != 0 && System.nanoTime() - desde > esperaEscrituraNanos) {
+                desconectar("su conexión no admite escrituras desde hace más de " + Duration.ofNanos(esperaEscrituraNanos));
+            } else if (!cola.offer(evento)) {
+                logger.debug("Suscriptor de la agenda del profesional {} saturado, se le pide recargar", profesionalId);
+                cola.clear();
+                cola.offer(RECARGAR);
+            }
+        }
+
+        /**
+         * Bucle del hilo virtual del suscriptor: escribe los eventos en orden hasta que se retira.
+         * <p>
+         * El emisor solo se completa desde este hilo. send() y complete() se sincronizan sobre el
+         * emisor, de modo que completarlo desde otro hilo mientras una escritura está detenida
+         * bloquearía (y fijaría a su hilo portador) a quien lo intente; en cambio, la escritura
+         * detenida termina por el tiempo de espera de escritura del contenedor.
+         */
+        void escribir() {
+            hilo = Thread.currentThread();
+            try {
+                while (activo.get()) {
+                    Set<ResponseBodyEmitter.DataWithMediaType> evento = cola.take();
+                    escribiendoDesde = System.nanoTime();
+                    emisor.send(evento);
+                    escribiendoDesde = 0;
+                }
+            } catch (InterruptedException e) {
+                // Se retiró mientras esperaba eventos
+            } catch (IOException | IllegalStateException e) {
+                // El cliente cerró la conexión o el emisor ya se completó
+                logger.debug("Conexión a la agenda del profesional {} cerrada: {}", profesionalId, e.getMessage());
+                retirar();
+                return;
+            }
+            if (cerrarAlSalir) {
+                try {
+                    emisor.complete();
+                } catch (RuntimeException e) {
+                    logger.debug("El emisor del profesional {} ya estaba cerrado: {}", profesionalId, e.getMessage());
+                }
+            }
+        }
+
+        void desconectar(String motivo) {
+            cerrarAlSalir = true;
+            if (retirar()) {
+                logger.warn("Se desconecta un suscriptor de la agenda del profesional {}: {}", profesionalId, motivo);
+            }
+        }
+
+        void completar() {
+            cerrarAlSalir = true;
+            retirar();
+        }
+
+        /**
+         * Quita el suscriptor del registro y detiene su hilo. Devuelve false si ya se había retirado.
+         */
+        boolean retirar() {
+            if (!activo.compareAndSet(true, false)) {
+                return false;
+            }
+            suscriptores.computeIfPresent(profesionalId, (id, conjunto) -> {
+                conjunto.remove(this);
+                return conjunto.isEmpty() ? null : conjunto;
+            });
+            conectados.decrementAndGet();
+            cola.clear();
+            Thread escritor = hilo;
+            if (escritor != null) {
+                escritor.interrupt();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.event.ProfesionalCambioEvent;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.util.IndicePrefijos;
+import com.andrey.sistema_citas.util.NormalizadorTexto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directorio en memoria de los profesionales con su usuario, para listarlos y filtrarlos
+ * por especialidad sin consultar la base de datos.
+ * Cada especialidad se identifica por un número asignado a su forma normalizada (sin distinguir
+ * mayúsculas ni tildes), y un índice invertido guarda, por especialidad, los IDs de sus
+ * profesionales ordenados. Un índice por prefijos sobre el nombre del usuario y la especialidad
+ * atiende las búsquedas de los campos de autocompletado. El directorio es una instantánea inmutable que se reemplaza completa:
+ * las lecturas no se bloquean y nunca ven un estado a medio actualizar.
+ * Se carga al iniciar la aplicación y se actualiza tras confirmarse cada ProfesionalCambioEvent.
+ */
+@Component
+public class DirectorioProfesionales {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectorioProfesionales.class);
+
+    private static final int[] SIN_PROFESIONALES = new int[0];
+
+    private final ProfesionalRepository profesionalRepository;
+
+    /**
+     * Número de cada especialidad por su forma normalizada. Solo crece, de modo que un
+     * número no cambia de significado entre instantáneas; se amplía bajo el monitor de esta instancia.
+     */
+    private final Map<String, Integer> especialidades = new ConcurrentHashMap<>();
+
+    private volatile Instantanea instantanea;
+
+    public DirectorioProfesionales(ProfesionalRepository profesionalRepository) {
+        this.profesionalRepository = profesionalRepository;
+    }
+
+    /**
+     * Obtiene todos los profesionales ordenados por ID.
+     */
+    public List<ProfesionalDTO> obtenerTodos() {
+        Instantanea actual = actual();
+        List<ProfesionalDTO> resultado = new ArrayList<>(actual.porId.size());
+        for (ProfesionalFoto foto : actual.porId.values()) {
+            resultado.add(foto.aDTO());
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene un profesional por su ID.
+     */
+    public Optional<ProfesionalDTO> obtenerPorId(Integer id) {
+        return Optional.ofNullable(actual().porId.get(id)).map(ProfesionalFoto::aDTO);
+    }
+
+    /**
+     * Obtiene los profesionales de una especialidad, ordenados por ID. La especialidad se compara
+     * sin distinguir mayúsculas, tildes ni espacios sobrantes.
+     */
+    public List<ProfesionalDTO> obtenerPorEspecialidad(String especialidad) {
+        Instantanea actual = actual();
+        int[] ids = actual.profesionalesDe(especialidades.get(NormalizadorTexto.normalizar(especialidad)));
+        List<ProfesionalDTO> resultado = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            resultado.add(actual.porId.get(id).aDTO());
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca los profesionales con alguna palabra del nombre de su usuario o de su especialidad
+     * que empiece por el texto indicado, hasta el límite indicado.
+     */
+    public List<SugerenciaDTO> buscar(String texto, int limite) {
+        Instantanea actual = actual();
+        String prefijo = NormalizadorTexto.normalizar(texto == null ? "" : texto);
+        List<SugerenciaDTO> resultado = new ArrayList<>();
+        for (Integer id : actual.indice.buscar(prefijo, limite)) {
+            ProfesionalFoto foto = actual.porId.get(id);
+            resultado.add(new SugerenciaDTO(foto.id(), foto.usuarioNombre(), foto.especialidad()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la especialidad de un profesional tal como se registró.
+     */
+    public Optional<String> especialidadDe(Integer profesionalId) {
+        return Optional.ofNullable(actual().porId.get(profesionalId)).map(ProfesionalFoto::especialidad);
+    }
+
+    /**
+     * Número de profesionales en el directorio.
+     */
+    public int tamano() {
+        return actual().porId.size();
+    }
+
+    /**
+     * Carga el directorio completo al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        recargar();
+    }
+
+    /**
+     * Actualiza el profesional afectado, o todo el directorio si el cambio no indica profesional,
+     * una vez confirmada la transacción. La lectura se hace en una transacción propia, ya que
+     * la del cambio ha terminado.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void alCambiarProfesional(ProfesionalCambioEvent evento) {
+        if (evento.getProfesionalId() == null) {
+            recargar();
+        } else {
+            actualizar(evento.getProfesionalId());
+        }
+    }
+
+    private Instantanea actual() {
+        Instantanea actual = instantanea;
+        return actual != null ? actual : cargarSiFalta();
+    }
+
+    private synchronized Instantanea cargarSiFalta() {
+        if (instantanea == null) {
+            recargar();
+        }
+        return instantanea;
+    }
+
+    private synchronized void recargar() {
+        TreeMap<Integer, ProfesionalFoto> porId = new TreeMap<>();
+        for (Profesional profesional : profesionalRepository.findAllConUsuario()) {
+            porId.put(profesional.getId(), foto(profesional));
+        }
+        instantanea = construir(porId);
+        logger.info("Directorio de profesionales cargado: {} profesionales, {} especialidades",
+                porId.size(), especialidades.size());
+    }
+
+    /**
+     * Reemplaza o retira un profesional. Las actualizaciones se serializan, por lo que la lectura
+     * de la última siempre es posterior a la confirmación de la escritura que la originó.
+     */
+    private synchronized void actualizar(Integer profesionalId) {
+        if (instantanea == null) {
+            recargar();
+            return;
+        }
+        TreeMap<Integer, ProfesionalFoto> porId = new TreeMap<>(instantanea.porId);
+        Optional<Profesional> profesional = profesionalRepository.findConUsuarioById(profesionalId);
+        if (profesional.isPresent()) {
+            porId.put(profesionalId, foto(profesional.get()));
+        } else {
+            porId.remove(profesionalId);
+        }
+        instantanea = construir(porId);
+        logger.debug("Directorio de profesionales actualizado para el profesional {}", profesionalId);
+    }
+
+    private ProfesionalFoto foto(Profesional profesional) {
+        String clave = NormalizadorTexto.normalizar(profesional.getEspecialidad());
+        int especialidad = clave == null || clave.isEmpty()
+                ? -1
+                : especialidades.computeIfAbsent(clave, c -> especialidades.size());
+        return new ProfesionalFoto(profesional.getId(), profesional.getVersion(), profesional.getEspecialidad(),
+                especialidad, profesional.getHorarioDisponible(), profesional.getUsuario().getId(),
+                profesional.getUsuario().getNombre());
+    }
+
+    /**
+     * Construye el índice invertido a partir de los profesionales ordenados por ID,
+     * de modo que cada lista queda ordenada sin necesidad de ordenarla.
+     */
+    private Instantanea construir(TreeMap<Integer, ProfesionalFoto> porId) {
+        int[] cantidades = new int[especialidades.size()];
+        for (ProfesionalFoto foto : porId.values()) {
+            if (foto.idEspecialidad() >= 0) {
+                cantidades[foto.idEspecialidad()]++;
+            }
+        }
+        int[][] porEspecialidad = new int[cantidades.length][];
+        for (int i = 0; i < cantidades.length; i++) {
+            porEspecialidad[i] = cantidades[i] == 0 ? SIN_PROFESIONALES : new int[cantidades[i]];
+        }
+        Arrays.fill(cantidades, 0);
+        Map<Integer, List<String>> claves = new HashMap<>();
+        for (ProfesionalFoto foto : porId.values()) {
+            int especialidad = foto.idEspecialidad();
+            if (especialidad >= 0) {
+                porEspecialidad[especialidad][cantidades[especialidad]++] = foto.id();
+            }
+            List<String> clavesFoto = new ArrayList<>(IndicePrefijos.clavesDePalabras(foto.usuarioNombre()));
+            clavesFoto.addAll(IndicePrefijos.clavesDePalabras(foto.especialidad()));
+            claves.put(foto.id(), clavesFoto);
+        }
+        return new Instantanea(Collections.unmodifiableSortedMap(porId), porEspecialidad,
+                IndicePrefijos.construir(claves));
+    }
+
+    /**
+     * Estado inmutable del directorio.
+     */
+    private static final class Instantanea {
+
+        private final Map<Integer, ProfesionalFoto> porId;
+        private final int[][] porEspecialidad;
+        private final IndicePrefijos indice;
+
+        private Instantanea(Map<Integer, ProfesionalFoto> porId, int[][] porEspecialidad, IndicePrefijos indice) {
+            this.porId = porId;
+            this.porEspecialidad = porEspecialidad;
+            this.indice = indice;
+        }
+
+        private int[] profesionalesDe(Integer especialidad) {
+            return especialidad == null || especialidad >= porEspecialidad.length
+                    ? SIN_PROFESIONALES
+                    : porEspecialidad[especialidad];
+        }
+    }
+
+    /**
+     * Copia inmutable de un profesional y el nombre de su usuario.
+     */
+    private record ProfesionalFoto(Integer id, Long version, String especialidad, int idEspecialidad,
+                                   LocalDateTime horarioDisponible, Integer usuarioId, String usuarioNombre) {
+
+        ProfesionalDTO aDTO() {
+            return new ProfesionalDTO(id, especialidad, horarioDisponible, usuarioId, usuarioNombre, version);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.FranjaDisponibleDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.util.DuracionServicio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio que calcula las próximas franjas libres de los profesionales para un servicio.
+ * Cada día laborable de un profesional se representa como un mapa de bits de celdas de
+ * cinco minutos, construido a partir del índice de agendas y reutilizado mientras la agenda
+ * no cambie. La búsqueda de huecos se resuelve con recorridos de bits sobre esos mapas.
+ * La búsqueda no abre una transacción: el servicio sale de la caché de servicios y los profesionales
+ * del directorio, y cada agenda que falte se carga en su propia transacción, de modo que la búsqueda
+ * nunca retiene una conexión del pool mientras espera otra.
+ */
+@Service
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DisponibilidadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisponibilidadService.class);
+
+    /**
+     * Resolución de la agenda en minutos.
+     */
+    public static final int MINUTOS_POR_CELDA = 5;
+
+    /**
+     * Número máximo de franjas que se devuelven en una consulta.
+     */
+    public static final int LIMITE_MAXIMO = 100;
+
+    /**
+     * Amplitud máxima del rango de búsqueda.
+     */
+    public static final int DIAS_MAXIMOS = 90;
+
+    private static final int DIAS_POR_DEFECTO = 7;
+    private static final int MAPAS_MAXIMOS_EN_MEMORIA = 200_000;
+
+    private final CacheServicios cacheServicios;
+    private final DirectorioProfesionales directorio;
+    private final IndiceAgendas indiceAgendas;
+    private final LocalTime inicioJornada;
+    private final LocalTime finJornada;
+    private final Set<DayOfWeek> diasLaborables;
+    private final int celdasPorDia;
+
+    private final Map<Long, MapaDia> mapas = new ConcurrentHashMap<>();
+
+    public DisponibilidadService(CacheServicios cacheServicios,
+                                 DirectorioProfesionales directorio,
+                                 IndiceAgendas indiceAgendas,
+                                 @Value("${citas.jornada.inicio:08:00}") LocalTime inicioJornada,
+                                 @Value("${citas.jornada.fin:20:00}") LocalTime finJornada,
+                                 @Value("${citas.jornada.dias-laborables:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}")
+                                 Set<DayOfWeek> diasLaborables) {
+        if (!finJornada.isAfter(inicioJornada)) {
+            throw new IllegalStateException("El fin de la jornada debe ser posterior a su inicio");
+        }
+        this.cacheServicios = cacheServicios;
+        this.directorio = directorio;
+        this.indiceAgendas = indiceAgendas;
+        this.inicioJornada = inicioJornada;
+        this.finJornada = finJornada;
+        this.diasLaborables = diasLaborables;
+        this.celdasPorDia = (int) (Duration.between(inicioJornada, finJornada).toMinutes() / MINUTOS_POR_CELDA);
+    }
+
+    /**
+     * Busca las primeras franjas libres para el servicio indicado entre los profesionales
+     * de la especialidad solicitada (o todos si no se indica), ordenadas por hora de inicio.
+     */
+    public List<FranjaDisponibleDTO> buscar(Integer servicioId, String especialidad,
+                                            LocalDateTime desde, LocalDateTime hasta, int limite) {
+        logger.debug("Buscando disponibilidad - servicio: {}, especialidad: {}, desde: {}, hasta: {}",
+                servicioId, especialidad, desde, hasta);
+
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+
+        ServicioDTO servicio = cacheServicios.obtenerPorId(servicioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + servicioId));
+        int minutosServicio = DuracionServicio.enMinutos(servicio.getDuracion());
+        int celdasServicio = (minutosServicio + MINUTOS_POR_CELDA - 1) / MINUTOS_POR_CELDA;
+
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime inicio = desde == null || desde.isBefore(ahora) ? ahora : desde;
+        LocalDateTime fin = hasta == null ? inicio.plusDays(DIAS_POR_DEFECTO) : hasta;
+        if (!fin.isAfter(inicio)) {
+            throw new IllegalArgumentException("El rango de búsqueda debe terminar después de su inicio");
+        }
+        if (Duration.between(inicio, fin).toDays() > DIAS_MAXIMOS) {
+            throw new IllegalArgumentException("El rango de búsqueda no puede superar " + DIAS_MAXIMOS + " días");
+        }
+
+        List<ProfesionalDTO> profesionales = especialidad == null || especialidad.isBlank()
+                ? directorio.obtenerTodos()
+                : directorio.obtenerPorEspecialidad(especialidad);
+
+        if (mapas.size() > MAPAS_MAXIMOS_EN_MEMORIA) {
+            mapas.clear();
+        }
+
+        List<FranjaDisponibleDTO> resultado = new ArrayList<>();
+        for (LocalDate dia = inicio.toLocalDate(); !dia.isAfter(fin.toLocalDate()) && resultado.size() < limite;
+             dia = dia.plusDays(1)) {
+            if (!diasLaborables.contains(dia.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime aperturaDia = dia.atTime(inicioJornada);
+            int celdaDesde = Math.max(0, celdaTecho(aperturaDia, inicio));
+            int celdaHasta = Math.min(celdasPorDia, celdaPiso(aperturaDia, fin));
+            if (celdaHasta - celdaDesde < celdasServicio) {
+                continue;
+            }
+
+            List<FranjaDisponibleDTO> delDia = new ArrayList<>();
+            for (ProfesionalDTO profesional : profesionales) {
+                BitSet ocupadas = mapaDia(profesional.getId(), dia);
+                agregarFranjas(delDia, ocupadas, celdaDesde, celdaHasta, celdasServicio, limite,
+                        profesional, servicio, aperturaDia, minutosServicio);
+            }
+            delDia.sort(Comparator.comparing(FranjaDisponibleDTO::getInicio)
+                    .thenComparing(FranjaDisponibleDTO::getProfesionalId));
+            for (FranjaDisponibleDTO franja : delDia) {
+                if (resultado.size() >= limite) {
+                    break;
+                }
+                resultado.add(franja);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre el mapa de bits de un día y agrega hasta "limite" franjas consecutivas
+     * del tamaño del servicio dentro de cada tramo libre.
+     */
+    private void agregarFranjas(List<FranjaDisponibleDTO> destino, BitSet ocupadas, int celdaDesde, int celdaHasta,
+                                int celdasServicio, int limite, ProfesionalDTO profesional, ServicioDTO servicio,
+                                LocalDateTime aperturaDia, int minutosServicio) {
+        int encontradas = 0;
+        int celda = celdaDesde;
+        while (encontradas < limite) {
+            int libre = ocupadas.nextClearBit(celda);
+            if (libre + celdasServicio > celdaHasta) {
+                return;
+            }
+            int siguienteOcupada = ocupadas.nextSetBit(libre);
+            int finTramo = siguienteOcupada < 0 || siguienteOcupada > celdaHasta ? celdaHasta : siguienteOcupada;
+            while (libre + celdasServicio <= finTramo && encontradas < limite) {
+                LocalDateTime inicioFranja = aperturaDia.plusMinutes((long) libre * MINUTOS_POR_CELDA);
+                destino.add(new FranjaDisponibleDTO(
+                        profesional.getId(),
+                        profesional.getUsuarioNombre(),
+                        profesional.getEspecialidad(),
+                        servicio.getId(),
+                        inicioFranja,
+                        inicioFranja.plusMinutes(minutosServicio)));
+                libre += celdasServicio;
+                encontradas++;
+            }
+            if (finTramo >= celdaHasta) {
+                return;
+            }
+            celda = finTramo;
+        }
+    }
+
+    /**
+     * Obtiene el mapa de celdas ocupadas de un profesional en un día.
+     * El mapa se reutiliza mientras la versión de la agenda del profesional no cambie.
+     */
+    private BitSet mapaDia(Integer profesionalId, LocalDate dia) {
+        long clave = ((long) profesionalId << 32) | (dia.toEpochDay() & 0xFFFFFFFFL);
+        long versionActual = indiceAgendas.version(profesionalId);
+        MapaDia existente = mapas.get(clave);
+        if (existente != null && existente.version == versionActual) {
+            return existente.ocupadas;
+        }
+
+        LocalDateTime apertura = dia.atTime(inicioJornada);
+        LocalDateTime cierre = dia.atTime(finJornada);
+        BitSet ocupadas = new BitSet(celdasPorDia);
+        for (IndiceAgendas.Intervalo intervalo : indiceAgendas.ocupados(profesionalId, apertura, cierre)) {
+            LocalDateTime desde = intervalo.getInicio().isBefore(apertura) ? apertura : intervalo.getInicio();
+            LocalDateTime hasta = intervalo.getFin().isAfter(cierre) ? cierre : intervalo.getFin();
+            ocupadas.set(Math.max(0, celdaPiso(apertura, desde)), Math.min(celdasPorDia, celdaTecho(apertura, hasta)));
+        }
+
+        // Solo se guarda si la agenda no cambió mientras se construía el mapa
+        if (indiceAgendas.version(profesionalId) == versionActual) {
+            mapas.put(clave, new MapaDia(versionActual, ocupadas));
+        }
+        return ocupadas;
+    }
+
+    private int celdaPiso(LocalDateTime apertura, LocalDateTime instante) {
+        return (int) Math.floorDiv(Duration.between(apertura, instante).toMinutes(), MINUTOS_POR_CELDA);
+    }
+
+    private int celdaTecho(LocalDateTime apertura, LocalDateTime instante) {
+        long segundos = Duration.between(apertura, instante).getSeconds();
+        return (int) -Math.floorDiv(-segundos, MINUTOS_POR_CELDA * 60L);
+    }
+
+    /**
+     * Mapa de bits de un día asociado a la versión de la agenda con que se construyó.
+     * El BitSet no se modifica después de publicarse.
+     */
+    private static final class MapaDia {
+
+        private final long version;
+        private final BitSet ocupadas;
+
+        private MapaDia(long version, BitSet ocupadas) {
+            this.version = version;
+            this.ocupadas = ocupadas;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CargaProfesionalDTO;
+import com.andrey.sistema_citas.dto.EstadisticasDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servicio que mantiene en memoria las estadísticas del dashboard.
+ * Los contadores se calculan con consultas agregadas al iniciar la aplicación y luego se
+ * actualizan con los eventos de cambio de citas confirmados, sin consultar la base de datos
+ * en cada lectura. Las transiciones por lotes se aplican con los recuentos por día, estado y
+ * profesional que trae el evento; solo si no cubren todas las citas afectadas se recuenta todo.
+ * Una reconciliación periódica corrige las diferencias que pudieran acumularse
+ * (por ejemplo, citas eliminadas en cascada junto con su usuario o profesional).
+ * Los nombres de los profesionales que aparecen tras la última reconciliación se toman del directorio en memoria.
+ */
+@Service
+public class EstadisticasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticasService.class);
+
+    /**
+     * Estados que cuentan como carga de trabajo de un profesional.
+     */
+    private static final Set<EstadoCita> ESTADOS_ACTIVOS = EnumSet.of(EstadoCita.PENDIENTE, EstadoCita.CONFIRMADA);
+
+    private final CitaRepository citaRepository;
+    private final DirectorioProfesionales directorioProfesionales;
+
+    private volatile Contadores contadores = new Contadores();
+    private volatile LocalDateTime ultimaReconciliacion;
+
+    public EstadisticasService(CitaRepository citaRepository, DirectorioProfesionales directorioProfesionales) {
+        this.citaRepository = citaRepository;
+        this.directorioProfesionales = directorioProfesionales;
+    }
+
+    /**
+     * Devuelve las estadísticas del día indicado a partir de los contadores en memoria.
+     */
+    public EstadisticasDTO obtener(LocalDate dia) {
+        Contadores actuales = contadores;
+        Map<String, Long> porEstado = new LinkedHashMap<>();
+        long total = 0;
+        for (EstadoCita estado : EstadoCita.values()) {
+            long valor = actuales.delDia(dia, estado);
+            porEstado.put(estado.name(), valor);
+            total += valor;
+        }
+
+        List<CargaProfesionalDTO> carga = new ArrayList<>();
+        actuales.activasPorProfesional.forEach((profesionalId, contador) -> {
+            long activas = contador.sum();
+            if (activas > 0) {
+                carga.add(new CargaProfesionalDTO(profesionalId, actuales.nombres.get(profesionalId), activas));
+            }
+        });
+        carga.sort(Comparator.comparingLong(CargaProfesionalDTO::getCitasActivas).reversed()
+                .thenComparing(CargaProfesionalDTO::getProfesionalId));
+
+        return new EstadisticasDTO(dia, porEstado, total,
+                actuales.porEstado.get(EstadoCita.PENDIENTE).sum(), carga, ultimaReconciliacion);
+    }
+
+    /**
+     * Recalcula todos los contadores con consultas agregadas y los reemplaza de forma atómica.
+     */
+    public void reconciliar() {
+        logger.debug("Reconciliando estadísticas de citas con la base de datos");
+        Contadores nuevos = new Contadores();
+        for (Object[] fila : citaRepository.contarPorDiaYEstado()) {
+            LocalDate dia = (LocalDate) fila[0];
+            EstadoCita estado = (EstadoCita) fila[1];
+            long total = ((Number) fila[2]).longValue();
+            nuevos.porDiaYEstado.computeIfAbsent(clave(dia, estado), k -> new LongAdder()).add(total);
+            nuevos.porEstado.get(estado).add(total);
+        }
+        for (Object[] fila : citaRepository.contarPorProfesional(ESTADOS_ACTIVOS)) {
+            Integer profesionalId = (Integer) fila[0];
+            nuevos.nombres.put(profesionalId, (String) fila[1]);
+            nuevos.activasPorProfesional.computeIfAbsent(profesionalId, k -> new LongAdder())
+                    .add(((Number) fila[2]).longValue());
+        }
+        contadores = nuevos;
+        ultimaReconciliacion = LocalDateTime.now();
+    }
+
+    /**
+     * Calcula los contadores iniciales una vez que la aplicación está lista.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconciliar();
+        logger.info("Estadísticas de citas inicializadas");
+    }
+
+    /**
+     * Reconciliación periódica con la base de datos según el intervalo configurado.
+     */
+    @Scheduled(fixedDelayString = "${citas.estadisticas.reconciliacion:PT15M}",
+               initialDelayString = "${citas.estadisticas.reconciliacion:PT15M}")
+    public void reconciliacionPeriodica() {
+        reconciliar();
+    }
+
+    /**
+     * Aplica a los contadores los cambios de una cita una vez confirmada la transacción.
+     */
+    @TransactionalEventListener
+    public void alCambiarCita(CitaCambioEvent evento) {
+        Contadores actuales = contadores;
+        if (evento.getAnterior() != null) {
+            actuales.aplicar(evento.getAnterior(), -1);
+        }
+        if (evento.getActual() != null) {
+            actuales.aplicar(evento.getActual(), 1);
+            nombrar(actuales, evento.getActual().getProfesionalId());
+        }
+    }
+
+    /**
+     * Aplica una transición por lotes restando cada grupo de su estado y sumándolo al de destino.
+     * Si los grupos no cuadran con las citas afectadas, se recuentan los contadores.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void alTransicionarLote(CitasTransicionLoteEvent evento) {
+        if (!evento.gruposCompletos()) {
+            logger.debug("Los grupos de la transición por lotes no cubren las {} citas afectadas; se recuentan",
+                    evento.getAfectadas());
+            reconciliar();
+            return;
+        }
+        Contadores actuales = contadores;
+        for (CitasTransicionLoteEvent.Grupo grupo : evento.getGrupos()) {
+            actuales.sumar(grupo.dia(), grupo.estado(), grupo.profesionalId(), -grupo.citas());
+            actuales.sumar(grupo.dia(), evento.getEstadoDestino(), grupo.profesionalId(), grupo.citas());
+            if (ESTADOS_ACTIVOS.contains(evento.getEstadoDestino())) {
+                nombrar(actuales, grupo.profesionalId());
+            }
+        }
+    }
+
+    private void nombrar(Contadores actuales, Integer profesionalId) {
+        if (!actuales.nombres.containsKey(profesionalId)) {
+            directorioProfesionales.obtenerPorId(profesionalId)
+                    .ifPresent(profesional -> actuales.nombres.putIfAbsent(profesionalId, profesional.getUsuarioNombre()));
+        }
+    }
+
+    private static long clave(LocalDate dia, EstadoCita estado) {
+        return dia.toEpochDay() * 8 + estado.getCodigo();
+    }
+
+    /**
+     * Conjunto de contadores que se reemplaza completo en cada reconciliación.
+     * Los mapas por estado se crean con todas sus entradas y no cambian de estructura,
+     * por lo que admiten lecturas y actualizaciones concurrentes sin bloqueo.
+     */
+    private static final class Contadores {
+
+        private final Map<Long, LongAdder> porDiaYEstado = new ConcurrentHashMap<>();
+        private final Map<EstadoCita, LongAdder> porEstado = new EnumMap<>(EstadoCita.class);
+        private final Map<Integer, LongAdder> activasPorProfesional = new ConcurrentHashMap<>();
+        private final Map<Integer, String> nombres = new ConcurrentHashMap<>();
+
+        private Contadores() {
+            for (EstadoCita estado : EstadoCita.values()) {
+                porEstado.put(estado, new LongAdder());
+            }
+        }
+
+        private long delDia(LocalDate dia, EstadoCita estado) {
+            LongAdder contador = porDiaYEstado.get(clave(dia, estado));
+            return contador == null ? 0 : contador.sum();
+        }
+
+        private void aplicar(CitaResumen cita, int delta) {
+            sumar(cita.getInicio().toLocalDate(), cita.getEstado(), cita.getProfesionalId(), delta);
+        }
+
+        private void sumar(LocalDate dia, EstadoCita estado, Integer profesionalId, long delta) {
+            porDiaYEstado.computeIfAbsent(clave(dia, estado), k -> new LongAdder()).add(delta);
+            porEstado.get(estado).add(delta);
+            if (ESTADOS_ACTIVOS.contains(estado)) {
+                activasPorProfesional.computeIfAbsent(profesionalId, k -> new LongAdder()).add(delta);
+            }
+        }
+    }
+}
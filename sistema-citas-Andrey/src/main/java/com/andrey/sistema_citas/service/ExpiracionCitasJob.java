@@ -0,0 +1,36 @@
+package com.andrey.sistema_citas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tarea programada que marca como expiradas las citas pendientes cuya hora ya pasó.
+ * Utiliza la transición por lotes de CitaService, que resuelve el cambio con una sola sentencia.
+ */
+@Component
+public class ExpiracionCitasJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiracionCitasJob.class);
+
+    private final CitaService citaService;
+
+    public ExpiracionCitasJob(CitaService citaService) {
+        this.citaService = citaService;
+    }
+
+    /**
+     * Expira las citas pendientes vencidas según el intervalo configurado.
+     */
+    @Scheduled(fixedDelayString = "${citas.expiracion.intervalo:PT5M}",
+               initialDelayString = "${citas.expiracion.retraso-inicial:PT1M}")
+    public void expirarPendientes() {
+        int expiradas = citaService.expirarPendientes(LocalDateTime.now());
+        if (expiradas > 0) {
+            logger.info("Citas pendientes expiradas: {}", expiradas);
+        }
+    }
+}
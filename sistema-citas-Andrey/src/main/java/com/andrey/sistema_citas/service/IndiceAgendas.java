@@ -0,0 +1,423 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.SerieCita;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.event.SerieCitaCambioEvent;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.SerieCitaRepository;
+import com.andrey.sistema_citas.util.DuracionServicio;
+import com.andrey.sistema_citas.util.ExpansionSerie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de los intervalos ocupados en la agenda de cada profesional.
+ * Cada agenda se carga de forma diferida desde la base de datos la primera vez que se consulta
+ * y se mantiene actualizada con los eventos de cambio de citas confirmados. Los eventos se aplican en la
+ * fase afterCommit de la transacción que los publica, antes de que BloqueoReservas libere sus bloqueos en
+ * afterCompletion (donde Spring ejecuta los @TransactionalEventListener): la siguiente reserva que obtiene
+ * el bloqueo siempre valida contra una agenda que ya incluye la cita confirmada.
+ * La carga usa una transacción propia, de solo lectura y con aislamiento READ COMMITTED: incluye
+ * toda cita confirmada antes de la carga aunque la transacción que la solicita haya comenzado antes,
+ * y nunca ve los cambios aún sin confirmar de esa transacción. Las citas confirmadas mientras se
+ * carga se aplican al terminar, ya que el mapa de agendas serializa la carga y las actualizaciones
+ * de una misma agenda. Esa transacción ocupa una conexión además de la del llamador, si este ya tiene una.
+ * La detección de solapamientos se resuelve con una búsqueda logarítmica sobre los intervalos
+ * ordenados por inicio, sin recorrer la agenda completa.
+ * Las ocurrencias de series aún no materializadas no se guardan como intervalos: cada agenda
+ * conserva la expansión de sus series pendientes y las calcula solo para el rango consultado.
+ */
+@Component
+public class IndiceAgendas {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceAgendas.class);
+
+    private final CitaRepository citaRepository;
+    private final SerieCitaRepository serieCitaRepository;
+    private final Map<Integer, AgendaProfesional> agendas = new ConcurrentHashMap<>();
+    private final AtomicLong secuenciaVersiones = new AtomicLong();
+    private final DirectorioProfesionales directorio;
+    private final TransactionTemplate transaccionCarga;
+
+    public IndiceAgendas(CitaRepository citaRepository, SerieCitaRepository serieCitaRepository,
+                         DirectorioProfesionales directorio, PlatformTransactionManager transactionManager) {
+        this.citaRepository = citaRepository;
+        this.serieCitaRepository = serieCitaRepository;
+        this.directorio = directorio;
+        this.transaccionCarga = new TransactionTemplate(transactionManager);
+        transaccionCarga.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaccionCarga.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        transaccionCarga.setReadOnly(true);
+    }
+
+    /**
+     * Carga la agenda del profesional si aún no está en memoria. Los servicios la llaman antes de
+     * modificar entidades y de bloquear la agenda, para no leer la base de datos con el bloqueo tomado.
+     */
+    public void precargar(Integer profesionalId) {
+        obtenerAgenda(profesionalId);
+    }
+
+    /**
+     * Carga la agenda del profesional indicado en una solicitud antes de que la transacción del llamador
+     * lea la base de datos. Las transacciones obtienen su conexión con la primera sentencia, de modo que
+     * el llamador no retiene una conexión mientras espera la carga. Los ids nulos o que no están en el
+     * directorio se ignoran, para no guardar agendas de profesionales inexistentes.
+     */
+    public void precargarSolicitado(Integer profesionalId) {
+        if (profesionalId != null && directorio.obtenerPorId(profesionalId).isPresent()) {
+            obtenerAgenda(profesionalId);
+        }
+    }
+
+    /**
+     * Busca una cita o una ocurrencia pendiente de serie del profesional que se solape con el
+     * intervalo [inicio, fin). La cita indicada en excluirCitaId se ignora, lo que permite
+     * validar actualizaciones.
+     */
+    public Optional<Intervalo> buscarSolapamiento(Integer profesionalId, LocalDateTime inicio,
+                                                 LocalDateTime fin, Integer excluirCitaId) {
+        return obtenerAgenda(profesionalId).buscarSolapamiento(inicio, fin, excluirCitaId, null, null);
+    }
+
+    /**
+     * Igual que buscarSolapamiento, pero ignorando una ocurrencia pendiente de una serie,
+     * lo que permite validar el cambio de fecha de esa ocurrencia.
+     */
+    public Optional<Intervalo> buscarSolapamientoExcluyendoOcurrencia(Integer profesionalId, LocalDateTime inicio,
+                                                                     LocalDateTime fin, Integer serieId,
+                                                                     Integer numeroSerie) {
+        return obtenerAgenda(profesionalId).buscarSolapamiento(inicio, fin, null, serieId, numeroSerie);
+    }
+
+    /**
+     * Devuelve los intervalos ocupados del profesional que intersectan [desde, hasta),
+     * ordenados por inicio, incluidas las ocurrencias pendientes de sus series.
+     */
+    public List<Intervalo> ocupados(Integer profesionalId, LocalDateTime desde, LocalDateTime hasta) {
+        return obtenerAgenda(profesionalId).entre(desde, hasta);
+    }
+
+    /**
+     * Devuelve la versión actual de la agenda del profesional.
+     * La versión cambia con cada modificación o recarga, lo que permite a otros componentes
+     * validar estructuras derivadas de la agenda sin suscribirse a los eventos.
+     */
+    public long version(Integer profesionalId) {
+        return obtenerAgenda(profesionalId).version;
+    }
+
+    /**
+     * Descarta la agenda de un profesional para que se recargue en la siguiente consulta.
+     */
+    public void invalidar(Integer profesionalId) {
+        agendas.remove(profesionalId);
+    }
+
+    /**
+     * Descarta todas las agendas cargadas.
+     */
+    public void invalidarTodo() {
+        agendas.clear();
+    }
+
+    /**
+     * Descarta la agenda del profesional una vez confirmada la transacción actual, o de inmediato
+     * si no hay ninguna. Lo usan las escrituras que eliminan citas sin publicar sus eventos, como
+     * la eliminación en cascada de un profesional.
+     */
+    public void invalidarAlConfirmar(Integer profesionalId) {
+        alConfirmar(() -> invalidar(profesionalId));
+    }
+
+    /**
+     * Descarta todas las agendas una vez confirmada la transacción actual, o de inmediato si no hay
+     * ninguna. Lo usan las escrituras que afectan a citas de varios profesionales sin publicar sus
+     * eventos: la eliminación en cascada de un usuario o un servicio y el cambio de duración de un servicio.
+     */
+    public void invalidarTodoAlConfirmar() {
+        alConfirmar(this::invalidarTodo);
+    }
+
+    /**
+     * Aplica al índice los cambios de una cita una vez confirmada la transacción.
+     */
+    @EventListener
+    public void alCambiarCita(CitaCambioEvent evento) {
+        alConfirmar(() -> aplicar(evento));
+    }
+
+    /**
+     * Descarta las agendas afectadas por una cancelación por lotes, ya que las citas
+     * canceladas dejan de ocupar horario. El resto de transiciones no altera los intervalos.
+     */
+    @EventListener
+    public void alTransicionarLote(CitasTransicionLoteEvent evento) {
+        if (evento.getEstadoDestino().ocupaHorario()) {
+            return;
+        }
+        if (evento.getProfesionalId() != null) {
+            invalidarAlConfirmar(evento.getProfesionalId());
+        } else {
+            invalidarTodoAlConfirmar();
+        }
+    }
+
+    /**
+     * Descarta la agenda del profesional de la serie para recalcular sus ocurrencias pendientes.
+     */
+    @EventListener
+    public void alCambiarSerie(SerieCitaCambioEvent evento) {
+        invalidarAlConfirmar(evento.getProfesionalId());
+    }
+
+    private void aplicar(CitaCambioEvent evento) {
+        CitaResumen anterior = evento.getAnterior();
+        CitaResumen actual = evento.getActual();
+        if (anterior != null) {
+            agendas.computeIfPresent(anterior.getProfesionalId(), (id, agenda) -> {
+                agenda.quitar(anterior.getId());
+                agenda.version = secuenciaVersiones.incrementAndGet();
+                return agenda;
+            });
+        }
+        if (actual != null && actual.ocupaHorario()) {
+            agendas.computeIfPresent(actual.getProfesionalId(), (id, agenda) -> {
+                agenda.agregar(new Intervalo(actual.getId(), actual.getInicio(), actual.getFin()));
+                agenda.version = secuenciaVersiones.incrementAndGet();
+                return agenda;
+            });
+        }
+    }
+
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private AgendaProfesional obtenerAgenda(Integer profesionalId) {
+        return agendas.computeIfAbsent(profesionalId,
+                id -> transaccionCarga.execute(estado -> cargarAgenda(id)));
+    }
+
+    private AgendaProfesional cargarAgenda(Integer profesionalId) {
+        logger.debug("Cargando agenda en memoria del profesional con ID: {}", profesionalId);
+        AgendaProfesional agenda = new AgendaProfesional();
+        for (Cita cita : citaRepository.findByProfesionalId(profesionalId)) {
+            CitaResumen resumen = CitaResumen.de(cita);
+            if (resumen.ocupaHorario()) {
+                agenda.agregar(new Intervalo(resumen.getId(), resumen.getInicio(), resumen.getFin()));
+            }
+        }
+        List<SerieAgenda> series = new ArrayList<>();
+        for (SerieCita serie : serieCitaRepository.findByProfesionalIdAndFinalizadaFalse(profesionalId)) {
+            series.add(new SerieAgenda(serie.getId(), serie.expansion(),
+                    DuracionServicio.enMinutos(serie.getServicio().getDuracion())));
+        }
+        agenda.series = List.copyOf(series);
+        agenda.version = secuenciaVersiones.incrementAndGet();
+        return agenda;
+    }
+
+    /**
+     * Intervalo ocupado por una cita, o por una ocurrencia pendiente de una serie,
+     * dentro de la agenda de un profesional. Solo las citas se guardan en el árbol de intervalos.
+     */
+    public static final class Intervalo {
+
+        private static final Comparator<Intervalo> ORDEN = Comparator
+                .comparing(Intervalo::getInicio)
+                .thenComparing(Intervalo::getCitaId);
+
+        private final Integer citaId;
+        private final Integer serieId;
+        private final Integer numeroSerie;
+        private final LocalDateTime inicio;
+        private final LocalDateTime fin;
+
+        public Intervalo(Integer citaId, LocalDateTime inicio, LocalDateTime fin) {
+            this(citaId, null, null, inicio, fin);
+        }
+
+        private Intervalo(Integer citaId, Integer serieId, Integer numeroSerie, LocalDateTime inicio,
+                          LocalDateTime fin) {
+            this.citaId = citaId;
+            this.serieId = serieId;
+            this.numeroSerie = numeroSerie;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        static Intervalo deOcurrencia(Integer serieId, ExpansionSerie.Ocurrencia ocurrencia, long minutos) {
+            return new Intervalo(null, serieId, ocurrencia.numero(), ocurrencia.inicio(),
+                    ocurrencia.inicio().plusMinutes(minutos));
+        }
+
+        /**
+         * Describe lo que ocupa el intervalo, para los mensajes de conflicto.
+         */
+        public String describir() {
+            return citaId != null
+                    ? "la cita con ID " + citaId
+                    : "la ocurrencia " + numeroSerie + " de la serie con ID " + serieId;
+        }
+
+        boolean seSolapaCon(LocalDateTime otroInicio, LocalDateTime otroFin) {
+            return inicio.isBefore(otroFin) && fin.isAfter(otroInicio);
+        }
+
+        public Integer getCitaId() {
+            return citaId;
+        }
+
+        public Integer getSerieId() {
+            return serieId;
+        }
+
+        public Integer getNumeroSerie() {
+            return numeroSerie;
+        }
+
+        public LocalDateTime getInicio() {
+            return inicio;
+        }
+
+        public LocalDateTime getFin() {
+            return fin;
+        }
+    }
+
+    /**
+     * Serie con ocurrencias pendientes dentro de la agenda de un profesional.
+     */
+    private record SerieAgenda(Integer serieId, ExpansionSerie expansion, long minutos) {
+
+        /**
+         * Ocurrencias pendientes que intersectan [desde, hasta).
+         */
+        List<Intervalo> entre(LocalDateTime desde, LocalDateTime hasta) {
+            List<Intervalo> resultado = new ArrayList<>();
+            for (ExpansionSerie.Ocurrencia ocurrencia : expansion.pendientesEntre(desde.minusMinutes(minutos), hasta)) {
+                Intervalo intervalo = Intervalo.deOcurrencia(serieId, ocurrencia, minutos);
+                if (intervalo.seSolapaCon(desde, hasta)) {
+                    resultado.add(intervalo);
+                }
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Agenda de un profesional: intervalos ordenados por inicio y acceso directo por cita.
+     * Se conserva la duración máxima registrada para acotar la búsqueda hacia atrás,
+     * de modo que la consulta sigue siendo logarítmica aunque existan solapamientos históricos.
+     * Las series se fijan al cargar la agenda; cualquier cambio en ellas descarta la agenda.
+     */
+    static final class AgendaProfesional {
+
+        private final NavigableSet<Intervalo> intervalos = new TreeSet<>(Intervalo.ORDEN);
+        private final Map<Integer, Intervalo> porCita = new HashMap<>();
+        private List<SerieAgenda> series = List.of();
+        private long duracionMaximaSegundos;
+        private volatile long version;
+
+        synchronized void agregar(Intervalo intervalo) {
+            Intervalo previo = porCita.put(intervalo.getCitaId(), intervalo);
+            if (previo != null) {
+                intervalos.remove(previo);
+            }
+            intervalos.add(intervalo);
+            long segundos = Duration.between(intervalo.getInicio(), intervalo.getFin()).getSeconds();
+            duracionMaximaSegundos = Math.max(duracionMaximaSegundos, segundos);
+        }
+
+        synchronized void quitar(Integer citaId) {
+            Intervalo previo = porCita.remove(citaId);
+            if (previo != null) {
+                intervalos.remove(previo);
+            }
+        }
+
+        synchronized Optional<Intervalo> buscarSolapamiento(LocalDateTime inicio, LocalDateTime fin,
+                                                           Integer excluirCitaId, Integer excluirSerieId,
+                                                           Integer excluirNumeroSerie) {
+            // Intervalos que comienzan antes del fin solicitado, del más cercano al más lejano
+            Iterator<Intervalo> candidatos = intervalos
+                    .headSet(new Intervalo(Integer.MIN_VALUE, fin, fin), false)
+                    .descendingIterator();
+            LocalDateTime limite = inicio.minusSeconds(duracionMaximaSegundos);
+            while (candidatos.hasNext()) {
+                Intervalo candidato = candidatos.next();
+                if (candidato.getInicio().isBefore(limite)) {
+                    break;
+                }
+                if (!candidato.getCitaId().equals(excluirCitaId) && candidato.seSolapaCon(inicio, fin)) {
+                    return Optional.of(candidato);
+                }
+            }
+            for (SerieAgenda serie : series) {
+                for (Intervalo ocurrencia : serie.entre(inicio, fin)) {
+                    if (!(ocurrencia.getSerieId().equals(excluirSerieId)
+                            && ocurrencia.getNumeroSerie().equals(excluirNumeroSerie))) {
+                        return Optional.of(ocurrencia);
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+
+        synchronized List<Intervalo> entre(LocalDateTime desde, LocalDateTime hasta) {
+            List<Intervalo> resultado = new ArrayList<>();
+            LocalDateTime limite = desde.minusSeconds(duracionMaximaSegundos);
+            for (Intervalo intervalo : intervalos.subSet(
+                    new Intervalo(Integer.MIN_VALUE, limite, limite), true,
+                    new Intervalo(Integer.MIN_VALUE, hasta, hasta), false)) {
+                if (intervalo.seSolapaCon(desde, hasta)) {
+                    resultado.add(intervalo);
+                }
+            }
+            if (!series.isEmpty()) {
+                int materializados = resultado.size();
+                for (SerieAgenda serie : series) {
+                    resultado.addAll(serie.entre(desde, hasta));
+                }
+                if (resultado.size() > materializados) {
+                    resultado.sort(Comparator.comparing(Intervalo::getInicio));
+                }
+            }
+            return resultado;
+        }
+    }
+}
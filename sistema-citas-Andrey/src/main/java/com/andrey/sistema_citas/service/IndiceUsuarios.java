@@ -0,0 +1,149 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
+import com.andrey.sistema_citas.event.UsuarioCambioEvent;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import com.andrey.sistema_citas.util.IndicePrefijos;
+import com.andrey.sistema_citas.util.NormalizadorTexto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de los usuarios por nombre y por email para las búsquedas por prefijo
+ * de los campos de autocompletado, que no deben recorrer ni transferir la lista completa de usuarios.
+ * Un usuario se encuentra por el comienzo de cualquier palabra de su nombre o de su email,
+ * sin distinguir mayúsculas ni tildes. Cada búsqueda devuelve como mucho el límite pedido y su coste
+ * no depende del número de usuarios.
+ * Se carga al iniciar la aplicación y se actualiza tras confirmarse cada UsuarioCambioEvent con
+ * los datos del propio evento, sin volver a leer la base de datos.
+ */
+@Component
+public class IndiceUsuarios {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceUsuarios.class);
+
+    private final UsuarioRepository usuarioRepository;
+
+    private final Map<Integer, UsuarioFoto> usuarios = new ConcurrentHashMap<>();
+
+    /**
+     * Índice sobre las claves de los usuarios; null hasta la primera carga. Se reemplaza bajo
+     * el monitor de esta instancia, después de agregar el usuario y antes de retirarlo, de modo que
+     * todo ID del índice tiene su usuario en el mapa salvo durante una eliminación.
+     */
+    private volatile IndicePrefijos indice;
+
+    public IndiceUsuarios(UsuarioRepository usuarioRepository) {
+        this.usuarioRepository = usuarioRepository;
+    }
+
+    /**
+     * Busca los usuarios con alguna palabra del nombre, o el email, que empiece por el texto indicado,
+     * hasta el límite indicado.
+     */
+    public List<SugerenciaDTO> buscar(String texto, int limite) {
+        String prefijo = NormalizadorTexto.normalizar(texto == null ? "" : texto);
+        List<SugerenciaDTO> resultado = new ArrayList<>();
+        for (Integer id : actual().buscar(prefijo, limite)) {
+            UsuarioFoto usuario = usuarios.get(id);
+            if (usuario != null) {
+                resultado.add(new SugerenciaDTO(usuario.id(), usuario.nombre(), usuario.email()));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Número de usuarios en el índice.
+     */
+    public int tamano() {
+        actual();
+        return usuarios.size();
+    }
+
+    /**
+     * Carga el índice completo al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        recargar();
+    }
+
+    /**
+     * Agrega, reemplaza o retira el usuario una vez confirmada la transacción.
+     */
+    @TransactionalEventListener
+    public synchronized void alCambiarUsuario(UsuarioCambioEvent evento) {
+        if (indice == null) {
+            recargar();
+            return;
+        }
+        Integer id = evento.getUsuarioId();
+        UsuarioFoto anterior = usuarios.get(id);
+        List<String> clavesAnteriores = anterior != null ? anterior.claves() : List.of();
+        if (evento.isEliminado()) {
+            indice = indice.conCambios(id, clavesAnteriores, List.of());
+            usuarios.remove(id);
+        } else {
+            UsuarioFoto usuario = new UsuarioFoto(id, evento.getNombre(), evento.getEmail());
+            usuarios.put(id, usuario);
+            indice = indice.conCambios(id, clavesAnteriores, usuario.claves());
+        }
+        logger.debug("Índice de usuarios actualizado para el usuario {}", id);
+    }
+
+    private IndicePrefijos actual() {
+        IndicePrefijos actual = indice;
+        return actual != null ? actual : cargarSiFalta();
+    }
+
+    private synchronized IndicePrefijos cargarSiFalta() {
+        if (indice == null) {
+            recargar();
+        }
+        return indice;
+    }
+
+    private synchronized void recargar() {
+        Map<Integer, UsuarioFoto> cargados = new HashMap<>();
+        Map<Integer, List<String>> claves = new HashMap<>();
+        for (SugerenciaDTO usuario : usuarioRepository.findSugerencias()) {
+            UsuarioFoto foto = new UsuarioFoto(usuario.getId(), usuario.getTexto(), usuario.getDetalle());
+            cargados.put(foto.id(), foto);
+            claves.put(foto.id(), foto.claves());
+        }
+        IndicePrefijos nuevo = IndicePrefijos.construir(claves);
+        usuarios.putAll(cargados);
+        indice = nuevo;
+        usuarios.keySet().retainAll(cargados.keySet());
+        logger.info("Índice de usuarios cargado: {} usuarios, {} claves", cargados.size(), nuevo.tamano());
+    }
+
+    /**
+     * Copia inmutable de los datos de un usuario que muestran las sugerencias.
+     */
+    private record UsuarioFoto(Integer id, String nombre, String email) {
+
+        /**
+         * Claves del usuario: una por cada palabra de su nombre y su email completo.
+         */
+        List<String> claves() {
+            List<String> claves = new ArrayList<>(IndicePrefijos.clavesDePalabras(nombre));
+            String clavePorEmail = NormalizadorTexto.normalizar(email);
+            if (clavePorEmail != null && !clavePorEmail.isEmpty()) {
+                claves.add(clavePorEmail);
+            }
+            return claves;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.SolicitudEsperaDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.EstadoSolicitudEspera;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.SolicitudEspera;
+import com.andrey.sistema_citas.entity.UrgenciaEspera;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.event.SolicitudEsperaCambioEvent;
+import com.andrey.sistema_citas.event.SolicitudEsperaResumen;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.SolicitudEsperaRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import com.andrey.sistema_citas.util.EntityMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Servicio que gestiona la lista de espera de citas.
+ * Las solicitudes se guardan en base de datos para sobrevivir a un reinicio; la búsqueda
+ * de candidatos al liberarse un hueco la hace ColasEspera en memoria, a partir de los
+ * eventos que publica este servicio. Atender una solicitud crea una cita PENDIENTE
+ * mediante CitaService, que vuelve a validar el hueco bajo su bloqueo de agenda.
+ * Las solicitudes se eliminan junto con su usuario, su servicio o el profesional al que se dirigen.
+ */
+@Service
+@Transactional
+public class ListaEsperaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListaEsperaService.class);
+
+    /**
+     * Amplitud máxima de la ventana de una solicitud. Limita el número de días
+     * en que la solicitud figura en las colas en memoria.
+     */
+    public static final Duration VENTANA_MAXIMA = Duration.ofDays(31);
+
+    private final SolicitudEsperaRepository solicitudEsperaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ServicioRepository servicioRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final CitaRepository citaRepository;
+    private final CitaService citaService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ListaEsperaService(SolicitudEsperaRepository solicitudEsperaRepository,
+                              UsuarioRepository usuarioRepository, ServicioRepository servicioRepository,
+                              ProfesionalRepository profesionalRepository, CitaRepository citaRepository,
+                              CitaService citaService, ApplicationEventPublisher eventPublisher) {
+        this.solicitudEsperaRepository = solicitudEsperaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.servicioRepository = servicioRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.citaRepository = citaRepository;
+        this.citaService = citaService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Obtiene una solicitud por su ID.
+     */
+    @Transactional(readOnly = true)
+    public SolicitudEsperaDTO obtenerPorId(Integer id) {
+        logger.debug("Obteniendo solicitud de espera con ID: {}", id);
+        return EntityMapper.toSolicitudEsperaDTO(obtenerSolicitud(id));
+    }
+
+    /**
+     * Obtiene las solicitudes de un usuario, las más recientes primero.
+     */
+    @Transactional(readOnly = true)
+    public List<SolicitudEsperaDTO> obtenerPorUsuario(Integer usuarioId) {
+        logger.debug("Obteniendo solicitudes de espera del usuario ID: {}", usuarioId);
+        return solicitudEsperaRepository.findByUsuarioIdOrderByCreadaEnDesc(usuarioId).stream()
+                .map(EntityMapper::toSolicitudEsperaDTO)
+                .toList();
+    }
+
+    /**
+     * Obtiene el resumen de las solicitudes activas cuya ventana no ha terminado,
+     * para cargar las colas en memoria al arrancar.
+     */
+    @Transactional(readOnly = true)
+    public List<SolicitudEsperaResumen> obtenerActivas(LocalDateTime ahora) {
+        return solicitudEsperaRepository.findVigentes(EstadoSolicitudEspera.ACTIVA.getCodigo(), ahora).stream()
+                .map(SolicitudEsperaResumen::de)
+                .toList();
+    }
+
+    /**
+     * Registra una solicitud en la lista de espera.
+     */
+    public SolicitudEsperaDTO registrar(SolicitudEsperaDTO solicitudDTO) {
+        logger.debug("Registrando solicitud de espera para usuario ID: {}", solicitudDTO.getUsuarioId());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        if (!solicitudDTO.getHasta().isAfter(solicitudDTO.getDesde())) {
+            throw new IllegalArgumentException("El fin de la ventana debe ser posterior a su inicio");
+        }
+        if (!solicitudDTO.getHasta().isAfter(ahora)) {
+            throw new IllegalArgumentException("La ventana de la solicitud ya terminó");
+        }
+        if (Duration.between(solicitudDTO.getDesde(), solicitudDTO.getHasta()).compareTo(VENTANA_MAXIMA) > 0) {
+            throw new IllegalArgumentException("La ventana de la solicitud no puede superar "
+                    + VENTANA_MAXIMA.toDays() + " días");
+        }
+        String especialidad = solicitudDTO.getEspecialidad() == null || solicitudDTO.getEspecialidad().isBlank()
+                ? null
+                : solicitudDTO.getEspecialidad().trim();
+        if (solicitudDTO.getProfesionalId() != null && especialidad != null) {
+            throw new IllegalArgumentException("Indique un profesional o una especialidad, no ambos");
+        }
+        UrgenciaEspera urgencia = solicitudDTO.getUrgencia() != null
+                ? UrgenciaEspera.desdeNombre(solicitudDTO.getUrgencia())
+                : UrgenciaEspera.NORMAL;
+
+        Usuario usuario = usuarioRepository.findById(solicitudDTO.getUsuarioId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + solicitudDTO.getUsuarioId()));
+        Servicio servicio = servicioRepository.findById(solicitudDTO.getServicioId())
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + solicitudDTO.getServicioId()));
+        Profesional profesional = null;
+        if (solicitudDTO.getProfesionalId() != null) {
+            profesional = profesionalRepository.findById(solicitudDTO.getProfesionalId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con ID: " + solicitudDTO.getProfesionalId()));
+        }
+
+        SolicitudEspera solicitud = new SolicitudEspera();
+        solicitud.setUsuario(usuario);
+        solicitud.setServicio(servicio);
+        solicitud.setProfesional(profesional);
+        solicitud.setEspecialidad(especialidad);
+        solicitud.setDesde(solicitudDTO.getDesde());
+        solicitud.setHasta(solicitudDTO.getHasta());
+        solicitud.setUrgencia(urgencia == null ? UrgenciaEspera.NORMAL : urgencia);
+        solicitud.setEstado(EstadoSolicitudEspera.ACTIVA);
+        solicitud.setCreadaEn(ahora);
+
+        SolicitudEspera guardada = solicitudEsperaRepository.save(solicitud);
+        logger.info("Solicitud de espera registrada con ID: {}", guardada.getId());
+
+        eventPublisher.publishEvent(SolicitudEsperaCambioEvent.registrada(SolicitudEsperaResumen.de(guardada)));
+
+        return EntityMapper.toSolicitudEsperaDTO(guardada);
+    }
+
+    /**
+     * Cancela una solicitud activa.
+     */
+    public void cancelar(Integer id) {
+        logger.debug("Cancelando solicitud de espera con ID: {}", id);
+        SolicitudEspera solicitud = obtenerSolicitud(id);
+        if (solicitud.getEstado() != EstadoSolicitudEspera.ACTIVA) {
+            throw new IllegalArgumentException("La solicitud ya no está activa: " + solicitud.getEstado());
+        }
+        solicitud.setEstado(EstadoSolicitudEspera.CANCELADA);
+        logger.info("Solicitud de espera cancelada con ID: {}", id);
+
+        eventPublisher.publishEvent(SolicitudEsperaCambioEvent.retirada(id));
+    }
+
+    /**
+     * Atiende una solicitud con el hueco indicado: crea una cita PENDIENTE para su usuario y servicio
+     * y guarda la cita en la solicitud. Devuelve null si la solicitud ya no está activa.
+     * CitaService lanza ConflictoHorarioException si el hueco ya no está libre para este servicio;
+     * si la solicitud cambió en paralelo, el bloqueo optimista impide atenderla dos veces.
+     */
+    public CitaDTO asignar(Integer solicitudId, Integer profesionalId, LocalDateTime inicio) {
+        SolicitudEspera solicitud = solicitudEsperaRepository.findById(solicitudId).orElse(null);
+        if (solicitud == null || solicitud.getEstado() != EstadoSolicitudEspera.ACTIVA) {
+            return null;
+        }
+
+        CitaDTO citaDTO = new CitaDTO();
+        citaDTO.setFechaHora(inicio);
+        citaDTO.setEstado(EstadoCita.PENDIENTE.name());
+        citaDTO.setUsuarioId(solicitud.getUsuario().getId());
+        citaDTO.setServicioId(solicitud.getServicio().getId());
+        citaDTO.setProfesionalId(profesionalId);
+        CitaDTO cita = citaService.crear(citaDTO);
+
+        solicitud.setEstado(EstadoSolicitudEspera.ATENDIDA);
+        solicitud.setCitaId(cita.getId());
+        solicitudEsperaRepository.flush();
+        logger.info("Solicitud de espera {} atendida con la cita {}", solicitudId, cita.getId());
+
+        eventPublisher.publishEvent(SolicitudEsperaCambioEvent.retirada(solicitudId));
+        return cita;
+    }
+
+    /**
+     * Marca como vencidas las solicitudes activas cuya ventana terminó antes del instante indicado.
+     * Las colas en memoria descartan por su cuenta las solicitudes vencidas, por lo que no se
+     * publica un evento por solicitud.
+     */
+    public int expirarVencidas(LocalDateTime ahora) {
+        int vencidas = solicitudEsperaRepository.actualizarVencidas(
+                EstadoSolicitudEspera.ACTIVA.getCodigo(), EstadoSolicitudEspera.VENCIDA.getCodigo(), ahora);
+        if (vencidas > 0) {
+            logger.info("{} solicitudes de espera vencidas", vencidas);
+        }
+        return vencidas;
+    }
+
+    /**
+     * Obtiene las fechas y horas de inicio de las citas canceladas de un profesional en [desde, hasta):
+     * las franjas que una cancelación por lotes pudo dejar libres.
+     */
+    @Transactional(readOnly = true)
+    public List<LocalDateTime> obtenerFranjasCanceladas(Integer profesionalId, LocalDateTime desde, LocalDateTime hasta) {
+        return citaRepository.findIniciosPorProfesionalYEstadoEntre(profesionalId, EstadoCita.CANCELADA, desde, hasta);
+    }
+
+    /**
+     * Elimina las solicitudes de un usuario. Debe llamarse en la transacción que elimina al usuario y antes de eliminarlo.
+     */
+    public void eliminarDeUsuario(Integer usuarioId) {
+        eliminar(solicitudEsperaRepository.findDeUsuario(usuarioId));
+    }
+
+    /**
+     * Elimina las solicitudes de un servicio. Debe llamarse en la transacción que elimina el servicio y antes de eliminarlo.
+     */
+    public void eliminarDeServicio(Integer servicioId) {
+        eliminar(solicitudEsperaRepository.findByServicioId(servicioId));
+    }
+
+    /**
+     * Elimina las solicitudes dirigidas a un profesional. Debe llamarse en la transacción que elimina
+     * al profesional y antes de eliminarlo.
+     */
+    public void eliminarDeProfesional(Integer profesionalId) {
+        eliminar(solicitudEsperaRepository.findByProfesionalId(profesionalId));
+    }
+
+    /**
+     * Elimina las solicitudes y retira de las colas las que seguían activas.
+     */
+    private void eliminar(List<SolicitudEspera> solicitudes) {
+        if (solicitudes.isEmpty()) {
+            return;
+        }
+        solicitudEsperaRepository.deleteAll(solicitudes);
+        solicitudEsperaRepository.flush();
+        logger.info("Solicitudes de espera eliminadas: {}", solicitudes.size());
+
+        for (SolicitudEspera solicitud : solicitudes) {
+            if (solicitud.getEstado() == EstadoSolicitudEspera.ACTIVA) {
+                eventPublisher.publishEvent(SolicitudEsperaCambioEvent.retirada(solicitud.getId()));
+            }
+        }
+    }
+
+    private SolicitudEspera obtenerSolicitud(Integer id) {
+        return solicitudEsperaRepository.findDetalleById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Solicitud de espera no encontrada con ID: " + id));
+    }
+}
@@ -0,0 +1,52 @@
+package com.andrey.sistema_citas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tarea programada que mantiene materializadas las ocurrencias de las series de citas
+ * dentro del horizonte configurado, de modo que las próximas citas de cada serie existan
+ * como filas de cita (con sus recordatorios, estadísticas y eventos) antes de que lleguen.
+ * Cada serie se materializa en su propia transacción; un fallo en una no detiene las demás.
+ */
+@Component
+public class MaterializacionSeriesJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaterializacionSeriesJob.class);
+
+    private final SerieCitaService serieCitaService;
+
+    public MaterializacionSeriesJob(SerieCitaService serieCitaService) {
+        this.serieCitaService = serieCitaService;
+    }
+
+    /**
+     * Amplía la materialización de las series según el intervalo configurado.
+     */
+    @Scheduled(fixedDelayString = "${citas.series.intervalo-materializacion:PT1H}",
+               initialDelayString = "${citas.series.retraso-inicial:PT1M}")
+    public void materializar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Integer> series = serieCitaService.obtenerPorMaterializar(ahora);
+        int citas = 0;
+        for (Integer serieId : series) {
+            try {
+                citas += serieCitaService.materializar(serieId, ahora);
+            } catch (OptimisticLockingFailureException e) {
+                // Otra instancia o una modificación concurrente actualizó la serie; se reintentará
+                logger.debug("Serie {} modificada durante su materialización: {}", serieId, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("No se pudo materializar la serie {}: {}", serieId, e.getMessage(), e);
+            }
+        }
+        if (citas > 0) {
+            logger.info("Series materializadas: {} series revisadas, {} citas creadas", series.size(), citas);
+        }
+    }
+}
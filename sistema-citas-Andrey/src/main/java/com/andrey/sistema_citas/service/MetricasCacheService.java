@@ -0,0 +1,52 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.config.CacheSegundoNivelConfig;
+import com.andrey.sistema_citas.dto.EstadisticasCacheDTO;
+import com.andrey.sistema_citas.security.CustomUserDetailsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio que reúne las métricas de las cachés en memoria de la aplicación: la caché de servicios,
+ * la de credenciales de autenticación y cada región de la caché de segundo nivel de Hibernate.
+ */
+@Service
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MetricasCacheService {
+
+    private final CacheServicios cacheServicios;
+    private final CustomUserDetailsService userDetailsService;
+    private final CacheManager cacheManagerSegundoNivel;
+
+    public MetricasCacheService(CacheServicios cacheServicios, CustomUserDetailsService userDetailsService,
+                                CacheManager cacheManagerSegundoNivel) {
+        this.cacheServicios = cacheServicios;
+        this.userDetailsService = userDetailsService;
+        this.cacheManagerSegundoNivel = cacheManagerSegundoNivel;
+    }
+
+    /**
+     * Obtiene las métricas de todas las cachés. Las regiones de segundo nivel se nombran "l2.<región>".
+     */
+    public List<EstadisticasCacheDTO> obtenerTodas() {
+        List<EstadisticasCacheDTO> estadisticas = new ArrayList<>(cacheServicios.estadisticas());
+        estadisticas.add(userDetailsService.estadisticas());
+        for (String region : CacheSegundoNivelConfig.REGIONES) {
+            javax.cache.Cache<?, ?> cache = cacheManagerSegundoNivel.getCache(region);
+            if (cache != null) {
+                Cache<?, ?> caffeine = cache.unwrap(Cache.class);
+                CacheStats stats = caffeine.stats();
+                estadisticas.add(new EstadisticasCacheDTO("l2." + region, caffeine.estimatedSize(), stats.hitCount(),
+                        stats.missCount(), stats.evictionCount(), stats.hitRate()));
+            }
+        }
+        return estadisticas;
+    }
+}
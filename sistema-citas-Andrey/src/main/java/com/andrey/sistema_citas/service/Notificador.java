@@ -0,0 +1,13 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.RecordatorioDTO;
+
+/**
+ * Canal por el que se entregan los recordatorios de citas (correo, SMS, registro local...).
+ * Si la entrega falla debe lanzar una excepción para que el recordatorio se reintente;
+ * un envío que termina sin error se registra como entregado y no se repite.
+ */
+public interface Notificador {
+
+    void enviar(RecordatorioDTO recordatorio);
+}
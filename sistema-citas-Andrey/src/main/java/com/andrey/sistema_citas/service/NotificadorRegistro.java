@@ -0,0 +1,55 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.RecordatorioDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Notificador local que escribe cada recordatorio en el log y, si se configura
+ * citas.recordatorios.archivo, agrega una línea a ese archivo.
+ * Es el notificador por defecto; otra implementación se activa cambiando
+ * citas.recordatorios.notificador.
+ */
+@Component
+@ConditionalOnProperty(name = "citas.recordatorios.notificador", havingValue = "registro", matchIfMissing = true)
+public class NotificadorRegistro implements Notificador {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificadorRegistro.class);
+
+    private final Path archivo;
+
+    public NotificadorRegistro(@Value("${citas.recordatorios.archivo:}") String archivo) {
+        this.archivo = archivo == null || archivo.isBlank() ? null : Path.of(archivo);
+    }
+
+    @Override
+    public void enviar(RecordatorioDTO recordatorio) {
+        String linea = String.format("%s cita=%d usuario=%s <%s> servicio=%s profesional=%s fecha=%s",
+                recordatorio.getTipo(), recordatorio.getCitaId(), recordatorio.getUsuarioNombre(),
+                recordatorio.getUsuarioEmail(), recordatorio.getServicioNombre(),
+                recordatorio.getProfesionalNombre(), recordatorio.getFechaHora());
+        logger.info("Recordatorio de cita: {}", linea);
+        if (archivo != null) {
+            escribir(linea);
+        }
+    }
+
+    private synchronized void escribir(String linea) {
+        try {
+            Files.writeString(archivo, linea + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el recordatorio en " + archivo, e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.EventoCitaOutbox;
+import com.andrey.sistema_citas.entity.TipoEventoCita;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.repository.EventoCitaOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio del outbox de eventos de citas.
+ * Escribe una fila en cita_outbox por cada cambio publicado por CitaService, dentro de la misma
+ * transacción: el evento se guarda con el cambio o se descarta con él. Los eventos se acumulan
+ * durante la transacción y se insertan justo antes del commit con un único lote JDBC, sin pasar
+ * por el contexto de persistencia: así un lote de miles de citas no obliga a Hibernate a revisar
+ * miles de entidades adicionales en cada flush.
+ * También ofrece al DespachadorOutbox las operaciones para leer, confirmar y posponer eventos.
+ */
+@Service
+@Transactional
+public class OutboxService {
+
+    private static final String INSERTAR =
+            "INSERT INTO cita_outbox (cita_id, tipo, datos, creado_en, intentos, disponible_en, fallido) " +
+            "VALUES (?, ?, ?, ?, 0, ?, FALSE)";
+
+    private static final int FILAS_POR_LOTE = 500;
+
+    private final EventoCitaOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Clave con la que se asocian a la transacción actual los eventos pendientes.
+     */
+    private final Object claveRecurso = new Object();
+
+    public OutboxService(EventoCitaOutboxRepository outboxRepository, JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registra el cambio de una cita con sus resúmenes anterior y actual.
+     * El evento se recibe de forma síncrona, antes del commit; fuera de una transacción falla.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void alCambiarCita(CitaCambioEvent evento) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        if (evento.getAnterior() != null) {
+            datos.put("anterior", evento.getAnterior());
+        }
+        if (evento.getActual() != null) {
+            datos.put("actual", evento.getActual());
+        }
+        pendientesDeTransaccion().add(new EventoCitaOutbox(evento.getCitaId(), tipo(evento), serializar(datos),
+                LocalDateTime.now()));
+    }
+
+    /**
+     * Registra una transición por lotes con sus criterios, ya que las citas afectadas no se cargan.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void alTransicionarLote(CitasTransicionLoteEvent evento) {
+        if (evento.getAfectadas() == 0) {
+            return;
+        }
+        pendientesDeTransaccion().add(new EventoCitaOutbox(null, TipoEventoCita.TRANSICION_LOTE,
+                serializar(evento), LocalDateTime.now()));
+    }
+
+    /**
+     * Obtiene hasta "tamano" eventos listos para despachar, en orden de ID.
+     */
+    @Transactional(readOnly = true)
+    public List<EventoCitaOutbox> siguienteLote(LocalDateTime ahora, int tamano) {
+        return outboxRepository.findDisponibles(ahora, Limit.of(tamano));
+    }
+
+    /**
+     * Elimina los eventos entregados con una sola sentencia.
+     */
+    public void confirmar(Collection<Long> ids) {
+        outboxRepository.deleteAllByIdInBatch(ids);
+    }
+
+    /**
+     * Registra un intento fallido: el evento se pospone hasta la fecha indicada o,
+     * si agotó sus reintentos, queda marcado como fallido.
+     */
+    public void posponer(Long id, int intentos, LocalDateTime disponibleEn, boolean fallido) {
+        outboxRepository.findById(id).ifPresent(evento -> {
+            evento.setIntentos(intentos);
+            evento.setDisponibleEn(disponibleEn);
+            evento.setFallido(fallido);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EventoCitaOutbox> pendientesDeTransaccion() {
+        List<EventoCitaOutbox> pendientes =
+                (List<EventoCitaOutbox>) TransactionSynchronizationManager.getResource(claveRecurso);
+        if (pendientes == null) {
+            List<EventoCitaOutbox> nuevos = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(claveRecurso, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    escribir(nuevos);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(claveRecurso);
+                }
+            });
+            pendientes = nuevos;
+        }
+        return pendientes;
+    }
+
+    private void escribir(List<EventoCitaOutbox> pendientes) {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERTAR, pendientes, FILAS_POR_LOTE, (sentencia, evento) -> {
+            if (evento.getCitaId() == null) {
+                sentencia.setNull(1, Types.INTEGER);
+            } else {
+                sentencia.setInt(1, evento.getCitaId());
+            }
+            sentencia.setByte(2, evento.getTipo().getCodigo());
+            sentencia.setString(3, evento.getDatos());
+            sentencia.setTimestamp(4, Timestamp.valueOf(evento.getCreadoEn()));
+            sentencia.setTimestamp(5, Timestamp.valueOf(evento.getDisponibleEn()));
+        });
+    }
+
+    private TipoEventoCita tipo(CitaCambioEvent evento) {
+        return switch (evento.getTipo()) {
+            case CREADA -> TipoEventoCita.CREADA;
+            case ELIMINADA -> TipoEventoCita.ELIMINADA;
+            case ACTUALIZADA -> evento.getAnterior().getEstado() != evento.getActual().getEstado()
+                    ? TipoEventoCita.CAMBIO_ESTADO
+                    : TipoEventoCita.ACTUALIZADA;
+        };
+    }
+
+    private String serializar(Object datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de cita", e);
+        }
+    }
+}
@@ -1,24 +1,34 @@
 package com.andrey.sistema_citas.service;
 
 import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
 import com.andrey.sistema_citas.entity.Profesional;
 import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.event.ProfesionalCambioEvent;
 import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.exception.DuplicateResourceException;
 import com.andrey.sistema_citas.repository.ProfesionalRepository;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
+import com.andrey.sistema_citas.util.ControlVersiones;
 import com.andrey.sistema_citas.util.EntityMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Servicio que gestiona la lógica de negocio relacionada con profesionales.
  * Implementa operaciones CRUD y validaciones de negocio.
+ * Las consultas se sirven desde DirectorioProfesionales, que se actualiza con el
+ * ProfesionalCambioEvent que publica cada escritura.
  */
 @Service
 @Transactional
@@ -28,43 +38,66 @@ public class ProfesionalService {
 
     private final ProfesionalRepository profesionalRepository;
     private final UsuarioRepository usuarioRepository;
-
-    public ProfesionalService(ProfesionalRepository profesionalRepository, UsuarioRepository usuarioRepository) {
+    private final VersionesAgenda versionesAgenda;
+    private final IndiceAgendas indiceAgendas;
+    private final DirectorioProfesionales directorio;
+    private final SerieCitaService serieCitaService;
+    private final ListaEsperaService listaEsperaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+
+    public ProfesionalService(ProfesionalRepository profesionalRepository, UsuarioRepository usuarioRepository,
+                              VersionesAgenda versionesAgenda, IndiceAgendas indiceAgendas,
+                              DirectorioProfesionales directorio, SerieCitaService serieCitaService,
+                              ListaEsperaService listaEsperaService, ApplicationEventPublisher eventPublisher,
+                              Validator validator) {
         this.profesionalRepository = profesionalRepository;
         this.usuarioRepository = usuarioRepository;
+        this.versionesAgenda = versionesAgenda;
+        this.indiceAgendas = indiceAgendas;
+        this.directorio = directorio;
+        this.serieCitaService = serieCitaService;
+        this.listaEsperaService = listaEsperaService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
     }
 
     /**
      * Obtiene todos los profesionales del sistema.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProfesionalDTO> obtenerTodos() {
         logger.debug("Obteniendo todos los profesionales");
-        return profesionalRepository.findAll().stream()
-                .map(EntityMapper::toProfesionalDTO)
-                .collect(Collectors.toList());
+        return directorio.obtenerTodos();
     }
 
     /**
      * Obtiene un profesional por su ID.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProfesionalDTO obtenerPorId(Integer id) {
         logger.debug("Obteniendo profesional con ID: {}", id);
-        Profesional profesional = profesionalRepository.findById(id)
+        return directorio.obtenerPorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con ID: " + id));
-        return EntityMapper.toProfesionalDTO(profesional);
     }
 
     /**
-     * Obtiene profesionales por especialidad.
+     * Obtiene profesionales por especialidad, sin distinguir mayúsculas ni tildes.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProfesionalDTO> obtenerPorEspecialidad(String especialidad) {
         logger.debug("Obteniendo profesionales con especialidad: {}", especialidad);
-        return profesionalRepository.findByEspecialidad(especialidad).stream()
-                .map(EntityMapper::toProfesionalDTO)
-                .collect(Collectors.toList());
+        return directorio.obtenerPorEspecialidad(especialidad);
+    }
+
+    /**
+     * Busca profesionales por el comienzo de cualquier palabra del nombre de su usuario o de su
+     * especialidad, sin distinguir mayúsculas ni tildes, hasta el límite indicado.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SugerenciaDTO> buscar(String texto, int limite) {
+        logger.debug("Buscando profesionales que empiecen por: {}", texto);
+        return directorio.buscar(texto, limite);
     }
 
     /**
@@ -82,6 +115,7 @@ public class ProfesionalService {
         profesional.setUsuario(usuario);
 
         Profesional profesionalGuardado = profesionalRepository.save(profesional);
+        eventPublisher.publishEvent(ProfesionalCambioEvent.de(profesionalGuardado.getId()));
         logger.info("Profesional creado exitosamente con ID: {}", profesionalGuardado.getId());
 
         return EntityMapper.toProfesionalDTO(profesionalGuardado);
@@ -91,10 +125,20 @@ public class ProfesionalService {
      * Actualiza la información de un profesional existente.
      */
     public ProfesionalDTO actualizar(Integer id, ProfesionalDTO profesionalDTO) {
+        return actualizar(id, profesionalDTO, null);
+    }
+
+    /**
+     * Actualiza la información de un profesional existente comprobando su versión
+     * (la esperada según If-Match y la incluida en el DTO).
+     */
+    public ProfesionalDTO actualizar(Integer id, ProfesionalDTO profesionalDTO, Long versionEsperada) {
         logger.debug("Actualizando profesional con ID: {}", id);
 
-        Profesional profesional = profesionalRepository.findById(id)
+        Profesional profesional = profesionalRepository.findConUsuarioById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con ID: " + id));
+        ControlVersiones.verificar("el profesional", id, profesional.getVersion(),
+                versionEsperada, profesionalDTO.getVersion());
 
         profesional.setEspecialidad(profesionalDTO.getEspecialidad());
         profesional.setHorarioDisponible(profesionalDTO.getHorarioDisponible());
@@ -108,12 +152,41 @@ public class ProfesionalService {
             profesional.setUsuario(nuevoUsuario);
         }
 
-        Profesional profesionalActualizado = profesionalRepository.save(profesional);
+        // La escritura inmediata devuelve al cliente la versión ya incrementada
+        Profesional profesionalActualizado = profesionalRepository.saveAndFlush(profesional);
+        versionesAgenda.invalidarTodoAlConfirmar();
+        eventPublisher.publishEvent(ProfesionalCambioEvent.de(id));
         logger.info("Profesional actualizado exitosamente con ID: {}", profesionalActualizado.getId());
 
         return EntityMapper.toProfesionalDTO(profesionalActualizado);
     }
 
+    /**
+     * Actualiza solo los campos informados (no nulos) de un profesional.
+     */
+    public ProfesionalDTO actualizarParcial(Integer id, ProfesionalDTO cambios, Long versionEsperada) {
+        logger.debug("Actualizando parcialmente profesional con ID: {}", id);
+
+        ProfesionalDTO datos = EntityMapper.toProfesionalDTO(profesionalRepository.findConUsuarioById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con ID: " + id)));
+        if (cambios.getEspecialidad() != null) {
+            datos.setEspecialidad(cambios.getEspecialidad());
+        }
+        if (cambios.getHorarioDisponible() != null) {
+            datos.setHorarioDisponible(cambios.getHorarioDisponible());
+        }
+        if (cambios.getUsuarioId() != null) {
+            datos.setUsuarioId(cambios.getUsuarioId());
+        }
+        datos.setVersion(cambios.getVersion());
+
+        Set<ConstraintViolation<ProfesionalDTO>> violaciones = validator.validate(datos);
+        if (!violaciones.isEmpty()) {
+            throw new ConstraintViolationException(violaciones);
+        }
+        return actualizar(id, datos, versionEsperada);
+    }
+
     /**
      * Elimina un profesional del sistema.
      */
@@ -124,7 +197,14 @@ public class ProfesionalService {
             throw new ResourceNotFoundException("Profesional no encontrado con ID: " + id);
         }
 
+        // Sus series y las solicitudes de espera dirigidas a él se eliminan antes; sus citas se eliminan
+        // en cascada, sin eventos de cambio de cita
+        serieCitaService.eliminarDeProfesional(id);
+        listaEsperaService.eliminarDeProfesional(id);
         profesionalRepository.deleteById(id);
+        versionesAgenda.invalidarTodoAlConfirmar();
+        indiceAgendas.invalidarAlConfirmar(id);
+        eventPublisher.publishEvent(ProfesionalCambioEvent.de(id));
         logger.info("Profesional eliminado exitosamente con ID: {}", id);
     }
 }
@@ -0,0 +1,249 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.TipoRecordatorio;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.util.RuedaTemporizadores;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Programa los recordatorios de las citas confirmadas (24 horas y 1 hora antes) en una rueda
+ * de temporizadores en memoria, sin consultar periódicamente la tabla de citas.
+ * Al iniciar se cargan las citas confirmadas de las próximas horas (citas.recordatorios.horizonte)
+ * y el horizonte se extiende periódicamente; dentro de él, los eventos de cambio de citas
+ * confirmados programan, reprograman o cancelan los recordatorios de cada cita.
+ * Tras un reinicio los recordatorios se vuelven a programar a partir de la base de datos:
+ * los ya enviados se omiten y, de los que vencieron mientras la aplicación estaba detenida,
+ * solo se envía el más reciente.
+ */
+@Component
+public class ProgramadorRecordatorios {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgramadorRecordatorios.class);
+
+    /**
+     * Con ticks de un segundo y 4096 cubetas la rueda da una vuelta cada 68 minutos,
+     * por lo que un recordatorio a 48 horas espera unas 42 vueltas.
+     */
+    private static final Duration DURACION_TICK = Duration.ofSeconds(1);
+    private static final int CUBETAS = 4096;
+
+    private static final TipoRecordatorio[] TIPOS = TipoRecordatorio.values();
+
+    private final RecordatorioService recordatorioService;
+    private final Duration horizonte;
+    private final Duration reintento;
+    private final ExecutorService envios;
+    private final RuedaTemporizadores rueda;
+    private final Map<Integer, Programacion> programaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Fecha hasta la que se cargaron las citas confirmadas; null hasta la carga inicial.
+     * Las citas posteriores se programan al extender el horizonte.
+     */
+    private volatile LocalDateTime limiteCargado;
+
+    public ProgramadorRecordatorios(RecordatorioService recordatorioService,
+                                    @Value("${citas.recordatorios.horizonte:PT48H}") Duration horizonte,
+                                    @Value("${citas.recordatorios.reintento:PT1M}") Duration reintento) {
+        this.recordatorioService = recordatorioService;
+        this.horizonte = horizonte;
+        this.reintento = reintento;
+        // Un solo hilo de envío: los recordatorios se entregan en orden y sin competir por la misma cita
+        this.envios = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "recordatorios-envio");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.rueda = new RuedaTemporizadores("recordatorios-rueda", DURACION_TICK, CUBETAS, envios);
+    }
+
+    /**
+     * Programa los recordatorios de las citas confirmadas dentro del horizonte al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        cargar(ahora, ahora.plus(horizonte));
+    }
+
+    /**
+     * Extiende el horizonte programando las citas confirmadas que entraron en él desde
+     * la última carga, y purga los registros de recordatorios de citas pasadas.
+     */
+    @Scheduled(fixedDelayString = "${citas.recordatorios.extension:PT1H}",
+               initialDelayString = "${citas.recordatorios.extension:PT1H}")
+    public void extenderHorizonte() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime desde = limiteCargado == null ? ahora : limiteCargado;
+        cargar(desde, ahora.plus(horizonte));
+        int purgados = recordatorioService.purgar(ahora.minusDays(1));
+        if (purgados > 0) {
+            logger.debug("Registros de recordatorios purgados: {}", purgados);
+        }
+    }
+
+    /**
+     * Programa, reprograma o cancela los recordatorios de una cita una vez confirmada la transacción.
+     */
+    @TransactionalEventListener
+    public void alCambiarCita(CitaCambioEvent evento) {
+        CitaResumen actual = evento.getActual();
+        if (actual != null && actual.getEstado() == EstadoCita.CONFIRMADA) {
+            programar(actual.getId(), actual.getInicio());
+        } else {
+            cancelar(actual != null ? actual.getId() : evento.getAnterior().getId());
+        }
+    }
+
+    /**
+     * Programa las citas confirmadas por lotes. Las que dejan de estar confirmadas no se
+     * cancelan aquí: al vencer, su recordatorio se descarta porque la cita ya no corresponde.
+     */
+    @TransactionalEventListener
+    public void alTransicionarLote(CitasTransicionLoteEvent evento) {
+        LocalDateTime limite = limiteCargado;
+        if (evento.getEstadoDestino() == EstadoCita.CONFIRMADA && evento.getAfectadas() > 0 && limite != null) {
+            int programadas = programarConfirmadas(LocalDateTime.now(), limite);
+            logger.debug("Recordatorios reprogramados tras una confirmación por lotes: {} citas", programadas);
+        }
+    }
+
+    /**
+     * Número de recordatorios pendientes en la rueda.
+     */
+    public int pendientes() {
+        return rueda.pendientes();
+    }
+
+    @PreDestroy
+    public void detener() {
+        rueda.close();
+        envios.shutdownNow();
+    }
+
+    private synchronized void cargar(LocalDateTime desde, LocalDateTime hasta) {
+        // El límite se publica antes de consultar: las citas confirmadas a partir de aquí se
+        // programan por sus eventos y las anteriores las devuelve la consulta
+        limiteCargado = hasta;
+        int programadas = programarConfirmadas(desde, hasta);
+        logger.info("Recordatorios programados para {} citas hasta {} ({} pendientes)",
+                programadas, hasta, rueda.pendientes());
+    }
+
+    private int programarConfirmadas(LocalDateTime desde, LocalDateTime hasta) {
+        Map<Integer, LocalDateTime> citas = recordatorioService.confirmadasEntre(desde, hasta);
+        citas.forEach(this::programar);
+        return citas.size();
+    }
+
+    /**
+     * Programa los recordatorios de la cita, reemplazando los anteriores si su fecha cambió.
+     * Las citas pasadas o posteriores al horizonte cargado no se programan.
+     */
+    private void programar(Integer citaId, LocalDateTime fechaHora) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime limite = limiteCargado;
+        programaciones.compute(citaId, (id, previa) -> {
+            if (previa != null && previa.fechaHora.equals(fechaHora)) {
+                return previa;
+            }
+            if (previa != null) {
+                previa.cancelar();
+            }
+            if (limite == null || !fechaHora.isAfter(ahora) || fechaHora.isAfter(limite)) {
+                return null;
+            }
+            return crearProgramacion(id, fechaHora, ahora);
+        });
+    }
+
+    private Programacion crearProgramacion(Integer citaId, LocalDateTime fechaHora, LocalDateTime ahora) {
+        Programacion programacion = new Programacion(fechaHora);
+        for (int i = 0; i < TIPOS.length; i++) {
+            TipoRecordatorio tipo = TIPOS[i];
+            // Si también venció el plazo del recordatorio siguiente, este queda reemplazado por aquel
+            if (i + 1 < TIPOS.length && !fechaHora.minus(TIPOS[i + 1].getAntelacion()).isAfter(ahora)) {
+                continue;
+            }
+            Duration retraso = Duration.between(ahora, fechaHora.minus(tipo.getAntelacion()));
+            programacion.agregar(rueda.programar(() -> entregar(citaId, programacion, tipo), retraso));
+        }
+        return programacion;
+    }
+
+    private void cancelar(Integer citaId) {
+        Programacion previa = programaciones.remove(citaId);
+        if (previa != null) {
+            previa.cancelar();
+        }
+    }
+
+    /**
+     * Entrega un recordatorio desde el hilo de envío. Si falla y la cita aún no está cerca
+     * de comenzar, se vuelve a programar tras el intervalo de reintento.
+     */
+    private void entregar(Integer citaId, Programacion programacion, TipoRecordatorio tipo) {
+        try {
+            recordatorioService.entregar(citaId, programacion.fechaHora, tipo);
+        } catch (RuntimeException e) {
+            if (programacion.fechaHora.isAfter(LocalDateTime.now().plus(reintento))) {
+                logger.warn("Error al enviar el recordatorio {} de la cita {}, se reintentará: {}",
+                        tipo, citaId, e.getMessage());
+                programacion.agregar(rueda.programar(() -> entregar(citaId, programacion, tipo), reintento));
+                return;
+            }
+            logger.error("Error al enviar el recordatorio {} de la cita {}, se descarta", tipo, citaId, e);
+        }
+        if (tipo == TIPOS[TIPOS.length - 1]) {
+            programaciones.remove(citaId, programacion);
+        }
+    }
+
+    /**
+     * Temporizadores de los recordatorios de una cita para una fecha concreta.
+     */
+    private static final class Programacion {
+
+        private final LocalDateTime fechaHora;
+        private final List<RuedaTemporizadores.Temporizador> temporizadores = new ArrayList<>(TIPOS.length);
+        private boolean cancelada;
+
+        private Programacion(LocalDateTime fechaHora) {
+            this.fechaHora = fechaHora;
+        }
+
+        synchronized void agregar(RuedaTemporizadores.Temporizador temporizador) {
+            if (cancelada) {
+                temporizador.cancelar();
+            } else {
+                temporizadores.add(temporizador);
+            }
+        }
+
+        synchronized void cancelar() {
+            cancelada = true;
+            temporizadores.forEach(RuedaTemporizadores.Temporizador::cancelar);
+            temporizadores.clear();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.RecordatorioDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.RecordatorioEnviado;
+import com.andrey.sistema_citas.entity.RecordatorioEnviadoId;
+import com.andrey.sistema_citas.entity.TipoRecordatorio;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.RecordatorioEnviadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Servicio con el acceso a datos de los recordatorios de citas.
+ * La programación en memoria vive en ProgramadorRecordatorios; aquí se consultan las citas a
+ * programar y se entrega cada recordatorio comprobando antes, contra la base de datos, que la
+ * cita sigue confirmada en la misma fecha y que ese recordatorio no se envió ya.
+ */
+@Service
+@Transactional
+public class RecordatorioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordatorioService.class);
+
+    private final CitaRepository citaRepository;
+    private final RecordatorioEnviadoRepository recordatorioEnviadoRepository;
+    private final Notificador notificador;
+
+    public RecordatorioService(CitaRepository citaRepository,
+                               RecordatorioEnviadoRepository recordatorioEnviadoRepository,
+                               Notificador notificador) {
+        this.citaRepository = citaRepository;
+        this.recordatorioEnviadoRepository = recordatorioEnviadoRepository;
+        this.notificador = notificador;
+    }
+
+    /**
+     * Obtiene las citas confirmadas que comienzan en el rango (desde, hasta], con su fecha.
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, LocalDateTime> confirmadasEntre(LocalDateTime desde, LocalDateTime hasta) {
+        Map<Integer, LocalDateTime> citas = new LinkedHashMap<>();
+        for (Object[] fila : citaRepository.findProgramacionEntre(EstadoCita.CONFIRMADA, desde, hasta)) {
+            citas.put((Integer) fila[0], (LocalDateTime) fila[1]);
+        }
+        return citas;
+    }
+
+    /**
+     * Entrega un recordatorio de la cita si sigue confirmada para la fecha programada,
+     * aún no comenzó y el recordatorio no se envió antes para esa fecha.
+     * El envío queda registrado en la misma transacción; si el notificador falla, el registro
+     * se descarta y la excepción se propaga para que el recordatorio se reintente.
+     * Devuelve true si el recordatorio se envió.
+     */
+    public boolean entregar(Integer citaId, LocalDateTime fechaHora, TipoRecordatorio tipo) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Optional<RecordatorioDTO> encontrado = citaRepository.findRecordatorioPorId(citaId);
+        if (encontrado.isEmpty()
+                || encontrado.get().getEstado() != EstadoCita.CONFIRMADA
+                || !encontrado.get().getFechaHora().equals(fechaHora)
+                || !fechaHora.isAfter(ahora)) {
+            logger.debug("Recordatorio {} de la cita {} descartado: la cita ya no corresponde a la programación",
+                    tipo, citaId);
+            return false;
+        }
+
+        RecordatorioEnviadoId id = new RecordatorioEnviadoId(citaId, tipo);
+        RecordatorioEnviado enviado = recordatorioEnviadoRepository.findById(id).orElse(null);
+        if (enviado != null && enviado.getFechaCita().equals(fechaHora)) {
+            logger.debug("Recordatorio {} de la cita {} ya enviado el {}", tipo, citaId, enviado.getEnviadoEn());
+            return false;
+        }
+        if (enviado == null) {
+            enviado = new RecordatorioEnviado(id, fechaHora, ahora);
+        } else {
+            enviado.setFechaCita(fechaHora);
+            enviado.setEnviadoEn(ahora);
+        }
+        recordatorioEnviadoRepository.save(enviado);
+
+        RecordatorioDTO recordatorio = encontrado.get();
+        recordatorio.setTipo(tipo);
+        notificador.enviar(recordatorio);
+        return true;
+    }
+
+    /**
+     * Elimina los registros de recordatorios de citas anteriores a la fecha indicada.
+     */
+    public int purgar(LocalDateTime limite) {
+        return recordatorioEnviadoRepository.eliminarAnterioresA(limite);
+    }
+}
@@ -0,0 +1,123 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.OcupacionDiariaDTO;
+import com.andrey.sistema_citas.dto.ResumenPeriodoDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.repository.CitaRollupDiariaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Servicio de reportes de ocupación e ingresos.
+ * Lee el resumen diario de citas en lugar de la tabla de citas, por lo que un reporte
+ * anual recorre a lo sumo una fila por día, profesional, servicio y estado.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReporteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReporteService.class);
+
+    /**
+     * Amplitud máxima del rango de un reporte.
+     */
+    public static final int DIAS_MAXIMOS = 3660;
+
+    private final CitaRollupDiariaRepository rollupRepository;
+
+    public ReporteService(CitaRollupDiariaRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Agrupaciones temporales admitidas por el resumen por periodos.
+     */
+    public enum Periodo {
+        DIA,
+        SEMANA,
+        MES;
+
+        /**
+         * Primer día del periodo que contiene la fecha indicada; las semanas empiezan el lunes.
+         */
+        LocalDate inicio(LocalDate fecha) {
+            return switch (this) {
+                case DIA -> fecha;
+                case SEMANA -> fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MES -> fecha.withDayOfMonth(1);
+            };
+        }
+
+        static Periodo desdeNombre(String nombre) {
+            if (nombre == null || nombre.isBlank()) {
+                return DIA;
+            }
+            try {
+                return valueOf(nombre.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Periodo no válido: " + nombre + " (DIA, SEMANA o MES)");
+            }
+        }
+    }
+
+    /**
+     * Obtiene las filas del resumen diario entre dos días (ambos incluidos),
+     * opcionalmente filtradas por profesional y servicio.
+     */
+    public List<OcupacionDiariaDTO> ocupacion(LocalDate desde, LocalDate hasta,
+                                              Integer profesionalId, Integer servicioId) {
+        logger.debug("Obteniendo ocupación diaria - desde: {}, hasta: {}, profesional: {}, servicio: {}",
+                desde, hasta, profesionalId, servicioId);
+        validarRango(desde, hasta);
+        return rollupRepository.findOcupacion(desde, hasta, profesionalId, servicioId);
+    }
+
+    /**
+     * Suma las citas e ingresos por periodo y estado entre dos días (ambos incluidos),
+     * opcionalmente filtrados por profesional y servicio.
+     */
+    public List<ResumenPeriodoDTO> resumen(LocalDate desde, LocalDate hasta, String periodo,
+                                           Integer profesionalId, Integer servicioId) {
+        Periodo agrupacion = Periodo.desdeNombre(periodo);
+        logger.debug("Obteniendo resumen por {} - desde: {}, hasta: {}, profesional: {}, servicio: {}",
+                agrupacion, desde, hasta, profesionalId, servicioId);
+        validarRango(desde, hasta);
+
+        Map<LocalDate, Map<EstadoCita, ResumenPeriodoDTO>> porPeriodo = new TreeMap<>();
+        for (OcupacionDiariaDTO fila : rollupRepository.findOcupacion(desde, hasta, profesionalId, servicioId)) {
+            LocalDate inicio = agrupacion.inicio(fila.getFecha());
+            EstadoCita estado = EstadoCita.valueOf(fila.getEstado());
+            ResumenPeriodoDTO resumen = porPeriodo
+                    .computeIfAbsent(inicio, k -> new EnumMap<>(EstadoCita.class))
+                    .computeIfAbsent(estado, k -> new ResumenPeriodoDTO(inicio, estado.name(), 0, 0));
+            resumen.setTotalCitas(resumen.getTotalCitas() + fila.getTotalCitas());
+            resumen.setIngresos(resumen.getIngresos() + fila.getIngresos());
+        }
+
+        List<ResumenPeriodoDTO> resultado = new ArrayList<>();
+        porPeriodo.values().forEach(estados -> resultado.addAll(estados.values()));
+        return resultado;
+    }
+
+    private void validarRango(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) > DIAS_MAXIMOS) {
+            throw new IllegalArgumentException("El rango del reporte no puede superar " + DIAS_MAXIMOS + " días");
+        }
+    }
+}
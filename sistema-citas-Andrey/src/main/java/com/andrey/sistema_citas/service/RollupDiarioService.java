@@ -0,0 +1,166 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.ReconstruccionRollupDTO;
+import com.andrey.sistema_citas.entity.CitaRollupDiariaId;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.repository.CitaRollupDiariaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Servicio que mantiene el resumen diario de citas (tabla cita_rollup_diaria) en la misma
+ * transacción que cada escritura de CitaService.
+ * Los cambios individuales se acumulan por fila durante la transacción y se escriben justo
+ * antes del commit, de modo que un lote de miles de citas se traduce en una sentencia por
+ * combinación de día, profesional, servicio y estado. Las transiciones por lotes se reflejan
+ * con dos sentencias INSERT ... SELECT ejecutadas antes del UPDATE.
+ * Los ingresos se calculan con el precio del servicio en el momento de cada escritura;
+ * la reconstrucción los recalcula con los precios actuales y descarta las filas de citas
+ * eliminadas en cascada junto con su usuario, profesional o servicio.
+ */
+@Service
+public class RollupDiarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupDiarioService.class);
+
+    /**
+     * Orden de escritura de las filas, común a todas las transacciones para que
+     * dos commits concurrentes bloqueen las filas del resumen en el mismo orden.
+     */
+    private static final Comparator<CitaRollupDiariaId> ORDEN_FILAS = Comparator
+            .comparing(CitaRollupDiariaId::getFecha)
+            .thenComparing(CitaRollupDiariaId::getProfesionalId)
+            .thenComparing(CitaRollupDiariaId::getServicioId)
+            .thenComparing(CitaRollupDiariaId::getEstado);
+
+    private final CitaRollupDiariaRepository rollupRepository;
+
+    /**
+     * Clave con la que se asocian a la transacción actual los cambios pendientes.
+     */
+    private final Object claveRecurso = new Object();
+
+    public RollupDiarioService(CitaRollupDiariaRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Acumula los cambios de una cita en la transacción que la modifica.
+     * El evento se recibe de forma síncrona, antes del commit; fuera de una transacción falla.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void alCambiarCita(CitaCambioEvent evento) {
+        Map<CitaRollupDiariaId, Delta> pendientes = pendientesDeTransaccion();
+        if (evento.getAnterior() != null) {
+            acumular(pendientes, evento.getAnterior(), -1);
+        }
+        if (evento.getActual() != null) {
+            acumular(pendientes, evento.getActual(), 1);
+        }
+    }
+
+    /**
+     * Refleja en el resumen una transición por lotes. Debe llamarse dentro de la misma
+     * transacción y antes del UPDATE, ya que selecciona las citas con los mismos criterios.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTransicionEnLote(EstadoCita destino, EstadoCita origen, Integer profesionalId,
+                                          LocalDateTime desde, LocalDateTime hasta) {
+        byte cancelada = EstadoCita.CANCELADA.getCodigo();
+        Byte codigoOrigen = origen == null ? null : origen.getCodigo();
+        rollupRepository.restarSalidaDeLote(cancelada, destino.getCodigo(), codigoOrigen, profesionalId, desde, hasta);
+        rollupRepository.sumarEntradaDeLote(cancelada, destino.getCodigo(), codigoOrigen, profesionalId, desde, hasta);
+    }
+
+    /**
+     * Vuelve a calcular el resumen entre dos días (ambos incluidos) a partir de la tabla de citas.
+     * Sin fechas se reconstruye el resumen completo. Sirve para cargar datos históricos y para
+     * corregir diferencias, por ejemplo tras cambiar el precio de un servicio.
+     */
+    @Transactional
+    public ReconstruccionRollupDTO reconstruir(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la inicial");
+        }
+        logger.info("Reconstruyendo el resumen diario de citas - desde: {}, hasta: {}", desde, hasta);
+        int eliminadas = rollupRepository.eliminarRango(desde, hasta);
+        int filas = rollupRepository.calcularRango(
+                desde == null ? null : desde.atStartOfDay(),
+                hasta == null ? null : hasta.plusDays(1).atStartOfDay());
+        logger.info("Resumen diario reconstruido: {} filas eliminadas, {} filas calculadas", eliminadas, filas);
+        return new ReconstruccionRollupDTO(desde, hasta, filas);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<CitaRollupDiariaId, Delta> pendientesDeTransaccion() {
+        Map<CitaRollupDiariaId, Delta> pendientes =
+                (Map<CitaRollupDiariaId, Delta>) TransactionSynchronizationManager.getResource(claveRecurso);
+        if (pendientes == null) {
+            Map<CitaRollupDiariaId, Delta> nuevos = new TreeMap<>(ORDEN_FILAS);
+            TransactionSynchronizationManager.bindResource(claveRecurso, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    escribir(nuevos);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(claveRecurso);
+                }
+            });
+            pendientes = nuevos;
+        }
+        return pendientes;
+    }
+
+    private void acumular(Map<CitaRollupDiariaId, Delta> pendientes, CitaResumen cita, int signo) {
+        CitaRollupDiariaId clave = new CitaRollupDiariaId(cita.getInicio().toLocalDate(),
+                cita.getProfesionalId(), cita.getServicioId(), cita.getEstado());
+        Delta delta = pendientes.computeIfAbsent(clave, k -> new Delta());
+        delta.citas += signo;
+        delta.ingresos += signo * (cita.getPrecio() == null ? 0 : cita.getPrecio());
+    }
+
+    private void escribir(Map<CitaRollupDiariaId, Delta> pendientes) {
+        int escritas = 0;
+        for (Map.Entry<CitaRollupDiariaId, Delta> entrada : pendientes.entrySet()) {
+            CitaRollupDiariaId clave = entrada.getKey();
+            Delta delta = entrada.getValue();
+            // Los cambios que se compensan dentro de la transacción no generan escritura
+            if (delta.citas == 0 && delta.ingresos == 0) {
+                continue;
+            }
+            rollupRepository.sumar(clave.getFecha(), clave.getProfesionalId(), clave.getServicioId(),
+                    clave.getEstado().getCodigo(), delta.citas, delta.ingresos);
+            escritas++;
+        }
+        if (escritas > 0) {
+            logger.debug("Resumen diario de citas actualizado: {} filas", escritas);
+        }
+    }
+
+    /**
+     * Cambio acumulado sobre una fila del resumen.
+     */
+    private static final class Delta {
+
+        private long citas;
+        private double ingresos;
+    }
+}
@@ -0,0 +1,464 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.SerieCitaDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.ExcepcionSerie;
+import com.andrey.sistema_citas.entity.FrecuenciaSerie;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.SerieCita;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.SerieCitaCambioEvent;
+import com.andrey.sistema_citas.exception.ConflictoHorarioException;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.SerieCitaRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import com.andrey.sistema_citas.util.DuracionServicio;
+import com.andrey.sistema_citas.util.EntityMapper;
+import com.andrey.sistema_citas.util.ExpansionSerie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Servicio que gestiona las series de citas recurrentes.
+ * Al crear una serie solo se materializan como citas las ocurrencias dentro del horizonte
+ * configurado; MaterializacionSeriesJob amplía ese horizonte periódicamente. Hasta entonces,
+ * las ocurrencias se calculan a partir de la regla: el índice de agendas las tiene en cuenta
+ * al validar solapamientos y calcular disponibilidad, y la agenda las muestra sin id.
+ * Mover o cancelar una ocurrencia pendiente se guarda como excepción de la serie; si la
+ * ocurrencia ya es una cita, el cambio se aplica a la cita mediante CitaService.
+ * Al eliminar un usuario, servicio o profesional se eliminan también sus series, del mismo
+ * modo que sus citas se eliminan en cascada.
+ */
+@Service
+@Transactional
+public class SerieCitaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerieCitaService.class);
+
+    /**
+     * Número máximo de ocurrencias de una serie; equivale a cinco años de citas semanales.
+     */
+    public static final int MAXIMO_OCURRENCIAS = 260;
+
+    private final SerieCitaRepository serieCitaRepository;
+    private final CitaRepository citaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final ServicioRepository servicioRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final CitaService citaService;
+    private final IndiceAgendas indiceAgendas;
+    private final BloqueoReservas bloqueoReservas;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration horizonte;
+
+    public SerieCitaService(SerieCitaRepository serieCitaRepository, CitaRepository citaRepository,
+                            UsuarioRepository usuarioRepository, ServicioRepository servicioRepository,
+                            ProfesionalRepository profesionalRepository, CitaService citaService,
+                            IndiceAgendas indiceAgendas, BloqueoReservas bloqueoReservas,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${citas.series.horizonte:P28D}") Duration horizonte) {
+        if (horizonte.isNegative() || horizonte.isZero()) {
+            throw new IllegalArgumentException("El horizonte de materialización de series debe ser positivo");
+        }
+        this.serieCitaRepository = serieCitaRepository;
+        this.citaRepository = citaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.servicioRepository = servicioRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.citaService = citaService;
+        this.indiceAgendas = indiceAgendas;
+        this.bloqueoReservas = bloqueoReservas;
+        this.eventPublisher = eventPublisher;
+        this.horizonte = horizonte;
+    }
+
+    /**
+     * Obtiene una serie por su ID.
+     */
+    @Transactional(readOnly = true)
+    public SerieCitaDTO obtenerPorId(Integer id) {
+        logger.debug("Obteniendo serie de citas con ID: {}", id);
+        return EntityMapper.toSerieCitaDTO(obtenerSerie(id));
+    }
+
+    /**
+     * Obtiene las ocurrencias de la serie ordenadas por fecha y hora: las citas ya materializadas
+     * y, a continuación de ellas en el tiempo, las pendientes sin id.
+     */
+    @Transactional(readOnly = true)
+    public List<CitaDTO> obtenerOcurrencias(Integer id) {
+        logger.debug("Obteniendo ocurrencias de la serie con ID: {}", id);
+        SerieCita serie = obtenerSerie(id);
+        List<CitaDTO> ocurrencias = new ArrayList<>(citaRepository.findDTOPorSerie(id));
+        for (ExpansionSerie.Ocurrencia ocurrencia : serie.expansion().pendientes()) {
+            ocurrencias.add(EntityMapper.toCitaDTO(serie, ocurrencia));
+        }
+        ocurrencias.sort(Comparator.comparing(CitaDTO::getFechaHora));
+        return ocurrencias;
+    }
+
+    /**
+     * Obtiene las ocurrencias pendientes de las series del profesional que comienzan en [desde, hasta).
+     */
+    @Transactional(readOnly = true)
+    public List<CitaDTO> obtenerPendientesEntre(Integer profesionalId, LocalDateTime desde, LocalDateTime hasta) {
+        List<CitaDTO> ocurrencias = new ArrayList<>();
+        for (SerieCita serie : serieCitaRepository.findDetallePendientesPorProfesional(profesionalId)) {
+            for (ExpansionSerie.Ocurrencia ocurrencia : serie.expansion().pendientesEntre(desde, hasta)) {
+                ocurrencias.add(EntityMapper.toCitaDTO(serie, ocurrencia));
+            }
+        }
+        return ocurrencias;
+    }
+
+    /**
+     * Obtiene los IDs de las series cuya materialización no alcanza el horizonte a partir del instante indicado.
+     */
+    @Transactional(readOnly = true)
+    public List<Integer> obtenerPorMaterializar(LocalDateTime ahora) {
+        return serieCitaRepository.findIdsPorMaterializar(ahora.plus(horizonte));
+    }
+
+    /**
+     * Crea una serie de citas. Todas sus ocurrencias deben estar libres en la agenda del profesional;
+     * las que caen dentro del horizonte se crean de inmediato como citas.
+     */
+    public SerieCitaDTO crear(SerieCitaDTO serieDTO) {
+        logger.debug("Creando serie de citas para usuario ID: {}", serieDTO.getUsuarioId());
+        indiceAgendas.precargarSolicitado(serieDTO.getProfesionalId());
+
+        FrecuenciaSerie frecuencia = FrecuenciaSerie.desdeNombre(serieDTO.getFrecuencia());
+        if (frecuencia == null) {
+            throw new IllegalArgumentException("La frecuencia de la serie es obligatoria");
+        }
+        EstadoCita estado = serieDTO.getEstado() != null
+                ? EstadoCita.desdeNombre(serieDTO.getEstado())
+                : EstadoCita.PENDIENTE;
+        if (estado == null || !estado.ocupaHorario()) {
+            throw new IllegalArgumentException("Las citas de una serie deben crearse en un estado que ocupe horario");
+        }
+        if (serieDTO.getRepeticiones() == null && serieDTO.getHasta() == null) {
+            throw new IllegalArgumentException("La serie debe indicar el número de repeticiones o la fecha de fin");
+        }
+
+        Usuario usuario = usuarioRepository.findById(serieDTO.getUsuarioId())
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + serieDTO.getUsuarioId()));
+        Servicio servicio = servicioRepository.findById(serieDTO.getServicioId())
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + serieDTO.getServicioId()));
+        Profesional profesional = profesionalRepository.findConUsuarioById(serieDTO.getProfesionalId())
+                .orElseThrow(() -> new ResourceNotFoundException("Profesional no encontrado con ID: " + serieDTO.getProfesionalId()));
+
+        SerieCita serie = new SerieCita();
+        serie.setFechaInicio(serieDTO.getFechaInicio());
+        serie.setFrecuencia(frecuencia);
+        serie.setRepeticiones(serieDTO.getRepeticiones());
+        serie.setHasta(serieDTO.getHasta());
+        serie.setEstado(estado);
+        serie.setMaterializadaHasta(serieDTO.getFechaInicio());
+        serie.setUsuario(usuario);
+        serie.setServicio(servicio);
+        serie.setProfesional(profesional);
+
+        ExpansionSerie expansion = serie.expansion();
+        if (expansion.getUltimoNumero() == 0) {
+            throw new IllegalArgumentException("La fecha de fin de la serie es anterior a su primera cita");
+        }
+        if (expansion.getUltimoNumero() > MAXIMO_OCURRENCIAS) {
+            throw new IllegalArgumentException("La serie no puede superar " + MAXIMO_OCURRENCIAS + " citas");
+        }
+
+        List<ExpansionSerie.Ocurrencia> ocurrencias = expansion.pendientes();
+        int minutos = DuracionServicio.enMinutos(servicio.getDuracion());
+        indiceAgendas.precargar(profesional.getId());
+        bloquear(profesional.getId(), ocurrencias, minutos);
+        for (ExpansionSerie.Ocurrencia ocurrencia : ocurrencias) {
+            verificarDisponibilidad(profesional.getId(), ocurrencia, minutos, null);
+        }
+
+        serieCitaRepository.save(serie);
+        int materializadas = materializar(serie, LocalDateTime.now().plus(horizonte));
+        logger.info("Serie de citas creada exitosamente con ID: {} ({} citas, {} materializadas)",
+                serie.getId(), ocurrencias.size(), materializadas);
+
+        eventPublisher.publishEvent(new SerieCitaCambioEvent(serie.getId(), profesional.getId()));
+
+        return EntityMapper.toSerieCitaDTO(serie);
+    }
+
+    /**
+     * Materializa como citas las ocurrencias de la serie que comienzan antes del horizonte
+     * contado desde el instante indicado. Devuelve el número de citas creadas.
+     */
+    public int materializar(Integer id, LocalDateTime ahora) {
+        SerieCita serie = obtenerSerie(id);
+        if (serie.isFinalizada()) {
+            return 0;
+        }
+        LocalDateTime limite = ahora.plus(horizonte);
+        int materializadas = materializar(serie, limite);
+        logger.debug("Serie {} materializada hasta {}: {} citas creadas", id, limite, materializadas);
+        // Si no se creó ninguna cita las ocurrencias pendientes son las mismas y el índice sigue siendo válido
+        if (materializadas > 0 || serie.isFinalizada()) {
+            eventPublisher.publishEvent(new SerieCitaCambioEvent(id, serie.getProfesional().getId()));
+        }
+        return materializadas;
+    }
+
+    /**
+     * Cambia la fecha y hora de una ocurrencia de la serie.
+     * Devuelve la ocurrencia resultante, que tiene id si ya es una cita.
+     */
+    public CitaDTO moverOcurrencia(Integer id, int numero, LocalDateTime fechaHora) {
+        logger.debug("Moviendo la ocurrencia {} de la serie con ID: {} a {}", numero, id, fechaHora);
+        if (fechaHora == null) {
+            throw new IllegalArgumentException("La nueva fecha y hora de la ocurrencia son obligatorias");
+        }
+        SerieCita serie = obtenerSerie(id);
+        Optional<Integer> citaId = citaRepository.findIdPorOcurrencia(id, numero);
+        if (citaId.isPresent()) {
+            CitaDTO cambios = new CitaDTO();
+            cambios.setFechaHora(fechaHora);
+            return citaService.actualizarParcial(citaId.get(), cambios, null);
+        }
+
+        ExpansionSerie expansion = serie.expansion();
+        LocalDateTime anterior = ocurrenciaPendiente(serie, expansion, numero);
+        Integer profesionalId = serie.getProfesional().getId();
+        ExpansionSerie.Ocurrencia movida = new ExpansionSerie.Ocurrencia(numero, fechaHora);
+        int minutos = DuracionServicio.enMinutos(serie.getServicio().getDuracion());
+        indiceAgendas.precargar(profesionalId);
+        bloquear(profesionalId, List.of(new ExpansionSerie.Ocurrencia(numero, anterior), movida), minutos);
+        verificarDisponibilidad(profesionalId, movida, minutos, id);
+
+        CitaDTO resultado;
+        if (fechaHora.isBefore(serie.getMaterializadaHasta())) {
+            // La nueva fecha ya está dentro de lo materializado: la ocurrencia pasa a ser una cita
+            serie.getExcepciones().remove(numero);
+            resultado = EntityMapper.toCitaDTO(guardarCitas(serie, List.of(movida)).get(0));
+        } else {
+            if (fechaHora.equals(expansion.fechaOriginal(numero))) {
+                serie.getExcepciones().remove(numero);
+            } else {
+                serie.getExcepciones().put(numero, ExcepcionSerie.movida(fechaHora));
+            }
+            resultado = EntityMapper.toCitaDTO(serie, movida);
+        }
+        serieCitaRepository.flush();
+        logger.info("Ocurrencia {} de la serie con ID {} movida a {}", numero, id, fechaHora);
+
+        eventPublisher.publishEvent(new SerieCitaCambioEvent(id, profesionalId));
+        return resultado;
+    }
+
+    /**
+     * Cancela una ocurrencia de la serie. Si ya es una cita, la cita pasa al estado CANCELADA.
+     */
+    public void cancelarOcurrencia(Integer id, int numero) {
+        logger.debug("Cancelando la ocurrencia {} de la serie con ID: {}", numero, id);
+        SerieCita serie = obtenerSerie(id);
+        Optional<Integer> citaId = citaRepository.findIdPorOcurrencia(id, numero);
+        if (citaId.isPresent()) {
+            CitaDTO cambios = new CitaDTO();
+            cambios.setEstado(EstadoCita.CANCELADA.name());
+            citaService.actualizarParcial(citaId.get(), cambios, null);
+            return;
+        }
+
+        ocurrenciaPendiente(serie, serie.expansion(), numero);
+        serie.getExcepciones().put(numero, ExcepcionSerie.cancelada());
+        serieCitaRepository.flush();
+        logger.info("Ocurrencia {} de la serie con ID {} cancelada", numero, id);
+
+        eventPublisher.publishEvent(new SerieCitaCambioEvent(id, serie.getProfesional().getId()));
+    }
+
+    /**
+     * Finaliza la serie: elimina sus citas futuras y descarta las ocurrencias pendientes.
+     * Las citas que ya comenzaron se conservan.
+     */
+    public void finalizar(Integer id) {
+        logger.debug("Finalizando serie de citas con ID: {}", id);
+        SerieCita serie = obtenerSerie(id);
+        LocalDateTime ahora = LocalDateTime.now();
+        if (!serie.isFinalizada()) {
+            // Las ocurrencias pasadas que aún no se materializaron se conservan como citas
+            materializar(serie, ahora);
+        }
+
+        List<Integer> futuras = citaRepository.findIdsPorSerieDesde(id, ahora);
+        futuras.forEach(citaService::eliminar);
+
+        ExpansionSerie expansion = serie.expansion();
+        serie.setRepeticiones((int) Math.min(expansion.getUltimoNumero(), expansion.primerNumeroDesde(ahora) - 1));
+        serie.getExcepciones().clear();
+        serie.setFinalizada(true);
+        serieCitaRepository.flush();
+        logger.info("Serie de citas con ID {} finalizada; {} citas futuras eliminadas", id, futuras.size());
+
+        eventPublisher.publishEvent(new SerieCitaCambioEvent(id, serie.getProfesional().getId()));
+    }
+
+    /**
+     * Elimina las series de un usuario, incluidas las que atienden sus perfiles profesionales.
+     * Debe llamarse en la transacción que elimina al usuario y antes de eliminarlo.
+     */
+    public void eliminarDeUsuario(Integer usuarioId) {
+        eliminar(serieCitaRepository.findDeUsuario(usuarioId));
+    }
+
+    /**
+     * Elimina las series de un servicio. Debe llamarse en la transacción que elimina el servicio y antes de eliminarlo.
+     */
+    public void eliminarDeServicio(Integer servicioId) {
+        eliminar(serieCitaRepository.findByServicioId(servicioId));
+    }
+
+    /**
+     * Elimina las series de un profesional. Debe llamarse en la transacción que elimina al profesional y antes de eliminarlo.
+     */
+    public void eliminarDeProfesional(Integer profesionalId) {
+        eliminar(serieCitaRepository.findByProfesionalId(profesionalId));
+    }
+
+    /**
+     * Elimina las series con sus excepciones. Sus citas materializadas se desvinculan antes: las del
+     * propietario eliminado desaparecen en cascada con él y las que se reasignaron a otro se conservan.
+     */
+    private void eliminar(List<SerieCita> series) {
+        if (series.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = series.stream().map(SerieCita::getId).toList();
+        int desvinculadas = citaRepository.desvincularDeSeries(ids);
+        serieCitaRepository.deleteAll(series);
+        serieCitaRepository.flush();
+        logger.info("Series de citas eliminadas: {}; {} citas desvinculadas", ids, desvinculadas);
+
+        for (SerieCita serie : series) {
+            eventPublisher.publishEvent(new SerieCitaCambioEvent(serie.getId(), serie.getProfesional().getId()));
+        }
+    }
+
+    private SerieCita obtenerSerie(Integer id) {
+        return serieCitaRepository.findDetalleById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Serie de citas no encontrada con ID: " + id));
+    }
+
+    /**
+     * Devuelve la fecha efectiva de una ocurrencia pendiente, o lanza ResourceNotFoundException
+     * si la ocurrencia no existe, está cancelada o su cita fue eliminada.
+     */
+    private LocalDateTime ocurrenciaPendiente(SerieCita serie, ExpansionSerie expansion, int numero) {
+        if (!expansion.pendiente(numero)) {
+            throw new ResourceNotFoundException(
+                    "La serie con ID " + serie.getId() + " no tiene pendiente la ocurrencia " + numero);
+        }
+        return expansion.fechaEfectiva(numero);
+    }
+
+    /**
+     * Crea las citas de las ocurrencias pendientes anteriores al límite y avanza el límite de
+     * materialización. No se validan solapamientos: mientras estaban pendientes, las ocurrencias
+     * ya ocupaban su horario en el índice de agendas, de modo que ninguna otra cita pudo
+     * reservarlo. La restricción única de franja cubre igualmente las reservas concurrentes.
+     */
+    private int materializar(SerieCita serie, LocalDateTime limite) {
+        if (!limite.isAfter(serie.getMaterializadaHasta())) {
+            return 0;
+        }
+        ExpansionSerie expansion = serie.expansion();
+        List<ExpansionSerie.Ocurrencia> nuevas = expansion.pendientesEntre(serie.getMaterializadaHasta(), limite);
+        if (!nuevas.isEmpty()) {
+            bloquear(serie.getProfesional().getId(), nuevas,
+                    DuracionServicio.enMinutos(serie.getServicio().getDuracion()));
+            guardarCitas(serie, nuevas);
+        }
+        // Las excepciones de ocurrencias materializadas o canceladas antes del límite dejan de ser necesarias
+        Set<Integer> materializadas = new HashSet<>();
+        nuevas.forEach(ocurrencia -> materializadas.add(ocurrencia.numero()));
+        serie.getExcepciones().entrySet().removeIf(excepcion -> materializadas.contains(excepcion.getKey())
+                || (excepcion.getValue().isCancelada()
+                        && expansion.fechaOriginal(excepcion.getKey()).isBefore(limite)));
+        serie.setMaterializadaHasta(limite);
+        serie.setFinalizada(serie.expansion().pendientes().isEmpty());
+        return nuevas.size();
+    }
+
+    private List<Cita> guardarCitas(SerieCita serie, List<ExpansionSerie.Ocurrencia> ocurrencias) {
+        List<Cita> citas = new ArrayList<>(ocurrencias.size());
+        for (ExpansionSerie.Ocurrencia ocurrencia : ocurrencias) {
+            Cita cita = new Cita(ocurrencia.inicio(), serie.getEstado(), serie.getUsuario(),
+                    serie.getServicio(), serie.getProfesional());
+            cita.setSerieId(serie.getId());
+            cita.setNumeroSerie(ocurrencia.numero());
+            citas.add(cita);
+        }
+        citaRepository.saveAll(citas);
+        try {
+            citaRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (CitaService.esViolacionDeFranja(e)) {
+                throw new ConflictoHorarioException(
+                        "Una de las citas de la serie fue reservada concurrentemente por otra solicitud", e);
+            }
+            throw e;
+        }
+        for (Cita cita : citas) {
+            eventPublisher.publishEvent(CitaCambioEvent.creada(CitaResumen.de(cita)));
+        }
+        return citas;
+    }
+
+    /**
+     * Bloquea la agenda del profesional en todos los días que tocan las ocurrencias indicadas.
+     */
+    private void bloquear(Integer profesionalId, List<ExpansionSerie.Ocurrencia> ocurrencias, int minutos) {
+        Set<BloqueoReservas.ClaveAgenda> claves = new HashSet<>();
+        for (ExpansionSerie.Ocurrencia ocurrencia : ocurrencias) {
+            claves.addAll(BloqueoReservas.ClaveAgenda.delIntervalo(profesionalId, ocurrencia.inicio(),
+                    ocurrencia.inicio().plusMinutes(minutos)));
+        }
+        bloqueoReservas.bloquearHastaFinDeTransaccion(claves.toArray(new BloqueoReservas.ClaveAgenda[0]));
+    }
+
+    /**
+     * Verifica que la ocurrencia no se solape con otra cita u ocurrencia del profesional.
+     * Si se indica la serie, su propia ocurrencia se ignora.
+     */
+    private void verificarDisponibilidad(Integer profesionalId, ExpansionSerie.Ocurrencia ocurrencia,
+                                         int minutos, Integer serieId) {
+        LocalDateTime fin = ocurrencia.inicio().plusMinutes(minutos);
+        Optional<IndiceAgendas.Intervalo> existente = serieId == null
+                ? indiceAgendas.buscarSolapamiento(profesionalId, ocurrencia.inicio(), fin, null)
+                : indiceAgendas.buscarSolapamientoExcluyendoOcurrencia(profesionalId, ocurrencia.inicio(), fin,
+                        serieId, ocurrencia.numero());
+        existente.ifPresent(intervalo -> {
+            throw new ConflictoHorarioException(
+                    "La ocurrencia " + ocurrencia.numero() + " de la serie (" + ocurrencia.inicio()
+                            + ") se solapa con " + intervalo.describir()
+                            + " entre " + intervalo.getInicio() + " y " + intervalo.getFin());
+        });
+    }
+}
@@ -1,21 +1,32 @@
 package com.andrey.sistema_citas.service;
 
+import com.andrey.sistema_citas.dto.EstadisticasCacheDTO;
 import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
 import com.andrey.sistema_citas.entity.Servicio;
 import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.repository.ServicioRepository;
+import com.andrey.sistema_citas.util.ControlVersiones;
 import com.andrey.sistema_citas.util.EntityMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Servicio que gestiona la lógica de negocio relacionada con servicios.
  * Implementa operaciones CRUD y validaciones de negocio.
+ * Las consultas por ID y del catálogo completo se sirven desde CacheServicios,
+ * que cada escritura invalida al confirmarse.
  */
 @Service
 @Transactional
@@ -24,31 +35,62 @@ public class ServicioService {
     private static final Logger logger = LoggerFactory.getLogger(ServicioService.class);
 
     private final ServicioRepository servicioRepository;
-
-    public ServicioService(ServicioRepository servicioRepository) {
+    private final VersionesAgenda versionesAgenda;
+    private final IndiceAgendas indiceAgendas;
+    private final CacheServicios cacheServicios;
+    private final SerieCitaService serieCitaService;
+    private final ListaEsperaService listaEsperaService;
+    private final Validator validator;
+
+    public ServicioService(ServicioRepository servicioRepository, VersionesAgenda versionesAgenda,
+                           IndiceAgendas indiceAgendas, CacheServicios cacheServicios,
+                           SerieCitaService serieCitaService, ListaEsperaService listaEsperaService,
+                           Validator validator) {
         this.servicioRepository = servicioRepository;
+        this.versionesAgenda = versionesAgenda;
+        this.indiceAgendas = indiceAgendas;
+        this.cacheServicios = cacheServicios;
+        this.serieCitaService = serieCitaService;
+        this.listaEsperaService = listaEsperaService;
+        this.validator = validator;
     }
 
     /**
      * Obtiene todos los servicios del sistema.
+     * Se ejecuta sin transacción para que los aciertos de la caché no ocupen una conexión.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ServicioDTO> obtenerTodos() {
         logger.debug("Obteniendo todos los servicios");
-        return servicioRepository.findAll().stream()
-                .map(EntityMapper::toServicioDTO)
-                .collect(Collectors.toList());
+        return cacheServicios.obtenerTodos();
     }
 
     /**
      * Obtiene un servicio por su ID.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ServicioDTO obtenerPorId(Integer id) {
         logger.debug("Obteniendo servicio con ID: {}", id);
-        Servicio servicio = servicioRepository.findById(id)
+        return cacheServicios.obtenerPorId(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + id));
-        return EntityMapper.toServicioDTO(servicio);
+    }
+
+    /**
+     * Métricas de la caché de servicios.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<EstadisticasCacheDTO> estadisticasCache() {
+        return cacheServicios.estadisticas();
+    }
+
+    /**
+     * Busca servicios por el comienzo de cualquier palabra de su nombre, sin distinguir mayúsculas
+     * ni tildes, hasta el límite indicado. Se responde desde la caché del catálogo.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SugerenciaDTO> buscarPorPrefijo(String texto, int limite) {
+        logger.debug("Buscando servicios que empiecen por: {}", texto);
+        return cacheServicios.buscar(texto, limite);
     }
 
     /**
@@ -70,6 +112,7 @@ public class ServicioService {
 
         Servicio servicio = EntityMapper.toServicio(servicioDTO);
         Servicio servicioGuardado = servicioRepository.save(servicio);
+        cacheServicios.invalidarAlConfirmar(null);
 
         logger.info("Servicio creado exitosamente con ID: {}", servicioGuardado.getId());
         return EntityMapper.toServicioDTO(servicioGuardado);
@@ -79,22 +122,68 @@ public class ServicioService {
      * Actualiza la información de un servicio existente.
      */
     public ServicioDTO actualizar(Integer id, ServicioDTO servicioDTO) {
+        return actualizar(id, servicioDTO, null);
+    }
+
+    /**
+     * Actualiza la información de un servicio existente comprobando su versión
+     * (la esperada según If-Match y la incluida en el DTO).
+     */
+    public ServicioDTO actualizar(Integer id, ServicioDTO servicioDTO, Long versionEsperada) {
         logger.debug("Actualizando servicio con ID: {}", id);
 
         Servicio servicio = servicioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + id));
+        ControlVersiones.verificar("el servicio", id, servicio.getVersion(), versionEsperada, servicioDTO.getVersion());
+        boolean cambiaDuracion = !Objects.equals(servicio.getDuracion(), servicioDTO.getDuracion());
 
         servicio.setNombre(servicioDTO.getNombre());
         servicio.setDescripcion(servicioDTO.getDescripcion());
         servicio.setDuracion(servicioDTO.getDuracion());
         servicio.setPrecio(servicioDTO.getPrecio());
 
-        Servicio servicioActualizado = servicioRepository.save(servicio);
+        Servicio servicioActualizado = servicioRepository.saveAndFlush(servicio);
+        // El nombre del servicio aparece en las agendas de sus citas
+        versionesAgenda.invalidarTodoAlConfirmar();
+        if (cambiaDuracion) {
+            // La duración determina el intervalo que ocupan sus citas en las agendas
+            indiceAgendas.invalidarTodoAlConfirmar();
+        }
+        cacheServicios.invalidarAlConfirmar(id);
         logger.info("Servicio actualizado exitosamente con ID: {}", servicioActualizado.getId());
 
         return EntityMapper.toServicioDTO(servicioActualizado);
     }
 
+    /**
+     * Actualiza solo los campos informados (no nulos) de un servicio.
+     */
+    public ServicioDTO actualizarParcial(Integer id, ServicioDTO cambios, Long versionEsperada) {
+        logger.debug("Actualizando parcialmente servicio con ID: {}", id);
+
+        ServicioDTO datos = EntityMapper.toServicioDTO(servicioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Servicio no encontrado con ID: " + id)));
+        if (cambios.getNombre() != null) {
+            datos.setNombre(cambios.getNombre());
+        }
+        if (cambios.getDescripcion() != null) {
+            datos.setDescripcion(cambios.getDescripcion());
+        }
+        if (cambios.getDuracion() != null) {
+            datos.setDuracion(cambios.getDuracion());
+        }
+        if (cambios.getPrecio() != null) {
+            datos.setPrecio(cambios.getPrecio());
+        }
+        datos.setVersion(cambios.getVersion());
+
+        Set<ConstraintViolation<ServicioDTO>> violaciones = validator.validate(datos);
+        if (!violaciones.isEmpty()) {
+            throw new ConstraintViolationException(violaciones);
+        }
+        return actualizar(id, datos, versionEsperada);
+    }
+
     /**
      * Elimina un servicio del sistema.
      */
@@ -105,7 +194,14 @@ public class ServicioService {
             throw new ResourceNotFoundException("Servicio no encontrado con ID: " + id);
         }
 
+        // Sus series y solicitudes de espera se eliminan antes; sus citas se eliminan en cascada,
+        // sin eventos de cambio de cita
+        serieCitaService.eliminarDeServicio(id);
+        listaEsperaService.eliminarDeServicio(id);
         servicioRepository.deleteById(id);
+        versionesAgenda.invalidarTodoAlConfirmar();
+        indiceAgendas.invalidarTodoAlConfirmar();
+        cacheServicios.invalidarAlConfirmar(id);
         logger.info("Servicio eliminado exitosamente con ID: {}", id);
     }
 }
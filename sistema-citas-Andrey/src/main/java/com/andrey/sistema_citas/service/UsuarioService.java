@@ -1,19 +1,33 @@
 package com.andrey.sistema_citas.service;
 
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
 import com.andrey.sistema_citas.dto.UsuarioDTO;
 import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
 import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.event.ProfesionalCambioEvent;
+import com.andrey.sistema_citas.event.UsuarioCambioEvent;
 import com.andrey.sistema_citas.exception.ResourceNotFoundException;
 import com.andrey.sistema_citas.exception.DuplicateResourceException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.SerieCitaRepository;
 import com.andrey.sistema_citas.repository.UsuarioRepository;
+import com.andrey.sistema_citas.util.ControlVersiones;
 import com.andrey.sistema_citas.util.EntityMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -27,11 +41,36 @@ public class UsuarioService {
     private static final Logger logger = LoggerFactory.getLogger(UsuarioService.class);
 
     private final UsuarioRepository usuarioRepository;
+    private final ProfesionalRepository profesionalRepository;
+    private final CitaRepository citaRepository;
+    private final SerieCitaRepository serieCitaRepository;
     private final PasswordEncoder passwordEncoder;
-
-    public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    private final VersionesAgenda versionesAgenda;
+    private final IndiceAgendas indiceAgendas;
+    private final IndiceUsuarios indiceUsuarios;
+    private final SerieCitaService serieCitaService;
+    private final ListaEsperaService listaEsperaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+
+    public UsuarioService(UsuarioRepository usuarioRepository, ProfesionalRepository profesionalRepository,
+                          CitaRepository citaRepository, SerieCitaRepository serieCitaRepository,
+                          PasswordEncoder passwordEncoder, VersionesAgenda versionesAgenda, IndiceAgendas indiceAgendas,
+                          IndiceUsuarios indiceUsuarios, SerieCitaService serieCitaService,
+                          ListaEsperaService listaEsperaService, ApplicationEventPublisher eventPublisher,
+                          Validator validator) {
         this.usuarioRepository = usuarioRepository;
+        this.profesionalRepository = profesionalRepository;
+        this.citaRepository = citaRepository;
+        this.serieCitaRepository = serieCitaRepository;
         this.passwordEncoder = passwordEncoder;
+        this.versionesAgenda = versionesAgenda;
+        this.indiceAgendas = indiceAgendas;
+        this.indiceUsuarios = indiceUsuarios;
+        this.serieCitaService = serieCitaService;
+        this.listaEsperaService = listaEsperaService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
     }
 
     /**
@@ -67,6 +106,16 @@ public class UsuarioService {
         return EntityMapper.toUsuarioDTO(usuario);
     }
 
+    /**
+     * Busca usuarios por el comienzo de su nombre o su email, sin distinguir mayúsculas ni tildes,
+     * hasta el límite indicado. Se responde desde el índice en memoria, sin consultar la base de datos.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SugerenciaDTO> buscar(String texto, int limite) {
+        logger.debug("Buscando usuarios que empiecen por: {}", texto);
+        return indiceUsuarios.buscar(texto, limite);
+    }
+
     /**
      * Registra un nuevo usuario en el sistema.
      */
@@ -85,6 +134,8 @@ public class UsuarioService {
         usuario.setRol("SUPERADMIN");
 
         Usuario usuarioGuardado = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(UsuarioCambioEvent.guardado(usuarioGuardado.getId(),
+                usuarioGuardado.getNombre(), usuarioGuardado.getEmail()));
         logger.info("Usuario registrado exitosamente con ID: {}", usuarioGuardado.getId());
 
         return EntityMapper.toUsuarioDTO(usuarioGuardado);
@@ -94,26 +145,81 @@ public class UsuarioService {
      * Actualiza la información de un usuario existente.
      */
     public UsuarioDTO actualizar(Integer id, UsuarioDTO usuarioDTO) {
+        return actualizar(id, usuarioDTO, null);
+    }
+
+    /**
+     * Actualiza la información de un usuario existente comprobando su versión
+     * (la esperada según If-Match y la incluida en el DTO).
+     */
+    public UsuarioDTO actualizar(Integer id, UsuarioDTO usuarioDTO, Long versionEsperada) {
         logger.debug("Actualizando usuario con ID: {}", id);
 
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id));
+        ControlVersiones.verificar("el usuario", id, usuario.getVersion(), versionEsperada, usuarioDTO.getVersion());
 
         if (!usuario.getEmail().equals(usuarioDTO.getEmail()) && 
             usuarioRepository.existsByEmail(usuarioDTO.getEmail())) {
             throw new DuplicateResourceException("Ya existe un usuario con el email: " + usuarioDTO.getEmail());
         }
 
+        boolean nombreCambiado = !usuario.getNombre().equals(usuarioDTO.getNombre());
         usuario.setNombre(usuarioDTO.getNombre());
         usuario.setEmail(usuarioDTO.getEmail());
         usuario.setTelefono(usuarioDTO.getTelefono());
 
-        Usuario usuarioActualizado = usuarioRepository.save(usuario);
+        Usuario usuarioActualizado = usuarioRepository.saveAndFlush(usuario);
+        if (nombreCambiado) {
+            // El nombre aparece en el directorio solo con los perfiles profesionales del usuario
+            List<Integer> perfiles = profesionalRepository.findIdsPorUsuario(id);
+            versionesAgenda.invalidarAlConfirmar(agendasConNombre(id, perfiles));
+            perfiles.forEach(profesionalId -> eventPublisher.publishEvent(ProfesionalCambioEvent.de(profesionalId)));
+        }
+        eventPublisher.publishEvent(UsuarioCambioEvent.guardado(id, usuarioActualizado.getNombre(),
+                usuarioActualizado.getEmail()));
         logger.info("Usuario actualizado exitosamente con ID: {}", usuarioActualizado.getId());
 
         return EntityMapper.toUsuarioDTO(usuarioActualizado);
     }
 
+    /**
+     * Actualiza solo los campos informados (no nulos) de un usuario.
+     */
+    public UsuarioDTO actualizarParcial(Integer id, UsuarioDTO cambios, Long versionEsperada) {
+        logger.debug("Actualizando parcialmente usuario con ID: {}", id);
+
+        UsuarioDTO datos = EntityMapper.toUsuarioDTO(usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id)));
+        if (cambios.getNombre() != null) {
+            datos.setNombre(cambios.getNombre());
+        }
+        if (cambios.getEmail() != null) {
+            datos.setEmail(cambios.getEmail());
+        }
+        if (cambios.getTelefono() != null) {
+            datos.setTelefono(cambios.getTelefono());
+        }
+        datos.setVersion(cambios.getVersion());
+
+        Set<ConstraintViolation<UsuarioDTO>> violaciones = validator.validate(datos);
+        if (!violaciones.isEmpty()) {
+            throw new ConstraintViolationException(violaciones);
+        }
+        return actualizar(id, datos, versionEsperada);
+    }
+
+    /**
+     * IDs de los profesionales cuyas agendas muestran el nombre del usuario: sus perfiles profesionales
+     * y los profesionales con los que tiene citas o series pendientes.
+     */
+    private Set<Integer> agendasConNombre(Integer usuarioId, List<Integer> perfiles) {
+        Set<Integer> profesionalIds = new LinkedHashSet<>(perfiles);
+        profesionalIds.addAll(citaRepository.findProfesionalIdsPorUsuario(usuarioId));
+        profesionalIds.addAll(serieCitaRepository.findProfesionalIdsPendientesPorUsuario(usuarioId));
+        return profesionalIds;
+    }
+
     /**
      * Elimina un usuario del sistema.
      */
@@ -124,7 +230,15 @@ public class UsuarioService {
             throw new ResourceNotFoundException("Usuario no encontrado con ID: " + id);
         }
 
+        // Sus series y solicitudes de espera se eliminan antes; sus citas y sus perfiles profesionales
+        // se eliminan en cascada, sin eventos de cambio de cita
+        serieCitaService.eliminarDeUsuario(id);
+        listaEsperaService.eliminarDeUsuario(id);
         usuarioRepository.deleteById(id);
+        versionesAgenda.invalidarTodoAlConfirmar();
+        indiceAgendas.invalidarTodoAlConfirmar();
+        eventPublisher.publishEvent(ProfesionalCambioEvent.todos());
+        eventPublisher.publishEvent(UsuarioCambioEvent.eliminado(id));
         logger.info("Usuario eliminado exitosamente con ID: {}", id);
     }
 }
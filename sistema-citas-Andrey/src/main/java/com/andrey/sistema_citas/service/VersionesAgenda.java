@@ -0,0 +1,119 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.event.SerieCitaCambioEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sellos de versión de la agenda de cada profesional, usados como ETag por la API de agenda.
+ * Cada escritura confirmada que toca a un profesional le asigna un número nuevo de una secuencia
+ * global; los cambios sin profesional concreto (transiciones por lotes generales, cambios de
+ * servicios o profesionales que aparecen en las citas) avanzan una versión general. El cambio de
+ * nombre de un usuario solo avanza las agendas en que aparece.
+ * Consultar un sello no accede a la base de datos.
+ * Los sellos viven en memoria, por lo que incluyen un identificador del arranque para que no
+ * se repitan tras reiniciar la aplicación.
+ */
+@Component
+public class VersionesAgenda {
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong secuencia = new AtomicLong();
+    private final Map<Integer, Long> porProfesional = new ConcurrentHashMap<>();
+    private volatile long general;
+
+    /**
+     * Devuelve el sello actual de la agenda del profesional.
+     * Debe obtenerse antes de leer la agenda, de modo que los datos leídos sean
+     * al menos tan recientes como el sello.
+     */
+    public String sello(Integer profesionalId) {
+        return arranque + "-" + general + "-" + porProfesional.getOrDefault(profesionalId, 0L);
+    }
+
+    /**
+     * Avanza la versión general una vez confirmada la transacción actual, o de inmediato si no hay ninguna.
+     * Lo usan los servicios cuyos cambios alteran datos mostrados en las agendas de varios profesionales.
+     */
+    public void invalidarTodoAlConfirmar() {
+        alConfirmar(this::invalidarTodo);
+    }
+
+    /**
+     * Avanza la versión de los profesionales indicados una vez confirmada la transacción actual,
+     * o de inmediato si no hay ninguna. Lo usan los servicios cuyos cambios alteran datos mostrados
+     * solo en algunas agendas, como el nombre de un usuario.
+     */
+    public void invalidarAlConfirmar(Collection<Integer> profesionalIds) {
+        if (profesionalIds.isEmpty()) {
+            return;
+        }
+        List<Integer> afectados = List.copyOf(profesionalIds);
+        alConfirmar(() -> afectados.forEach(this::avanzar));
+    }
+
+    /**
+     * Avanza la versión de los profesionales afectados por el cambio de una cita.
+     */
+    @TransactionalEventListener
+    public void alCambiarCita(CitaCambioEvent evento) {
+        if (evento.getAnterior() != null) {
+            avanzar(evento.getAnterior().getProfesionalId());
+        }
+        if (evento.getActual() != null) {
+            avanzar(evento.getActual().getProfesionalId());
+        }
+    }
+
+    /**
+     * Avanza la versión del profesional de la transición, o la general si no se indicó profesional.
+     * A diferencia del índice de agendas, cualquier cambio de estado cuenta, ya que la agenda lo muestra.
+     */
+    @TransactionalEventListener
+    public void alTransicionarLote(CitasTransicionLoteEvent evento) {
+        if (evento.getProfesionalId() != null) {
+            avanzar(evento.getProfesionalId());
+        } else {
+            invalidarTodo();
+        }
+    }
+
+    /**
+     * Avanza la versión del profesional de la serie, cuyas ocurrencias pendientes muestra la agenda.
+     */
+    @TransactionalEventListener
+    public void alCambiarSerie(SerieCitaCambioEvent evento) {
+        avanzar(evento.getProfesionalId());
+    }
+
+    private void avanzar(Integer profesionalId) {
+        porProfesional.put(profesionalId, secuencia.incrementAndGet());
+    }
+
+    private void invalidarTodo() {
+        general = secuencia.incrementAndGet();
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
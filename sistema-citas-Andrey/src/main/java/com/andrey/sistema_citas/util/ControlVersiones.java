@@ -0,0 +1,63 @@
+package com.andrey.sistema_citas.util;
+
+import com.andrey.sistema_citas.exception.ConflictoVersionException;
+import com.andrey.sistema_citas.exception.PrecondicionFallidaException;
+
+/**
+ * Utilidades para el bloqueo optimista expuesto en la API REST.
+ * La versión de cada entidad se publica como ETag ("3") y los clientes la devuelven en la
+ * cabecera If-Match o en el campo version del DTO para que la actualización solo se aplique
+ * sobre la versión que leyeron.
+ */
+public final class ControlVersiones {
+
+    private ControlVersiones() {
+    }
+
+    /**
+     * Construye el ETag fuerte correspondiente a una versión.
+     */
+    public static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Obtiene la versión esperada a partir de la cabecera If-Match.
+     * Devuelve null si la cabecera no se envió o es "*", que acepta cualquier versión.
+     * Se admiten ETags débiles (W/"3"); un valor no numérico nunca puede coincidir.
+     */
+    public static Long desdeIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        valor = valor.replace("\"", "");
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new PrecondicionFallidaException("La cabecera If-Match no corresponde a una versión válida: " + ifMatch);
+        }
+    }
+
+    /**
+     * Comprueba que la versión actual de la entidad coincida con las esperadas.
+     * El recurso se nombra con su artículo ("la cita", "el servicio") dentro de los mensajes.
+     * La versión de If-Match produce un 412 y la enviada en el cuerpo un 409;
+     * las versiones nulas no se comprueban.
+     */
+    public static void verificar(String recurso, Integer id, Long actual, Long desdeIfMatch, Long desdeCuerpo) {
+        if (desdeIfMatch != null && !desdeIfMatch.equals(actual)) {
+            throw new PrecondicionFallidaException(String.format(
+                    "If-Match indica la versión %d, pero %s %d está en la versión %d",
+                    desdeIfMatch, recurso, id, actual));
+        }
+        if (desdeCuerpo != null && !desdeCuerpo.equals(actual)) {
+            throw new ConflictoVersionException(String.format(
+                    "Conflicto de versión en %s %d: la versión actual es %d y se recibió la %d",
+                    recurso, id, actual, desdeCuerpo));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.andrey.sistema_citas.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación de citas por clave compuesta (fecha_hora, id).
+ * Se serializa como texto Base64 URL-safe para que el cliente lo trate como un token.
+ */
+public final class CursorCita {
+
+    private static final String SEPARADOR = "|";
+
+    private final LocalDateTime fechaHora;
+    private final Integer id;
+
+    public CursorCita(LocalDateTime fechaHora, Integer id) {
+        this.fechaHora = fechaHora;
+        this.id = id;
+    }
+
+    /**
+     * Codifica el cursor como token opaco.
+     */
+    public String codificar() {
+        String valor = fechaHora + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token generado por {@link #codificar()}.
+     * Lanza IllegalArgumentException si el token no es válido.
+     */
+    public static CursorCita decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int posicion = valor.lastIndexOf(SEPARADOR);
+            if (posicion < 0) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return new CursorCita(
+                    LocalDateTime.parse(valor.substring(0, posicion)),
+                    Integer.valueOf(valor.substring(posicion + 1))
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido", e);
+        }
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+}
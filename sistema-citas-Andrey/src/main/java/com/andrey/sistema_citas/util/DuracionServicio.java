@@ -0,0 +1,46 @@
+package com.andrey.sistema_citas.util;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Clase de utilidad para interpretar la duración de un servicio.
+ * El campo duracion es texto libre ("60 minutos", "1 hora", "1h 30min", "45"),
+ * por lo que se traduce a minutos una sola vez en cada punto de uso.
+ */
+public final class DuracionServicio {
+
+    /**
+     * Duración asumida cuando el servicio no indica una duración interpretable.
+     */
+    public static final int MINUTOS_POR_DEFECTO = 60;
+
+    private static final Pattern COMPONENTE = Pattern.compile("(\\d+(?:[.,]\\d+)?)\\s*([a-záéíóú]*)");
+
+    private DuracionServicio() {
+    }
+
+    /**
+     * Convierte la duración textual de un servicio a minutos.
+     * Los números sin unidad se interpretan como minutos.
+     */
+    public static int enMinutos(String duracion) {
+        if (duracion == null || duracion.isBlank()) {
+            return MINUTOS_POR_DEFECTO;
+        }
+        Matcher matcher = COMPONENTE.matcher(duracion.toLowerCase(Locale.ROOT));
+        double minutos = 0;
+        boolean encontrado = false;
+        while (matcher.find()) {
+            double valor = Double.parseDouble(matcher.group(1).replace(',', '.'));
+            String unidad = matcher.group(2);
+            minutos += unidad.startsWith("h") ? valor * 60 : valor;
+            encontrado = true;
+        }
+        if (!encontrado || minutos <= 0) {
+            return MINUTOS_POR_DEFECTO;
+        }
+        return (int) Math.round(minutos);
+    }
+}
@@ -22,7 +22,8 @@ public class EntityMapper {
                 usuario.getEmail(),
                 usuario.getTelefono(),
                 usuario.getFechaRegistro(),
-                usuario.getRol()
+                usuario.getRol(),
+                usuario.getVersion()
         );
     }
 
@@ -56,7 +57,8 @@ public class EntityMapper {
                 profesional.getEspecialidad(),
                 profesional.getHorarioDisponible(),
                 profesional.getUsuario() != null ? profesional.getUsuario().getId() : null,
-                profesional.getUsuario() != null ? profesional.getUsuario().getNombre() : null
+                profesional.getUsuario() != null ? profesional.getUsuario().getNombre() : null,
+                profesional.getVersion()
         );
     }
 
@@ -87,7 +89,8 @@ public class EntityMapper {
                 servicio.getNombre(),
                 servicio.getDescripcion(),
                 servicio.getDuracion(),
-                servicio.getPrecio()
+                servicio.getPrecio(),
+                servicio.getVersion()
         );
     }
 
@@ -114,22 +117,27 @@ public class EntityMapper {
         if (cita == null) {
             return null;
         }
-        return new CitaDTO(
+        CitaDTO dto = new CitaDTO(
                 cita.getId(),
                 cita.getFechaHora(),
-                cita.getEstado(),
+                cita.getEstado() != null ? cita.getEstado().name() : null,
                 cita.getUsuario() != null ? cita.getUsuario().getId() : null,
                 cita.getUsuario() != null ? cita.getUsuario().getNombre() : null,
                 cita.getServicio() != null ? cita.getServicio().getId() : null,
                 cita.getServicio() != null ? cita.getServicio().getNombre() : null,
                 cita.getProfesional() != null ? cita.getProfesional().getId() : null,
-                cita.getProfesional() != null ? cita.getProfesional().getUsuario().getNombre() : null
+                cita.getProfesional() != null ? cita.getProfesional().getUsuario().getNombre() : null,
+                cita.getVersion()
         );
+        dto.setSerieId(cita.getSerieId());
+        dto.setNumeroSerie(cita.getNumeroSerie());
+        return dto;
     }
 
     /**
      * Convierte un CitaDTO a entidad Cita.
      * Las relaciones deben ser asignadas por separado.
+     * Lanza IllegalArgumentException si el estado no corresponde a ningún EstadoCita.
      */
     public static Cita toCita(CitaDTO dto) {
         if (dto == null) {
@@ -138,7 +146,82 @@ public class EntityMapper {
         Cita cita = new Cita();
         cita.setId(dto.getId());
         cita.setFechaHora(dto.getFechaHora());
-        cita.setEstado(dto.getEstado());
+        cita.setEstado(EstadoCita.desdeNombre(dto.getEstado()));
         return cita;
     }
+
+    /**
+     * Convierte una entidad SerieCita a SerieCitaDTO.
+     * Requiere las relaciones del grafo SerieCita.GRAFO_DETALLE.
+     */
+    public static SerieCitaDTO toSerieCitaDTO(SerieCita serie) {
+        if (serie == null) {
+            return null;
+        }
+        SerieCitaDTO dto = new SerieCitaDTO();
+        dto.setId(serie.getId());
+        dto.setVersion(serie.getVersion());
+        dto.setFechaInicio(serie.getFechaInicio());
+        dto.setFrecuencia(serie.getFrecuencia().name());
+        dto.setRepeticiones(serie.getRepeticiones());
+        dto.setHasta(serie.getHasta());
+        dto.setEstado(serie.getEstado().name());
+        dto.setUsuarioId(serie.getUsuario().getId());
+        dto.setUsuarioNombre(serie.getUsuario().getNombre());
+        dto.setServicioId(serie.getServicio().getId());
+        dto.setServicioNombre(serie.getServicio().getNombre());
+        dto.setProfesionalId(serie.getProfesional().getId());
+        dto.setProfesionalNombre(serie.getProfesional().getUsuario().getNombre());
+        dto.setMaterializadaHasta(serie.getMaterializadaHasta());
+        dto.setFinalizada(serie.isFinalizada());
+        return dto;
+    }
+
+    /**
+     * Convierte una ocurrencia pendiente de una serie a CitaDTO.
+     * La ocurrencia aún no es una cita, por lo que el DTO no tiene id ni versión.
+     */
+    public static CitaDTO toCitaDTO(SerieCita serie, ExpansionSerie.Ocurrencia ocurrencia) {
+        CitaDTO dto = new CitaDTO(
+                null,
+                ocurrencia.inicio(),
+                serie.getEstado().name(),
+                serie.getUsuario().getId(),
+                serie.getUsuario().getNombre(),
+                serie.getServicio().getId(),
+                serie.getServicio().getNombre(),
+                serie.getProfesional().getId(),
+                serie.getProfesional().getUsuario().getNombre(),
+                null
+        );
+        dto.setSerieId(serie.getId());
+        dto.setNumeroSerie(ocurrencia.numero());
+        return dto;
+    }
+
+    /**
+     * Convierte una entidad SolicitudEspera a SolicitudEsperaDTO.
+     * Requiere el usuario y el servicio cargados; del profesional solo se usa el ID.
+     */
+    public static SolicitudEsperaDTO toSolicitudEsperaDTO(SolicitudEspera solicitud) {
+        if (solicitud == null) {
+            return null;
+        }
+        SolicitudEsperaDTO dto = new SolicitudEsperaDTO();
+        dto.setId(solicitud.getId());
+        dto.setVersion(solicitud.getVersion());
+        dto.setUsuarioId(solicitud.getUsuario().getId());
+        dto.setUsuarioNombre(solicitud.getUsuario().getNombre());
+        dto.setServicioId(solicitud.getServicio().getId());
+        dto.setServicioNombre(solicitud.getServicio().getNombre());
+        dto.setProfesionalId(solicitud.getProfesional() == null ? null : solicitud.getProfesional().getId());
+        dto.setEspecialidad(solicitud.getEspecialidad());
+        dto.setDesde(solicitud.getDesde());
+        dto.setHasta(solicitud.getHasta());
+        dto.setUrgencia(solicitud.getUrgencia().name());
+        dto.setEstado(solicitud.getEstado().name());
+        dto.setCreadaEn(solicitud.getCreadaEn());
+        dto.setCitaId(solicitud.getCitaId());
+        return dto;
+    }
 }
@@ -0,0 +1,158 @@
+package com.andrey.sistema_citas.util;
+
+import com.andrey.sistema_citas.entity.ExcepcionSerie;
+import com.andrey.sistema_citas.entity.FrecuenciaSerie;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calcula las ocurrencias de una serie de citas a partir de su regla, sin consultar la base de datos.
+ * Las ocurrencias se numeran desde 1; la fecha original de la ocurrencia n es la fecha de inicio
+ * más (n - 1) periodos de la frecuencia. Las excepciones sustituyen la fecha original (movidas)
+ * o eliminan la ocurrencia (canceladas).
+ * Una ocurrencia está pendiente mientras su fecha efectiva no sea anterior al límite de
+ * materialización de la serie; las anteriores ya existen como filas de cita.
+ * Es inmutable, por lo que puede compartirse entre hilos una vez construida.
+ */
+public final class ExpansionSerie {
+
+    private final LocalDateTime fechaInicio;
+    private final int semanas;
+    private final int ultimoNumero;
+    private final LocalDateTime materializadaHasta;
+    private final Map<Integer, LocalDateTime> movidas = new HashMap<>();
+    private final Set<Integer> canceladas = new HashSet<>();
+
+    public ExpansionSerie(LocalDateTime fechaInicio, FrecuenciaSerie frecuencia, Integer repeticiones,
+                          LocalDate hasta, LocalDateTime materializadaHasta,
+                          Map<Integer, ExcepcionSerie> excepciones) {
+        this.fechaInicio = fechaInicio;
+        this.semanas = frecuencia.getSemanas();
+        this.ultimoNumero = calcularUltimoNumero(fechaInicio, semanas, repeticiones, hasta);
+        this.materializadaHasta = materializadaHasta;
+        excepciones.forEach((numero, excepcion) -> {
+            if (excepcion.isCancelada()) {
+                canceladas.add(numero);
+            } else {
+                movidas.put(numero, excepcion.getFechaHora());
+            }
+        });
+    }
+
+    /**
+     * Número de la última ocurrencia según la regla, o Integer.MAX_VALUE si la serie no tiene fin.
+     */
+    public static int calcularUltimoNumero(LocalDateTime fechaInicio, int semanas, Integer repeticiones,
+                                           LocalDate hasta) {
+        long ultimo = repeticiones != null ? repeticiones : Integer.MAX_VALUE;
+        if (hasta != null) {
+            // Se cuenta en días: WEEKS.between trunca hacia cero y un límite de días antes del inicio daría 0 semanas
+            long diasHasta = ChronoUnit.DAYS.between(fechaInicio.toLocalDate(), hasta);
+            ultimo = diasHasta < 0 ? 0 : Math.min(ultimo, diasHasta / (7L * semanas) + 1);
+        }
+        return (int) Math.max(ultimo, 0);
+    }
+
+    public int getUltimoNumero() {
+        return ultimoNumero;
+    }
+
+    /**
+     * Indica si la regla de la serie incluye la ocurrencia, aunque esté cancelada.
+     */
+    public boolean existe(int numero) {
+        return numero >= 1 && numero <= ultimoNumero;
+    }
+
+    /**
+     * Fecha y hora que la regla asigna a la ocurrencia, sin aplicar excepciones.
+     */
+    public LocalDateTime fechaOriginal(int numero) {
+        return fechaInicio.plusWeeks((long) (numero - 1) * semanas);
+    }
+
+    /**
+     * Fecha y hora de la ocurrencia tras aplicar las excepciones; null si no existe o está cancelada.
+     */
+    public LocalDateTime fechaEfectiva(int numero) {
+        if (!existe(numero) || canceladas.contains(numero)) {
+            return null;
+        }
+        LocalDateTime movida = movidas.get(numero);
+        return movida != null ? movida : fechaOriginal(numero);
+    }
+
+    /**
+     * Indica si la ocurrencia existe, no está cancelada y aún no se ha materializado.
+     */
+    public boolean pendiente(int numero) {
+        LocalDateTime fecha = fechaEfectiva(numero);
+        return fecha != null && !fecha.isBefore(materializadaHasta);
+    }
+
+    /**
+     * Ocurrencias pendientes cuyo inicio efectivo está en [desde, hasta), ordenadas por inicio.
+     * El coste depende del número de ocurrencias del rango, no del tamaño total de la serie.
+     */
+    public List<Ocurrencia> pendientesEntre(LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime inicio = desde.isBefore(materializadaHasta) ? materializadaHasta : desde;
+        List<Ocurrencia> resultado = new ArrayList<>();
+        if (!hasta.isAfter(inicio)) {
+            return resultado;
+        }
+        long ultimo = Math.min(ultimoNumero, primerNumeroDesde(hasta) - 1);
+        for (long n = primerNumeroDesde(inicio); n <= ultimo; n++) {
+            int numero = (int) n;
+            if (!canceladas.contains(numero) && !movidas.containsKey(numero)) {
+                resultado.add(new Ocurrencia(numero, fechaOriginal(numero)));
+            }
+        }
+        boolean conMovidas = false;
+        for (Map.Entry<Integer, LocalDateTime> movida : movidas.entrySet()) {
+            LocalDateTime fecha = movida.getValue();
+            if (existe(movida.getKey()) && !fecha.isBefore(inicio) && fecha.isBefore(hasta)) {
+                resultado.add(new Ocurrencia(movida.getKey(), fecha));
+                conMovidas = true;
+            }
+        }
+        if (conMovidas) {
+            resultado.sort(Comparator.comparing(Ocurrencia::inicio).thenComparing(Ocurrencia::numero));
+        }
+        return resultado;
+    }
+
+    /**
+     * Todas las ocurrencias pendientes de la serie. Solo debe usarse con series que tienen fin.
+     */
+    public List<Ocurrencia> pendientes() {
+        return pendientesEntre(materializadaHasta, LocalDateTime.MAX);
+    }
+
+    /**
+     * Número de la primera ocurrencia cuya fecha original no es anterior al instante indicado.
+     */
+    public long primerNumeroDesde(LocalDateTime instante) {
+        if (!instante.isAfter(fechaInicio)) {
+            return 1;
+        }
+        Duration transcurrido = Duration.between(fechaInicio, instante);
+        long segundos = transcurrido.getSeconds() + (transcurrido.getNano() > 0 ? 1 : 0);
+        return Math.ceilDiv(segundos, semanas * ChronoUnit.WEEKS.getDuration().getSeconds()) + 1;
+    }
+
+    /**
+     * Ocurrencia de una serie: su número y su fecha y hora efectiva.
+     */
+    public record Ocurrencia(int numero, LocalDateTime inicio) {
+    }
+}
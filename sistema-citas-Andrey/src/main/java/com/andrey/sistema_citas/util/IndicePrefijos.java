@@ -0,0 +1,158 @@
+package com.andrey.sistema_citas.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice inmutable para búsquedas por prefijo: pares (clave normalizada, ID) ordenados por clave
+ * en dos arreglos paralelos. Una búsqueda localiza el primer par con el prefijo por búsqueda binaria
+ * y recorre los siguientes solo hasta reunir el límite de resultados, por lo que su coste no depende
+ * del tamaño del índice. Un mismo ID puede figurar con varias claves (por ejemplo, una por palabra
+ * de su nombre) y se devuelve una sola vez.
+ * Los cambios producen un índice nuevo mezclando los arreglos existentes, sin reordenarlos.
+ */
+public final class IndicePrefijos {
+
+    /**
+     * Número máximo de resultados que admite una búsqueda.
+     */
+    public static final int LIMITE_MAXIMO = 50;
+
+    private static final IndicePrefijos VACIO = new IndicePrefijos(new String[0], new int[0]);
+
+    private static final Comparator<Entrada> ORDEN =
+            Comparator.comparing(Entrada::clave).thenComparingInt(Entrada::id);
+
+    private final String[] claves;
+    private final int[] ids;
+
+    private IndicePrefijos(String[] claves, int[] ids) {
+        this.claves = claves;
+        this.ids = ids;
+    }
+
+    public static IndicePrefijos vacio() {
+        return VACIO;
+    }
+
+    /**
+     * Construye el índice con las claves de cada ID.
+     */
+    public static IndicePrefijos construir(Map<Integer, ? extends Collection<String>> clavesPorId) {
+        List<Entrada> entradas = new ArrayList<>();
+        clavesPorId.forEach((id, claves) -> claves.forEach(clave -> entradas.add(new Entrada(clave, id))));
+        entradas.sort(ORDEN);
+        return desde(entradas);
+    }
+
+    /**
+     * Claves con que se indexa un texto para encontrarlo por el comienzo de cualquiera de sus palabras:
+     * la forma normalizada del texto a partir de cada palabra. "María José Pérez" se indexa como
+     * "maria jose perez", "jose perez" y "perez".
+     */
+    public static List<String> clavesDePalabras(String texto) {
+        String normalizado = NormalizadorTexto.normalizar(texto);
+        if (normalizado == null || normalizado.isEmpty()) {
+            return List.of();
+        }
+        List<String> claves = new ArrayList<>();
+        claves.add(normalizado);
+        for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+            claves.add(normalizado.substring(i + 1));
+        }
+        return claves;
+    }
+
+    /**
+     * Devuelve un índice en que el ID ya no figura con las claves anteriores y figura con las nuevas.
+     */
+    public IndicePrefijos conCambios(int id, Collection<String> anteriores, Collection<String> nuevas) {
+        Set<String> quitar = Set.copyOf(anteriores);
+        Entrada[] agregar = nuevas.stream().distinct().map(clave -> new Entrada(clave, id)).sorted(ORDEN)
+                .toArray(Entrada[]::new);
+        String[] nuevasClaves = new String[claves.length + agregar.length];
+        int[] nuevosIds = new int[nuevasClaves.length];
+        int destino = 0;
+        int siguiente = 0;
+        for (int i = 0; i < claves.length; i++) {
+            if (ids[i] == id && quitar.contains(claves[i])) {
+                continue;
+            }
+            while (siguiente < agregar.length && comparar(agregar[siguiente], claves[i], ids[i]) < 0) {
+                nuevasClaves[destino] = agregar[siguiente].clave();
+                nuevosIds[destino++] = agregar[siguiente++].id();
+            }
+            nuevasClaves[destino] = claves[i];
+            nuevosIds[destino++] = ids[i];
+        }
+        while (siguiente < agregar.length) {
+            nuevasClaves[destino] = agregar[siguiente].clave();
+            nuevosIds[destino++] = agregar[siguiente++].id();
+        }
+        return new IndicePrefijos(Arrays.copyOf(nuevasClaves, destino), Arrays.copyOf(nuevosIds, destino));
+    }
+
+    /**
+     * Busca los IDs con alguna clave que empiece por el prefijo normalizado, en el orden de sus claves
+     * y sin repetir, hasta el límite indicado. Un prefijo vacío devuelve los primeros del índice.
+     */
+    public List<Integer> buscar(String prefijo, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite de resultados debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        Set<Integer> encontrados = new LinkedHashSet<>();
+        for (int i = primeraPosicion(prefijo); i < claves.length && encontrados.size() < limite; i++) {
+            if (!claves[i].startsWith(prefijo)) {
+                break;
+            }
+            encontrados.add(ids[i]);
+        }
+        return new ArrayList<>(encontrados);
+    }
+
+    /**
+     * Número de pares (clave, ID) del índice.
+     */
+    public int tamano() {
+        return claves.length;
+    }
+
+    /**
+     * Primera posición cuya clave no es menor que el prefijo.
+     */
+    private int primeraPosicion(String prefijo) {
+        int posicion = Arrays.binarySearch(claves, prefijo);
+        if (posicion < 0) {
+            return -posicion - 1;
+        }
+        // Con claves repetidas la búsqueda binaria puede caer en cualquiera de ellas
+        while (posicion > 0 && claves[posicion - 1].equals(prefijo)) {
+            posicion--;
+        }
+        return posicion;
+    }
+
+    private static int comparar(Entrada entrada, String clave, int id) {
+        int orden = entrada.clave().compareTo(clave);
+        return orden != 0 ? orden : Integer.compare(entrada.id(), id);
+    }
+
+    private static IndicePrefijos desde(List<Entrada> entradas) {
+        String[] claves = new String[entradas.size()];
+        int[] ids = new int[entradas.size()];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = entradas.get(i).clave();
+            ids[i] = entradas.get(i).id();
+        }
+        return new IndicePrefijos(claves, ids);
+    }
+
+    private record Entrada(String clave, int id) {
+    }
+}
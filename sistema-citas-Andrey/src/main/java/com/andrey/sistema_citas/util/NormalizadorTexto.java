@@ -0,0 +1,30 @@
+package com.andrey.sistema_citas.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Clase de utilidad para comparar textos escritos por usuarios sin distinguir mayúsculas,
+ * tildes ni espacios sobrantes: "Cardiología", " cardiologia " y "CARDIOLOGÍA" tienen la misma forma normalizada.
+ */
+public final class NormalizadorTexto {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private NormalizadorTexto() {
+    }
+
+    /**
+     * Devuelve la forma normalizada del texto: sin marcas diacríticas, en minúsculas y con
+     * los espacios internos reducidos a uno. Devuelve null si el texto es null.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinMarcas.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
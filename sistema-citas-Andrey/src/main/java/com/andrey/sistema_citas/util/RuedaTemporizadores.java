@@ -0,0 +1,288 @@
+package com.andrey.sistema_citas.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rueda de temporizadores con dispersión (hashed timing wheel).
+ * El tiempo se divide en ticks de duración fija y cada temporizador se coloca en la cubeta
+ * correspondiente a su tick de vencimiento, junto con el número de vueltas completas que
+ * faltan. Un único hilo avanza la rueda un tick a la vez y solo recorre la cubeta actual,
+ * de modo que programar y cancelar cuestan O(1) sin importar cuántos temporizadores haya.
+ * <p>
+ * Las altas y cancelaciones de otros hilos se encolan y el hilo de la rueda las aplica al
+ * comienzo de cada tick; las cubetas solo las modifica ese hilo. Las tareas vencidas se
+ * ejecutan en el Executor recibido para no retrasar el avance de la rueda.
+ * La precisión es de un tick: una tarea nunca se ejecuta antes de su plazo.
+ */
+public final class RuedaTemporizadores implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuedaTemporizadores.class);
+
+    /**
+     * Máximo de altas pendientes que se transfieren a las cubetas en cada tick,
+     * para que una ráfaga de programaciones no retrase el vencimiento de las demás.
+     */
+    private static final int ALTAS_POR_TICK = 100_000;
+
+    private final long duracionTickNanos;
+    private final Cubeta[] cubetas;
+    private final int mascara;
+    private final Executor ejecutor;
+    private final Queue<Temporizador> altas = new ConcurrentLinkedQueue<>();
+    private final Queue<Temporizador> cancelados = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final Thread hilo;
+    private final long inicioNanos;
+
+    private volatile boolean detenida;
+
+    // Solo lo usa el hilo de la rueda
+    private long tick;
+
+    /**
+     * Crea la rueda e inicia su hilo.
+     * El número de cubetas se redondea a la siguiente potencia de dos.
+     */
+    public RuedaTemporizadores(String nombre, Duration duracionTick, int numeroCubetas, Executor ejecutor) {
+        if (duracionTick.isNegative() || duracionTick.isZero()) {
+            throw new IllegalArgumentException("La duración del tick debe ser positiva");
+        }
+        if (numeroCubetas < 1 || numeroCubetas > (1 << 30)) {
+            throw new IllegalArgumentException("Número de cubetas no válido: " + numeroCubetas);
+        }
+        int tamano = Integer.highestOneBit(numeroCubetas - 1) << 1;
+        if (tamano == 0) {
+            tamano = 1;
+        }
+        this.duracionTickNanos = duracionTick.toNanos();
+        this.cubetas = new Cubeta[tamano];
+        for (int i = 0; i < tamano; i++) {
+            cubetas[i] = new Cubeta();
+        }
+        this.mascara = tamano - 1;
+        this.ejecutor = ejecutor;
+        this.inicioNanos = System.nanoTime();
+        this.hilo = new Thread(this::avanzar, nombre);
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Programa una tarea para ejecutarse una vez transcurrido el retraso indicado.
+     * Un retraso nulo o negativo la ejecuta en el siguiente tick.
+     */
+    public Temporizador programar(Runnable tarea, Duration retraso) {
+        if (detenida) {
+            throw new IllegalStateException("La rueda de temporizadores está detenida");
+        }
+        long retrasoNanos = retraso.isNegative() ? 0 : retraso.toNanos();
+        Temporizador temporizador = new Temporizador(this, tarea, System.nanoTime() - inicioNanos + retrasoNanos);
+        pendientes.incrementAndGet();
+        altas.add(temporizador);
+        return temporizador;
+    }
+
+    /**
+     * Número de temporizadores programados que aún no vencen ni se cancelaron.
+     */
+    public int pendientes() {
+        return pendientes.get();
+    }
+
+    /**
+     * Detiene el hilo de la rueda. Los temporizadores pendientes se descartan.
+     */
+    @Override
+    public void close() {
+        detenida = true;
+        hilo.interrupt();
+        try {
+            hilo.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void avanzar() {
+        while (!detenida) {
+            long plazoTick = duracionTickNanos * (tick + 1);
+            if (!esperarHasta(plazoTick)) {
+                break;
+            }
+            aplicarCancelaciones();
+            transferirAltas();
+            cubetas[(int) (tick & mascara)].vencer(plazoTick);
+            tick++;
+        }
+        logger.debug("Rueda de temporizadores {} detenida con {} pendientes", hilo.getName(), pendientes.get());
+    }
+
+    /**
+     * Espera hasta el plazo indicado (relativo al inicio de la rueda).
+     * Devuelve false si la rueda se detuvo durante la espera.
+     */
+    private boolean esperarHasta(long plazoNanos) {
+        while (true) {
+            long restante = plazoNanos - (System.nanoTime() - inicioNanos);
+            if (restante <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(restante);
+            } catch (InterruptedException e) {
+                if (detenida) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void aplicarCancelaciones() {
+        Temporizador temporizador;
+        while ((temporizador = cancelados.poll()) != null) {
+            if (temporizador.cubeta != null) {
+                temporizador.cubeta.quitar(temporizador);
+            }
+        }
+    }
+
+    private void transferirAltas() {
+        for (int i = 0; i < ALTAS_POR_TICK; i++) {
+            Temporizador temporizador = altas.poll();
+            if (temporizador == null) {
+                return;
+            }
+            if (temporizador.estado.get() != Temporizador.PROGRAMADO) {
+                continue;
+            }
+            long tickVencimiento = temporizador.plazoNanos / duracionTickNanos;
+            temporizador.vueltasRestantes = (tickVencimiento - tick) / cubetas.length;
+            // Los plazos ya vencidos se colocan en la cubeta actual para no esperar una vuelta completa
+            long tickDestino = Math.max(tickVencimiento, tick);
+            cubetas[(int) (tickDestino & mascara)].agregar(temporizador);
+        }
+    }
+
+    private void ejecutar(Temporizador temporizador) {
+        pendientes.decrementAndGet();
+        try {
+            ejecutor.execute(temporizador.tarea);
+        } catch (RejectedExecutionException e) {
+            logger.warn("No se pudo ejecutar una tarea vencida de la rueda {}: {}", hilo.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Temporizador programado en la rueda. Se puede cancelar desde cualquier hilo.
+     */
+    public static final class Temporizador {
+
+        private static final int PROGRAMADO = 0;
+        private static final int CANCELADO = 1;
+        private static final int VENCIDO = 2;
+
+        private final RuedaTemporizadores rueda;
+        private final Runnable tarea;
+        private final long plazoNanos;
+        private final AtomicInteger estado = new AtomicInteger(PROGRAMADO);
+
+        // Campos que solo usa el hilo de la rueda
+        private long vueltasRestantes;
+        private Cubeta cubeta;
+        private Temporizador anterior;
+        private Temporizador siguiente;
+
+        private Temporizador(RuedaTemporizadores rueda, Runnable tarea, long plazoNanos) {
+            this.rueda = rueda;
+            this.tarea = tarea;
+            this.plazoNanos = plazoNanos;
+        }
+
+        /**
+         * Cancela el temporizador si aún no venció.
+         * Devuelve false si ya se había ejecutado o cancelado.
+         */
+        public boolean cancelar() {
+            if (!estado.compareAndSet(PROGRAMADO, CANCELADO)) {
+                return false;
+            }
+            rueda.pendientes.decrementAndGet();
+            rueda.cancelados.add(this);
+            return true;
+        }
+
+        public boolean isCancelado() {
+            return estado.get() == CANCELADO;
+        }
+
+        public boolean isVencido() {
+            return estado.get() == VENCIDO;
+        }
+    }
+
+    /**
+     * Lista doblemente enlazada de los temporizadores de una cubeta.
+     */
+    private final class Cubeta {
+
+        private Temporizador primero;
+        private Temporizador ultimo;
+
+        private void agregar(Temporizador temporizador) {
+            temporizador.cubeta = this;
+            if (primero == null) {
+                primero = temporizador;
+            } else {
+                ultimo.siguiente = temporizador;
+                temporizador.anterior = ultimo;
+            }
+            ultimo = temporizador;
+        }
+
+        private void quitar(Temporizador temporizador) {
+            if (temporizador.anterior != null) {
+                temporizador.anterior.siguiente = temporizador.siguiente;
+            } else {
+                primero = temporizador.siguiente;
+            }
+            if (temporizador.siguiente != null) {
+                temporizador.siguiente.anterior = temporizador.anterior;
+            } else {
+                ultimo = temporizador.anterior;
+            }
+            temporizador.anterior = null;
+            temporizador.siguiente = null;
+            temporizador.cubeta = null;
+        }
+
+        /**
+         * Ejecuta los temporizadores de la vuelta actual y descuenta una vuelta a los demás.
+         */
+        private void vencer(long plazoTick) {
+            Temporizador temporizador = primero;
+            while (temporizador != null) {
+                Temporizador siguiente = temporizador.siguiente;
+                if (temporizador.vueltasRestantes <= 0 && temporizador.plazoNanos <= plazoTick) {
+                    quitar(temporizador);
+                    if (temporizador.estado.compareAndSet(Temporizador.PROGRAMADO, Temporizador.VENCIDO)) {
+                        ejecutar(temporizador);
+                    }
+                } else if (temporizador.isCancelado()) {
+                    quitar(temporizador);
+                } else {
+                    temporizador.vueltasRestantes--;
+                }
+                temporizador = siguiente;
+            }
+        }
+    }
+}
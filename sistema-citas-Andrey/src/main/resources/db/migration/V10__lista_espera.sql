@@ -0,0 +1,26 @@
+-- Lista de espera: solicitudes de usuarios que quieren una cita para un servicio dentro de una
+-- ventana de tiempo, con un profesional concreto, una especialidad o cualquier profesional.
+-- cita_id guarda la cita ofrecida al atender la solicitud; no tiene clave foránea para que la
+-- cita pueda eliminarse después sin afectar al historial de la lista.
+
+CREATE TABLE solicitud_espera (
+    id INT NOT NULL AUTO_INCREMENT,
+    version BIGINT NOT NULL DEFAULT 0,
+    usuario_id INT NOT NULL,
+    servicio_id INT NOT NULL,
+    profesional_id INT,
+    especialidad VARCHAR(255),
+    desde DATETIME(6) NOT NULL,
+    hasta DATETIME(6) NOT NULL,
+    urgencia TINYINT NOT NULL,
+    estado TINYINT NOT NULL,
+    creada_en DATETIME(6) NOT NULL,
+    cita_id INT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_espera_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id),
+    CONSTRAINT fk_espera_servicio FOREIGN KEY (servicio_id) REFERENCES servicio (id),
+    CONSTRAINT fk_espera_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_espera_estado_hasta ON solicitud_espera (estado, hasta);
+CREATE INDEX idx_espera_usuario ON solicitud_espera (usuario_id, estado);
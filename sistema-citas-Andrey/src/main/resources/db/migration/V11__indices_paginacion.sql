@@ -0,0 +1,16 @@
+-- Índices de la paginación por cursor de citas, ordenada por (fecha_hora, id).
+-- Cada índice termina en (fecha_hora, id) para que la página se lea en el orden del índice y la
+-- lectura se detenga al llenarla, sin ordenar las citas posteriores al cursor. En InnoDB los índices
+-- secundarios ya incluyen la clave primaria, por lo que los redefinidos ocupan lo mismo que antes.
+-- Los índices nuevos se crean antes de eliminar los anteriores, que sostienen la clave foránea.
+
+CREATE INDEX idx_cita_fecha_id ON cita (fecha_hora, id);
+DROP INDEX idx_cita_fecha ON cita;
+
+CREATE INDEX idx_cita_profesional_fecha_id ON cita (profesional_id, fecha_hora, id);
+DROP INDEX idx_cita_profesional_fecha ON cita;
+
+CREATE INDEX idx_cita_estado_fecha_id ON cita (estado, fecha_hora, id);
+DROP INDEX idx_cita_estado_fecha ON cita;
+
+CREATE INDEX idx_cita_usuario_fecha_id ON cita (usuario_id, fecha_hora, id);
@@ -0,0 +1,8 @@
+-- Clave de franja de las citas ("profesional:fecha_hora"), única entre las citas que ocupan horario.
+-- Protege frente a reservas concurrentes del mismo horario desde distintos nodos; las citas canceladas
+-- la dejan en NULL. Las citas existentes no se rellenan: reciben su clave la próxima vez que se
+-- modifican y, mientras tanto, el índice de agendas y los bloqueos de reserva siguen protegiéndolas.
+
+ALTER TABLE cita ADD COLUMN slot_clave VARCHAR(40);
+
+ALTER TABLE cita ADD CONSTRAINT uk_cita_slot UNIQUE (slot_clave);
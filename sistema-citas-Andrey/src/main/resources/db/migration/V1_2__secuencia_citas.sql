@@ -0,0 +1,9 @@
+-- Tabla con la que Hibernate emula la secuencia cita_seq en MySQL (IDs de cita asignados en bloques de 50).
+-- Las bases que ya la tienen, creada por Hibernate con ddl-auto=update, la conservan con su valor actual.
+-- V4 la alinea con los IDs existentes.
+
+CREATE TABLE IF NOT EXISTS cita_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO cita_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM cita_seq);
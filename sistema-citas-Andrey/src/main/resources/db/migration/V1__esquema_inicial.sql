@@ -0,0 +1,47 @@
+-- Esquema inicial, equivalente al generado por Hibernate con ddl-auto=update en la primera
+-- versión de la aplicación, antes de la clave de franja y de la secuencia de citas.
+-- En bases existentes esta versión se registra como línea base (spring.flyway.baseline-on-migrate)
+-- y no se ejecuta.
+
+CREATE TABLE usuario (
+    id INT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255),
+    fecha_registro DATETIME(6) NOT NULL,
+    rol VARCHAR(50) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_usuario_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE profesional (
+    id INT NOT NULL AUTO_INCREMENT,
+    especialidad VARCHAR(255) NOT NULL,
+    horario_disponible DATETIME(6),
+    usuario_id INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_profesional_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE servicio (
+    id INT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(255) NOT NULL,
+    descripcion TEXT,
+    duracion VARCHAR(255),
+    precio DOUBLE NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE cita (
+    id INT NOT NULL AUTO_INCREMENT,
+    fecha_hora DATETIME(6) NOT NULL,
+    estado VARCHAR(255) NOT NULL,
+    usuario_id INT NOT NULL,
+    servicio_id INT NOT NULL,
+    profesional_id INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cita_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id),
+    CONSTRAINT fk_cita_servicio FOREIGN KEY (servicio_id) REFERENCES servicio (id),
+    CONSTRAINT fk_cita_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id)
+) ENGINE = InnoDB;
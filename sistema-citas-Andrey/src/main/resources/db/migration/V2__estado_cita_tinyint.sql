@@ -0,0 +1,21 @@
+-- Convierte cita.estado de VARCHAR(255) a un código TINYINT (ver EstadoCita)
+-- y agrega los índices compuestos usados por las consultas por estado.
+-- Los estados desconocidos quedan en NULL y hacen fallar la migración al aplicar NOT NULL,
+-- de modo que deben corregirse antes de reintentarla.
+
+ALTER TABLE cita ADD COLUMN estado_codigo TINYINT NULL;
+
+UPDATE cita SET estado_codigo = CASE UPPER(TRIM(estado))
+    WHEN 'PENDIENTE' THEN 0
+    WHEN 'CONFIRMADA' THEN 1
+    WHEN 'COMPLETADA' THEN 2
+    WHEN 'CANCELADA' THEN 3
+    WHEN 'EXPIRADA' THEN 4
+END;
+
+ALTER TABLE cita DROP COLUMN estado;
+ALTER TABLE cita RENAME COLUMN estado_codigo TO estado;
+ALTER TABLE cita MODIFY COLUMN estado TINYINT NOT NULL;
+
+CREATE INDEX idx_cita_usuario_estado ON cita (usuario_id, estado);
+CREATE INDEX idx_cita_estado_fecha ON cita (estado, fecha_hora);
@@ -0,0 +1,7 @@
+-- Índices para las consultas frecuentes de los repositorios:
+-- agenda por profesional, rangos de fechas, búsqueda por especialidad y por precio.
+
+CREATE INDEX idx_cita_profesional_fecha ON cita (profesional_id, fecha_hora);
+CREATE INDEX idx_cita_fecha ON cita (fecha_hora);
+CREATE INDEX idx_profesional_especialidad ON profesional (especialidad);
+CREATE INDEX idx_servicio_precio ON servicio (precio);
@@ -0,0 +1,4 @@
+-- Las citas creadas antes de usar cita_seq tienen IDs autoincrementales, por lo que el
+-- siguiente bloque de la secuencia (asignación de 50) debe comenzar por encima del mayor ID.
+
+UPDATE cita_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM cita));
@@ -0,0 +1,22 @@
+-- Resumen diario de citas por profesional, servicio y estado para los reportes.
+-- CitaService lo mantiene en la misma transacción que cada escritura; aquí se calcula
+-- a partir de las citas existentes. Sin claves foráneas: las filas de profesionales o
+-- servicios eliminados se descartan al reconstruir el resumen.
+
+CREATE TABLE cita_rollup_diaria (
+    fecha DATE NOT NULL,
+    profesional_id INT NOT NULL,
+    servicio_id INT NOT NULL,
+    estado TINYINT NOT NULL,
+    total_citas BIGINT NOT NULL,
+    ingresos DOUBLE NOT NULL,
+    PRIMARY KEY (fecha, profesional_id, servicio_id, estado)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_rollup_profesional_fecha ON cita_rollup_diaria (profesional_id, fecha);
+
+INSERT INTO cita_rollup_diaria (fecha, profesional_id, servicio_id, estado, total_citas, ingresos)
+SELECT CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id, c.estado, COUNT(*), SUM(s.precio)
+FROM cita c
+JOIN servicio s ON s.id = c.servicio_id
+GROUP BY CAST(c.fecha_hora AS DATE), c.profesional_id, c.servicio_id, c.estado;
@@ -0,0 +1,7 @@
+-- Columnas de versión para el bloqueo optimista (@Version) de las entidades.
+-- Las filas existentes comienzan en la versión 0.
+
+ALTER TABLE usuario ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE profesional ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE servicio ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cita ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
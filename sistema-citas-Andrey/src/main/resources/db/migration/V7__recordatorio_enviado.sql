@@ -0,0 +1,13 @@
+-- Recordatorios de citas ya entregados, para no repetirlos al reprogramarlos tras un reinicio.
+-- Sin clave foránea, como el resumen diario: las filas de citas pasadas o eliminadas
+-- se purgan periódicamente.
+
+CREATE TABLE recordatorio_enviado (
+    cita_id INT NOT NULL,
+    tipo TINYINT NOT NULL,
+    fecha_cita DATETIME(6) NOT NULL,
+    enviado_en DATETIME(6) NOT NULL,
+    PRIMARY KEY (cita_id, tipo)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_recordatorio_fecha_cita ON recordatorio_enviado (fecha_cita);
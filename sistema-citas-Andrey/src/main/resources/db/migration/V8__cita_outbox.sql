@@ -0,0 +1,16 @@
+-- Outbox transaccional de eventos de citas: CitaService escribe una fila por cambio en la
+-- misma transacción y un despachador las entrega en lotes y las elimina.
+
+CREATE TABLE cita_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cita_id INT,
+    tipo TINYINT NOT NULL,
+    datos TEXT NOT NULL,
+    creado_en DATETIME(6) NOT NULL,
+    intentos INT NOT NULL DEFAULT 0,
+    disponible_en DATETIME(6) NOT NULL,
+    fallido BIT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_outbox_cita ON cita_outbox (cita_id, id);
@@ -0,0 +1,39 @@
+-- Series de citas recurrentes. Solo las ocurrencias dentro del horizonte de materialización
+-- se guardan como filas de cita; el resto se calcula a partir de la regla de la serie y de
+-- sus excepciones (ocurrencias movidas o canceladas antes de materializarse).
+
+CREATE TABLE serie_cita (
+    id INT NOT NULL AUTO_INCREMENT,
+    version BIGINT NOT NULL DEFAULT 0,
+    fecha_inicio DATETIME(6) NOT NULL,
+    frecuencia TINYINT NOT NULL,
+    repeticiones INT,
+    hasta DATE,
+    estado TINYINT NOT NULL,
+    materializada_hasta DATETIME(6) NOT NULL,
+    finalizada BIT NOT NULL DEFAULT 0,
+    usuario_id INT NOT NULL,
+    servicio_id INT NOT NULL,
+    profesional_id INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_serie_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (id),
+    CONSTRAINT fk_serie_servicio FOREIGN KEY (servicio_id) REFERENCES servicio (id),
+    CONSTRAINT fk_serie_profesional FOREIGN KEY (profesional_id) REFERENCES profesional (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_serie_profesional_finalizada ON serie_cita (profesional_id, finalizada);
+CREATE INDEX idx_serie_finalizada_materializada ON serie_cita (finalizada, materializada_hasta);
+
+CREATE TABLE serie_cita_excepcion (
+    serie_id INT NOT NULL,
+    numero INT NOT NULL,
+    cancelada BIT NOT NULL,
+    fecha_hora DATETIME(6),
+    PRIMARY KEY (serie_id, numero),
+    CONSTRAINT fk_excepcion_serie FOREIGN KEY (serie_id) REFERENCES serie_cita (id)
+) ENGINE = InnoDB;
+
+ALTER TABLE cita ADD COLUMN serie_id INT;
+ALTER TABLE cita ADD COLUMN numero_serie INT;
+ALTER TABLE cita ADD CONSTRAINT uk_cita_serie_numero UNIQUE (serie_id, numero_serie);
+ALTER TABLE cita ADD CONSTRAINT fk_cita_serie FOREIGN KEY (serie_id) REFERENCES serie_cita (id);
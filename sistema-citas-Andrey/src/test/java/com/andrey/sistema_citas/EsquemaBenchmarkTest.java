@@ -0,0 +1,261 @@
+package com.andrey.sistema_citas;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import com.andrey.sistema_citas.repository.ServicioRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mediciones del esquema gestionado por Flyway: arranque con migraciones y ddl-auto=validate frente a
+ * ddl-auto=update, tiempo de las consultas frecuentes con y sin los índices de V3 (los de citas,
+ * redefinidos en V11), y consultas por estado con la columna TINYINT indexada de V2 frente a la
+ * columna VARCHAR sin índice que la precedía.
+ * Se ejecutan sobre H2 en modo MySQL; las cifras sirven para comparar, no como referencia de MySQL.
+ */
+@Tag(Medicion.ETIQUETA)
+class EsquemaBenchmarkTest {
+
+    // H2 reutiliza el resultado de una consulta repetida si las tablas no cambian: se desactiva para medir cada lectura
+    private static final String OPCIONES_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1"
+            + ";OPTIMIZE_REUSE_RESULTS=FALSE";
+    private static final int ARRANQUES = 3;
+    private static final int PROFESIONALES = 100;
+    private static final int SERVICIOS = 200;
+    private static final int CITAS = 50_000;
+    private static final String[] ESPECIALIDADES = {
+            "Psicología", "Psiquiatría", "Terapia familiar", "Terapia de pareja", "Neuropsicología",
+            "Orientación", "Psicopedagogía", "Logopedia", "Coaching", "Mindfulness"};
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 1, 7, 8, 0);
+    private static final int RONDAS = 3;
+    private static final Map<String, String> INDICES_V3 = Map.of(
+            "idx_cita_profesional_fecha_id", "cita (profesional_id, fecha_hora, id)",
+            "idx_cita_fecha_id", "cita (fecha_hora, id)",
+            "idx_profesional_especialidad", "profesional (especialidad)",
+            "idx_servicio_precio", "servicio (precio)");
+    private static final String TABLA_ANTERIOR_A_V2 = "CREATE TABLE cita_v1 (id INT NOT NULL PRIMARY KEY, "
+            + "fecha_hora TIMESTAMP NOT NULL, estado VARCHAR(255) NOT NULL, usuario_id INT NOT NULL, "
+            + "servicio_id INT NOT NULL, profesional_id INT NOT NULL)";
+    // Las citas pendientes son una de cada 20 y corresponden a los usuarios 0, 20, 40, 60 y 80
+    private static final int USUARIO_CONSULTADO = 40;
+
+    @Test
+    void arranqueConMigracionesYValidacionFrenteADdlUpdate() {
+        long update = Long.MAX_VALUE;
+        long validate = Long.MAX_VALUE;
+        for (int i = 0; i < ARRANQUES; i++) {
+            // Se mide el reinicio sobre una base ya creada, que es el arranque habitual
+            update = Math.min(update, reinicio("arranque_update_" + i,
+                    "spring.flyway.enabled=false", "spring.jpa.hibernate.ddl-auto=update"));
+            validate = Math.min(validate, reinicio("arranque_validate_" + i));
+        }
+        Medicion.informar("arranque", "ddl-auto=update %d ms, Flyway + ddl-auto=validate %d ms (mejor de %d)",
+                update, validate, ARRANQUES);
+
+        assertThat(validate).isLessThan(update * 2);
+    }
+
+    @Test
+    void consultasFrecuentesConYSinIndices() {
+        try (ConfigurableApplicationContext contexto = arrancar("consultas",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false")) {
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            CitaRepository citas = contexto.getBean(CitaRepository.class);
+            ProfesionalRepository profesionales = contexto.getBean(ProfesionalRepository.class);
+            ServicioRepository servicios = contexto.getBean(ServicioRepository.class);
+            // Las conexiones del pool no confirman automáticamente: la carga necesita su transacción
+            TransactionTemplate transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+            transaccion.executeWithoutResult(estado -> poblar(jdbc));
+
+            // Las citas cubren unos 20 días, una por hora y profesional
+            LocalDateTime semana = INICIO.plusDays(7);
+            Map<String, Supplier<List<?>>> consultas = new LinkedHashMap<>();
+            consultas.put("citas de un profesional en una semana",
+                    () -> citas.findDTOPorProfesionalEntre(37, semana, semana.plusDays(7)));
+            consultas.put("citas de una hora",
+                    () -> citas.findByFechaHoraBetween(semana, semana.plusMinutes(59)).stream().map(Cita::getId).toList());
+            consultas.put("profesionales por especialidad",
+                    () -> profesionales.findByEspecialidad("Logopedia").stream().map(Profesional::getId).toList());
+            consultas.put("servicios por rango de precio",
+                    () -> servicios.findByPrecioBetween(40.0, 42.0).stream().map(Servicio::getId).toList());
+            Map<String, List<?>> resultados = resultados(consultas);
+
+            // Rondas alternas sin y con índices; de cada consulta se toma la mejor medición
+            Map<String, Double> sinIndices = new LinkedHashMap<>();
+            Map<String, Double> conIndices = new LinkedHashMap<>();
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                transaccion.executeWithoutResult(estado ->
+                        INDICES_V3.keySet().forEach(indice -> jdbc.execute("DROP INDEX " + indice)));
+                medir(consultas).forEach((nombre, micros) -> sinIndices.merge(nombre, micros, Math::min));
+                assertThat(resultados(consultas)).isEqualTo(resultados);
+                transaccion.executeWithoutResult(estado -> INDICES_V3.forEach((indice, definicion) ->
+                        jdbc.execute("CREATE INDEX " + indice + " ON " + definicion)));
+                medir(consultas).forEach((nombre, micros) -> conIndices.merge(nombre, micros, Math::min));
+            }
+
+            consultas.keySet().forEach(nombre -> Medicion.informar("consultas",
+                    "%s: %.0f us sin indices, %.0f us con indices (%d citas)",
+                    nombre, sinIndices.get(nombre), conIndices.get(nombre), CITAS));
+            assertThat(conIndices.get("citas de una hora")).isLessThan(sinIndices.get("citas de una hora"));
+        }
+    }
+
+    @Test
+    void consultasPorEstadoConTinyintEIndiceFrenteAVarcharSinIndice() {
+        try (ConfigurableApplicationContext contexto = arrancar("estados",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false")) {
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            TransactionTemplate transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+            transaccion.executeWithoutResult(estado -> {
+                poblar(jdbc);
+                // Copia de las citas con el esquema anterior a V2: estado como texto y solo los índices de las claves foráneas
+                jdbc.execute(TABLA_ANTERIOR_A_V2);
+                jdbc.execute("CREATE INDEX idx_cita_v1_usuario ON cita_v1 (usuario_id)");
+                jdbc.execute("CREATE INDEX idx_cita_v1_servicio ON cita_v1 (servicio_id)");
+                jdbc.execute("CREATE INDEX idx_cita_v1_profesional ON cita_v1 (profesional_id)");
+                jdbc.execute("INSERT INTO cita_v1 SELECT id, fecha_hora, CASE estado WHEN 0 THEN 'PENDIENTE' "
+                        + "WHEN 1 THEN 'CONFIRMADA' WHEN 2 THEN 'COMPLETADA' WHEN 3 THEN 'CANCELADA' ELSE 'EXPIRADA' END, "
+                        + "usuario_id, servicio_id, profesional_id FROM cita");
+                jdbc.execute("ANALYZE");
+            });
+            Integer usuario = jdbc.queryForObject(
+                    "SELECT MIN(id) FROM usuario WHERE email LIKE '%@benchmark.com'", Integer.class) + USUARIO_CONSULTADO;
+            Object pendienteV1 = EstadoCita.PENDIENTE.name();
+            Object pendienteV2 = EstadoCita.PENDIENTE.getCodigo();
+
+            Map<String, Supplier<List<?>>> antes = consultasPorEstado(jdbc, "cita_v1", pendienteV1, usuario);
+            Map<String, Supplier<List<?>>> despues = consultasPorEstado(jdbc, "cita", pendienteV2, usuario);
+            assertThat(resultados(despues)).isEqualTo(resultados(antes));
+            assertThat(despues.get("pendientes de un usuario").get()).isNotEmpty();
+
+            // Rondas alternas con cada esquema; de cada consulta se toma la mejor medición
+            Map<String, Double> conVarchar = new LinkedHashMap<>();
+            Map<String, Double> conTinyint = new LinkedHashMap<>();
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                medir(antes).forEach((nombre, micros) -> conVarchar.merge(nombre, micros, Math::min));
+                medir(despues).forEach((nombre, micros) -> conTinyint.merge(nombre, micros, Math::min));
+            }
+
+            antes.keySet().forEach(nombre -> Medicion.informar("estados",
+                    "%s: %.0f us con VARCHAR sin indice, %.0f us con TINYINT e indices (%d citas)",
+                    nombre, conVarchar.get(nombre), conTinyint.get(nombre), CITAS));
+            assertThat(conTinyint.get("primera pagina de pendientes")).isLessThan(conVarchar.get("primera pagina de pendientes"));
+            assertThat(conTinyint.get("recuento de pendientes")).isLessThan(conVarchar.get("recuento de pendientes"));
+        }
+    }
+
+    /**
+     * Consultas por estado equivalentes a las de CitaRepository, en SQL para poder lanzarlas
+     * sobre la tabla actual y sobre la copia con el esquema anterior a V2.
+     */
+    private Map<String, Supplier<List<?>>> consultasPorEstado(JdbcTemplate jdbc, String tabla, Object estado,
+                                                             Integer usuario) {
+        Map<String, Supplier<List<?>>> consultas = new LinkedHashMap<>();
+        consultas.put("primera pagina de pendientes", () -> jdbc.queryForList(
+                "SELECT id FROM " + tabla + " WHERE estado = ? ORDER BY fecha_hora, id LIMIT 20", Integer.class, estado));
+        consultas.put("pendientes de un usuario", () -> jdbc.queryForList(
+                "SELECT id FROM " + tabla + " WHERE usuario_id = ? AND estado = ?", Integer.class, usuario, estado));
+        consultas.put("recuento de pendientes", () -> jdbc.queryForList(
+                "SELECT COUNT(*) FROM " + tabla + " WHERE estado = ?", Long.class, estado));
+        return consultas;
+    }
+
+    private long reinicio(String base, String... propiedades) {
+        arrancar(base, propiedades).close();
+        return Medicion.milisegundos(() -> arrancar(base, propiedades).close());
+    }
+
+    private ConfigurableApplicationContext arrancar(String base, String... propiedades) {
+        List<String> todas = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + base + OPCIONES_H2,
+                "server.port=0",
+                "logging.level.com.andrey.sistema_citas=WARN",
+                "logging.level.org.springframework=WARN",
+                "logging.level.org.hibernate=WARN"));
+        todas.addAll(List.of(propiedades));
+        // Como argumentos de línea de comandos, las propiedades prevalecen sobre las de los archivos del perfil
+        return new SpringApplicationBuilder(SistemaCitasAndreyApplication.class)
+                .profiles("test")
+                .run(todas.stream().map(propiedad -> "--" + propiedad).toArray(String[]::new));
+    }
+
+    private void poblar(JdbcTemplate jdbc) {
+        Timestamp registro = Timestamp.valueOf(INICIO);
+        jdbc.batchUpdate("INSERT INTO usuario (nombre, email, password, fecha_registro, rol) VALUES (?, ?, 'x', ?, 'CLIENTE')",
+                rango(PROFESIONALES).stream().map(i -> new Object[]{"Usuario " + i, "usuario" + i + "@benchmark.com", registro}).toList());
+        Integer primerUsuario = jdbc.queryForObject("SELECT MIN(id) FROM usuario WHERE email LIKE '%@benchmark.com'", Integer.class);
+        jdbc.batchUpdate("INSERT INTO profesional (id, especialidad, usuario_id) VALUES (?, ?, ?)",
+                rango(PROFESIONALES).stream().map(i -> new Object[]{i + 1, ESPECIALIDADES[i % ESPECIALIDADES.length], primerUsuario + i}).toList());
+        jdbc.batchUpdate("INSERT INTO servicio (id, nombre, duracion, precio) VALUES (?, ?, '60 minutos', ?)",
+                rango(SERVICIOS).stream().map(i -> new Object[]{i + 1, "Servicio " + i, 20.0 + (i % 100) * 0.5}).toList());
+        List<Object[]> filas = new ArrayList<>(CITAS);
+        for (int i = 0; i < CITAS; i++) {
+            int profesional = i % PROFESIONALES + 1;
+            LocalDateTime fechaHora = INICIO.plusHours(i / PROFESIONALES);
+            filas.add(new Object[]{i + 1, Timestamp.valueOf(fechaHora), estado(i).getCodigo(),
+                    primerUsuario + (i * 7) % PROFESIONALES, i % SERVICIOS + 1, profesional,
+                    estado(i) == EstadoCita.CANCELADA ? null : profesional + ":" + fechaHora});
+        }
+        jdbc.batchUpdate("INSERT INTO cita (id, fecha_hora, estado, usuario_id, servicio_id, profesional_id, slot_clave) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", filas);
+        jdbc.execute("ANALYZE");
+    }
+
+    /**
+     * Reparto de estados: un 5 % de pendientes, un 5 % de canceladas, un 5 % de expiradas,
+     * un 35 % de completadas y el resto confirmadas.
+     */
+    private static EstadoCita estado(int indice) {
+        int resto = indice % 20;
+        if (resto == 0) {
+            return EstadoCita.PENDIENTE;
+        }
+        if (resto == 1) {
+            return EstadoCita.CANCELADA;
+        }
+        if (resto == 2) {
+            return EstadoCita.EXPIRADA;
+        }
+        return resto < 10 ? EstadoCita.COMPLETADA : EstadoCita.CONFIRMADA;
+    }
+
+    private Map<String, Double> medir(Map<String, Supplier<List<?>>> consultas) {
+        Map<String, Double> tiempos = new LinkedHashMap<>();
+        consultas.forEach((nombre, consulta) -> tiempos.put(nombre, Medicion.microsegundosPorOperacion(100, 300, consulta)));
+        return tiempos;
+    }
+
+    private Map<String, List<?>> resultados(Map<String, Supplier<List<?>>> consultas) {
+        Map<String, List<?>> resultados = new LinkedHashMap<>();
+        consultas.forEach((nombre, consulta) -> resultados.put(nombre, consulta.get().stream()
+                .map(fila -> fila instanceof CitaDTO cita ? cita.getId() : fila).sorted().toList()));
+        return resultados;
+    }
+
+    private static List<Integer> rango(int tamano) {
+        return Stream.iterate(0, i -> i + 1).limit(tamano).toList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.andrey.sistema_citas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Utilidades de las pruebas de rendimiento. Esas pruebas llevan la etiqueta {@link #ETIQUETA},
+ * quedan fuera de {@code mvn test} y se ejecutan con {@code mvn test -Pbenchmark}; imprimen sus
+ * mediciones con el prefijo [benchmark] y solo comprueban cotas amplias, para no depender de la máquina.
+ */
+public final class Medicion {
+
+    public static final String ETIQUETA = "benchmark";
+
+    private Medicion() {
+    }
+
+    /**
+     * Tiempo medio por operación, en microsegundos, tras unas ejecuciones de calentamiento.
+     * El resultado de cada operación se acumula para que el JIT no la descarte.
+     */
+    public static double microsegundosPorOperacion(int calentamiento, int repeticiones, Supplier<?> operacion) {
+        int sumidero = 0;
+        for (int i = 0; i < calentamiento; i++) {
+            sumidero += System.identityHashCode(operacion.get());
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            sumidero += System.identityHashCode(operacion.get());
+        }
+        double micros = (System.nanoTime() - inicio) / 1_000.0 / repeticiones;
+        if (sumidero == 42) {
+            System.out.print("");
+        }
+        return micros;
+    }
+
+    /**
+     * Operaciones por segundo que completan varios hilos ejecutando la operación a la vez,
+     * cada uno el número de veces indicado. Los hilos arrancan juntos tras crearse.
+     */
+    public static double operacionesPorSegundo(int hilos, int porHilo, Supplier<?> operacion) {
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<Integer>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(ejecutor.submit(() -> {
+                    salida.await();
+                    int sumidero = 0;
+                    for (int i = 0; i < porHilo; i++) {
+                        sumidero += System.identityHashCode(operacion.get());
+                    }
+                    return sumidero;
+                }));
+            }
+            long inicio = System.nanoTime();
+            salida.countDown();
+            for (Future<Integer> tarea : tareas) {
+                tarea.get();
+            }
+            return (double) hilos * porHilo / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Medición interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("La operación medida falló", e.getCause());
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Duración de una ejecución, en milisegundos.
+     */
+    public static long milisegundos(Runnable operacion) {
+        long inicio = System.nanoTime();
+        operacion.run();
+        return (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    /**
+     * Imprime una medición con el nombre de la prueba que la tomó.
+     */
+    public static void informar(String prueba, String formato, Object... argumentos) {
+        System.out.printf(Locale.ROOT, "[benchmark] %s: %s%n", prueba, String.format(Locale.ROOT, formato, argumentos));
+    }
+}
@@ -0,0 +1,94 @@
+package com.andrey.sistema_citas;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.service.CitaService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de actualización de una base creada por la primera versión de la aplicación (ddl-auto=update):
+ * Flyway la registra como versión 1, aplica el resto de migraciones y Hibernate valida el esquema resultante.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MigracionesTest {
+
+    private static final String URL = "jdbc:h2:mem:sistema_citas_heredada;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Mayor ID de cita de la base heredada, asignado por AUTO_INCREMENT.
+     */
+    private static final int ULTIMO_ID_HEREDADO = 120;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CitaService citaService;
+
+    @DynamicPropertySource
+    static void baseHeredada(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection conexion = DriverManager.getConnection(URL, "sa", "");
+             Statement sentencia = conexion.createStatement()) {
+            ScriptUtils.executeSqlScript(conexion, new ClassPathResource("db/esquema-heredado.sql"));
+            sentencia.execute("INSERT INTO usuario (nombre, email, password, telefono, fecha_registro, rol) "
+                    + "VALUES ('Ana', 'ana@heredada.com', 'x', NULL, '2024-01-01 09:00:00', 'SUPERADMIN')");
+            sentencia.execute("INSERT INTO profesional (especialidad, horario_disponible, usuario_id) "
+                    + "VALUES ('Psicología', NULL, 1)");
+            sentencia.execute("INSERT INTO servicio (nombre, descripcion, duracion, precio) "
+                    + "VALUES ('Terapia individual', NULL, '60 minutos', 40.0)");
+            sentencia.execute("INSERT INTO cita (id, fecha_hora, estado, usuario_id, servicio_id, profesional_id) "
+                    + "VALUES (" + ULTIMO_ID_HEREDADO + ", '2024-02-05 10:00:00', 'CONFIRMADA', 1, 1, 1)");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void laBaseHeredadaSeRegistraComoVersionUnoYRecibeElRestoDeMigraciones() {
+        MigrationInfo[] aplicadas = flyway.info().applied();
+
+        assertThat(aplicadas[0].getVersion().getVersion()).isEqualTo("1");
+        assertThat(aplicadas[0].getType().isBaseline()).isTrue();
+        assertThat(Arrays.stream(aplicadas).skip(1).map(migracion -> migracion.getVersion().getVersion()))
+                .startsWith("1.1", "1.2", "2");
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.validateWithResult().validationSuccessful).isTrue();
+    }
+
+    @Test
+    void lasCitasHeredadasConservanSuEstadoYLaSecuenciaQuedaPorEncimaDeSusIds() {
+        assertThat(jdbcTemplate.queryForObject("SELECT estado FROM cita WHERE id = ?", Integer.class, ULTIMO_ID_HEREDADO))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT next_val FROM cita_seq", Long.class))
+                .isGreaterThan(ULTIMO_ID_HEREDADO);
+
+        CitaDTO nueva = citaService.crear(new CitaDTO(null, LocalDateTime.of(2031, 3, 3, 12, 0), "PENDIENTE",
+                1, null, 1, null, 1, null, null));
+
+        assertThat(nueva.getId()).isGreaterThan(ULTIMO_ID_HEREDADO);
+        assertThat(jdbcTemplate.queryForObject("SELECT slot_clave FROM cita WHERE id = ?", String.class, nueva.getId()))
+                .isEqualTo("1:2031-03-03T12:00");
+    }
+}
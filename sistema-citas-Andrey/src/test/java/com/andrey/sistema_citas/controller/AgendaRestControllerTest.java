@@ -0,0 +1,158 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.service.CitaService;
+import com.andrey.sistema_citas.service.ProfesionalService;
+import com.andrey.sistema_citas.service.ServicioService;
+import com.andrey.sistema_citas.service.UsuarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas del ETag de las ventanas de agenda: solo una consulta sobre la misma ventana
+ * y con la agenda sin cambios recibe 304 Not Modified. El cambio de nombre de un usuario
+ * solo invalida las agendas en que aparece.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "SUPERADMIN")
+class AgendaRestControllerTest {
+
+    private static final LocalDateTime LUNES = LocalDateTime.of(2031, 9, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer clienteId;
+    private Integer profesionalId;
+
+    @BeforeEach
+    void crearAgenda() {
+        clienteId = crearUsuario("Cliente");
+        Integer servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(
+                new ProfesionalDTO(null, "Psicología", null, crearUsuario("Profesional"), null, null)).getId();
+        citaService.crear(new CitaDTO(null, LUNES.plusDays(8).withHour(10), "PENDIENTE", clienteId, null,
+                servicioId, null, profesionalId, null, null));
+    }
+
+    @Test
+    void laMismaVentanaSinCambiosRecibeNotModified() throws Exception {
+        String etag = etag(LUNES, LUNES.plusDays(7));
+
+        mockMvc.perform(ventana(LUNES, LUNES.plusDays(7)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void otraVentanaNoReutilizaElEtagDeLaAnterior() throws Exception {
+        String etag = etag(LUNES, LUNES.plusDays(7));
+
+        mockMvc.perform(ventana(LUNES.plusDays(7), LUNES.plusDays(14)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void laVentanaPorDefectoLlevaSusLimitesEnElEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/agenda/{id}", profesionalId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        LocalDateTime hoy = LocalDate.now().atStartOfDay();
+        assertThat(etag).contains(hoy + "/" + hoy.plusDays(7));
+        assertThat(etag).isEqualTo(etag(hoy, hoy.plusDays(7)));
+    }
+
+    @Test
+    void soloElCambioDeNombreInvalidaLasAgendasEnQueApareceElUsuario() throws Exception {
+        Integer otroProfesionalId = profesionalService.crear(
+                new ProfesionalDTO(null, "Psiquiatría", null, crearUsuario("Otro profesional"), null, null)).getId();
+        String etag = etag(profesionalId, LUNES, LUNES.plusDays(14));
+        String otroEtag = etag(otroProfesionalId, LUNES, LUNES.plusDays(14));
+
+        // Un cambio que no toca el nombre no altera ninguna agenda
+        UsuarioDTO cliente = usuarioService.obtenerPorId(clienteId);
+        cliente.setTelefono("600000000");
+        usuarioService.actualizar(clienteId, cliente);
+        mockMvc.perform(ventana(profesionalId, LUNES, LUNES.plusDays(14)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // El nuevo nombre del cliente aparece en la agenda del profesional con el que tiene la cita
+        cliente = usuarioService.obtenerPorId(clienteId);
+        cliente.setNombre("Cliente renombrado");
+        usuarioService.actualizar(clienteId, cliente);
+        mockMvc.perform(ventana(profesionalId, LUNES, LUNES.plusDays(14)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].usuarioNombre").value("Cliente renombrado"));
+        mockMvc.perform(ventana(otroProfesionalId, LUNES, LUNES.plusDays(14)).header(HttpHeaders.IF_NONE_MATCH, otroEtag))
+                .andExpect(status().isNotModified());
+
+        // El nombre del usuario de un profesional aparece en su propia agenda
+        Integer usuarioProfesionalId = profesionalService.obtenerPorId(otroProfesionalId).getUsuarioId();
+        UsuarioDTO usuarioProfesional = usuarioService.obtenerPorId(usuarioProfesionalId);
+        usuarioProfesional.setNombre("Profesional renombrado");
+        usuarioService.actualizar(usuarioProfesionalId, usuarioProfesional);
+        mockMvc.perform(ventana(otroProfesionalId, LUNES, LUNES.plusDays(14)).header(HttpHeaders.IF_NONE_MATCH, otroEtag))
+                .andExpect(status().isOk());
+    }
+
+    private String etag(LocalDateTime desde, LocalDateTime hasta) throws Exception {
+        return etag(profesionalId, desde, hasta);
+    }
+
+    private String etag(Integer profesional, LocalDateTime desde, LocalDateTime hasta) throws Exception {
+        return mockMvc.perform(ventana(profesional, desde, hasta))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private MockHttpServletRequestBuilder ventana(LocalDateTime desde, LocalDateTime hasta) {
+        return ventana(profesionalId, desde, hasta);
+    }
+
+    private MockHttpServletRequestBuilder ventana(Integer profesional, LocalDateTime desde, LocalDateTime hasta) {
+        return get("/api/agenda/{id}", profesional)
+                .param("desde", desde.toString())
+                .param("hasta", hasta.toString());
+    }
+
+    private Integer crearUsuario(String nombre) {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                nombre, "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,211 @@
+package com.andrey.sistema_citas.controller;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.service.CitaService;
+import com.andrey.sistema_citas.service.ProfesionalService;
+import com.andrey.sistema_citas.service.ServicioService;
+import com.andrey.sistema_citas.service.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de la API de citas: el lote informa por posición de las filas creadas y rechazadas,
+ * y PUT y PATCH aplican el bloqueo optimista: un If-Match desactualizado recibe 412, una versión
+ * desactualizada en el cuerpo recibe 409, y el ETag de cada respuesta sirve para la siguiente escritura.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "SUPERADMIN")
+class CitaRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer usuarioId;
+    private Integer servicioId;
+    private Integer profesionalId;
+    private LocalDateTime lunes;
+
+    @BeforeEach
+    void crearDatos() {
+        usuarioId = crearUsuario();
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId();
+        lunes = LocalDateTime.of(2035, 1, 1, 8, 0).plusWeeks(UUID.randomUUID().hashCode() & 0x3FF);
+    }
+
+    @Test
+    void elLoteDevuelveLasFilasCreadasYRechazadas() throws Exception {
+        List<CitaDTO> lote = List.of(
+                cita(lunes.withHour(9), profesionalId),
+                cita(lunes.withHour(9).plusMinutes(30), profesionalId),
+                cita(lunes.withHour(11), Integer.MAX_VALUE),
+                cita(lunes.withHour(11), profesionalId));
+
+        mockMvc.perform(post("/api/citas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recibidas").value(4))
+                .andExpect(jsonPath("$.creadas[*].indice").value(contains(0, 3)))
+                .andExpect(jsonPath("$.rechazadas[*].indice").value(contains(1, 2)))
+                .andExpect(jsonPath("$.rechazadas[1].error").value("Profesional no encontrado con ID: " + Integer.MAX_VALUE));
+
+        assertThat(citaService.obtenerPorProfesional(profesionalId)).extracting(CitaDTO::getFechaHora)
+                .containsExactly(lunes.withHour(9), lunes.withHour(11));
+    }
+
+    @Test
+    void elEtagDeCadaRespuestaSirveParaLaSiguienteEscritura() throws Exception {
+        Integer id = citaService.crear(cita(lunes.withHour(9), profesionalId)).getId();
+        String etag = etag(id);
+
+        CitaDTO cambios = citaService.obtenerPorId(id);
+        cambios.setFechaHora(lunes.withHour(10));
+        cambios.setVersion(null);
+        String etagPut = mockMvc.perform(put("/api/citas/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cambios)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fechaHora").value(startsWith(lunes.withHour(10).toString())))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etagPut).isNotEqualTo(etag).isEqualTo(etag(id));
+
+        // Se admiten ETags débiles con la misma versión
+        String etagPatch = mockMvc.perform(modificarEstado(id, "CONFIRMADA").header(HttpHeaders.IF_MATCH, "W/" + etagPut))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("CONFIRMADA"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etagPatch).isNotEqualTo(etagPut).isEqualTo(etag(id));
+        mockMvc.perform(get("/api/citas/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, etagPatch))
+                .andExpect(jsonPath("$.version").value(Long.parseLong(etagPatch.replace("\"", ""))));
+    }
+
+    @Test
+    void unIfMatchDesactualizadoRecibePreconditionFailed() throws Exception {
+        Integer id = citaService.crear(cita(lunes.withHour(9), profesionalId)).getId();
+        String desactualizado = etag(id);
+        mockMvc.perform(modificarEstado(id, "CONFIRMADA").header(HttpHeaders.IF_MATCH, desactualizado))
+                .andExpect(status().isOk());
+        String actual = etag(id);
+
+        CitaDTO cambios = citaService.obtenerPorId(id);
+        cambios.setVersion(null);
+        cambios.setEstado("COMPLETADA");
+        mockMvc.perform(put("/api/citas/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, desactualizado)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cambios)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value(startsWith("If-Match indica la versión")));
+        mockMvc.perform(modificarEstado(id, "COMPLETADA").header(HttpHeaders.IF_MATCH, desactualizado))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(modificarEstado(id, "COMPLETADA").header(HttpHeaders.IF_MATCH, "\"abc\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value(startsWith("La cabecera If-Match no corresponde")));
+
+        // Ninguna escritura rechazada cambió la cita
+        assertThat(etag(id)).isEqualTo(actual);
+        assertThat(citaService.obtenerPorId(id).getEstado()).isEqualTo("CONFIRMADA");
+    }
+
+    @Test
+    void unaVersionDesactualizadaEnElCuerpoRecibeConflict() throws Exception {
+        Integer id = citaService.crear(cita(lunes.withHour(9), profesionalId)).getId();
+        Long desactualizada = citaService.obtenerPorId(id).getVersion();
+        mockMvc.perform(modificarEstado(id, "CONFIRMADA")).andExpect(status().isOk());
+
+        CitaDTO cambios = citaService.obtenerPorId(id);
+        Long actual = cambios.getVersion();
+        cambios.setEstado("COMPLETADA");
+        cambios.setVersion(desactualizada);
+        mockMvc.perform(put("/api/citas/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cambios)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(startsWith("Conflicto de versión en la cita " + id)));
+        mockMvc.perform(patch("/api/citas/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("estado", "COMPLETADA", "version", desactualizada))))
+                .andExpect(status().isConflict());
+        assertThat(citaService.obtenerPorId(id).getVersion()).isEqualTo(actual);
+
+        // If-Match "*" acepta cualquier versión, pero la del cuerpo se sigue comprobando
+        cambios.setVersion(actual);
+        mockMvc.perform(put("/api/citas/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cambios)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("COMPLETADA"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (actual + 1) + "\""));
+    }
+
+    private String etag(Integer citaId) throws Exception {
+        return mockMvc.perform(get("/api/citas/{id}", citaId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private MockHttpServletRequestBuilder modificarEstado(Integer citaId, String estado) throws Exception {
+        return patch("/api/citas/{id}", citaId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("estado", estado)));
+    }
+
+    private CitaDTO cita(LocalDateTime fechaHora, Integer profesional) {
+        return new CitaDTO(null, fechaHora, "PENDIENTE", usuarioId, null, servicioId, null, profesional, null, null);
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,244 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.config.CacheSegundoNivelConfig;
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.entity.Servicio;
+import com.andrey.sistema_citas.entity.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de las proyecciones de citas a CitaDTO: cada consulta se resuelve con una única sentencia,
+ * sin cargar entidades ni consultar por fila las relaciones, sea cual sea el número de citas.
+ * También cubren las consultas de IDs de la paginación, los filtros de la exportación y los grafos
+ * de entidades, que traen las relaciones perezosas en la misma sentencia que la cita.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(CacheSegundoNivelConfig.class)
+class CitaRepositoryTest {
+
+    private static final int CITAS = 40;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2031, 6, 2, 8, 0);
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Usuario cliente;
+    private Profesional profesional;
+    private final List<Integer> ids = new ArrayList<>();
+
+    @BeforeEach
+    void crearCitas() {
+        List<Usuario> clientes = List.of(usuario("Ana"), usuario("Luis"), usuario("Marta"));
+        List<Profesional> profesionales = List.of(
+                entityManager.persist(new Profesional("Psicología", null, usuario("Dra. Ríos"))),
+                entityManager.persist(new Profesional("Psiquiatría", null, usuario("Dr. Soto"))));
+        List<Servicio> servicios = List.of(
+                entityManager.persist(new Servicio("Terapia individual", null, "60 minutos", 40.0)),
+                entityManager.persist(new Servicio("Evaluación", null, "90 minutos", 60.0)));
+        cliente = clientes.get(0);
+        profesional = profesionales.get(0);
+
+        // Usuarios, servicios y profesionales distintos por cita, para que una carga por fila se note
+        for (int i = 0; i < CITAS; i++) {
+            Cita cita = new Cita(INICIO.plusHours(i), EstadoCita.values()[i % 2], clientes.get(i % clientes.size()),
+                    servicios.get(i % servicios.size()), profesionales.get(i % profesionales.size()));
+            ids.add(entityManager.persist(cita).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void cadaProyeccionEsUnaSolaSentencia() {
+        Map<String, Supplier<List<CitaDTO>>> consultas = new LinkedHashMap<>();
+        consultas.put("findDTOTodas", citaRepository::findDTOTodas);
+        consultas.put("findDTOPorIds", () -> citaRepository.findDTOPorIds(ids));
+        consultas.put("findDTOPorUsuario", () -> citaRepository.findDTOPorUsuario(cliente.getId()));
+        consultas.put("findDTOPorProfesional", () -> citaRepository.findDTOPorProfesional(profesional.getId()));
+        consultas.put("findDTOPorProfesionalEntre", () -> citaRepository.findDTOPorProfesionalEntre(
+                profesional.getId(), INICIO, INICIO.plusDays(2)));
+        consultas.put("findDTOPorEstado", () -> citaRepository.findDTOPorEstado(EstadoCita.CONFIRMADA));
+        consultas.put("streamParaExportacion", () -> {
+            try (Stream<CitaDTO> citas = citaRepository.streamParaExportacion(null, null, null, null, null)) {
+                return citas.toList();
+            }
+        });
+
+        consultas.forEach((nombre, consulta) -> {
+            Statistics estadisticas = estadisticas();
+            List<CitaDTO> citas = consulta.get();
+
+            assertThat(citas).as(nombre).isNotEmpty();
+            assertThat(citas).as(nombre).allSatisfy(cita -> {
+                assertThat(cita.getUsuarioNombre()).isNotNull();
+                assertThat(cita.getServicioNombre()).isNotNull();
+                assertThat(cita.getProfesionalNombre()).isNotNull();
+            });
+            assertThat(estadisticas.getPrepareStatementCount()).as(nombre + ": sentencias").isEqualTo(1);
+            assertThat(estadisticas.getEntityLoadCount()).as(nombre + ": entidades cargadas").isZero();
+        });
+    }
+
+    @Test
+    void lasPaginasLeenSoloLosIdsDeLaTablaDeCitasEnOrden() {
+        Map<String, Supplier<List<Integer>>> consultas = new LinkedHashMap<>();
+        // La base es compartida: sin filtro, el límite deja fuera las citas de otras pruebas posteriores a estas
+        consultas.put("findIdsPaginaDespuesDe",
+                () -> citaRepository.findIdsPaginaDespuesDe(INICIO.plusHours(5), ids.get(5), Limit.of(CITAS - 6)));
+        consultas.put("findIdsPrimeraPaginaPorUsuario",
+                () -> citaRepository.findIdsPrimeraPaginaPorUsuario(cliente.getId(), Limit.of(CITAS)));
+        consultas.put("findIdsPaginaPorProfesionalDespuesDe", () -> citaRepository.findIdsPaginaPorProfesionalDespuesDe(
+                profesional.getId(), INICIO, ids.get(0), Limit.of(CITAS)));
+        consultas.put("findIdsPrimeraPaginaPorEstado",
+                () -> citaRepository.findIdsPrimeraPaginaPorEstado(EstadoCita.PENDIENTE, Limit.of(CITAS)));
+
+        Map<String, List<Integer>> esperados = new LinkedHashMap<>();
+        esperados.put("findIdsPaginaDespuesDe", ids.subList(6, CITAS));
+        esperados.put("findIdsPrimeraPaginaPorUsuario", cadaUno(3, 0));
+        esperados.put("findIdsPaginaPorProfesionalDespuesDe", cadaUno(2, 0).subList(1, CITAS / 2));
+        esperados.put("findIdsPrimeraPaginaPorEstado", cadaUno(2, 0));
+
+        consultas.forEach((nombre, consulta) -> {
+            Statistics estadisticas = estadisticas();
+
+            // Las citas se crean en orden de fecha y hora, por lo que el de sus IDs coincide
+            assertThat(consulta.get()).as(nombre).containsExactlyElementsOf(esperados.get(nombre));
+            assertThat(estadisticas.getPrepareStatementCount()).as(nombre + ": sentencias").isEqualTo(1);
+            assertThat(estadisticas.getEntityLoadCount()).as(nombre + ": entidades cargadas").isZero();
+        });
+    }
+
+    @Test
+    void laExportacionAplicaSoloLosFiltrosPresentes() {
+        LocalDateTime inicio = INICIO.plusHours(6);
+        LocalDateTime fin = INICIO.plusHours(29);
+
+        assertThat(exportar(cliente.getId(), null, null, null, null)).containsExactlyElementsOf(cadaUno(3, 0));
+        assertThat(exportar(null, profesional.getId(), EstadoCita.PENDIENTE, null, null))
+                .containsExactlyElementsOf(cadaUno(2, 0));
+        assertThat(exportar(null, profesional.getId(), EstadoCita.CONFIRMADA, null, null)).isEmpty();
+        List<Integer> delRango = ids.subList(6, 30);
+        assertThat(exportar(cliente.getId(), null, null, inicio, fin))
+                .containsExactlyElementsOf(cadaUno(3, 0).stream().filter(delRango::contains).toList());
+        // La base es compartida: sin filtro por usuario o profesional, el rango deja fuera las citas de otras pruebas
+        assertThat(exportar(null, null, EstadoCita.CONFIRMADA, inicio, fin))
+                .containsExactlyElementsOf(cadaUno(2, 1).stream().filter(delRango::contains).toList());
+    }
+
+    @Test
+    void laProyeccionPorIdEsUnaSolaSentencia() {
+        Statistics estadisticas = estadisticas();
+
+        CitaDTO cita = citaRepository.findDTOPorId(ids.get(3)).orElseThrow();
+
+        assertThat(cita.getProfesionalNombre()).isEqualTo("Dr. Soto");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void losGrafosTraenLasRelacionesEnLaMismaSentencia() {
+        Statistics estadisticas = estadisticas();
+        Cita detalle = citaRepository.findDetalleById(ids.get(3)).orElseThrow();
+
+        assertThat(List.of(detalle.getUsuario(), detalle.getServicio(), detalle.getProfesional(),
+                detalle.getProfesional().getUsuario())).allMatch(Hibernate::isInitialized);
+        assertThat(detalle.getProfesional().getUsuario().getNombre()).isEqualTo("Dr. Soto");
+        assertThat(estadisticas.getPrepareStatementCount()).as("findDetalleById: sentencias").isEqualTo(1);
+
+        vaciarContexto();
+        estadisticas = estadisticas();
+        List<Cita> agenda = citaRepository.findByProfesionalId(profesional.getId());
+
+        assertThat(agenda).hasSize(CITAS / 2);
+        assertThat(agenda).allSatisfy(cita -> assertThat(cita.getServicio().getDuracion()).isNotNull());
+        assertThat(estadisticas.getPrepareStatementCount()).as("findByProfesionalId: sentencias").isEqualTo(1);
+
+        vaciarContexto();
+        estadisticas = estadisticas();
+        Cita conServicio = citaRepository.findConServicioById(ids.get(4)).orElseThrow();
+
+        assertThat(conServicio.getServicio().getDuracion()).isEqualTo("60 minutos");
+        assertThat(estadisticas.getPrepareStatementCount()).as("findConServicioById: sentencias").isEqualTo(1);
+    }
+
+    @Test
+    void sinGrafoLasRelacionesSeLeenEnLoteAlUsarlas() {
+        Statistics estadisticas = estadisticas();
+        List<Cita> citas = citaRepository.findByUsuarioId(cliente.getId());
+
+        assertThat(citas).allSatisfy(cita -> assertThat(Hibernate.isInitialized(cita.getServicio())).isFalse());
+        citas.forEach(cita -> cita.getServicio().getNombre());
+        // Una sentencia por las citas y, gracias a @BatchSize, una sola por sus dos servicios distintos
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(estadisticas.getEntityStatistics(Servicio.class.getName()).getLoadCount()).isEqualTo(2);
+    }
+
+    private void vaciarContexto() {
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private List<Integer> exportar(Integer usuarioId, Integer profesionalId, EstadoCita estado,
+                                   LocalDateTime inicio, LocalDateTime fin) {
+        try (Stream<CitaDTO> citas = citaRepository.streamParaExportacion(usuarioId, profesionalId, estado, inicio, fin)) {
+            return citas.map(CitaDTO::getId).toList();
+        }
+    }
+
+    /**
+     * IDs de las citas cuya posición tiene el resto indicado al dividirla por el paso.
+     */
+    private List<Integer> cadaUno(int paso, int resto) {
+        List<Integer> seleccionados = new ArrayList<>();
+        for (int i = resto; i < CITAS; i += paso) {
+            seleccionados.add(ids.get(i));
+        }
+        return seleccionados;
+    }
+
+    private Statistics estadisticas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        return estadisticas;
+    }
+
+    private Usuario usuario(String nombre) {
+        return entityManager.persist(new Usuario(nombre, UUID.randomUUID() + "@prueba.com", "x", null));
+    }
+}
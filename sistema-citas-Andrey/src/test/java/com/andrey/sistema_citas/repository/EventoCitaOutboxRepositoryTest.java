@@ -0,0 +1,100 @@
+package com.andrey.sistema_citas.repository;
+
+import com.andrey.sistema_citas.config.CacheSegundoNivelConfig;
+import com.andrey.sistema_citas.entity.EventoCitaOutbox;
+import com.andrey.sistema_citas.entity.TipoEventoCita;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de la selección de eventos del outbox: se despachan en orden de ID y un evento
+ * pospuesto retiene los posteriores de su misma cita, sin detener los de las demás.
+ * Los eventos se crean en el pasado para no mezclarse con los que escriben otras pruebas.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(CacheSegundoNivelConfig.class)
+class EventoCitaOutboxRepositoryTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2001, 1, 1, 12, 0);
+
+    @Autowired
+    private EventoCitaOutboxRepository outboxRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void losEventosDisponiblesSeObtienenEnOrdenDeId() {
+        EventoCitaOutbox primero = evento(1, AHORA.minusMinutes(1));
+        EventoCitaOutbox segundo = evento(2, AHORA.minusMinutes(30));
+        EventoCitaOutbox tercero = evento(1, AHORA.minusMinutes(5));
+        evento(3, AHORA.plusMinutes(1));
+
+        assertThat(disponibles(10)).containsExactly(primero.getId(), segundo.getId(), tercero.getId());
+        assertThat(disponibles(2)).containsExactly(primero.getId(), segundo.getId());
+    }
+
+    @Test
+    void unEventoPospuestoRetieneLosPosterioresDeSuCita() {
+        EventoCitaOutbox pospuesto = evento(1, AHORA.minusMinutes(10));
+        pospuesto.setIntentos(1);
+        pospuesto.setDisponibleEn(AHORA.plusMinutes(5));
+        EventoCitaOutbox otraCita = evento(2, AHORA.minusMinutes(9));
+        evento(1, AHORA.minusMinutes(8));
+        EventoCitaOutbox posteriorDeOtraCita = evento(2, AHORA.minusMinutes(7));
+        entityManager.flush();
+
+        assertThat(disponibles(10)).containsExactly(otraCita.getId(), posteriorDeOtraCita.getId());
+
+        // Cuando el pospuesto vuelve a estar disponible, sale primero y le siguen los de su cita
+        List<Long> despues = ids(outboxRepository.findDisponibles(AHORA.plusMinutes(5), Limit.of(10)));
+        assertThat(despues).startsWith(pospuesto.getId()).hasSize(4).isSorted();
+    }
+
+    @Test
+    void unEventoFallidoNoRetieneLosPosterioresDeSuCita() {
+        EventoCitaOutbox fallido = evento(1, AHORA.plusHours(1));
+        fallido.setFallido(true);
+        EventoCitaOutbox posterior = evento(1, AHORA.minusMinutes(1));
+        entityManager.flush();
+
+        assertThat(disponibles(10)).containsExactly(posterior.getId());
+    }
+
+    @Test
+    void unaTransicionPorLotesPospuestaNoRetieneLasDemas() {
+        evento(null, AHORA.plusMinutes(5));
+        EventoCitaOutbox lote = evento(null, AHORA.minusMinutes(1));
+        EventoCitaOutbox cita = evento(1, AHORA.minusMinutes(1));
+
+        assertThat(disponibles(10)).containsExactly(lote.getId(), cita.getId());
+    }
+
+    private List<Long> disponibles(int limite) {
+        return ids(outboxRepository.findDisponibles(AHORA, Limit.of(limite)));
+    }
+
+    private static List<Long> ids(List<EventoCitaOutbox> eventos) {
+        return eventos.stream().map(EventoCitaOutbox::getId).toList();
+    }
+
+    private EventoCitaOutbox evento(Integer citaId, LocalDateTime disponibleEn) {
+        TipoEventoCita tipo = citaId == null ? TipoEventoCita.TRANSICION_LOTE : TipoEventoCita.ACTUALIZADA;
+        EventoCitaOutbox evento = new EventoCitaOutbox(citaId, tipo, "{}", AHORA.minusHours(1));
+        evento.setDisponibleEn(disponibleEn);
+        return entityManager.persistAndFlush(evento);
+    }
+}
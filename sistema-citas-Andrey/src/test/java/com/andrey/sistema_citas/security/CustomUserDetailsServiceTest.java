@@ -0,0 +1,141 @@
+package com.andrey.sistema_citas.security;
+
+import com.andrey.sistema_citas.entity.Usuario;
+import com.andrey.sistema_citas.event.UsuarioCambioEvent;
+import com.andrey.sistema_citas.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de la caché de credenciales: las variantes de un mismo email comparten una entrada,
+ * los emails inexistentes no se guardan, y el aviso de cualquier cambio del usuario (contraseña,
+ * rol o email) descarta sus credenciales para que la siguiente autenticación lea las nuevas.
+ */
+class CustomUserDetailsServiceTest {
+
+    private static final String EMAIL = "ana.perez@prueba.com";
+
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private final CustomUserDetailsService servicio =
+            new CustomUserDetailsService(usuarioRepository, 100, Duration.ofMinutes(5));
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void crearUsuario() {
+        usuario = new Usuario("Ana Pérez", EMAIL, "{noop}secreto", null);
+        usuario.setId(7);
+        usuario.setRol("CLIENTE");
+        when(usuarioRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(usuarioRepository.findByEmail(EMAIL)).thenAnswer(invocacion -> Optional.of(copia(usuario)));
+    }
+
+    @Test
+    void lasVariantesDeUnEmailCompartenLaMismaEntrada() {
+        servicio.loadUserByUsername(EMAIL);
+        UserDetails detalles = servicio.loadUserByUsername("  Ana.Perez@PRUEBA.com ");
+
+        assertThat(detalles.getUsername()).isEqualTo(EMAIL);
+        verify(usuarioRepository, times(1)).findByEmail(EMAIL);
+        assertThat(servicio.estadisticas().getAciertos()).isEqualTo(1);
+        assertThat(servicio.estadisticas().getEntradas()).isEqualTo(1);
+    }
+
+    @Test
+    void cadaLlamadaDevuelveUnaCopiaQueSePuedeBorrar() {
+        UserDetails primero = servicio.loadUserByUsername(EMAIL);
+        ((User) primero).eraseCredentials();
+
+        assertThat(servicio.loadUserByUsername(EMAIL).getPassword()).isEqualTo("{noop}secreto");
+    }
+
+    @Test
+    void losEmailsInexistentesNoSeGuardan() {
+        assertThatThrownBy(() -> servicio.loadUserByUsername("nadie@prueba.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> servicio.loadUserByUsername("nadie@prueba.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        verify(usuarioRepository, times(2)).findByEmail("nadie@prueba.com");
+        assertThat(servicio.estadisticas().getEntradas()).isZero();
+    }
+
+    @Test
+    void unCambioDeContrasenaDescartaLasCredencialesAlAvisarse() {
+        servicio.loadUserByUsername(EMAIL);
+        usuario.setPassword("{noop}nueva");
+
+        // Hasta el aviso se siguen usando las credenciales guardadas
+        assertThat(servicio.loadUserByUsername(EMAIL).getPassword()).isEqualTo("{noop}secreto");
+        servicio.alCambiarUsuario(UsuarioCambioEvent.guardado(7, usuario.getNombre(), EMAIL));
+
+        assertThat(servicio.loadUserByUsername(EMAIL).getPassword()).isEqualTo("{noop}nueva");
+        verify(usuarioRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void unCambioDeRolDescartaLasCredencialesAlAvisarse() {
+        assertThat(servicio.loadUserByUsername(EMAIL).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_CLIENTE");
+        usuario.setRol("SUPERADMIN");
+
+        servicio.alCambiarUsuario(UsuarioCambioEvent.guardado(7, usuario.getNombre(), EMAIL));
+
+        assertThat(servicio.loadUserByUsername(EMAIL).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_SUPERADMIN");
+    }
+
+    @Test
+    void unCambioDeEmailOUnaBajaDescartanLaEntradaDelEmailAnterior() {
+        servicio.loadUserByUsername(EMAIL);
+        String nuevoEmail = "ana@prueba.com";
+        usuario.setEmail(nuevoEmail);
+        when(usuarioRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(usuarioRepository.findByEmail(nuevoEmail)).thenAnswer(invocacion -> Optional.of(copia(usuario)));
+
+        // El aviso trae el email nuevo: la entrada anterior se encuentra por el ID del usuario
+        servicio.alCambiarUsuario(UsuarioCambioEvent.guardado(7, usuario.getNombre(), nuevoEmail));
+        assertThatThrownBy(() -> servicio.loadUserByUsername(EMAIL)).isInstanceOf(UsernameNotFoundException.class);
+        assertThat(servicio.loadUserByUsername(nuevoEmail).getUsername()).isEqualTo(nuevoEmail);
+
+        when(usuarioRepository.findByEmail(nuevoEmail)).thenReturn(Optional.empty());
+        servicio.alCambiarUsuario(UsuarioCambioEvent.eliminado(7));
+        assertThatThrownBy(() -> servicio.loadUserByUsername(nuevoEmail)).isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void elAvisoDeOtroUsuarioConservaLasCredenciales() {
+        servicio.loadUserByUsername(EMAIL);
+
+        servicio.alCambiarUsuario(UsuarioCambioEvent.guardado(8, "Otro", "otro@prueba.com"));
+        servicio.loadUserByUsername(EMAIL);
+
+        verify(usuarioRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    /**
+     * Copia del usuario tal como la devolvería una consulta, para que los cambios posteriores
+     * del objeto de la prueba no alcancen a lo ya cargado.
+     */
+    private static Usuario copia(Usuario origen) {
+        Usuario copia = new Usuario(origen.getNombre(), origen.getEmail(), origen.getPassword(), origen.getTelefono());
+        copia.setId(origen.getId());
+        copia.setRol(origen.getRol());
+        return copia;
+    }
+}
@@ -0,0 +1,114 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.exception.ConflictoHorarioException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas de los bloqueos de reservas: las claves cubren cada día que toca el intervalo
+ * y el bloqueo se mantiene hasta que termina la transacción.
+ */
+class BloqueoReservasTest {
+
+    private static final LocalDate DIA = LocalDate.of(2031, 3, 3);
+
+    private final BloqueoReservas bloqueoReservas = new BloqueoReservas(16, 50);
+
+    @AfterEach
+    void limpiarSincronizacion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void unIntervaloDentroDeUnDiaTieneUnaSolaClave() {
+        assertThat(BloqueoReservas.ClaveAgenda.delIntervalo(7, DIA.atTime(10, 0), DIA.atTime(11, 0)))
+                .containsExactly(new BloqueoReservas.ClaveAgenda(7, DIA));
+    }
+
+    @Test
+    void unIntervaloQueCruzaLaMedianocheBloqueaAmbosDias() {
+        assertThat(BloqueoReservas.ClaveAgenda.delIntervalo(7, DIA.atTime(23, 30), DIA.plusDays(1).atTime(0, 30)))
+                .containsExactly(new BloqueoReservas.ClaveAgenda(7, DIA), new BloqueoReservas.ClaveAgenda(7, DIA.plusDays(1)));
+    }
+
+    @Test
+    void unIntervaloQueTerminaAMedianocheNoBloqueaElDiaSiguiente() {
+        assertThat(BloqueoReservas.ClaveAgenda.delIntervalo(7, DIA.atTime(23, 0), DIA.plusDays(1).atStartOfDay()))
+                .containsExactly(new BloqueoReservas.ClaveAgenda(7, DIA));
+    }
+
+    @Test
+    void unIntervaloDeVariosDiasBloqueaTodosLosIntermedios() {
+        LocalDateTime inicio = DIA.atTime(22, 0);
+        assertThat(BloqueoReservas.ClaveAgenda.delIntervalo(7, inicio, inicio.plusHours(51)))
+                .extracting(BloqueoReservas.ClaveAgenda::getDia)
+                .containsExactly(DIA, DIA.plusDays(1), DIA.plusDays(2), DIA.plusDays(3));
+    }
+
+    @Test
+    void bloquearSinTransaccionEsUnError() {
+        assertThatThrownBy(() -> bloqueoReservas.bloquearHastaFinDeTransaccion(new BloqueoReservas.ClaveAgenda(7, DIA)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void elBloqueoSeMantieneHastaQueTerminaLaTransaccion() {
+        BloqueoReservas.ClaveAgenda clave = new BloqueoReservas.ClaveAgenda(7, DIA);
+        TransactionSynchronizationManager.initSynchronization();
+        bloqueoReservas.bloquearHastaFinDeTransaccion(clave);
+
+        assertThatThrownBy(() -> bloquearEnOtraTransaccion(clave).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ConflictoHorarioException.class);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sincronizacion -> sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        bloquearEnOtraTransaccion(clave).join();
+    }
+
+    @Test
+    void lasClavesSinConflictoNoSeEsperanEntreSi() {
+        TransactionSynchronizationManager.initSynchronization();
+        bloqueoReservas.bloquearHastaFinDeTransaccion(new BloqueoReservas.ClaveAgenda(7, DIA));
+
+        // Con 16 franjas, la mayoría de las claves de otros profesionales caen en una franja libre
+        int libres = 0;
+        for (int profesionalId = 8; profesionalId < 40; profesionalId++) {
+            BloqueoReservas.ClaveAgenda otra = new BloqueoReservas.ClaveAgenda(profesionalId, DIA);
+            if (bloquearEnOtraTransaccion(otra).handle((ok, error) -> error == null).join()) {
+                libres++;
+            }
+        }
+        assertThat(libres).isGreaterThan(16);
+    }
+
+    /**
+     * Intenta adquirir la clave desde otro hilo, con su propia transacción simulada, y la libera al terminar.
+     */
+    private CompletableFuture<Void> bloquearEnOtraTransaccion(BloqueoReservas.ClaveAgenda clave) {
+        return CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                bloqueoReservas.bloquearHastaFinDeTransaccion(clave);
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sincronizacion -> sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+    }
+}
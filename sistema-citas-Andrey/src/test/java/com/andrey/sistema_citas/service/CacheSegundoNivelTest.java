@@ -0,0 +1,111 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de la caché de segundo nivel en las reservas: con el usuario, el servicio y el profesional
+ * en la caché, crear una cita no los vuelve a leer de la base de datos, y una modificación del usuario
+ * se ve en la siguiente reserva. Cada reserva se repite varias veces y se toma la que menos sentencias
+ * prepara, porque las tareas programadas del contexto también cuentan en las estadísticas.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class CacheSegundoNivelTest {
+
+    private static final int RESERVAS = 5;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer clienteId;
+    private Integer servicioId;
+    private Integer profesionalId;
+    private LocalDateTime siguienteHueco;
+
+    @BeforeEach
+    void crearDatos() {
+        clienteId = crearUsuario();
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId();
+        siguienteHueco = LocalDateTime.of(2032, 3, 1, 8, 0).plusDays(UUID.randomUUID().hashCode() & 0xFFF);
+        reservar();
+    }
+
+    @Test
+    void conLaCacheUnaReservaPreparaMenosSentencias() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long conCache = Long.MAX_VALUE;
+        long aciertos = 0;
+        for (int i = 0; i < RESERVAS; i++) {
+            estadisticas.clear();
+            reservar();
+            if (estadisticas.getPrepareStatementCount() < conCache) {
+                conCache = estadisticas.getPrepareStatementCount();
+                aciertos = estadisticas.getSecondLevelCacheHitCount();
+            }
+        }
+
+        long sinCache = Long.MAX_VALUE;
+        for (int i = 0; i < RESERVAS; i++) {
+            entityManagerFactory.getCache().evictAll();
+            estadisticas.clear();
+            reservar();
+            sinCache = Math.min(sinCache, estadisticas.getPrepareStatementCount());
+        }
+
+        // Usuario, servicio y profesional (con su usuario) salen de la caché en lugar de la base de datos
+        assertThat(aciertos).isGreaterThanOrEqualTo(3);
+        assertThat(conCache).isLessThanOrEqualTo(sinCache - 3);
+    }
+
+    @Test
+    void unaReservaVeElUsuarioModificado() {
+        UsuarioDTO cliente = usuarioService.obtenerPorId(clienteId);
+        cliente.setNombre("Nombre cambiado");
+        usuarioService.actualizar(clienteId, cliente);
+
+        assertThat(reservar().getUsuarioNombre()).isEqualTo("Nombre cambiado");
+    }
+
+    private CitaDTO reservar() {
+        CitaDTO cita = citaService.crear(new CitaDTO(null, siguienteHueco, "PENDIENTE", clienteId, null,
+                servicioId, null, profesionalId, null, null));
+        siguienteHueco = siguienteHueco.plusHours(1);
+        return cita;
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
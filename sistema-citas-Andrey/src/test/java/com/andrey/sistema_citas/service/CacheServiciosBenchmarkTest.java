@@ -0,0 +1,160 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.Medicion;
+import com.andrey.sistema_citas.SistemaCitasAndreyApplication;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Mediciones del rendimiento de las lecturas de servicios con la caché de servicios y sin ella
+ * (citas.servicios.cache.maximo=0), tanto de las llamadas a ServicioService como de las peticiones
+ * completas a /api/servicios, que pasan por la cadena web y de seguridad mediante MockMvc.
+ * La base de datos es H2 servida por TCP, para que cada lectura sin caché pague un viaje de ida y
+ * vuelta como lo haría con MySQL, y la caché de segundo nivel de Hibernate se desactiva en ambos casos.
+ */
+@Tag(Medicion.ETIQUETA)
+class CacheServiciosBenchmarkTest {
+
+    private static final String OPCIONES_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+    private static final int SERVICIOS = 200;
+    private static final int HILOS = 4;
+    private static final int LLAMADAS_POR_HILO = 2_000;
+    private static final int PETICIONES_POR_HILO = 500;
+    private static final int RONDAS = 3;
+
+    private static Server servidor;
+
+    @BeforeAll
+    static void iniciarBaseDeDatos() throws SQLException {
+        servidor = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    @AfterAll
+    static void detenerBaseDeDatos() {
+        servidor.stop();
+    }
+
+    @Test
+    void lecturasDeServiciosConYSinCache() {
+        try (ConfigurableApplicationContext contextoConCache = arrancar("servicios_con_cache", 500);
+             ConfigurableApplicationContext contextoSinCache = arrancar("servicios_sin_cache", 0)) {
+            Map<String, Supplier<?>> conCache = lecturas(contextoConCache);
+            Map<String, Supplier<?>> sinCache = lecturas(contextoSinCache);
+
+            // Rondas alternas con y sin caché; de cada lectura se toma la mejor medición
+            Map<String, Double> mejorConCache = new LinkedHashMap<>();
+            Map<String, Double> mejorSinCache = new LinkedHashMap<>();
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                medir(conCache).forEach((lectura, ops) -> mejorConCache.merge(lectura, ops, Math::max));
+                medir(sinCache).forEach((lectura, ops) -> mejorSinCache.merge(lectura, ops, Math::max));
+            }
+
+            mejorConCache.keySet().forEach(lectura -> Medicion.informar("cache servicios",
+                    "%s: %.0f ops/s con cache, %.0f ops/s sin cache (%d hilos, %d servicios)",
+                    lectura, mejorConCache.get(lectura), mejorSinCache.get(lectura), HILOS, SERVICIOS));
+            assertThat(mejorConCache.get("ServicioService.obtenerPorId"))
+                    .isGreaterThan(mejorSinCache.get("ServicioService.obtenerPorId"));
+            assertThat(mejorConCache.get("ServicioService.obtenerTodos"))
+                    .isGreaterThan(mejorSinCache.get("ServicioService.obtenerTodos"));
+        }
+    }
+
+    /**
+     * Lecturas medidas sobre un contexto: las llamadas al servicio y las peticiones equivalentes.
+     */
+    private Map<String, Supplier<?>> lecturas(ConfigurableApplicationContext contexto) {
+        List<Integer> ids = poblar(contexto);
+        ServicioService servicioService = contexto.getBean(ServicioService.class);
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) contexto)
+                .apply(springSecurity())
+                .defaultRequest(get("/").with(user("admin").roles("SUPERADMIN")))
+                .build();
+
+        Map<String, Supplier<?>> lecturas = new LinkedHashMap<>();
+        lecturas.put("ServicioService.obtenerTodos", servicioService::obtenerTodos);
+        lecturas.put("ServicioService.obtenerPorId", () -> servicioService.obtenerPorId(cualquiera(ids)));
+        lecturas.put("GET /api/servicios", () -> ejecutar(mockMvc, get("/api/servicios")));
+        lecturas.put("GET /api/servicios/{id}", () -> ejecutar(mockMvc, get("/api/servicios/{id}", cualquiera(ids))));
+        return lecturas;
+    }
+
+    private Map<String, Double> medir(Map<String, Supplier<?>> lecturas) {
+        Map<String, Double> rendimiento = new LinkedHashMap<>();
+        lecturas.forEach((nombre, lectura) -> {
+            int porHilo = nombre.startsWith("GET") ? PETICIONES_POR_HILO : LLAMADAS_POR_HILO;
+            Medicion.microsegundosPorOperacion(porHilo, 1, lectura);
+            rendimiento.put(nombre, Medicion.operacionesPorSegundo(HILOS, porHilo, lectura));
+        });
+        return rendimiento;
+    }
+
+    private static Integer cualquiera(List<Integer> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static Object ejecutar(MockMvc mockMvc, RequestBuilder peticion) {
+        try {
+            int estado = mockMvc.perform(peticion).andReturn().getResponse().getStatus();
+            if (estado != 200) {
+                throw new IllegalStateException("Respuesta inesperada: " + estado);
+            }
+            return estado;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ConfigurableApplicationContext arrancar(String base, int maximoCache) {
+        // Como argumentos de línea de comandos, las propiedades prevalecen sobre las de los archivos del perfil
+        return new SpringApplicationBuilder(SistemaCitasAndreyApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:" + base + OPCIONES_H2,
+                        "--server.port=0",
+                        "--citas.servicios.cache.maximo=" + maximoCache,
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--logging.level.com.andrey.sistema_citas=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+    }
+
+    /**
+     * Completa el catálogo, que ya contiene los servicios de ejemplo, hasta el número de servicios
+     * de la medición y devuelve sus IDs.
+     */
+    private List<Integer> poblar(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        int existentes = jdbc.queryForObject("SELECT COUNT(*) FROM servicio", Integer.class);
+        // Las conexiones del pool no confirman automáticamente: la carga necesita su transacción
+        new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class)).executeWithoutResult(estado ->
+                jdbc.batchUpdate("INSERT INTO servicio (nombre, descripcion, duracion, precio) VALUES (?, ?, '60 minutos', ?)",
+                        IntStream.range(existentes, SERVICIOS).mapToObj(i -> new Object[]{"Servicio " + i,
+                                "Descripción del servicio " + i, 20.0 + (i % 100) * 0.5}).toList()));
+        return jdbc.queryForList("SELECT id FROM servicio", Integer.class);
+    }
+}
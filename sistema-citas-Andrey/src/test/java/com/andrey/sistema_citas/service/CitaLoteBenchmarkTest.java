@@ -0,0 +1,132 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.Medicion;
+import com.andrey.sistema_citas.SistemaCitasAndreyApplication;
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ResultadoLoteDTO;
+import com.andrey.sistema_citas.event.ProfesionalCambioEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mediciones de la creación de citas por lotes con el tamaño máximo de lote, frente a la creación
+ * de citas una a una. El lote valida las referencias con una consulta por tipo y envía las
+ * inserciones en lotes JDBC, por lo que debe crear 10.000 citas en pocos segundos y preparar
+ * muchas menos sentencias que citas. La base de datos es H2 en memoria en modo MySQL.
+ */
+@Tag(Medicion.ETIQUETA)
+class CitaLoteBenchmarkTest {
+
+    private static final String OPCIONES_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+    private static final int PROFESIONALES = 50;
+    private static final int CITAS_POR_LOTE = CitaService.TAMANO_MAXIMO_LOTE;
+    private static final int CITAS_INDIVIDUALES = 500;
+    private static final int HORAS_POR_DIA = 10;
+    private static final int RONDAS = 3;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    @Test
+    void unLoteDeDiezMilCitasSeCreaEnPocosSegundos() {
+        try (ConfigurableApplicationContext contexto = arrancar()) {
+            List<Integer> profesionales = poblar(contexto);
+            contexto.getBean(DirectorioProfesionales.class).alCambiarProfesional(ProfesionalCambioEvent.todos());
+            CitaService citaService = contexto.getBean(CitaService.class);
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            Integer usuario = jdbc.queryForObject("SELECT MIN(id) FROM usuario WHERE email LIKE '%@benchmark.com'", Integer.class);
+            Integer servicio = jdbc.queryForObject("SELECT MAX(id) FROM servicio", Integer.class);
+            Statistics estadisticas = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+            // Cada ronda reserva días distintos, para que ningún lote choque con los anteriores
+            long mejorLote = Long.MAX_VALUE;
+            long sentencias = Long.MAX_VALUE;
+            int diasPorLote = CITAS_POR_LOTE / PROFESIONALES / HORAS_POR_DIA;
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                List<CitaDTO> lote = citas(profesionales, usuario, servicio, INICIO.plusDays((long) ronda * diasPorLote),
+                        CITAS_POR_LOTE);
+                AtomicReference<ResultadoLoteDTO> resultado = new AtomicReference<>();
+                estadisticas.clear();
+                long milisegundos = Medicion.milisegundos(() -> resultado.set(citaService.crearLote(lote)));
+                assertThat(resultado.get().getCreadas()).hasSize(CITAS_POR_LOTE);
+                assertThat(resultado.get().getRechazadas()).isEmpty();
+                mejorLote = Math.min(mejorLote, milisegundos);
+                sentencias = Math.min(sentencias, estadisticas.getPrepareStatementCount());
+            }
+
+            List<CitaDTO> individuales = citas(profesionales, usuario, servicio,
+                    INICIO.plusDays((long) RONDAS * diasPorLote), CITAS_INDIVIDUALES);
+            long unaAUna = Medicion.milisegundos(() -> individuales.forEach(citaService::crear));
+
+            double porCitaEnLote = mejorLote * 1_000.0 / CITAS_POR_LOTE;
+            double porCitaUnaAUna = unaAUna * 1_000.0 / CITAS_INDIVIDUALES;
+            Medicion.informar("lote", "%d citas en un lote: %d ms (%.0f us por cita, %.0f citas/s, %d sentencias preparadas)",
+                    CITAS_POR_LOTE, mejorLote, porCitaEnLote, CITAS_POR_LOTE * 1_000.0 / mejorLote, sentencias);
+            Medicion.informar("lote", "%d citas una a una: %d ms (%.0f us por cita)",
+                    CITAS_INDIVIDUALES, unaAUna, porCitaUnaAUna);
+
+            assertThat(mejorLote).isLessThan(5_000);
+            assertThat(sentencias).isLessThan(CITAS_POR_LOTE / 5);
+            assertThat(porCitaEnLote).isLessThan(porCitaUnaAUna);
+        }
+    }
+
+    /**
+     * Citas de una hora repartidas por igual entre los profesionales, de 08:00 a 17:00 cada día.
+     */
+    private static List<CitaDTO> citas(List<Integer> profesionales, Integer usuario, Integer servicio,
+                                       LocalDateTime desde, int cantidad) {
+        List<CitaDTO> citas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int hueco = i / PROFESIONALES;
+            LocalDateTime fechaHora = desde.plusDays(hueco / HORAS_POR_DIA).plusHours(hueco % HORAS_POR_DIA);
+            citas.add(new CitaDTO(null, fechaHora, "PENDIENTE", usuario, null, servicio, null,
+                    profesionales.get(i % PROFESIONALES), null, null));
+        }
+        return citas;
+    }
+
+    private ConfigurableApplicationContext arrancar() {
+        // Como argumentos de línea de comandos, las propiedades prevalecen sobre las de los archivos del perfil
+        return new SpringApplicationBuilder(SistemaCitasAndreyApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:lote" + OPCIONES_H2,
+                        "--server.port=0",
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--logging.level.com.andrey.sistema_citas=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+    }
+
+    private List<Integer> poblar(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        Timestamp registro = Timestamp.valueOf(INICIO);
+        // Las conexiones del pool no confirman automáticamente: la carga necesita su transacción
+        new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class)).executeWithoutResult(estado -> {
+            jdbc.batchUpdate("INSERT INTO usuario (nombre, email, password, fecha_registro, rol) VALUES (?, ?, 'x', ?, 'CLIENTE')",
+                    IntStream.range(0, PROFESIONALES).mapToObj(i -> new Object[]{
+                            "Profesional " + i, "lote" + i + "@benchmark.com", registro}).toList());
+            List<Integer> usuarios = jdbc.queryForList(
+                    "SELECT id FROM usuario WHERE email LIKE '%@benchmark.com' ORDER BY id", Integer.class);
+            jdbc.batchUpdate("INSERT INTO profesional (especialidad, usuario_id) VALUES ('Psicología', ?)",
+                    usuarios.stream().map(usuario -> new Object[]{usuario}).toList());
+            jdbc.update("INSERT INTO servicio (nombre, duracion, precio) VALUES ('Terapia de grupo', '60 minutos', 25.0)");
+        });
+        return jdbc.queryForList("SELECT id FROM profesional ORDER BY id", Integer.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.FilaLoteDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ResultadoLoteDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas de la creación de citas por lotes: cada fila inválida, con referencias inexistentes
+ * o que se solapa con una cita existente o del mismo lote se rechaza por su posición,
+ * y el resto del lote se crea.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CitaLoteTest {
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer usuarioId;
+    private Integer servicioId;
+    private Integer profesionalId;
+    private LocalDateTime lunes;
+
+    @BeforeEach
+    void crearDatos() {
+        usuarioId = crearUsuario();
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId();
+        lunes = LocalDateTime.of(2034, 1, 2, 8, 0).plusWeeks(UUID.randomUUID().hashCode() & 0x3FF);
+    }
+
+    @Test
+    void lasFilasRechazadasNoImpidenCrearElResto() {
+        Integer existente = citaService.crear(cita(lunes.withHour(12))).getId();
+
+        ResultadoLoteDTO resultado = citaService.crearLote(Arrays.asList(
+                cita(lunes.withHour(9)),
+                null,
+                new CitaDTO(null, null, "PENDIENTE", usuarioId, null, servicioId, null, profesionalId, null, null),
+                cita(lunes.withHour(12).plusMinutes(30)),
+                new CitaDTO(null, lunes.withHour(14), "DESCONOCIDO", usuarioId, null, servicioId, null, profesionalId, null, null),
+                cita(lunes.withHour(15))));
+
+        assertThat(resultado.getRecibidas()).isEqualTo(6);
+        assertThat(resultado.getCreadas()).extracting(FilaLoteDTO::getIndice).containsExactly(0, 5);
+        assertThat(resultado.getRechazadas()).extracting(FilaLoteDTO::getIndice).containsExactly(1, 2, 3, 4);
+        assertThat(resultado.getRechazadas()).extracting(FilaLoteDTO::getError).containsExactly(
+                "La cita es obligatoria",
+                "La fecha y hora de la cita son obligatorias",
+                "El profesional ya tiene la cita con ID " + existente
+                        + " entre " + lunes.withHour(12) + " y " + lunes.withHour(13),
+                "Estado de cita no válido: DESCONOCIDO");
+        assertThat(citasDelProfesional()).extracting(CitaDTO::getFechaHora)
+                .containsExactly(lunes.withHour(9), lunes.withHour(12), lunes.withHour(15));
+        assertThat(resultado.getCreadas()).extracting(FilaLoteDTO::getCitaId)
+                .allSatisfy(id -> assertThat(citaService.obtenerPorId(id).getProfesionalId()).isEqualTo(profesionalId));
+    }
+
+    @Test
+    void unaCitaQueSeSolapaConOtraDelMismoLoteSeRechaza() {
+        ResultadoLoteDTO resultado = citaService.crearLote(List.of(
+                cita(lunes.withHour(10)),
+                cita(lunes.withHour(10).plusMinutes(45)),
+                cita(lunes.withHour(11)),
+                cita(lunes.withHour(9).plusMinutes(15))));
+
+        assertThat(resultado.getCreadas()).extracting(FilaLoteDTO::getIndice).containsExactly(0, 2);
+        assertThat(resultado.getRechazadas()).extracting(FilaLoteDTO::getIndice).containsExactly(1, 3);
+        assertThat(resultado.getRechazadas()).extracting(FilaLoteDTO::getError).containsExactly(
+                "Se solapa con otra cita del mismo lote que inicia a las " + lunes.withHour(10),
+                "Se solapa con otra cita del mismo lote que inicia a las " + lunes.withHour(10));
+        assertThat(citasDelProfesional()).extracting(CitaDTO::getFechaHora)
+                .containsExactly(lunes.withHour(10), lunes.withHour(11));
+    }
+
+    @Test
+    void lasReferenciasInexistentesSeRechazanPorFila() {
+        int inexistente = Integer.MAX_VALUE;
+
+        ResultadoLoteDTO resultado = citaService.crearLote(List.of(
+                new CitaDTO(null, lunes.withHour(9), "PENDIENTE", inexistente, null, servicioId, null, profesionalId, null, null),
+                new CitaDTO(null, lunes.withHour(10), "PENDIENTE", usuarioId, null, inexistente, null, profesionalId, null, null),
+                new CitaDTO(null, lunes.withHour(11), "PENDIENTE", usuarioId, null, servicioId, null, inexistente, null, null),
+                cita(lunes.withHour(12))));
+
+        assertThat(resultado.getCreadas()).extracting(FilaLoteDTO::getIndice).containsExactly(3);
+        assertThat(resultado.getRechazadas()).extracting(FilaLoteDTO::getError).containsExactly(
+                "Usuario no encontrado con ID: " + inexistente,
+                "Servicio no encontrado con ID: " + inexistente,
+                "Profesional no encontrado con ID: " + inexistente);
+        assertThat(citasDelProfesional()).extracting(CitaDTO::getFechaHora).containsExactly(lunes.withHour(12));
+    }
+
+    @Test
+    void unLoteMayorQueElMaximoSeRechazaCompleto() {
+        List<CitaDTO> citas = new ArrayList<>(Collections.nCopies(CitaService.TAMANO_MAXIMO_LOTE + 1, cita(lunes)));
+
+        assertThatThrownBy(() -> citaService.crearLote(citas))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(citasDelProfesional()).isEmpty();
+    }
+
+    private List<CitaDTO> citasDelProfesional() {
+        return citaService.obtenerPorProfesional(profesionalId);
+    }
+
+    private CitaDTO cita(LocalDateTime fechaHora) {
+        return new CitaDTO(null, fechaHora, "PENDIENTE", usuarioId, null, servicioId, null, profesionalId, null, null);
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
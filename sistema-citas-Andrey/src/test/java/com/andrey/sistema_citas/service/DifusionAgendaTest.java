@@ -0,0 +1,263 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.event.CitaCambioEvent;
+import com.andrey.sistema_citas.event.CitaResumen;
+import com.andrey.sistema_citas.event.CitasTransicionLoteEvent;
+import com.andrey.sistema_citas.event.SerieCitaCambioEvent;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de la difusión de la agenda por Server-Sent Events: cada suscriptor recibe solo los
+ * eventos de su profesional, la cola de un suscriptor detenido se reemplaza por un recargar en lugar
+ * de crecer, y los suscriptores se retiran al vencer, fallar o completarse su conexión.
+ * Los emisores se sustituyen por otros que registran lo que se escribe en ellos y permiten
+ * detener sus escrituras, como haría un cliente que no lee.
+ */
+class DifusionAgendaTest {
+
+    private static final int CAPACIDAD_COLA = 4;
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 10;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2031, 3, 3, 10, 0);
+
+    private final CitaRepository citaRepository = mock(CitaRepository.class);
+    private final Queue<EmisorGrabado> preparados = new ConcurrentLinkedQueue<>();
+    private final DifusionAgenda difusion = new DifusionAgenda(citaRepository, new VersionesAgenda(),
+            Duration.ofMinutes(30), CAPACIDAD_COLA, Duration.ofMinutes(1)) {
+        @Override
+        SseEmitter nuevoEmisor() {
+            EmisorGrabado emisor = preparados.poll();
+            return emisor != null ? emisor : new EmisorGrabado();
+        }
+    };
+
+    @AfterEach
+    void detener() {
+        difusion.detener();
+    }
+
+    @Test
+    void cadaSuscriptorRecibeSoloLosEventosDeSuProfesional() throws InterruptedException {
+        EmisorGrabado primero = suscribir(1);
+        EmisorGrabado segundo = suscribir(1);
+        EmisorGrabado otro = suscribir(2);
+        CitaDTO reasignada = new CitaDTO(10, INICIO, "PENDIENTE", 5, "Cliente", 7, "Terapia", 2, "Profesional", 1L);
+        when(citaRepository.findDTOPorIds(anyCollection())).thenReturn(List.of(reasignada));
+
+        // La cita pasa del profesional 1 al 2 y después se transicionan por lotes las del 1
+        difusion.alCambiarCita(CitaCambioEvent.actualizada(resumen(10, 1), resumen(10, 2)));
+        difusion.alTransicionarLote(new CitasTransicionLoteEvent(EstadoCita.PENDIENTE, EstadoCita.CONFIRMADA, 1,
+                INICIO, INICIO.plusDays(1), 3, List.of()));
+        difusion.alCambiarSerie(new SerieCitaCambioEvent(20, 2));
+
+        for (EmisorGrabado emisor : List.of(primero, segundo)) {
+            esperar(() -> emisor.eventos.size() >= 3);
+            assertThat(emisor.nombres()).containsExactly("conectado", "eliminada", "recargar");
+            assertThat(emisor.eventos.get(1).datos()).isEqualTo(Map.of("id", 10));
+        }
+        esperar(() -> otro.eventos.size() >= 3);
+        assertThat(otro.nombres()).containsExactly("conectado", "cita", "recargar");
+        assertThat(otro.eventos.get(1).datos()).isSameAs(reasignada);
+    }
+
+    @Test
+    void unSuscriptorDetenidoRecibeUnRecargarEnLugarDeLosEventosQueNoCaben() throws InterruptedException {
+        EmisorGrabado lento = new EmisorGrabado();
+        lento.retener();
+        preparados.add(lento);
+        assertThat(difusion.suscribir(1)).isSameAs(lento);
+        // El hilo del suscriptor ya tomó el evento inicial y está detenido escribiéndolo
+        assertThat(lento.detenido.await(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)).isTrue();
+        EmisorGrabado sonda = suscribir(2);
+
+        // La sonda lee cada latido antes del siguiente, para que solo se llene la cola del detenido
+        int latidos = 10;
+        for (int i = 0; i < latidos; i++) {
+            int recibidos = i + 2;
+            difusion.latir();
+            esperar(() -> sonda.eventos.size() >= recibidos);
+        }
+        // El recargar de la sonda se difunde cuando el último latido ya se encoló para ambos
+        difusion.alCambiarSerie(new SerieCitaCambioEvent(20, 2));
+        esperar(() -> sonda.eventos.size() >= latidos + 2);
+        assertThat(sonda.nombres()).startsWith("conectado", "latido").endsWith("recargar").hasSize(latidos + 2);
+
+        // Con capacidad 4 la cola se vació dos veces; quedan el recargar y el latido posterior
+        lento.liberar();
+        esperar(() -> lento.eventos.size() >= 3);
+        assertThat(lento.nombres()).containsExactly("conectado", "recargar", "latido");
+        assertThat(difusion.conectados()).isEqualTo(2);
+    }
+
+    @Test
+    void elSuscriptorSeRetiraAlVencerAlFallarOAlCompletarse() throws InterruptedException {
+        EmisorGrabado vencido = suscribir(1);
+        EmisorGrabado fallido = suscribir(1);
+        EmisorGrabado completado = suscribir(1);
+        assertThat(difusion.conectados()).isEqualTo(3);
+
+        // El vencimiento retira al suscriptor y su propio hilo completa el emisor, no el del contenedor
+        vencido.alVencer.run();
+        assertThat(difusion.conectados()).isEqualTo(2);
+        esperar(() -> vencido.completadoPor != null);
+        assertThat(vencido.completadoPor).isNotSameAs(Thread.currentThread());
+        assertThat(vencido.completadoPor.isVirtual()).isTrue();
+
+        // Tras un error o una desconexión del cliente el emisor ya está cerrado y no se completa
+        fallido.alFallar.accept(new IOException("Conexión restablecida"));
+        completado.alCompletar.run();
+        assertThat(difusion.conectados()).isZero();
+
+        // Los suscriptores retirados no reciben más eventos
+        difusion.alTransicionarLote(new CitasTransicionLoteEvent(null, EstadoCita.CANCELADA, 1,
+                INICIO, INICIO.plusDays(1), 2, List.of()));
+        difusion.latir();
+        EmisorGrabado sonda = suscribir(1);
+        difusion.alCambiarSerie(new SerieCitaCambioEvent(20, 1));
+        esperar(() -> sonda.eventos.size() >= 2);
+        for (EmisorGrabado emisor : List.of(vencido, fallido, completado)) {
+            assertThat(emisor.nombres()).containsExactly("conectado");
+        }
+        assertThat(fallido.completadoPor).isNull();
+        assertThat(completado.completadoPor).isNull();
+    }
+
+    @Test
+    void elSuscriptorSeRetiraSiFallaLaEscrituraEnSuConexion() throws InterruptedException {
+        EmisorGrabado cerrado = new EmisorGrabado();
+        cerrado.fallarAlEnviar = true;
+        preparados.add(cerrado);
+        difusion.suscribir(1);
+
+        esperar(() -> difusion.conectados() == 0);
+        difusion.alCambiarSerie(new SerieCitaCambioEvent(20, 1));
+        assertThat(cerrado.eventos).isEmpty();
+    }
+
+    private EmisorGrabado suscribir(Integer profesionalId) throws InterruptedException {
+        EmisorGrabado emisor = (EmisorGrabado) difusion.suscribir(profesionalId);
+        esperar(() -> !emisor.eventos.isEmpty());
+        return emisor;
+    }
+
+    private static CitaResumen resumen(Integer citaId, Integer profesionalId) {
+        return new CitaResumen(citaId, INICIO, INICIO.plusHours(1), EstadoCita.PENDIENTE, 5, 7, profesionalId, 40.0);
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(ESPERA_MAXIMA_SEGUNDOS);
+        while (!condicion.getAsBoolean() && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertThat(condicion.getAsBoolean()).isTrue();
+    }
+
+    /**
+     * Evento escrito en un emisor: su nombre (o "latido" para el comentario) y sus datos.
+     */
+    private record Evento(String nombre, Object datos) {
+    }
+
+    /**
+     * Emisor que registra los eventos escritos y las devoluciones de llamada del contenedor,
+     * y que puede detener sus escrituras hasta que se libere.
+     */
+    private static final class EmisorGrabado extends SseEmitter {
+
+        private final List<Evento> eventos = new CopyOnWriteArrayList<>();
+        private final CountDownLatch detenido = new CountDownLatch(1);
+        private volatile CountDownLatch liberado = new CountDownLatch(0);
+        private volatile boolean fallarAlEnviar;
+        private volatile Thread completadoPor;
+        private Runnable alVencer;
+        private Consumer<Throwable> alFallar;
+        private Runnable alCompletar;
+
+        void retener() {
+            liberado = new CountDownLatch(1);
+        }
+
+        void liberar() {
+            liberado.countDown();
+        }
+
+        List<String> nombres() {
+            return eventos.stream().map(Evento::nombre).toList();
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (fallarAlEnviar) {
+                throw new IOException("Conexión cerrada por el cliente");
+            }
+            detenido.countDown();
+            try {
+                liberado.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            String nombre = null;
+            Object datos = null;
+            for (DataWithMediaType item : items) {
+                if (item.getData() instanceof String texto) {
+                    if (texto.startsWith(":")) {
+                        nombre = "latido";
+                    } else if (texto.contains("event:")) {
+                        nombre = texto.substring(texto.indexOf("event:") + 6, texto.indexOf('\n', texto.indexOf("event:")));
+                    }
+                } else {
+                    datos = item.getData();
+                }
+            }
+            eventos.add(new Evento(nombre, datos));
+        }
+
+        @Override
+        public void complete() {
+            completadoPor = Thread.currentThread();
+            super.complete();
+        }
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            alVencer = callback;
+            super.onTimeout(callback);
+        }
+
+        @Override
+        public void onError(Consumer<Throwable> callback) {
+            alFallar = callback;
+            super.onError(callback);
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            alCompletar = callback;
+            super.onCompletion(callback);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.Medicion;
+import com.andrey.sistema_citas.SistemaCitasAndreyApplication;
+import com.andrey.sistema_citas.entity.Profesional;
+import com.andrey.sistema_citas.event.ProfesionalCambioEvent;
+import com.andrey.sistema_citas.repository.ProfesionalRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mediciones de las búsquedas del directorio de profesionales frente a las consultas equivalentes
+ * a la base de datos, con las cachés de Hibernate desactivadas. Las búsquedas del directorio no
+ * salen de la memoria, por lo que deben quedarse en pocos microsegundos con miles de profesionales.
+ * La base de datos es H2 en memoria: sin viaje por la red, las consultas son más rápidas que con MySQL.
+ */
+@Tag(Medicion.ETIQUETA)
+class DirectorioProfesionalesBenchmarkTest {
+
+    private static final String OPCIONES_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+    private static final int PROFESIONALES = 2_000;
+    private static final String[] ESPECIALIDADES = {
+            "Psicología", "Psiquiatría", "Terapia familiar", "Terapia de pareja", "Neuropsicología",
+            "Orientación", "Psicopedagogía", "Logopedia", "Coaching", "Mindfulness"};
+    private static final String[] NOMBRES = {"Ana", "Bruno", "Carmen", "Diego", "Elena", "Fernando", "Gloria", "Héctor"};
+    private static final int CALENTAMIENTO = 20_000;
+    private static final int REPETICIONES = 100_000;
+
+    @Test
+    void busquedasDelDirectorioFrenteALaBaseDeDatos() {
+        try (ConfigurableApplicationContext contexto = arrancar()) {
+            poblar(contexto);
+            DirectorioProfesionales directorio = contexto.getBean(DirectorioProfesionales.class);
+            ProfesionalRepository repositorio = contexto.getBean(ProfesionalRepository.class);
+            directorio.alCambiarProfesional(ProfesionalCambioEvent.todos());
+            assertThat(directorio.tamano()).isGreaterThanOrEqualTo(PROFESIONALES);
+            List<Integer> ids = repositorio.findAll().stream().map(Profesional::getId).toList();
+
+            // La especialidad se busca con otra grafía: el directorio la normaliza
+            assertThat(directorio.obtenerPorEspecialidad("  PSICOLOGIA ")).extracting("id")
+                    .containsExactlyElementsOf(repositorio.findByEspecialidad("Psicología").stream()
+                            .map(Profesional::getId).sorted().toList());
+
+            Map<String, Supplier<?>> enMemoria = new LinkedHashMap<>();
+            enMemoria.put("obtenerPorEspecialidad", () -> directorio.obtenerPorEspecialidad(especialidad()));
+            enMemoria.put("especialidadDe", () -> directorio.especialidadDe(cualquiera(ids)));
+            enMemoria.put("obtenerPorId", () -> directorio.obtenerPorId(cualquiera(ids)));
+            enMemoria.put("buscar", () -> directorio.buscar("car", 10));
+            Map<String, Double> tiempos = new LinkedHashMap<>();
+            enMemoria.forEach((nombre, busqueda) ->
+                    tiempos.put(nombre, Medicion.microsegundosPorOperacion(CALENTAMIENTO, REPETICIONES, busqueda)));
+            double todos = Medicion.microsegundosPorOperacion(200, 1_000, directorio::obtenerTodos);
+
+            double porEspecialidadEnBase = Medicion.microsegundosPorOperacion(200, 1_000,
+                    () -> repositorio.findByEspecialidad(especialidad()));
+            double todosEnBase = Medicion.microsegundosPorOperacion(20, 100, repositorio::findAllConUsuario);
+
+            tiempos.forEach((nombre, micros) -> Medicion.informar("directorio", "%s: %.2f us (%d profesionales)",
+                    nombre, micros, PROFESIONALES));
+            Medicion.informar("directorio", "obtenerTodos: %.0f us", todos);
+            Medicion.informar("directorio", "base de datos: findByEspecialidad %.0f us, findAllConUsuario %.0f us",
+                    porEspecialidadEnBase, todosEnBase);
+
+            assertThat(tiempos.get("especialidadDe")).isLessThan(10.0);
+            assertThat(tiempos.get("obtenerPorId")).isLessThan(10.0);
+            assertThat(tiempos.get("obtenerPorEspecialidad")).isLessThan(porEspecialidadEnBase);
+            assertThat(todos).isLessThan(todosEnBase);
+        }
+    }
+
+    private static String especialidad() {
+        return ESPECIALIDADES[ThreadLocalRandom.current().nextInt(ESPECIALIDADES.length)];
+    }
+
+    private static Integer cualquiera(List<Integer> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private ConfigurableApplicationContext arrancar() {
+        // Como argumentos de línea de comandos, las propiedades prevalecen sobre las de los archivos del perfil
+        return new SpringApplicationBuilder(SistemaCitasAndreyApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:directorio" + OPCIONES_H2,
+                        "--server.port=0",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--logging.level.com.andrey.sistema_citas=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+    }
+
+    private void poblar(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        Timestamp registro = Timestamp.valueOf(LocalDateTime.of(2030, 1, 7, 8, 0));
+        // Las conexiones del pool no confirman automáticamente: la carga necesita su transacción
+        new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class)).executeWithoutResult(estado -> {
+            jdbc.batchUpdate("INSERT INTO usuario (nombre, email, password, fecha_registro, rol) VALUES (?, ?, 'x', ?, 'CLIENTE')",
+                    IntStream.range(0, PROFESIONALES).mapToObj(i -> new Object[]{
+                            NOMBRES[i % NOMBRES.length] + " " + i, "directorio" + i + "@benchmark.com", registro}).toList());
+            List<Integer> usuarios = jdbc.queryForList(
+                    "SELECT id FROM usuario WHERE email LIKE '%@benchmark.com' ORDER BY id", Integer.class);
+            jdbc.batchUpdate("INSERT INTO profesional (especialidad, usuario_id) VALUES (?, ?)",
+                    IntStream.range(0, PROFESIONALES).mapToObj(i -> new Object[]{
+                            ESPECIALIDADES[i % ESPECIALIDADES.length], usuarios.get(i)}).toList());
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.Medicion;
+import com.andrey.sistema_citas.SistemaCitasAndreyApplication;
+import com.andrey.sistema_citas.dto.FranjaDisponibleDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.event.ProfesionalCambioEvent;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mediciones de la búsqueda de franjas libres con 200 profesionales y un rango de 60 días.
+ * Cada día laborable de cada profesional tiene citas de una hora separadas por huecos de quince
+ * minutos: un servicio de quince minutos cabe en cada hueco y la búsqueda termina con el primer día,
+ * mientras que uno de treinta no cabe en ninguno y obliga a recorrer todos los mapas del rango.
+ * El pool tiene una sola conexión: si la búsqueda retuviera una mientras carga las agendas en su
+ * propia transacción, la primera búsqueda agotaría la espera del pool.
+ */
+@Tag(Medicion.ETIQUETA)
+class DisponibilidadBenchmarkTest {
+
+    private static final String OPCIONES_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+    private static final int PROFESIONALES = 200;
+    private static final int DIAS = 60;
+    private static final int LIMITE = DisponibilidadService.LIMITE_MAXIMO;
+    private static final LocalDateTime DESDE = LocalDateTime.of(2030, 1, 7, 0, 0);
+    private static final LocalDateTime HASTA = DESDE.plusDays(DIAS);
+    private static final int RONDAS = 3;
+
+    @Test
+    void laBusquedaDeFranjasResponde() {
+        try (ConfigurableApplicationContext contexto = arrancar()) {
+            poblar(contexto);
+            contexto.getBean(DirectorioProfesionales.class).alCambiarProfesional(ProfesionalCambioEvent.todos());
+            // Flyway necesita dos conexiones al arrancar: el pool se reduce a una después
+            HikariDataSource origen = contexto.getBean(HikariDataSource.class);
+            HikariConfigMXBean pool = origen.getHikariConfigMXBean();
+            pool.setMinimumIdle(1);
+            pool.setMaximumPoolSize(1);
+            origen.getHikariPoolMXBean().softEvictConnections();
+            DisponibilidadService disponibilidad = contexto.getBean(DisponibilidadService.class);
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            Integer cabe = servicio(jdbc, "Disponibilidad 15");
+            Integer noCabe = servicio(jdbc, "Disponibilidad 30");
+
+            // La primera búsqueda carga las 200 agendas y construye todos los mapas del rango
+            AtomicReference<List<FranjaDisponibleDTO>> ninguna = new AtomicReference<>();
+            long enFrio = Medicion.milisegundos(() ->
+                    ninguna.set(disponibilidad.buscar(noCabe, null, DESDE, HASTA, LIMITE)));
+            assertThat(ninguna.get()).isEmpty();
+            List<FranjaDisponibleDTO> primeras = disponibilidad.buscar(cabe, null, DESDE, HASTA, LIMITE);
+            assertThat(primeras).hasSize(LIMITE)
+                    .allSatisfy(franja -> assertThat(franja.getInicio().toLocalDate()).isEqualTo(DESDE.toLocalDate()));
+
+            double primerasMicros = Double.MAX_VALUE;
+            double recorridoMicros = Double.MAX_VALUE;
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                primerasMicros = Math.min(primerasMicros, Medicion.microsegundosPorOperacion(200, 1_000,
+                        () -> disponibilidad.buscar(cabe, null, DESDE, HASTA, LIMITE)));
+                recorridoMicros = Math.min(recorridoMicros, Medicion.microsegundosPorOperacion(20, 100,
+                        () -> disponibilidad.buscar(noCabe, null, DESDE, HASTA, LIMITE)));
+            }
+
+            Medicion.informar("disponibilidad", "primera busqueda con carga de agendas: %d ms (%d profesionales, %d dias)",
+                    enFrio, PROFESIONALES, DIAS);
+            Medicion.informar("disponibilidad", "primeras %d franjas: %.0f us", LIMITE, primerasMicros);
+            Medicion.informar("disponibilidad", "rango completo sin franjas: %.0f us", recorridoMicros);
+
+            assertThat(primerasMicros).isLessThan(10_000.0);
+            assertThat(recorridoMicros).isLessThan(10_000.0);
+        }
+    }
+
+    private static Integer servicio(JdbcTemplate jdbc, String nombre) {
+        return jdbc.queryForObject("SELECT id FROM servicio WHERE nombre = ?", Integer.class, nombre);
+    }
+
+    private ConfigurableApplicationContext arrancar() {
+        // Como argumentos de línea de comandos, las propiedades prevalecen sobre las de los archivos del perfil
+        return new SpringApplicationBuilder(SistemaCitasAndreyApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:disponibilidad" + OPCIONES_H2,
+                        "--server.port=0",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--logging.level.com.andrey.sistema_citas=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+    }
+
+    private void poblar(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        Timestamp registro = Timestamp.valueOf(DESDE);
+        // Las conexiones del pool no confirman automáticamente: la carga necesita su transacción
+        new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class)).executeWithoutResult(estado -> {
+            jdbc.batchUpdate("INSERT INTO usuario (nombre, email, password, fecha_registro, rol) VALUES (?, ?, 'x', ?, 'CLIENTE')",
+                    IntStream.range(0, PROFESIONALES).mapToObj(i -> new Object[]{
+                            "Profesional " + i, "disponibilidad" + i + "@benchmark.com", registro}).toList());
+            List<Integer> usuarios = jdbc.queryForList(
+                    "SELECT id FROM usuario WHERE email LIKE '%@benchmark.com' ORDER BY id", Integer.class);
+            jdbc.batchUpdate("INSERT INTO profesional (especialidad, usuario_id) VALUES ('Psicología', ?)",
+                    usuarios.stream().map(usuario -> new Object[]{usuario}).toList());
+            List<Integer> profesionales = jdbc.queryForList("SELECT id FROM profesional ORDER BY id", Integer.class);
+            jdbc.update("INSERT INTO servicio (nombre, duracion, precio) VALUES ('Disponibilidad 60', '60 minutos', 40.0)");
+            jdbc.update("INSERT INTO servicio (nombre, duracion, precio) VALUES ('Disponibilidad 15', '15 minutos', 10.0)");
+            jdbc.update("INSERT INTO servicio (nombre, duracion, precio) VALUES ('Disponibilidad 30', '30 minutos', 20.0)");
+            Integer hora = servicio(jdbc, "Disponibilidad 60");
+
+            // Citas de una hora cada 75 minutos de 08:00 a 19:15: la última cubre el cierre de la jornada
+            List<Object[]> filas = new ArrayList<>();
+            for (LocalDate dia = DESDE.toLocalDate(); dia.isBefore(HASTA.toLocalDate()); dia = dia.plusDays(1)) {
+                if (dia.getDayOfWeek() == DayOfWeek.SATURDAY || dia.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    continue;
+                }
+                for (int k = 0; k < 10; k++) {
+                    LocalDateTime fechaHora = dia.atTime(8, 0).plusMinutes(75L * k);
+                    for (int i = 0; i < PROFESIONALES; i++) {
+                        Integer profesional = profesionales.get(i);
+                        filas.add(new Object[]{Timestamp.valueOf(fechaHora), EstadoCita.CONFIRMADA.getCodigo(),
+                                usuarios.get((i * 7) % PROFESIONALES), hora, profesional, profesional + ":" + fechaHora});
+                    }
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO cita (fecha_hora, estado, usuario_id, servicio_id, profesional_id, slot_clave) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", filas);
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CargaProfesionalDTO;
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.EstadisticasDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.TransicionLoteDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Pruebas de las estadísticas en memoria: las transiciones por lotes se aplican con los recuentos
+ * del evento, sin recontar, y los profesionales nuevos aparecen con su nombre.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EstadisticasServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2032, 5, 10);
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer usuarioId;
+    private Integer servicioId;
+    private Integer profesionalId;
+    private String profesionalNombre;
+
+    @BeforeEach
+    void crearDatos() {
+        usuarioId = crearUsuario("Cliente");
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalNombre = "Profesional " + UUID.randomUUID().toString().substring(0, 8);
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null,
+                crearUsuario(profesionalNombre), null, null)).getId();
+    }
+
+    @Test
+    void unaCitaDeUnProfesionalNuevoLoMuestraConSuNombre() {
+        reservar(DIA.atTime(9, 0), "PENDIENTE");
+
+        assertThat(estadisticasService.obtener(DIA).getCargaPorProfesional())
+                .filteredOn(carga -> carga.getProfesionalId().equals(profesionalId))
+                .extracting(CargaProfesionalDTO::getProfesionalNombre, CargaProfesionalDTO::getCitasActivas)
+                .containsExactly(tuple(profesionalNombre, 1L));
+    }
+
+    @Test
+    void unaTransicionPorLotesAplicaLosRecuentosDelEventoSinRecontar() {
+        for (int hora = 8; hora < 14; hora++) {
+            reservar(DIA.atTime(hora, 0), "PENDIENTE");
+        }
+        reservar(DIA.plusDays(1).atTime(9, 0), "PENDIENTE");
+        reservar(DIA.plusDays(1).atTime(11, 0), "CONFIRMADA");
+        estadisticasService.reconciliar();
+        EstadisticasDTO antes = estadisticasService.obtener(DIA);
+
+        int afectadas = citaService.transicionarEnLote(new TransicionLoteDTO("CONFIRMADA", "PENDIENTE", profesionalId,
+                DIA.atStartOfDay(), DIA.plusDays(2).atStartOfDay())).getAfectadas();
+
+        EstadisticasDTO despues = estadisticasService.obtener(DIA);
+        assertThat(afectadas).isEqualTo(7);
+        assertThat(despues.getUltimaReconciliacion()).isEqualTo(antes.getUltimaReconciliacion());
+        assertThat(despues.getCitasPorEstado().get("PENDIENTE")).isEqualTo(antes.getCitasPorEstado().get("PENDIENTE") - 6);
+        assertThat(despues.getCitasPorEstado().get("CONFIRMADA")).isEqualTo(antes.getCitasPorEstado().get("CONFIRMADA") + 6);
+
+        // Los contadores aplicados coinciden con un recuento completo
+        EstadisticasDTO aplicadas = estadisticasService.obtener(DIA.plusDays(1));
+        estadisticasService.reconciliar();
+        assertThat(estadisticasService.obtener(DIA).getCitasPorEstado()).isEqualTo(despues.getCitasPorEstado());
+        assertThat(estadisticasService.obtener(DIA.plusDays(1)).getCitasPorEstado()).isEqualTo(aplicadas.getCitasPorEstado());
+        assertThat(estadisticasService.obtener(DIA).getPendientesConfirmacion()).isEqualTo(despues.getPendientesConfirmacion());
+    }
+
+    @Test
+    void cancelarPorLotesRestaLaCargaDelProfesional() {
+        reservar(DIA.atTime(15, 0), "PENDIENTE");
+        reservar(DIA.atTime(16, 0), "CONFIRMADA");
+
+        citaService.transicionarEnLote(new TransicionLoteDTO("CANCELADA", null, profesionalId,
+                DIA.atStartOfDay(), DIA.plusDays(1).atStartOfDay()));
+
+        assertThat(estadisticasService.obtener(DIA).getCargaPorProfesional())
+                .extracting(CargaProfesionalDTO::getProfesionalId)
+                .doesNotContain(profesionalId);
+    }
+
+    private void reservar(LocalDateTime fechaHora, String estado) {
+        citaService.crear(new CitaDTO(null, fechaHora, estado, usuarioId, null, servicioId, null, profesionalId, null, null));
+    }
+
+    private Integer crearUsuario(String nombre) {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                nombre, "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,178 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.entity.Cita;
+import com.andrey.sistema_citas.exception.ConflictoHorarioException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas del índice de agendas: la carga diferida no depende de la transacción que la solicita
+ * y las escrituras que eliminan o redimensionan citas sin publicar sus eventos descartan las agendas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IndiceAgendasTest {
+
+    private static final LocalDateTime DIA = LocalDateTime.of(2031, 3, 3, 0, 0);
+
+    @Autowired
+    private IndiceAgendas indiceAgendas;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Integer usuarioId;
+    private Integer servicioId;
+    private Integer profesionalId;
+
+    @BeforeEach
+    void crearDatos() {
+        usuarioId = crearUsuario();
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, usuarioId, null, null)).getId();
+    }
+
+    @Test
+    void laCargaIncluyeCitasConfirmadasDespuesDeIniciarLaTransaccionQueLaSolicita() {
+        TransactionTemplate repetible = new TransactionTemplate(transactionManager);
+        repetible.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        List<IndiceAgendas.Intervalo> ocupados = repetible.execute(estado -> {
+            // Fija la instantánea de la transacción antes de que otra confirme una cita
+            citaRepository.count();
+            CompletableFuture.runAsync(() -> reservar(DIA.withHour(10), usuarioId)).join();
+            indiceAgendas.invalidar(profesionalId);
+            return indiceAgendas.ocupados(profesionalId, DIA, DIA.plusDays(1));
+        });
+
+        assertThat(ocupados).extracting(IndiceAgendas.Intervalo::getInicio).containsExactly(DIA.withHour(10));
+    }
+
+    @Test
+    void unaActualizacionRechazadaNoDejaSuCambioEnLaAgenda() {
+        CitaDTO cita = reservar(DIA.withHour(10), usuarioId);
+        reservar(DIA.withHour(12), usuarioId);
+        indiceAgendas.invalidar(profesionalId);
+
+        CitaDTO cambio = citaService.obtenerPorId(cita.getId());
+        cambio.setFechaHora(DIA.withHour(12).withMinute(30));
+        assertThatThrownBy(() -> citaService.actualizar(cita.getId(), cambio))
+                .isInstanceOf(ConflictoHorarioException.class);
+
+        assertThat(indiceAgendas.ocupados(profesionalId, DIA, DIA.plusDays(1)))
+                .extracting(IndiceAgendas.Intervalo::getInicio)
+                .containsExactly(DIA.withHour(10), DIA.withHour(12));
+        assertThatThrownBy(() -> reservar(DIA.withHour(10), usuarioId))
+                .isInstanceOf(ConflictoHorarioException.class);
+    }
+
+    @Test
+    void laCargaNoVeLosCambiosSinConfirmarDelLlamador() {
+        CitaDTO cita = reservar(DIA.withHour(9), usuarioId);
+        indiceAgendas.invalidar(profesionalId);
+
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.executeWithoutResult(estado -> {
+            Cita entidad = citaRepository.findById(cita.getId()).orElseThrow();
+            entidad.setFechaHora(DIA.withHour(15));
+            indiceAgendas.precargar(profesionalId);
+            estado.setRollbackOnly();
+        });
+
+        assertThat(indiceAgendas.ocupados(profesionalId, DIA, DIA.plusDays(1)))
+                .extracting(IndiceAgendas.Intervalo::getInicio)
+                .containsExactly(DIA.withHour(9));
+    }
+
+    @Test
+    void cambiarLaDuracionDelServicioRecalculaLosIntervalos() {
+        reservar(DIA.withHour(10), usuarioId);
+        assertThatThrownBy(() -> reservar(DIA.withHour(10).withMinute(30), usuarioId))
+                .isInstanceOf(ConflictoHorarioException.class);
+
+        ServicioDTO servicio = servicioService.obtenerPorId(servicioId);
+        servicio.setDuracion("30 minutos");
+        servicioService.actualizar(servicioId, servicio);
+
+        assertThat(reservar(DIA.withHour(10).withMinute(30), usuarioId).getId()).isNotNull();
+    }
+
+    @Test
+    void eliminarUnUsuarioLiberaLasFranjasDeSusCitas() {
+        Integer otroUsuarioId = crearUsuario();
+        reservar(DIA.withHour(11), otroUsuarioId);
+
+        usuarioService.eliminar(otroUsuarioId);
+
+        assertThat(reservar(DIA.withHour(11), usuarioId).getId()).isNotNull();
+    }
+
+    @Test
+    void eliminarUnServicioLiberaLasFranjasDeSusCitas() {
+        Integer otroServicioId = servicioService.crear(new ServicioDTO(null, "Evaluación", null, "90", 60.0, null)).getId();
+        citaService.crear(new CitaDTO(null, DIA.withHour(16), "PENDIENTE", usuarioId, null,
+                otroServicioId, null, profesionalId, null, null));
+
+        servicioService.eliminar(otroServicioId);
+
+        assertThat(reservar(DIA.withHour(16), usuarioId).getId()).isNotNull();
+    }
+
+    @Test
+    void eliminarUnProfesionalDescartaSuAgenda() {
+        reservar(DIA.withHour(8), usuarioId);
+        long version = indiceAgendas.version(profesionalId);
+
+        profesionalService.eliminar(profesionalId);
+
+        assertThat(indiceAgendas.version(profesionalId)).isNotEqualTo(version);
+        assertThat(indiceAgendas.ocupados(profesionalId, DIA, DIA.plusDays(1))).isEmpty();
+    }
+
+    private CitaDTO reservar(LocalDateTime fechaHora, Integer usuario) {
+        return citaService.crear(new CitaDTO(null, fechaHora, "PENDIENTE", usuario, null,
+                servicioId, null, profesionalId, null, null));
+    }
+
+    private Integer crearUsuario() {
+        String sufijo = UUID.randomUUID().toString();
+        UsuarioDTO usuario = usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario " + sufijo.substring(0, 8), "usuario-" + sufijo + "@prueba.com", "secreto123", null));
+        return usuario.getId();
+    }
+}
@@ -0,0 +1,127 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.SugerenciaDTO;
+import com.andrey.sistema_citas.dto.UsuarioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de las búsquedas por prefijo de usuarios y profesionales: el texto buscado se normaliza
+ * igual que las claves, y los índices en memoria reflejan cada alta, cambio y baja confirmados.
+ * Los nombres llevan una palabra única por prueba, ya que la base de datos es compartida.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IndiceUsuariosTest {
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private String apellido;
+    private String otroApellido;
+
+    @BeforeEach
+    void crearApellidos() {
+        apellido = "Ñandú" + palabra();
+        otroApellido = "Gómez" + palabra();
+    }
+
+    @Test
+    void losUsuariosSeEncuentranPorCualquierPalabraDelNombreOPorElEmail() {
+        String email = "Búsqueda-" + UUID.randomUUID() + "@prueba.com";
+        Integer id = registrar("María José " + apellido, email);
+
+        assertThat(usuarioService.buscar("  " + apellido.toUpperCase() + " ", 10))
+                .extracting(SugerenciaDTO::getId).containsExactly(id);
+        assertThat(usuarioService.buscar("jose " + apellido.substring(0, 4), 50))
+                .extracting(SugerenciaDTO::getId).contains(id);
+        assertThat(usuarioService.buscar(email.substring(0, 20).toLowerCase(), 10))
+                .singleElement()
+                .satisfies(sugerencia -> {
+                    assertThat(sugerencia.getTexto()).isEqualTo("María José " + apellido);
+                    assertThat(sugerencia.getDetalle()).isEqualTo(email);
+                });
+        assertThat(usuarioService.buscar(apellido.substring(1), 10)).isEmpty();
+    }
+
+    @Test
+    void cadaBusquedaDevuelveComoMuchoElLimite() {
+        for (int i = 0; i < 5; i++) {
+            registrar("Paciente " + apellido, "usuario-" + UUID.randomUUID() + "@prueba.com");
+        }
+
+        assertThat(usuarioService.buscar(apellido, 3)).hasSize(3);
+        assertThat(usuarioService.buscar(apellido, 10)).hasSize(5);
+    }
+
+    @Test
+    void elIndiceDeUsuariosSigueLosCambiosYLasBajas() {
+        Integer id = registrar("Paciente " + apellido, "usuario-" + UUID.randomUUID() + "@prueba.com");
+
+        UsuarioDTO usuario = usuarioService.obtenerPorId(id);
+        usuario.setNombre("Paciente " + otroApellido);
+        usuarioService.actualizar(id, usuario);
+        assertThat(usuarioService.buscar(apellido, 10)).isEmpty();
+        assertThat(usuarioService.buscar(otroApellido, 10)).extracting(SugerenciaDTO::getId).containsExactly(id);
+
+        usuarioService.eliminar(id);
+        assertThat(usuarioService.buscar(otroApellido, 10)).isEmpty();
+    }
+
+    @Test
+    void elIndiceDeProfesionalesSigueLosCambiosDelProfesionalYDeSuUsuario() {
+        Integer usuarioId = registrar("Doctora " + apellido, "usuario-" + UUID.randomUUID() + "@prueba.com");
+        String especialidad = "Neurología" + palabra();
+        Integer profesionalId = profesionalService.crear(
+                new ProfesionalDTO(null, especialidad, null, usuarioId, null, null)).getId();
+        assertThat(profesionalService.buscar(apellido, 10)).extracting(SugerenciaDTO::getId).containsExactly(profesionalId);
+        assertThat(profesionalService.buscar(especialidad.toLowerCase(), 10))
+                .singleElement()
+                .satisfies(sugerencia -> {
+                    assertThat(sugerencia.getId()).isEqualTo(profesionalId);
+                    assertThat(sugerencia.getTexto()).isEqualTo("Doctora " + apellido);
+                    assertThat(sugerencia.getDetalle()).isEqualTo(especialidad);
+                });
+
+        // El cambio de especialidad del profesional
+        String nuevaEspecialidad = "Pediatría" + palabra();
+        ProfesionalDTO cambios = new ProfesionalDTO();
+        cambios.setEspecialidad(nuevaEspecialidad);
+        profesionalService.actualizarParcial(profesionalId, cambios, null);
+        assertThat(profesionalService.buscar(especialidad, 10)).isEmpty();
+        assertThat(profesionalService.buscar(nuevaEspecialidad, 10)).extracting(SugerenciaDTO::getId)
+                .containsExactly(profesionalId);
+
+        // El cambio de nombre de su usuario
+        UsuarioDTO usuario = usuarioService.obtenerPorId(usuarioId);
+        usuario.setNombre("Doctora " + otroApellido);
+        usuarioService.actualizar(usuarioId, usuario);
+        assertThat(profesionalService.buscar(apellido, 10)).isEmpty();
+        assertThat(profesionalService.buscar(otroApellido, 10)).singleElement()
+                .satisfies(sugerencia -> assertThat(sugerencia.getTexto()).isEqualTo("Doctora " + otroApellido));
+
+        profesionalService.eliminar(profesionalId);
+        assertThat(profesionalService.buscar(otroApellido, 10)).isEmpty();
+        assertThat(usuarioService.buscar(otroApellido, 10)).extracting(SugerenciaDTO::getId).containsExactly(usuarioId);
+    }
+
+    private Integer registrar(String nombre, String email) {
+        return usuarioService.registrar(new UsuarioRegistroDTO(nombre, email, "secreto123", null)).getId();
+    }
+
+    private static String palabra() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+    }
+}
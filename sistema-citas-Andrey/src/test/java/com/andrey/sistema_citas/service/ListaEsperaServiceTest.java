@@ -0,0 +1,154 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.SolicitudEsperaDTO;
+import com.andrey.sistema_citas.dto.TransicionLoteDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas de la lista de espera ante cambios que no pasan por una cita concreta: la eliminación
+ * de usuarios, servicios y profesionales con solicitudes, y la cancelación de citas por lotes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListaEsperaServiceTest {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(10);
+
+    @Autowired
+    private ListaEsperaService listaEsperaService;
+
+    @Autowired
+    private ColasEspera colasEspera;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer clienteId;
+    private Integer servicioId;
+    private Integer profesionalUsuarioId;
+    private Integer profesionalId;
+    private LocalDateTime hueco;
+
+    @BeforeEach
+    void crearDatos() {
+        clienteId = crearUsuario();
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalUsuarioId = crearUsuario();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, profesionalUsuarioId, null, null)).getId();
+        hueco = LocalDate.now().plusDays(3).atTime(11, 0);
+    }
+
+    @Test
+    void eliminarAlUsuarioEliminaSusSolicitudes() {
+        SolicitudEsperaDTO solicitud = registrar(clienteId, null);
+        int activas = colasEspera.activas();
+
+        usuarioService.eliminar(clienteId);
+
+        assertThatThrownBy(() -> listaEsperaService.obtenerPorId(solicitud.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(colasEspera.activas()).isEqualTo(activas - 1);
+    }
+
+    @Test
+    void eliminarAlUsuarioDelProfesionalEliminaLasSolicitudesDirigidasAEl() {
+        SolicitudEsperaDTO dirigida = registrar(clienteId, profesionalId);
+        SolicitudEsperaDTO cualquiera = registrar(clienteId, null);
+
+        usuarioService.eliminar(profesionalUsuarioId);
+
+        assertThatThrownBy(() -> listaEsperaService.obtenerPorId(dirigida.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(listaEsperaService.obtenerPorId(cualquiera.getId()).getEstado()).isEqualTo("ACTIVA");
+    }
+
+    @Test
+    void eliminarElServicioEliminaSusSolicitudes() {
+        SolicitudEsperaDTO solicitud = registrar(clienteId, profesionalId);
+
+        servicioService.eliminar(servicioId);
+
+        assertThatThrownBy(() -> listaEsperaService.obtenerPorId(solicitud.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void eliminarAlProfesionalEliminaSoloLasSolicitudesDirigidasAEl() {
+        SolicitudEsperaDTO dirigida = registrar(clienteId, profesionalId);
+        SolicitudEsperaDTO cualquiera = registrar(clienteId, null);
+
+        profesionalService.eliminar(profesionalId);
+
+        assertThatThrownBy(() -> listaEsperaService.obtenerPorId(dirigida.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(listaEsperaService.obtenerPorId(cualquiera.getId()).getEstado()).isEqualTo("ACTIVA");
+    }
+
+    @Test
+    void unaCancelacionPorLotesOfreceLasFranjasLiberadas() throws InterruptedException {
+        citaService.crear(new CitaDTO(null, hueco, "PENDIENTE", crearUsuario(), null,
+                servicioId, null, profesionalId, null, null));
+        SolicitudEsperaDTO solicitud = registrar(clienteId, profesionalId);
+
+        citaService.transicionarEnLote(new TransicionLoteDTO("CANCELADA", null, profesionalId,
+                hueco.minusHours(1), hueco.plusHours(1)));
+
+        SolicitudEsperaDTO atendida = esperarAtendida(solicitud.getId());
+        CitaDTO cita = citaService.obtenerPorId(atendida.getCitaId());
+        assertThat(cita.getFechaHora()).isEqualTo(hueco);
+        assertThat(cita.getUsuarioId()).isEqualTo(clienteId);
+        assertThat(cita.getProfesionalId()).isEqualTo(profesionalId);
+    }
+
+    private SolicitudEsperaDTO esperarAtendida(Integer solicitudId) throws InterruptedException {
+        long limite = System.nanoTime() + ESPERA_MAXIMA.toNanos();
+        SolicitudEsperaDTO solicitud = listaEsperaService.obtenerPorId(solicitudId);
+        while (!"ATENDIDA".equals(solicitud.getEstado()) && System.nanoTime() < limite) {
+            Thread.sleep(20);
+            solicitud = listaEsperaService.obtenerPorId(solicitudId);
+        }
+        assertThat(solicitud.getEstado()).isEqualTo("ATENDIDA");
+        return solicitud;
+    }
+
+    private SolicitudEsperaDTO registrar(Integer usuarioId, Integer profesional) {
+        SolicitudEsperaDTO solicitud = new SolicitudEsperaDTO();
+        solicitud.setUsuarioId(usuarioId);
+        solicitud.setServicioId(servicioId);
+        solicitud.setProfesionalId(profesional);
+        solicitud.setDesde(hueco.toLocalDate().atStartOfDay());
+        solicitud.setHasta(hueco.toLocalDate().plusDays(1).atStartOfDay());
+        return listaEsperaService.registrar(solicitud);
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,122 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del número de sentencias de los listados de citas del servicio: cada listado se resuelve
+ * con una sentencia, y cada página con dos (los IDs y la proyección), sin cargar entidades ni leer
+ * por fila el usuario, el servicio o el profesional, sea cual sea el número de citas.
+ * Cada listado se repite varias veces y se toma el que menos sentencias prepara, porque las tareas
+ * programadas del contexto también cuentan en las estadísticas.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ListadosCitasTest {
+
+    private static final int CITAS = 30;
+    private static final int REPETICIONES = 3;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer usuarioId;
+    private Integer profesionalId;
+    private Integer citaId;
+
+    @BeforeEach
+    void crearCitas() {
+        List<Integer> clientes = List.of(crearUsuario(), crearUsuario(), crearUsuario());
+        List<Integer> servicios = List.of(
+                servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId(),
+                servicioService.crear(new ServicioDTO(null, "Evaluación", null, "30 minutos", 60.0, null)).getId());
+        List<Integer> profesionales = List.of(
+                profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId(),
+                profesionalService.crear(new ProfesionalDTO(null, "Psiquiatría", null, crearUsuario(), null, null)).getId());
+        usuarioId = clientes.get(0);
+        profesionalId = profesionales.get(0);
+
+        // Usuarios, servicios y profesionales distintos por cita, para que una carga por fila se note
+        LocalDateTime inicio = LocalDateTime.of(2037, 1, 5, 8, 0).plusWeeks(UUID.randomUUID().hashCode() & 0x3FF);
+        for (int i = 0; i < CITAS; i++) {
+            citaId = citaService.crear(new CitaDTO(null, inicio.plusHours(i), i % 2 == 0 ? "PENDIENTE" : "CONFIRMADA",
+                    clientes.get(i % clientes.size()), null, servicios.get(i % servicios.size()), null,
+                    profesionales.get(i % profesionales.size()), null, null)).getId();
+        }
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void cadaListadoEsUnaSolaSentenciaYCadaPaginaDos() {
+        Map<String, Supplier<List<CitaDTO>>> listados = new LinkedHashMap<>();
+        listados.put("obtenerTodas", citaService::obtenerTodas);
+        listados.put("obtenerPorId", () -> List.of(citaService.obtenerPorId(citaId)));
+        listados.put("obtenerPorUsuario", () -> citaService.obtenerPorUsuario(usuarioId));
+        listados.put("obtenerPorProfesional", () -> citaService.obtenerPorProfesional(profesionalId));
+        listados.put("obtenerPorEstado", () -> citaService.obtenerPorEstado("CONFIRMADA"));
+        Map<String, Supplier<List<CitaDTO>>> paginas = new LinkedHashMap<>();
+        paginas.put("obtenerPagina", () -> citaService.obtenerPagina(null, 20).getContenido());
+        paginas.put("obtenerPaginaPorUsuario", () -> citaService.obtenerPaginaPorUsuario(usuarioId, null, 20).getContenido());
+        paginas.put("obtenerPaginaPorProfesional",
+                () -> citaService.obtenerPaginaPorProfesional(profesionalId, null, 20).getContenido());
+        paginas.put("obtenerPaginaPorEstado", () -> citaService.obtenerPaginaPorEstado("PENDIENTE", null, 20).getContenido());
+
+        listados.forEach((nombre, listado) -> comprobar(nombre, listado, 1));
+        paginas.forEach((nombre, pagina) -> comprobar(nombre, pagina, 2));
+    }
+
+    private void comprobar(String nombre, Supplier<List<CitaDTO>> listado, long sentenciasEsperadas) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long sentencias = Long.MAX_VALUE;
+        long entidades = Long.MAX_VALUE;
+        for (int i = 0; i < REPETICIONES; i++) {
+            estadisticas.clear();
+            List<CitaDTO> citas = listado.get();
+            assertThat(citas).as(nombre).isNotEmpty().allSatisfy(cita -> {
+                assertThat(cita.getUsuarioNombre()).isNotNull();
+                assertThat(cita.getServicioNombre()).isNotNull();
+                assertThat(cita.getProfesionalNombre()).isNotNull();
+            });
+            sentencias = Math.min(sentencias, estadisticas.getPrepareStatementCount());
+            entidades = Math.min(entidades, estadisticas.getEntityLoadCount());
+        }
+        assertThat(sentencias).as(nombre + ": sentencias").isEqualTo(sentenciasEsperadas);
+        assertThat(entidades).as(nombre + ": entidades cargadas").isZero();
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,161 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.Medicion;
+import com.andrey.sistema_citas.SistemaCitasAndreyApplication;
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.PaginaDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import com.andrey.sistema_citas.util.CursorCita;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mediciones de la paginación de citas por cursor frente a la paginación por OFFSET con la misma
+ * proyección, desde la primera página hasta la 10.000. Con el cursor, cada página recorre solo sus
+ * filas del índice (fecha_hora, id) y su costo no depende de la posición; con OFFSET, la base de datos
+ * lee y descarta todas las filas anteriores. La base de datos es H2 en memoria en modo MySQL.
+ */
+@Tag(Medicion.ETIQUETA)
+class PaginacionCitasBenchmarkTest {
+
+    // H2 reutiliza el resultado de una consulta repetida si las tablas no cambian: se desactiva para medir cada lectura
+    private static final String OPCIONES_H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1"
+            + ";OPTIMIZE_REUSE_RESULTS=FALSE";
+    private static final int TAMANO_PAGINA = 20;
+    private static final int[] PAGINAS = {1, 10, 100, 1_000, 10_000};
+    private static final int CITAS = TAMANO_PAGINA * PAGINAS[PAGINAS.length - 1];
+    private static final int PROFESIONALES = 100;
+    private static final int RONDAS = 3;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 1, 7, 8, 0);
+    private static final String IDS_POR_OFFSET = "SELECT c.id FROM Cita c ORDER BY c.fechaHora ASC, c.id ASC";
+
+    @Test
+    void elCostoDeUnaPaginaPorCursorNoDependeDeSuPosicion() {
+        try (ConfigurableApplicationContext contexto = arrancar()) {
+            poblar(contexto);
+            CitaService citaService = contexto.getBean(CitaService.class);
+            CitaRepository citaRepository = contexto.getBean(CitaRepository.class);
+            EntityManager entityManager = contexto.getBean(EntityManager.class);
+            // La página por OFFSET se lee igual que la del servicio, en una transacción de solo lectura:
+            // primero los IDs y después la proyección, pero saltando las filas anteriores en lugar de buscar el cursor
+            TransactionTemplate transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+            transaccion.setReadOnly(true);
+
+            Map<Integer, Supplier<List<CitaDTO>>> porCursor = new LinkedHashMap<>();
+            Map<Integer, Supplier<List<CitaDTO>>> porOffset = new LinkedHashMap<>();
+            for (int pagina : PAGINAS) {
+                String cursor = cursorDePagina(pagina);
+                int desplazamiento = (pagina - 1) * TAMANO_PAGINA;
+                porCursor.put(pagina, () -> citaService.obtenerPagina(cursor, TAMANO_PAGINA).getContenido());
+                porOffset.put(pagina, () -> transaccion.execute(estado -> citaRepository.findDTOPorIds(
+                        entityManager.createQuery(IDS_POR_OFFSET, Integer.class)
+                                .setFirstResult(desplazamiento)
+                                .setMaxResults(TAMANO_PAGINA)
+                                .getResultList())));
+                // Ambas paginaciones devuelven las mismas citas
+                assertThat(porCursor.get(pagina).get()).extracting(CitaDTO::getId)
+                        .containsExactlyInAnyOrderElementsOf(porOffset.get(pagina).get().stream().map(CitaDTO::getId).toList());
+            }
+
+            // Rondas alternas por cursor y por OFFSET; de cada página se toma la mejor medición
+            Map<Integer, Double> mejorPorCursor = new LinkedHashMap<>();
+            Map<Integer, Double> mejorPorOffset = new LinkedHashMap<>();
+            for (int ronda = 0; ronda < RONDAS; ronda++) {
+                porCursor.forEach((pagina, lectura) -> mejorPorCursor.merge(pagina,
+                        Medicion.microsegundosPorOperacion(200, 1_000, lectura), Math::min));
+                porOffset.forEach((pagina, lectura) -> {
+                    int repeticiones = pagina >= 1_000 ? 20 : 200;
+                    mejorPorOffset.merge(pagina,
+                            Medicion.microsegundosPorOperacion(repeticiones / 4, repeticiones, lectura), Math::min);
+                });
+            }
+
+            mejorPorCursor.forEach((pagina, micros) -> Medicion.informar("paginacion",
+                    "pagina %d: %.0f us por cursor, %.0f us por OFFSET (%d citas, %d por pagina)",
+                    pagina, micros, mejorPorOffset.get(pagina), CITAS, TAMANO_PAGINA));
+
+            int ultima = PAGINAS[PAGINAS.length - 1];
+            assertThat(mejorPorCursor.get(ultima)).isLessThan(mejorPorCursor.get(1) * 3);
+            assertThat(mejorPorCursor.get(ultima)).isLessThan(mejorPorOffset.get(ultima));
+        }
+    }
+
+    /**
+     * Cursor de la página indicada: las citas se insertan en orden de (fecha y hora, id), por lo que
+     * la última de la página anterior es la de ID (pagina - 1) * TAMANO_PAGINA.
+     */
+    private static String cursorDePagina(int pagina) {
+        if (pagina == 1) {
+            return null;
+        }
+        int anterior = (pagina - 1) * TAMANO_PAGINA;
+        return new CursorCita(fechaHora(anterior - 1), anterior).codificar();
+    }
+
+    private static LocalDateTime fechaHora(int indice) {
+        return INICIO.plusHours(indice / PROFESIONALES);
+    }
+
+    private ConfigurableApplicationContext arrancar() {
+        // Como argumentos de línea de comandos, las propiedades prevalecen sobre las de los archivos del perfil
+        return new SpringApplicationBuilder(SistemaCitasAndreyApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:paginacion" + OPCIONES_H2,
+                        "--server.port=0",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--logging.level.com.andrey.sistema_citas=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+    }
+
+    private void poblar(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        Timestamp registro = Timestamp.valueOf(INICIO);
+        // Las conexiones del pool no confirman automáticamente: la carga necesita su transacción
+        new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class)).executeWithoutResult(estado -> {
+            jdbc.batchUpdate("INSERT INTO usuario (nombre, email, password, fecha_registro, rol) VALUES (?, ?, 'x', ?, 'CLIENTE')",
+                    IntStream.range(0, PROFESIONALES).mapToObj(i -> new Object[]{
+                            "Usuario " + i, "paginacion" + i + "@benchmark.com", registro}).toList());
+            List<Integer> usuarios = jdbc.queryForList(
+                    "SELECT id FROM usuario WHERE email LIKE '%@benchmark.com' ORDER BY id", Integer.class);
+            jdbc.batchUpdate("INSERT INTO profesional (especialidad, usuario_id) VALUES ('Psicología', ?)",
+                    usuarios.stream().map(usuario -> new Object[]{usuario}).toList());
+            List<Integer> profesionales = jdbc.queryForList("SELECT id FROM profesional ORDER BY id", Integer.class);
+            jdbc.update("INSERT INTO servicio (nombre, duracion, precio) VALUES ('Servicio paginación', '60 minutos', 40.0)");
+            Integer servicio = jdbc.queryForObject("SELECT MAX(id) FROM servicio", Integer.class);
+
+            // Una cita por hora y profesional: el orden de los IDs coincide con el de (fecha y hora, id)
+            List<Object[]> filas = new ArrayList<>(CITAS);
+            for (int i = 0; i < CITAS; i++) {
+                Integer profesional = profesionales.get(i % PROFESIONALES);
+                LocalDateTime fechaHora = fechaHora(i);
+                filas.add(new Object[]{i + 1, Timestamp.valueOf(fechaHora), EstadoCita.CONFIRMADA.getCodigo(),
+                        usuarios.get((i * 7) % PROFESIONALES), servicio, profesional, profesional + ":" + fechaHora});
+            }
+            jdbc.batchUpdate("INSERT INTO cita (id, fecha_hora, estado, usuario_id, servicio_id, profesional_id, slot_clave) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)", filas);
+            jdbc.execute("ANALYZE");
+        });
+        assertThat(contexto.getBean(CitaService.class).obtenerPagina(null, TAMANO_PAGINA))
+                .extracting(PaginaDTO::getSiguiente).isNotNull();
+    }
+}
@@ -0,0 +1,136 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.PaginaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.util.CursorCita;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas de la paginación por cursor: recorrer las páginas devuelve cada cita una sola vez,
+ * en orden de (fecha y hora, id), también cuando varias citas comparten fecha y hora.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaginacionCitasTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2033, 2, 7, 8, 0);
+    private static final Comparator<CitaDTO> ORDEN = Comparator.comparing(CitaDTO::getFechaHora)
+            .thenComparing(CitaDTO::getId);
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer usuarioId;
+    private Integer profesionalId;
+    private final List<CitaDTO> citas = new ArrayList<>();
+
+    @BeforeEach
+    void crearCitas() {
+        usuarioId = crearUsuario();
+        Integer servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId();
+        Integer otroProfesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId();
+
+        // Cada hora tiene una cita con cada profesional: las citas del usuario empatan en fecha y hora
+        for (int i = 0; i < 12; i++) {
+            LocalDateTime fechaHora = INICIO.plusHours(i);
+            for (Integer profesional : List.of(otroProfesionalId, profesionalId)) {
+                citas.add(citaService.crear(new CitaDTO(null, fechaHora, "PENDIENTE", usuarioId, null,
+                        servicioId, null, profesional, null, null)));
+            }
+        }
+    }
+
+    @Test
+    void recorrerLasPaginasDeUnUsuarioDevuelveCadaCitaUnaVezEnOrden() {
+        List<CitaDTO> recorridas = recorrer(cursor -> citaService.obtenerPaginaPorUsuario(usuarioId, cursor, 5));
+
+        assertThat(recorridas).extracting(CitaDTO::getId)
+                .containsExactlyElementsOf(citas.stream().sorted(ORDEN).map(CitaDTO::getId).toList());
+    }
+
+    @Test
+    void recorrerLasPaginasDeUnProfesionalDevuelveSoloSusCitas() {
+        List<CitaDTO> recorridas = recorrer(cursor -> citaService.obtenerPaginaPorProfesional(profesionalId, cursor, 7));
+
+        assertThat(recorridas).extracting(CitaDTO::getId).containsExactlyElementsOf(citas.stream()
+                .filter(cita -> cita.getProfesionalId().equals(profesionalId))
+                .sorted(ORDEN).map(CitaDTO::getId).toList());
+    }
+
+    @Test
+    void unCursorEnMedioDeUnEmpateContinuaPorElId() {
+        List<CitaDTO> ordenadas = citas.stream().sorted(ORDEN).toList();
+        CitaDTO primeraDelEmpate = ordenadas.get(4);
+        String cursor = new CursorCita(primeraDelEmpate.getFechaHora(), primeraDelEmpate.getId()).codificar();
+
+        PaginaDTO<CitaDTO> pagina = citaService.obtenerPaginaPorUsuario(usuarioId, cursor, 3);
+
+        assertThat(pagina.getContenido()).extracting(CitaDTO::getId)
+                .containsExactlyElementsOf(ordenadas.subList(5, 8).stream().map(CitaDTO::getId).toList());
+        assertThat(pagina.getContenido().get(0).getFechaHora()).isEqualTo(primeraDelEmpate.getFechaHora());
+    }
+
+    @Test
+    void laPaginacionGeneralMantieneElOrdenEntrePaginas() {
+        CitaDTO primera = citas.stream().min(ORDEN).orElseThrow();
+        String cursor = new CursorCita(primera.getFechaHora(), primera.getId()).codificar();
+
+        PaginaDTO<CitaDTO> pagina = citaService.obtenerPagina(cursor, 10);
+        PaginaDTO<CitaDTO> siguiente = citaService.obtenerPagina(pagina.getSiguiente(), 10);
+
+        List<CitaDTO> ambas = new ArrayList<>(pagina.getContenido());
+        ambas.addAll(siguiente.getContenido());
+        assertThat(ambas).isSortedAccordingTo(ORDEN).doesNotHaveDuplicates();
+        assertThat(ORDEN.compare(ambas.get(0), primera)).isPositive();
+    }
+
+    @Test
+    void unCursorInvalidoSeRechaza() {
+        assertThatThrownBy(() -> citaService.obtenerPagina("no-es-un-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<CitaDTO> recorrer(Function<String, PaginaDTO<CitaDTO>> consulta) {
+        List<CitaDTO> recorridas = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaDTO<CitaDTO> pagina = consulta.apply(cursor);
+            assertThat(pagina.getContenido()).hasSizeLessThanOrEqualTo(pagina.getLimite());
+            recorridas.addAll(pagina.getContenido());
+            cursor = pagina.getSiguiente();
+        } while (cursor != null);
+        return recorridas;
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
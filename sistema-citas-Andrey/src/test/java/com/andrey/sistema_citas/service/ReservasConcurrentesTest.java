@@ -0,0 +1,137 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.exception.ConflictoHorarioException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de estrés de la reserva concurrente: de muchas solicitudes que compiten por el mismo
+ * horario del mismo profesional, exactamente una obtiene la cita y el resto recibe un conflicto.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservasConcurrentesTest {
+
+    private static final int SOLICITUDES = 300;
+    private static final int HILOS = 64;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer usuarioId;
+    private Integer servicioId;
+    private Integer profesionalId;
+
+    @BeforeEach
+    void crearDatos() {
+        String sufijo = UUID.randomUUID().toString();
+        usuarioId = usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario " + sufijo.substring(0, 8), "usuario-" + sufijo + "@prueba.com", "secreto123", null)).getId();
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, usuarioId, null, null)).getId();
+    }
+
+    @Test
+    void soloUnaDeCientosDeReservasSimultaneasObtieneLaFranja() throws Exception {
+        LocalDateTime franja = LocalDateTime.of(2032, 5, 10, 10, 0);
+        List<Callable<CitaDTO>> reservas = new ArrayList<>();
+        for (int i = 0; i < SOLICITUDES; i++) {
+            // Horarios distintos que se solapan todos con la franja de las 10:00
+            LocalDateTime inicio = franja.plusMinutes(i % 2 == 0 ? 0 : (i % 59) - 29);
+            reservas.add(() -> reservar(inicio));
+        }
+
+        List<CitaDTO> creadas = lanzarALaVez(reservas);
+
+        assertThat(creadas).hasSize(1);
+        assertThat(citaRepository.findDTOPorProfesionalEntre(
+                profesionalId, franja.minusHours(2), franja.plusHours(2))).hasSize(1);
+    }
+
+    @Test
+    void lasReservasQueCruzanLaMedianocheSeSerializanConLasDelDiaSiguiente() throws Exception {
+        LocalDateTime medianoche = LocalDateTime.of(2032, 5, 11, 0, 0);
+        List<Callable<CitaDTO>> reservas = new ArrayList<>();
+        for (int i = 0; i < SOLICITUDES; i++) {
+            // La mitad empieza el día anterior y termina después de medianoche; la otra mitad, a medianoche
+            LocalDateTime inicio = i % 2 == 0 ? medianoche.minusMinutes(30) : medianoche;
+            reservas.add(() -> reservar(inicio));
+        }
+
+        List<CitaDTO> creadas = lanzarALaVez(reservas);
+
+        assertThat(creadas).hasSize(1);
+        assertThat(citaRepository.findDTOPorProfesionalEntre(
+                profesionalId, medianoche.minusHours(2), medianoche.plusHours(2))).hasSize(1);
+    }
+
+    private CitaDTO reservar(LocalDateTime inicio) {
+        return citaService.crear(new CitaDTO(null, inicio, "PENDIENTE", usuarioId, null,
+                servicioId, null, profesionalId, null, null));
+    }
+
+    /**
+     * Ejecuta las reservas desde una barrera común y devuelve las que se crearon; cualquier
+     * fallo distinto de un conflicto de horario hace fallar la prueba.
+     */
+    private List<CitaDTO> lanzarALaVez(List<Callable<CitaDTO>> reservas) throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<CitaDTO>> resultados = new ArrayList<>();
+            for (Callable<CitaDTO> reserva : reservas) {
+                resultados.add(hilos.submit(() -> {
+                    salida.await();
+                    return reserva.call();
+                }));
+            }
+            salida.countDown();
+
+            List<CitaDTO> creadas = new ArrayList<>();
+            for (Future<CitaDTO> resultado : resultados) {
+                try {
+                    creadas.add(resultado.get(2, TimeUnit.MINUTES));
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(ConflictoHorarioException.class);
+                }
+            }
+            return creadas;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
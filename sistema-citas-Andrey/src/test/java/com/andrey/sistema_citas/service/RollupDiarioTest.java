@@ -0,0 +1,229 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.OcupacionDiariaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ResumenPeriodoDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.TransicionLoteDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del resumen diario de citas sobre H2 en modo MySQL: los cambios se escriben antes del commit
+ * y solo si la transacción se confirma, las escrituras sobre una misma fila se suman con
+ * ON DUPLICATE KEY UPDATE, y tras creaciones, transiciones individuales y por lotes y eliminaciones
+ * los reportes coinciden con un recuento directo sobre la tabla de citas. También se comprueba
+ * el cálculo inicial de la migración V5 sobre citas existentes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RollupDiarioTest {
+
+    // Agrupa las citas de la tabla igual que el resumen: día, servicio y estado, con el precio actual del servicio
+    private static final String RECUENTO_DIRECTO = "SELECT CAST(c.fecha_hora AS DATE) AS fecha, c.servicio_id, c.estado, "
+            + "COUNT(*) AS total, SUM(s.precio) AS ingresos FROM cita c JOIN servicio s ON s.id = c.servicio_id "
+            + "WHERE c.profesional_id = ? GROUP BY CAST(c.fecha_hora AS DATE), c.servicio_id, c.estado "
+            + "ORDER BY fecha, c.servicio_id, c.estado";
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Integer usuarioId;
+    private Integer terapiaId;
+    private Integer evaluacionId;
+    private Integer profesionalId;
+    private LocalDate lunes;
+
+    @BeforeEach
+    void crearDatos() {
+        usuarioId = crearUsuario();
+        terapiaId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        evaluacionId = servicioService.crear(new ServicioDTO(null, "Evaluación", null, "30 minutos", 65.5, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId();
+        lunes = LocalDate.of(2038, 1, 4).plusWeeks(UUID.randomUUID().hashCode() & 0x3FF);
+    }
+
+    @Test
+    void elResumenSeEscribeAntesDelCommitYSoloSiSeConfirma() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        long dentroDeLaTransaccion = transaccion.execute(estado -> {
+            reservar(lunes.atTime(9, 0), "PENDIENTE", terapiaId);
+            reservar(lunes.atTime(10, 0), "PENDIENTE", terapiaId);
+            // Los cambios se acumulan en memoria hasta el commit
+            return totalEnResumen();
+        });
+        assertThat(dentroDeLaTransaccion).isZero();
+        assertThat(totalEnResumen()).isEqualTo(2);
+
+        transaccion.executeWithoutResult(estado -> {
+            reservar(lunes.atTime(11, 0), "PENDIENTE", terapiaId);
+            estado.setRollbackOnly();
+        });
+        assertThat(totalEnResumen()).isEqualTo(2);
+
+        // Una cita creada y eliminada en la misma transacción no deja rastro en el resumen
+        transaccion.executeWithoutResult(estado ->
+                citaService.eliminar(reservar(lunes.atTime(12, 0), "PENDIENTE", terapiaId)));
+        assertThat(totalEnResumen()).isEqualTo(2);
+    }
+
+    @Test
+    void lasEscriturasSobreLaMismaFilaSeSuman() {
+        for (int hora = 8; hora < 13; hora++) {
+            reservar(lunes.atTime(hora, 0), "CONFIRMADA", evaluacionId);
+        }
+
+        assertThat(reporteService.ocupacion(lunes, lunes, profesionalId, null))
+                .singleElement()
+                .satisfies(fila -> {
+                    assertThat(fila.getTotalCitas()).isEqualTo(5);
+                    assertThat(fila.getIngresos()).isEqualTo(5 * 65.5);
+                });
+    }
+
+    @Test
+    void losReportesCoincidenConLaTablaDeCitas() {
+        // Creaciones individuales y por lotes en dos semanas y con dos servicios
+        List<CitaDTO> lote = new ArrayList<>();
+        for (int dia = 0; dia < 10; dia++) {
+            LocalDate fecha = lunes.plusDays(dia);
+            lote.add(cita(fecha.atTime(9, 0), "PENDIENTE", terapiaId));
+            lote.add(cita(fecha.atTime(11, 0), dia % 3 == 0 ? "CONFIRMADA" : "PENDIENTE", evaluacionId));
+        }
+        assertThat(citaService.crearLote(lote).getRechazadas()).isEmpty();
+        Integer aCancelar = reservar(lunes.atTime(14, 0), "PENDIENTE", terapiaId);
+        Integer aMover = reservar(lunes.plusDays(1).atTime(15, 0), "CONFIRMADA", evaluacionId);
+        Integer aEliminar = reservar(lunes.plusDays(2).atTime(16, 0), "PENDIENTE", terapiaId);
+
+        // Transiciones individuales: cancelación, cambio de día y de servicio, y eliminación
+        CitaDTO cancelada = citaService.obtenerPorId(aCancelar);
+        cancelada.setEstado("CANCELADA");
+        citaService.actualizar(aCancelar, cancelada);
+        CitaDTO movida = citaService.obtenerPorId(aMover);
+        movida.setFechaHora(lunes.plusDays(8).atTime(15, 0));
+        movida.setServicioId(terapiaId);
+        citaService.actualizar(aMover, movida);
+        citaService.eliminar(aEliminar);
+
+        // Transiciones por lotes: confirmar las pendientes de la primera semana y completar parte de la segunda
+        citaService.transicionarEnLote(new TransicionLoteDTO("CONFIRMADA", "PENDIENTE", profesionalId,
+                lunes.atStartOfDay(), lunes.plusDays(7).atStartOfDay()));
+        citaService.transicionarEnLote(new TransicionLoteDTO("COMPLETADA", null, profesionalId,
+                lunes.plusDays(7).atStartOfDay(), lunes.plusDays(9).atStartOfDay()));
+        citaService.transicionarEnLote(new TransicionLoteDTO("CANCELADA", null, profesionalId,
+                lunes.plusDays(9).atStartOfDay(), lunes.plusDays(10).atStartOfDay()));
+
+        List<List<Object>> esperado = jdbc.query(RECUENTO_DIRECTO, (fila, numero) -> List.of(
+                fila.getDate("fecha").toLocalDate(), fila.getInt("servicio_id"),
+                EstadoCita.desdeCodigo(fila.getByte("estado")).name(), fila.getLong("total"), fila.getDouble("ingresos")),
+                profesionalId);
+        List<OcupacionDiariaDTO> ocupacion = reporteService.ocupacion(lunes, lunes.plusDays(13), profesionalId, null);
+        assertThat(ocupacion).extracting(fila -> (Object) List.of(fila.getFecha(), fila.getServicioId(), fila.getEstado(),
+                fila.getTotalCitas(), fila.getIngresos())).containsExactlyElementsOf(esperado);
+
+        // El resumen semanal suma las mismas citas que la tabla
+        List<ResumenPeriodoDTO> semanas = reporteService.resumen(lunes, lunes.plusDays(13), "SEMANA", profesionalId, null);
+        for (ResumenPeriodoDTO semana : semanas) {
+            Long directo = jdbc.queryForObject("SELECT COUNT(*) FROM cita WHERE profesional_id = ? AND estado = ? "
+                            + "AND fecha_hora >= ? AND fecha_hora < ?", Long.class, profesionalId,
+                    EstadoCita.valueOf(semana.getEstado()).getCodigo(),
+                    Timestamp.valueOf(semana.getInicioPeriodo().atStartOfDay()),
+                    Timestamp.valueOf(semana.getInicioPeriodo().plusWeeks(1).atStartOfDay()));
+            assertThat(semana.getTotalCitas()).as(semana.getInicioPeriodo() + " " + semana.getEstado()).isEqualTo(directo);
+        }
+        assertThat(semanas.stream().mapToLong(ResumenPeriodoDTO::getTotalCitas).sum())
+                .isEqualTo(jdbc.queryForObject("SELECT COUNT(*) FROM cita WHERE profesional_id = ?", Long.class, profesionalId));
+    }
+
+    @Test
+    void laMigracionV5CalculaElResumenDeLasCitasExistentes() {
+        DriverManagerDataSource origen = new DriverManagerDataSource(
+                "jdbc:h2:mem:rollup_v5_" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        Flyway.configure().dataSource(origen).target("4").load().migrate();
+        JdbcTemplate base = new JdbcTemplate(origen);
+        base.update("INSERT INTO usuario (id, nombre, email, password, fecha_registro, rol) "
+                + "VALUES (1, 'Cliente', 'cliente@prueba.com', 'x', ?, 'CLIENTE')", Timestamp.valueOf(lunes.atStartOfDay()));
+        base.update("INSERT INTO profesional (id, especialidad, usuario_id) VALUES (1, 'Psicología', 1)");
+        base.update("INSERT INTO servicio (id, nombre, duracion, precio) VALUES (1, 'Terapia', '60 minutos', 40.0), "
+                + "(2, 'Evaluación', '30 minutos', 65.5)");
+        LocalDateTime inicio = lunes.atTime(8, 0);
+        for (int i = 0; i < 30; i++) {
+            base.update("INSERT INTO cita (id, fecha_hora, estado, usuario_id, servicio_id, profesional_id) "
+                    + "VALUES (?, ?, ?, 1, ?, 1)", i + 1, Timestamp.valueOf(inicio.plusHours(i * 5L)), EstadoCita.values()[i % 4].getCodigo(), 1 + i % 2);
+        }
+
+        Flyway.configure().dataSource(origen).target("5").load().migrate();
+
+        List<List<Object>> directo = base.query(RECUENTO_DIRECTO, (fila, numero) -> List.of(
+                fila.getDate("fecha").toLocalDate(), fila.getInt("servicio_id"), fila.getByte("estado"),
+                fila.getLong("total"), fila.getDouble("ingresos")), 1);
+        List<List<Object>> resumen = base.query("SELECT fecha, servicio_id, estado, total_citas, ingresos "
+                + "FROM cita_rollup_diaria WHERE profesional_id = 1 ORDER BY fecha, servicio_id, estado",
+                (fila, numero) -> List.of(fila.getDate("fecha").toLocalDate(), fila.getInt("servicio_id"),
+                        fila.getByte("estado"), fila.getLong("total_citas"), fila.getDouble("ingresos")));
+        assertThat(directo).hasSizeGreaterThan(1);
+        assertThat(resumen).containsExactlyElementsOf(directo);
+        base.execute("SHUTDOWN");
+    }
+
+    /**
+     * Total de citas del profesional según el resumen diario.
+     */
+    private long totalEnResumen() {
+        return jdbc.queryForObject("SELECT COALESCE(SUM(total_citas), 0) FROM cita_rollup_diaria WHERE profesional_id = ?",
+                Long.class, profesionalId);
+    }
+
+    private Integer reservar(LocalDateTime fechaHora, String estado, Integer servicioId) {
+        return citaService.crear(cita(fechaHora, estado, servicioId)).getId();
+    }
+
+    private CitaDTO cita(LocalDateTime fechaHora, String estado, Integer servicioId) {
+        return new CitaDTO(null, fechaHora, estado, usuarioId, null, servicioId, null, profesionalId, null, null);
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,162 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.SerieCitaDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.exception.ResourceNotFoundException;
+import com.andrey.sistema_citas.repository.CitaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas de la eliminación de series junto con su usuario, servicio o profesional: la eliminación
+ * no choca con las claves foráneas de la serie, sus citas desaparecen con el propietario y sus
+ * ocurrencias pendientes dejan de ocupar la agenda.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SerieCitaServiceTest {
+
+    private static final int REPETICIONES = 10;
+
+    @Autowired
+    private SerieCitaService serieCitaService;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    private Integer clienteId;
+    private Integer servicioId;
+    private Integer profesionalUsuarioId;
+    private Integer profesionalId;
+    private LocalDateTime inicio;
+
+    @BeforeEach
+    void crearDatos() {
+        clienteId = crearUsuario();
+        servicioId = crearServicio();
+        profesionalUsuarioId = crearUsuario();
+        profesionalId = crearProfesional(profesionalUsuarioId);
+        // Las primeras ocurrencias caen dentro del horizonte de materialización y el resto queda pendiente
+        inicio = LocalDate.now().plusDays(1).atTime(9, 0);
+    }
+
+    @Test
+    void eliminarAlClienteEliminaSusSeries() {
+        SerieCitaDTO serie = crearSerie();
+
+        usuarioService.eliminar(clienteId);
+
+        assertThatThrownBy(() -> serieCitaService.obtenerPorId(serie.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(citaRepository.findDTOPorSerie(serie.getId())).isEmpty();
+        assertThat(reservar(crearUsuario(), inicio.plusWeeks(REPETICIONES - 1)).getId()).isNotNull();
+    }
+
+    @Test
+    void eliminarElServicioEliminaSusSeries() {
+        SerieCitaDTO serie = crearSerie();
+
+        servicioService.eliminar(servicioId);
+
+        assertThatThrownBy(() -> serieCitaService.obtenerPorId(serie.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        servicioId = crearServicio();
+        assertThat(reservar(clienteId, inicio.plusWeeks(REPETICIONES - 1)).getId()).isNotNull();
+    }
+
+    @Test
+    void eliminarAlProfesionalEliminaSusSeries() {
+        SerieCitaDTO serie = crearSerie();
+
+        profesionalService.eliminar(profesionalId);
+
+        assertThatThrownBy(() -> serieCitaService.obtenerPorId(serie.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(citaRepository.findDTOPorSerie(serie.getId())).isEmpty();
+    }
+
+    @Test
+    void eliminarAlUsuarioDelProfesionalConservaLasCitasReasignadasSinSerie() {
+        SerieCitaDTO serie = crearSerie();
+        List<CitaDTO> materializadas = citaRepository.findDTOPorSerie(serie.getId());
+        assertThat(materializadas).isNotEmpty();
+        CitaDTO reasignada = materializadas.get(0);
+        reasignada.setProfesionalId(crearProfesional(crearUsuario()));
+        citaService.actualizar(reasignada.getId(), reasignada);
+
+        usuarioService.eliminar(profesionalUsuarioId);
+
+        assertThatThrownBy(() -> serieCitaService.obtenerPorId(serie.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        CitaDTO conservada = citaService.obtenerPorId(reasignada.getId());
+        assertThat(conservada.getSerieId()).isNull();
+        assertThat(conservada.getNumeroSerie()).isNull();
+        assertThat(citaRepository.findDTOPorUsuario(clienteId)).extracting(CitaDTO::getId)
+                .containsExactly(reasignada.getId());
+    }
+
+    @Test
+    void eliminarUnServicioSinSeriesNoAfectaALasDeOtros() {
+        SerieCitaDTO serie = crearSerie();
+        Integer otroServicioId = crearServicio();
+
+        servicioService.eliminar(otroServicioId);
+
+        assertThat(serieCitaService.obtenerPorId(serie.getId()).getId()).isEqualTo(serie.getId());
+    }
+
+    private SerieCitaDTO crearSerie() {
+        SerieCitaDTO serie = new SerieCitaDTO();
+        serie.setFechaInicio(inicio);
+        serie.setFrecuencia("SEMANAL");
+        serie.setRepeticiones(REPETICIONES);
+        serie.setUsuarioId(clienteId);
+        serie.setServicioId(servicioId);
+        serie.setProfesionalId(profesionalId);
+        return serieCitaService.crear(serie);
+    }
+
+    private CitaDTO reservar(Integer usuarioId, LocalDateTime fechaHora) {
+        return citaService.crear(new CitaDTO(null, fechaHora, "PENDIENTE", usuarioId, null,
+                servicioId, null, profesionalId, null, null));
+    }
+
+    private Integer crearServicio() {
+        return servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+    }
+
+    private Integer crearProfesional(Integer usuarioId) {
+        return profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, usuarioId, null, null)).getId();
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
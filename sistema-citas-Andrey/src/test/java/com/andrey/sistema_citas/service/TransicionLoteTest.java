@@ -0,0 +1,179 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.CitaDTO;
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.ServicioDTO;
+import com.andrey.sistema_citas.dto.TransicionLoteDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.entity.EstadoCita;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Pruebas de las transiciones por lotes y de la expiración de citas pendientes: las citas canceladas
+ * no se modifican, cada cita modificada incrementa su versión, la cancelación libera la clave de franja
+ * y los recuentos por grupo llegan a las estadísticas en memoria y al resumen diario.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransicionLoteTest {
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Integer usuarioId;
+    private Integer servicioId;
+    private Integer profesionalId;
+    private LocalDate dia;
+
+    @BeforeEach
+    void crearDatos() {
+        usuarioId = crearUsuario();
+        servicioId = servicioService.crear(new ServicioDTO(null, "Terapia individual", null, "60 minutos", 40.0, null)).getId();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, crearUsuario(), null, null)).getId();
+        dia = LocalDate.of(2036, 1, 1).plusDays(UUID.randomUUID().hashCode() & 0xFFF);
+    }
+
+    @Test
+    void cancelarPorLotesNoTocaLasCanceladasYLiberaLasFranjas() {
+        Integer pendiente = reservar(dia.atTime(9, 0), "PENDIENTE");
+        Integer confirmada = reservar(dia.atTime(10, 0), "CONFIRMADA");
+        Integer cancelada = reservar(dia.atTime(11, 0), "CANCELADA");
+        Map<Integer, Long> versiones = Map.of(pendiente, version(pendiente), confirmada, version(confirmada),
+                cancelada, version(cancelada));
+        Map<String, Long> antes = estadisticasService.obtener(dia).getCitasPorEstado();
+
+        int afectadas = transicionar("CANCELADA", null);
+
+        assertThat(afectadas).isEqualTo(2);
+        assertThat(version(pendiente)).isEqualTo(versiones.get(pendiente) + 1);
+        assertThat(version(confirmada)).isEqualTo(versiones.get(confirmada) + 1);
+        assertThat(version(cancelada)).isEqualTo(versiones.get(cancelada));
+        assertThat(jdbc.queryForList("SELECT slot_clave FROM cita WHERE profesional_id = ?", String.class, profesionalId))
+                .containsOnlyNulls().hasSize(3);
+        // La franja liberada se puede volver a reservar
+        assertThat(reservar(dia.atTime(9, 0), "PENDIENTE")).isNotNull();
+
+        Map<String, Long> despues = estadisticasService.obtener(dia).getCitasPorEstado();
+        assertThat(despues.get("CANCELADA")).isEqualTo(antes.get("CANCELADA") + 2);
+        assertThat(despues.get("PENDIENTE")).isEqualTo(antes.get("PENDIENTE"));
+        assertThat(despues.get("CONFIRMADA")).isEqualTo(antes.get("CONFIRMADA") - 1);
+        assertThat(resumenDelProfesional()).containsOnly(
+                entry(EstadoCita.CANCELADA, 3L), entry(EstadoCita.PENDIENTE, 1L));
+    }
+
+    @Test
+    void cambiarDeEstadoPorLotesSoloModificaLasCitasQueCambian() {
+        Integer pendiente = reservar(dia.atTime(9, 0), "PENDIENTE");
+        Integer confirmada = reservar(dia.atTime(10, 0), "CONFIRMADA");
+        Integer cancelada = reservar(dia.atTime(11, 0), "CANCELADA");
+        long versionConfirmada = version(confirmada);
+        long versionCancelada = version(cancelada);
+        long versionPendiente = version(pendiente);
+        Map<String, Long> antes = estadisticasService.obtener(dia).getCitasPorEstado();
+
+        int afectadas = transicionar("CONFIRMADA", null);
+
+        assertThat(afectadas).isEqualTo(1);
+        assertThat(version(pendiente)).isEqualTo(versionPendiente + 1);
+        assertThat(version(confirmada)).isEqualTo(versionConfirmada);
+        assertThat(version(cancelada)).isEqualTo(versionCancelada);
+        assertThat(estado(cancelada)).isEqualTo(EstadoCita.CANCELADA.getCodigo());
+        assertThat(jdbc.queryForObject("SELECT slot_clave FROM cita WHERE id = ?", String.class, pendiente)).isNotNull();
+
+        Map<String, Long> despues = estadisticasService.obtener(dia).getCitasPorEstado();
+        assertThat(despues.get("PENDIENTE")).isEqualTo(antes.get("PENDIENTE") - 1);
+        assertThat(despues.get("CONFIRMADA")).isEqualTo(antes.get("CONFIRMADA") + 1);
+        assertThat(despues.get("CANCELADA")).isEqualTo(antes.get("CANCELADA"));
+        assertThat(resumenDelProfesional()).containsOnly(
+                entry(EstadoCita.CONFIRMADA, 2L), entry(EstadoCita.CANCELADA, 1L));
+    }
+
+    @Test
+    void expirarPendientesSoloAfectaALasPendientesAnterioresAlInstante() {
+        // Citas anteriores a las del resto de pruebas, para que la expiración no alcance otras
+        LocalDate pasado = LocalDate.of(1990, 1, 1).plusDays(UUID.randomUUID().hashCode() & 0xFFF);
+        Integer vencida = reservar(pasado.atTime(9, 0), "PENDIENTE");
+        Integer confirmada = reservar(pasado.atTime(10, 0), "CONFIRMADA");
+        Integer futura = reservar(pasado.atTime(12, 0), "PENDIENTE");
+        long versionVencida = version(vencida);
+        Map<String, Long> antes = estadisticasService.obtener(pasado).getCitasPorEstado();
+
+        int expiradas = citaService.expirarPendientes(pasado.atTime(11, 0));
+
+        assertThat(expiradas).isEqualTo(1);
+        assertThat(estado(vencida)).isEqualTo(EstadoCita.EXPIRADA.getCodigo());
+        assertThat(version(vencida)).isEqualTo(versionVencida + 1);
+        assertThat(estado(confirmada)).isEqualTo(EstadoCita.CONFIRMADA.getCodigo());
+        assertThat(estado(futura)).isEqualTo(EstadoCita.PENDIENTE.getCodigo());
+
+        Map<String, Long> despues = estadisticasService.obtener(pasado).getCitasPorEstado();
+        assertThat(despues.get("PENDIENTE")).isEqualTo(antes.get("PENDIENTE") - 1);
+        assertThat(despues.get("EXPIRADA")).isEqualTo(antes.get("EXPIRADA") + 1);
+        assertThat(resumenDelProfesional()).containsOnly(entry(EstadoCita.EXPIRADA, 1L),
+                entry(EstadoCita.CONFIRMADA, 1L), entry(EstadoCita.PENDIENTE, 1L));
+    }
+
+    private int transicionar(String destino, String origen) {
+        return citaService.transicionarEnLote(new TransicionLoteDTO(destino, origen, profesionalId,
+                dia.atStartOfDay(), dia.plusDays(1).atStartOfDay())).getAfectadas();
+    }
+
+    /**
+     * Citas del profesional por estado según el resumen diario, sin las filas que quedaron a cero.
+     */
+    private Map<EstadoCita, Long> resumenDelProfesional() {
+        Map<EstadoCita, Long> resumen = new EnumMap<>(EstadoCita.class);
+        jdbc.query("SELECT estado, SUM(total_citas) AS total FROM cita_rollup_diaria WHERE profesional_id = ? "
+                + "GROUP BY estado HAVING SUM(total_citas) <> 0", fila -> {
+            resumen.put(EstadoCita.desdeCodigo(fila.getByte("estado")), fila.getLong("total"));
+        }, profesionalId);
+        return resumen;
+    }
+
+    private long version(Integer citaId) {
+        return jdbc.queryForObject("SELECT version FROM cita WHERE id = ?", Long.class, citaId);
+    }
+
+    private byte estado(Integer citaId) {
+        return jdbc.queryForObject("SELECT estado FROM cita WHERE id = ?", Byte.class, citaId);
+    }
+
+    private Integer reservar(LocalDateTime fechaHora, String estado) {
+        return citaService.crear(new CitaDTO(null, fechaHora, estado, usuarioId, null, servicioId, null,
+                profesionalId, null, null)).getId();
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,93 @@
+package com.andrey.sistema_citas.service;
+
+import com.andrey.sistema_citas.dto.ProfesionalDTO;
+import com.andrey.sistema_citas.dto.UsuarioDTO;
+import com.andrey.sistema_citas.dto.UsuarioRegistroDTO;
+import com.andrey.sistema_citas.event.ProfesionalCambioEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de los avisos que publica la actualización de un usuario: solo un cambio de nombre
+ * avisa al directorio de profesionales, y únicamente por los perfiles profesionales del usuario.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class UsuarioServiceTest {
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ProfesionalService profesionalService;
+
+    @Autowired
+    private DirectorioProfesionales directorioProfesionales;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private Integer usuarioId;
+    private Integer profesionalId;
+
+    @BeforeEach
+    void crearProfesional() {
+        usuarioId = crearUsuario();
+        profesionalId = profesionalService.crear(new ProfesionalDTO(null, "Psicología", null, usuarioId, null, null)).getId();
+        eventos.clear();
+    }
+
+    @Test
+    void renombrarAlUsuarioDeUnProfesionalActualizaSoloSuPerfilEnElDirectorio() {
+        UsuarioDTO usuario = usuarioService.obtenerPorId(usuarioId);
+        usuario.setNombre("Nombre nuevo");
+        usuarioService.actualizar(usuarioId, usuario);
+
+        assertThat(eventos.stream(ProfesionalCambioEvent.class))
+                .extracting(ProfesionalCambioEvent::getProfesionalId)
+                .containsExactly(profesionalId);
+        assertThat(directorioProfesionales.obtenerPorId(profesionalId))
+                .hasValueSatisfying(profesional -> assertThat(profesional.getUsuarioNombre()).isEqualTo("Nombre nuevo"));
+    }
+
+    @Test
+    void losCambiosQueNoTocanElNombreNoAvisanAlDirectorio() {
+        UsuarioDTO cambios = new UsuarioDTO();
+        cambios.setTelefono("600000000");
+        usuarioService.actualizarParcial(usuarioId, cambios, null);
+
+        UsuarioDTO usuario = usuarioService.obtenerPorId(usuarioId);
+        usuario.setEmail("renombrado-" + UUID.randomUUID() + "@prueba.com");
+        usuarioService.actualizar(usuarioId, usuario);
+
+        assertThat(eventos.stream(ProfesionalCambioEvent.class)).isEmpty();
+    }
+
+    @Test
+    void renombrarAUnUsuarioSinPerfilProfesionalNoAvisaAlDirectorio() {
+        Integer clienteId = crearUsuario();
+        eventos.clear();
+
+        UsuarioDTO cambios = new UsuarioDTO();
+        cambios.setNombre("Cliente renombrado");
+        usuarioService.actualizarParcial(clienteId, cambios, null);
+
+        assertThat(usuarioService.obtenerPorId(clienteId).getNombre()).isEqualTo("Cliente renombrado");
+        assertThat(eventos.stream(ProfesionalCambioEvent.class)).isEmpty();
+    }
+
+    private Integer crearUsuario() {
+        return usuarioService.registrar(new UsuarioRegistroDTO(
+                "Usuario", "usuario-" + UUID.randomUUID() + "@prueba.com", "secreto123", null)).getId();
+    }
+}
@@ -0,0 +1,142 @@
+package com.andrey.sistema_citas.util;
+
+import com.andrey.sistema_citas.entity.ExcepcionSerie;
+import com.andrey.sistema_citas.entity.FrecuenciaSerie;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de la expansión de series: el número de ocurrencias según la regla, la aplicación
+ * de excepciones y la selección de ocurrencias pendientes por rango.
+ */
+class ExpansionSerieTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Test
+    void unaSerieSemanalConRepeticionesTerminaEnLaUltima() {
+        ExpansionSerie serie = semanal(4, null, INICIO, Map.of());
+
+        assertThat(serie.getUltimoNumero()).isEqualTo(4);
+        assertThat(serie.existe(0)).isFalse();
+        assertThat(serie.existe(4)).isTrue();
+        assertThat(serie.existe(5)).isFalse();
+        assertThat(serie.fechaOriginal(4)).isEqualTo(INICIO.plusWeeks(3));
+        assertThat(inicios(serie.pendientes()))
+                .containsExactly(INICIO, INICIO.plusWeeks(1), INICIO.plusWeeks(2), INICIO.plusWeeks(3));
+    }
+
+    @Test
+    void unaSerieQuincenalTerminaEnLaFechaLimiteIncluida() {
+        LocalDate hasta = INICIO.toLocalDate().plusWeeks(6);
+        ExpansionSerie serie = new ExpansionSerie(INICIO, FrecuenciaSerie.QUINCENAL, null, hasta, INICIO, Map.of());
+
+        assertThat(serie.getUltimoNumero()).isEqualTo(4);
+        assertThat(serie.fechaOriginal(2)).isEqualTo(INICIO.plusWeeks(2));
+        assertThat(inicios(serie.pendientes())).last().isEqualTo(INICIO.plusWeeks(6));
+    }
+
+    @Test
+    void elLimiteMasRestrictivoEntreRepeticionesYFechaDecide() {
+        assertThat(semanal(3, INICIO.toLocalDate().plusWeeks(10), INICIO, Map.of()).getUltimoNumero()).isEqualTo(3);
+        assertThat(semanal(10, INICIO.toLocalDate().plusDays(15), INICIO, Map.of()).getUltimoNumero()).isEqualTo(3);
+    }
+
+    @Test
+    void unaFechaLimiteAnteriorAlInicioNoTieneOcurrencias() {
+        ExpansionSerie serie = semanal(null, INICIO.toLocalDate().minusDays(1), INICIO, Map.of());
+
+        assertThat(serie.getUltimoNumero()).isZero();
+        assertThat(serie.existe(1)).isFalse();
+        assertThat(serie.pendientes()).isEmpty();
+    }
+
+    @Test
+    void unaSerieSinFinTieneOcurrenciasMuyLejanas() {
+        ExpansionSerie serie = semanal(null, null, INICIO, Map.of());
+        LocalDateTime lejos = INICIO.plusYears(50);
+
+        assertThat(serie.getUltimoNumero()).isEqualTo(Integer.MAX_VALUE);
+        List<ExpansionSerie.Ocurrencia> ocurrencias = serie.pendientesEntre(lejos, lejos.plusWeeks(2));
+        assertThat(ocurrencias).hasSize(2);
+        assertThat(ocurrencias.get(0).inicio()).isAfterOrEqualTo(lejos);
+        assertThat(ocurrencias.get(0).inicio()).isEqualTo(serie.fechaOriginal(ocurrencias.get(0).numero()));
+    }
+
+    @Test
+    void lasOcurrenciasCanceladasNoSeDevuelven() {
+        ExpansionSerie serie = semanal(4, null, INICIO, Map.of(2, ExcepcionSerie.cancelada()));
+
+        assertThat(serie.existe(2)).isTrue();
+        assertThat(serie.fechaEfectiva(2)).isNull();
+        assertThat(serie.pendiente(2)).isFalse();
+        assertThat(numeros(serie.pendientes())).containsExactly(1, 3, 4);
+    }
+
+    @Test
+    void lasOcurrenciasMovidasSeDevuelvenEnSuNuevaFechaYOrdenadas() {
+        LocalDateTime movida = INICIO.plusWeeks(2).plusDays(1);
+        ExpansionSerie serie = semanal(4, null, INICIO, Map.of(1, ExcepcionSerie.movida(movida)));
+
+        assertThat(serie.fechaEfectiva(1)).isEqualTo(movida);
+        assertThat(serie.fechaOriginal(1)).isEqualTo(INICIO);
+        assertThat(serie.pendientes()).extracting(ExpansionSerie.Ocurrencia::inicio).isSorted();
+        assertThat(numeros(serie.pendientes())).containsExactly(2, 3, 1, 4);
+    }
+
+    @Test
+    void unaOcurrenciaMovidaFueraDelRangoNoSeDevuelve() {
+        LocalDateTime movida = INICIO.plusWeeks(8);
+        ExpansionSerie serie = semanal(4, null, INICIO, Map.of(2, ExcepcionSerie.movida(movida)));
+
+        assertThat(numeros(serie.pendientesEntre(INICIO, INICIO.plusWeeks(4)))).containsExactly(1, 3, 4);
+        assertThat(numeros(serie.pendientesEntre(movida, movida.plusDays(1)))).containsExactly(2);
+    }
+
+    @Test
+    void lasOcurrenciasMaterializadasNoEstanPendientes() {
+        ExpansionSerie serie = semanal(4, null, INICIO.plusWeeks(2), Map.of());
+
+        assertThat(serie.pendiente(2)).isFalse();
+        assertThat(serie.pendiente(3)).isTrue();
+        assertThat(numeros(serie.pendientesEntre(INICIO, INICIO.plusWeeks(10)))).containsExactly(3, 4);
+    }
+
+    @Test
+    void elRangoEsSemiabierto() {
+        ExpansionSerie serie = semanal(4, null, INICIO, Map.of());
+
+        assertThat(numeros(serie.pendientesEntre(INICIO.plusWeeks(1), INICIO.plusWeeks(3)))).containsExactly(2, 3);
+        assertThat(serie.pendientesEntre(INICIO.plusWeeks(1), INICIO.plusWeeks(1))).isEmpty();
+    }
+
+    @Test
+    void elPrimerNumeroDesdeUnInstanteRedondeaHaciaArriba() {
+        ExpansionSerie serie = semanal(null, null, INICIO, Map.of());
+
+        assertThat(serie.primerNumeroDesde(INICIO.minusYears(1))).isEqualTo(1);
+        assertThat(serie.primerNumeroDesde(INICIO)).isEqualTo(1);
+        assertThat(serie.primerNumeroDesde(INICIO.plusNanos(1))).isEqualTo(2);
+        assertThat(serie.primerNumeroDesde(INICIO.plusWeeks(1))).isEqualTo(2);
+        assertThat(serie.primerNumeroDesde(INICIO.plusWeeks(1).plusSeconds(1))).isEqualTo(3);
+    }
+
+    private static ExpansionSerie semanal(Integer repeticiones, LocalDate hasta, LocalDateTime materializadaHasta,
+                                          Map<Integer, ExcepcionSerie> excepciones) {
+        return new ExpansionSerie(INICIO, FrecuenciaSerie.SEMANAL, repeticiones, hasta, materializadaHasta, excepciones);
+    }
+
+    private static List<LocalDateTime> inicios(List<ExpansionSerie.Ocurrencia> ocurrencias) {
+        return ocurrencias.stream().map(ExpansionSerie.Ocurrencia::inicio).toList();
+    }
+
+    private static List<Integer> numeros(List<ExpansionSerie.Ocurrencia> ocurrencias) {
+        return ocurrencias.stream().map(ExpansionSerie.Ocurrencia::numero).toList();
+    }
+}
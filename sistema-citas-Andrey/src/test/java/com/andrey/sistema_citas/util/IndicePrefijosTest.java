@@ -0,0 +1,95 @@
+package com.andrey.sistema_citas.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas del índice por prefijos: se encuentra cada ID por el comienzo de cualquier palabra,
+ * sin distinguir mayúsculas ni tildes, una sola vez y en el orden de sus claves, sin superar
+ * el límite pedido; los cambios quitan las claves anteriores del ID y agregan las nuevas.
+ */
+class IndicePrefijosTest {
+
+    private final IndicePrefijos indice = IndicePrefijos.construir(Map.of(
+            1, IndicePrefijos.clavesDePalabras("María José Pérez"),
+            2, IndicePrefijos.clavesDePalabras("José Luis Martín"),
+            3, IndicePrefijos.clavesDePalabras("Marta Pérez"),
+            4, IndicePrefijos.clavesDePalabras("Luis")));
+
+    @Test
+    void lasClavesSonElTextoNormalizadoDesdeCadaPalabra() {
+        assertThat(IndicePrefijos.clavesDePalabras("  María   José PÉREZ "))
+                .containsExactly("maria jose perez", "jose perez", "perez");
+        assertThat(IndicePrefijos.clavesDePalabras("   ")).isEmpty();
+        assertThat(IndicePrefijos.clavesDePalabras(null)).isEmpty();
+    }
+
+    @Test
+    void seEncuentraPorElComienzoDeCualquierPalabraEnElOrdenDeSusClaves() {
+        assertThat(indice.buscar("mar", 10)).containsExactly(1, 3, 2);
+        assertThat(indice.buscar("perez", 10)).containsExactly(1, 3);
+        assertThat(indice.buscar("jose l", 10)).containsExactly(2);
+        assertThat(indice.buscar("luis", 10)).containsExactly(4, 2);
+        // Las claves empiezan en una palabra: un fragmento interior no coincide
+        assertThat(indice.buscar("rez", 10)).isEmpty();
+        assertThat(indice.buscar("zz", 10)).isEmpty();
+    }
+
+    @Test
+    void cadaIdSeDevuelveUnaSolaVezAunqueCoincidanVariasDeSusClaves() {
+        IndicePrefijos repetido = IndicePrefijos.construir(Map.of(
+                7, IndicePrefijos.clavesDePalabras("Ana Ana Ana"),
+                8, List.of("ana")));
+
+        assertThat(repetido.buscar("ana", 10)).containsExactly(7, 8);
+        assertThat(repetido.tamano()).isEqualTo(4);
+    }
+
+    @Test
+    void laBusquedaSeDetieneAlReunirElLimite() {
+        Map<Integer, List<String>> claves = new LinkedHashMap<>();
+        IntStream.range(0, 200).forEach(id -> claves.put(id, List.of(String.format("usuario %03d", id))));
+        IndicePrefijos grande = IndicePrefijos.construir(claves);
+
+        assertThat(grande.buscar("usuario", 3)).containsExactly(0, 1, 2);
+        assertThat(grande.buscar("usuario 1", IndicePrefijos.LIMITE_MAXIMO)).hasSize(IndicePrefijos.LIMITE_MAXIMO)
+                .startsWith(100, 101);
+        // Un prefijo vacío devuelve los primeros del índice
+        assertThat(grande.buscar("", 2)).containsExactly(0, 1);
+    }
+
+    @Test
+    void unLimiteFueraDeRangoSeRechaza() {
+        assertThatThrownBy(() -> indice.buscar("mar", 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("El límite de resultados debe estar entre 1 y " + IndicePrefijos.LIMITE_MAXIMO);
+        assertThatThrownBy(() -> indice.buscar("mar", IndicePrefijos.LIMITE_MAXIMO + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void losCambiosReemplazanLasClavesDelIdSinTocarLasDeOtros() {
+        IndicePrefijos cambiado = indice.conCambios(3, IndicePrefijos.clavesDePalabras("Marta Pérez"),
+                IndicePrefijos.clavesDePalabras("Marta Gómez"));
+
+        assertThat(cambiado.buscar("perez", 10)).containsExactly(1);
+        assertThat(cambiado.buscar("gomez", 10)).containsExactly(3);
+        assertThat(cambiado.buscar("mar", 10)).containsExactly(1, 3, 2);
+        assertThat(cambiado.tamano()).isEqualTo(indice.tamano());
+        // El índice original no cambia
+        assertThat(indice.buscar("perez", 10)).containsExactly(1, 3);
+
+        IndicePrefijos sinLuis = cambiado.conCambios(4, List.of("luis"), List.of());
+        assertThat(sinLuis.buscar("luis", 10)).containsExactly(2);
+        IndicePrefijos conNuevo = sinLuis.conCambios(9, List.of(), IndicePrefijos.clavesDePalabras("Álvaro"));
+        assertThat(conNuevo.buscar("alv", 10)).containsExactly(9);
+        assertThat(IndicePrefijos.vacio().conCambios(9, List.of(), List.of("alvaro")).buscar("a", 10)).containsExactly(9);
+    }
+}
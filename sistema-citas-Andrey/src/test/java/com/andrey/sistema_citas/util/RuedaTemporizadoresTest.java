@@ -0,0 +1,157 @@
+package com.andrey.sistema_citas.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas de la rueda de temporizadores: ninguna tarea se ejecuta antes de su plazo,
+ * los plazos de varias vueltas esperan las vueltas que les faltan y las canceladas no se ejecutan.
+ * Las tareas se ejecutan en el hilo de la rueda para que el orden observado sea el de vencimiento.
+ */
+class RuedaTemporizadoresTest {
+
+    private static final Duration TICK = Duration.ofMillis(2);
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 10;
+
+    private final RuedaTemporizadores rueda = new RuedaTemporizadores("rueda-prueba", TICK, 8, Runnable::run);
+
+    @AfterEach
+    void detener() {
+        rueda.close();
+    }
+
+    @Test
+    void unaTareaNoSeEjecutaAntesDeSuPlazo() throws InterruptedException {
+        CountDownLatch ejecutada = new CountDownLatch(1);
+        long[] ejecucion = new long[1];
+        long inicio = System.nanoTime();
+
+        rueda.programar(() -> {
+            ejecucion[0] = System.nanoTime();
+            ejecutada.countDown();
+        }, Duration.ofMillis(30));
+
+        assertThat(ejecutada.await(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)).isTrue();
+        assertThat(ejecucion[0] - inicio).isGreaterThanOrEqualTo(Duration.ofMillis(30).toNanos());
+        assertThat(rueda.pendientes()).isZero();
+    }
+
+    @Test
+    void losPlazosDeVariasVueltasSeEjecutanEnOrdenDeVencimiento() throws InterruptedException {
+        // Con 8 cubetas de 2 ms, una vuelta dura 16 ms: los plazos caen en la misma cubeta o en vueltas distintas
+        List<Integer> retrasos = List.of(70, 5, 37, 21, 16, 48);
+        Queue<Integer> orden = new ConcurrentLinkedQueue<>();
+        CountDownLatch ejecutadas = new CountDownLatch(retrasos.size());
+
+        for (Integer retraso : retrasos) {
+            rueda.programar(() -> {
+                orden.add(retraso);
+                ejecutadas.countDown();
+            }, Duration.ofMillis(retraso));
+        }
+
+        assertThat(ejecutadas.await(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)).isTrue();
+        assertThat(orden).containsExactly(5, 16, 21, 37, 48, 70);
+    }
+
+    @Test
+    void unTemporizadorCanceladoNoSeEjecuta() throws InterruptedException {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch posterior = new CountDownLatch(1);
+
+        RuedaTemporizadores.Temporizador cancelado = rueda.programar(ejecuciones::incrementAndGet, Duration.ofMillis(20));
+        rueda.programar(posterior::countDown, Duration.ofMillis(60));
+        assertThat(cancelado.cancelar()).isTrue();
+        assertThat(cancelado.cancelar()).isFalse();
+        assertThat(rueda.pendientes()).isEqualTo(1);
+
+        assertThat(posterior.await(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)).isTrue();
+        assertThat(ejecuciones).hasValue(0);
+        assertThat(cancelado.isCancelado()).isTrue();
+        assertThat(cancelado.isVencido()).isFalse();
+    }
+
+    @Test
+    void unTemporizadorVencidoYaNoSePuedeCancelar() throws InterruptedException {
+        CountDownLatch ejecutada = new CountDownLatch(1);
+
+        RuedaTemporizadores.Temporizador temporizador = rueda.programar(ejecutada::countDown, Duration.ofMillis(1));
+
+        assertThat(ejecutada.await(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)).isTrue();
+        assertThat(temporizador.isVencido()).isTrue();
+        assertThat(temporizador.cancelar()).isFalse();
+    }
+
+    @Test
+    void unRetrasoNegativoSeEjecutaEnElSiguienteTick() throws InterruptedException {
+        CountDownLatch ejecutada = new CountDownLatch(1);
+
+        rueda.programar(ejecutada::countDown, Duration.ofSeconds(-5));
+
+        assertThat(ejecutada.await(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void muchosTemporizadoresSeEjecutanUnaSolaVezYNuncaAntesDeTiempo() throws InterruptedException {
+        int total = 20_000;
+        Map<Integer, Long> adelantos = new ConcurrentHashMap<>();
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch ejecutadas = new CountDownLatch(total / 2);
+        RuedaTemporizadores.Temporizador[] temporizadores = new RuedaTemporizadores.Temporizador[total];
+
+        for (int i = 0; i < total; i++) {
+            int numero = i;
+            long retraso = ThreadLocalRandom.current().nextLong(0, Duration.ofMillis(120).toNanos());
+            long plazo = System.nanoTime() + retraso;
+            temporizadores[i] = rueda.programar(() -> {
+                long adelanto = plazo - System.nanoTime();
+                if (adelanto > 0) {
+                    adelantos.put(numero, adelanto);
+                }
+                ejecuciones.incrementAndGet();
+                ejecutadas.countDown();
+            }, Duration.ofNanos(retraso));
+        }
+        // Se cancela la mitad, algunos antes de llegar a su cubeta y otros ya colocados en ella
+        int canceladas = 0;
+        for (int i = 1; i < total; i += 2) {
+            if (temporizadores[i].cancelar()) {
+                canceladas++;
+            }
+        }
+
+        assertThat(ejecutadas.await(ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS)).isTrue();
+        TimeUnit.MILLISECONDS.sleep(150);
+        assertThat(adelantos).isEmpty();
+        assertThat(ejecuciones.get()).isEqualTo(total - canceladas);
+        assertThat(rueda.pendientes()).isZero();
+    }
+
+    @Test
+    void unaRuedaDetenidaNoAdmiteTemporizadores() {
+        rueda.close();
+
+        assertThatThrownBy(() -> rueda.programar(() -> { }, Duration.ofMillis(5)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void laDuracionDelTickDebeSerPositiva() {
+        assertThatThrownBy(() -> new RuedaTemporizadores("rueda-invalida", Duration.ZERO, 8, Runnable::run))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}